@@ -0,0 +1,367 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.bench;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.googlecode.clearnlp.dependency.DEPTree;
+import com.googlecode.clearnlp.nlp.NLPLib;
+import com.googlecode.clearnlp.nlp.NLPTrain;
+import com.googlecode.clearnlp.reader.JointReader;
+
+/**
+ * Generates synthetic dictionaries, text, corpora, and models for benchmarks so that no external data is needed.
+ * All data are generated from fixed random seeds; thus, every run of a benchmark sees the same data.
+ * Feature templates are read from {@code src/main/resources/feature} under the directory specified by
+ * the system property {@code clearnlp.home} (default: the current directory).
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class BenchData
+{
+	static public final long SEED = 11;
+	
+	static private final String[] DETERMINERS = {"the", "a", "this", "that", "every"};
+	static private final String[] PREPOSITIONS = {"in", "on", "near", "with", "from"};
+	/** Pairs of singular and plural nouns. */
+	static private final String[][] NOUNS = {{"dog","dogs"}, {"cat","cats"}, {"man","men"}, {"woman","women"}, {"child","children"}, {"car","cars"}, {"house","houses"}, {"book","books"}, {"city","cities"}, {"teacher","teachers"}, {"student","students"}, {"company","companies"}, {"phone","phones"}, {"market","markets"}, {"letter","letters"}, {"friend","friends"}};
+	/** Triples of base, past, and 3rd-person singular verbs. */
+	static private final String[][] VERBS = {{"see","saw","sees"}, {"take","took","takes"}, {"buy","bought","buys"}, {"like","liked","likes"}, {"find","found","finds"}, {"write","wrote","writes"}, {"sell","sold","sells"}, {"visit","visited","visits"}, {"carry","carried","carries"}, {"want","wanted","wants"}};
+	static private final String[] ADJECTIVES = {"big", "small", "old", "new", "red", "happy"};
+	static private final String[] EXTRAS = {"Dr. Smith", "the U.S.", "can't", "3.5km", "$20", "www.google.com", ":-)", "e.g.", "didn't", "\"quoted\""};
+	
+	//	======================== Dictionaries ========================
+	
+	/** @return a zip file containing tokenization and morphology dictionaries in memory. */
+	static public byte[] getDictionary() throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ZipOutputStream zout = new ZipOutputStream(bout);
+		StringBuilder nouns = new StringBuilder(), verbs = new StringBuilder(), nounExc = new StringBuilder(), verbExc = new StringBuilder();
+		
+		for (String[] noun : NOUNS)
+		{
+			nouns.append(noun[0]).append("\n");
+			if (!noun[1].equals(noun[0]+"s"))	nounExc.append(noun[1]).append(" ").append(noun[0]).append("\n");
+		}
+		
+		for (String[] verb : VERBS)
+		{
+			verbs.append(verb[0]).append("\n");
+			if (!verb[1].endsWith("ed"))	verbExc.append(verb[1]).append(" ").append(verb[0]).append("\n");
+		}
+		
+		putEntry(zout, "tokenize/emoticons.txt"    , ":-)\n:(\nXD\n");
+		putEntry(zout, "tokenize/abbreviations.txt", "dr.\nmr.\nprof.\ne.g.\nvs\n");
+		putEntry(zout, "tokenize/hyphens.txt"      , "^(dis|cross|re)-\n-(o|e)-\n");
+		putEntry(zout, "tokenize/compounds.txt"    , "can not\ngon na\nwan na\n");
+		putEntry(zout, "tokenize/units.txt"        , "(#|\\$)\n(usd|us\\$|\\$)\n(km|kg|cm|m)\n");
+		putEntry(zout, "tokenize/non-utf8.txt"     , "’\t'\n“\t\"\n”\t\"\n");
+		
+		putEntry(zout, "en/noun.exc"    , nounExc.toString());
+		putEntry(zout, "en/verb.exc"    , verbExc.toString());
+		putEntry(zout, "en/adj.exc"     , "better good\nbest good\n");
+		putEntry(zout, "en/adv.exc"     , "better well\n");
+		putEntry(zout, "en/noun.txt"    , nouns.toString());
+		putEntry(zout, "en/verb.txt"    , verbs.toString());
+		putEntry(zout, "en/adj.txt"     , join(ADJECTIVES, "\n"));
+		putEntry(zout, "en/adv.txt"     , "well\nvery\n");
+		putEntry(zout, "en/ordinal.txt" , "first\nsecond\nthird\n");
+		putEntry(zout, "en/cardinal.txt", "one\ntwo\nthree\n");
+		putEntry(zout, "en/noun.rule"   , "ies y\nes\ns\n");
+		putEntry(zout, "en/verb.rule"   , "ies y\nied y\nes\ned e\ned\ns\n");
+		putEntry(zout, "en/adj.rule"    , "er\nest\n");
+		putEntry(zout, "en/abbr.rule"   , "'s VBZ be\n'd MD would\n");
+		zout.close();
+		
+		return bout.toByteArray();
+	}
+	
+	static private void putEntry(ZipOutputStream zout, String name, String contents) throws IOException
+	{
+		zout.putNextEntry(new ZipEntry(name));
+		zout.write(contents.getBytes(Charsets.UTF_8));
+		zout.closeEntry();
+	}
+	
+	//	======================== Text ========================
+	
+	/** @return raw text consisting of the specific number of sentences. */
+	static public String getText(int nSentences)
+	{
+		Random rand = new Random(SEED);
+		StringBuilder build = new StringBuilder();
+		String[][] sentence;
+		int i, j;
+		
+		for (i=0; i<nSentences; i++)
+		{
+			sentence = getSentence(rand);
+			
+			for (j=0; j<sentence.length-1; j++)
+			{
+				if (j > 0)	build.append(" ");
+				build.append(j == 0 ? capitalize(sentence[j][0]) : sentence[j][0]);
+			}
+			
+			if (rand.nextInt(3) == 0)
+			{
+				build.append(", ");
+				build.append(EXTRAS[rand.nextInt(EXTRAS.length)]);
+			}
+			
+			build.append(rand.nextInt(5) == 0 ? "?" : ".");
+			build.append((i+1) % 5 == 0 ? "\n\n" : " ");
+		}
+		
+		return build.toString();
+	}
+	
+	//	======================== Corpus ========================
+	
+	/**
+	 * Returns a corpus in the SRL format ({@code id form lemma pos feats headId deprel _ sheads}).
+	 * @param nSentences the number of sentences.
+	 */
+	static public String getCorpus(int nSentences)
+	{
+		Random rand = new Random(SEED);
+		StringBuilder build = new StringBuilder();
+		String[][] sentence;
+		int i, j;
+		
+		for (i=0; i<nSentences; i++)
+		{
+			sentence = getSentence(rand);
+			
+			for (j=0; j<sentence.length; j++)
+			{
+				build.append(j+1);
+				
+				for (String field : sentence[j])
+				{
+					build.append("\t");
+					build.append(field);
+				}
+				
+				build.append("\n");
+			}
+			
+			build.append("\n");
+		}
+		
+		return build.toString();
+	}
+	
+	/** @return the reader for the corpus returned by {@link BenchData#getCorpus(int)}. */
+	static public JointReader getReader()
+	{
+		return new JointReader(0, 1, 2, 3, 4, 5, 6, -1, 8, -1, -1);
+	}
+	
+	/** @return the trees in the specific corpus returned by {@link BenchData#getCorpus(int)}. */
+	static public List<DEPTree> getTrees(String corpus)
+	{
+		List<DEPTree> trees = new ArrayList<DEPTree>();
+		JointReader reader = getReader();
+		DEPTree tree;
+		
+		reader.open(new BufferedReader(new StringReader(corpus)));
+		
+		while ((tree = reader.next()) != null)
+			trees.add(tree);
+		
+		reader.close();
+		return trees;
+	}
+	
+	/**
+	 * Returns a sentence as {@code [form, lemma, pos, feats, headId, deprel, _, sheads]} of each token.
+	 * Sentences follow {@code (DT JJ? NN) VB (DT NN) (IN DT NN)? .} with the verb as the predicate.
+	 */
+	static private String[][] getSentence(Random rand)
+	{
+		List<String[]> tokens = new ArrayList<String[]>();
+		boolean plural = rand.nextBoolean();
+		String[] verb = VERBS[rand.nextInt(VERBS.length)];
+		int iVerb, iSubj, iObj, iPrep;
+		
+		// subject
+		iSubj = addNounPhrase(tokens, rand, plural, "nsubj", "A0");
+		
+		// predicate
+		tokens.add(new String[]{rand.nextBoolean() ? verb[1] : plural ? verb[0] : verb[2], verb[0], null, "pb="+verb[0]+".01", "0", "root", "_", "_"});
+		iVerb = tokens.size();
+		tokens.get(iVerb-1)[2] = tokens.get(iVerb-1)[0].equals(verb[1]) ? "VBD" : plural ? "VBP" : "VBZ";
+		
+		// object
+		iObj = addNounPhrase(tokens, rand, rand.nextInt(3) == 0, "dobj", "A1");
+		
+		// prepositional phrase
+		if (rand.nextBoolean())
+		{
+			String prep = PREPOSITIONS[rand.nextInt(PREPOSITIONS.length)];
+			tokens.add(new String[]{prep, prep, "IN", "_", Integer.toString(iVerb), "prep", "_", iVerb+":AM-LOC"});
+			iPrep = tokens.size();
+			tokens.get(addNounPhrase(tokens, rand, false, "pobj", null)-1)[4] = Integer.toString(iPrep);
+		}
+		
+		tokens.add(new String[]{".", ".", ".", "_", Integer.toString(iVerb), "punct", "_", "_"});
+		tokens.get(iSubj-1)[4] = Integer.toString(iVerb);
+		tokens.get(iObj -1)[4] = Integer.toString(iVerb);
+		
+		for (String[] token : tokens)
+		{
+			if (token[7].startsWith("#"))
+				token[7] = iVerb+":"+token[7].substring(1);
+		}
+		
+		return tokens.toArray(new String[tokens.size()][]);
+	}
+	
+	/** @return the ID of the head noun, whose head ID must be set by the caller. */
+	static private int addNounPhrase(List<String[]> tokens, Random rand, boolean plural, String deprel, String label)
+	{
+		String[] noun = NOUNS[rand.nextInt(NOUNS.length)];
+		int head = tokens.size() + (rand.nextBoolean() ? 3 : 2);
+		String adj = (head - tokens.size() == 3) ? ADJECTIVES[rand.nextInt(ADJECTIVES.length)] : null;
+		String det = plural ? "the" : DETERMINERS[rand.nextInt(DETERMINERS.length)];
+		
+		tokens.add(new String[]{det, det, "DT", "_", Integer.toString(head), "det", "_", "_"});
+		if (adj != null)	tokens.add(new String[]{adj, adj, "JJ", "_", Integer.toString(head), "amod", "_", "_"});
+		tokens.add(new String[]{plural ? noun[1] : noun[0], noun[0], plural ? "NNS" : "NN", "_", null, deprel, "_", (label != null) ? "#"+label : "_"});
+		
+		return head;
+	}
+	
+	static private String capitalize(String s)
+	{
+		return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+	}
+	
+	static private String join(String[] array, String delim)
+	{
+		StringBuilder build = new StringBuilder();
+		
+		for (String s : array)
+		{
+			build.append(s);
+			build.append(delim);
+		}
+		
+		return build.toString();
+	}
+	
+	//	======================== Models ========================
+	
+	/**
+	 * Trains a model of the specific mode on the specific corpus using {@link NLPTrain}.
+	 * @param mode {@link NLPLib#MODE_POS}, {@link NLPLib#MODE_DEP}, or {@link NLPLib#MODE_SRL}.
+	 * @param corpus the corpus returned by {@link BenchData#getCorpus(int)}.
+	 * @param dir the directory to write the configuration, corpus, and model files to.
+	 * @return the model file.
+	 */
+	static public File trainModel(String mode, String corpus, File dir) throws Exception
+	{
+		File trainDir   = new File(dir, mode);
+		File configFile = new File(dir, "config_"+mode+".xml");
+		File modelFile  = new File(dir, mode+".jar");
+		String featureFile = new File(System.getProperty("clearnlp.home", "."), "src/main/resources/feature/feature_en_"+mode+".xml").getPath();
+		
+		trainDir.mkdirs();
+		Files.write(corpus, new File(trainDir, "train.txt"), Charsets.UTF_8);
+		Files.write(getConfiguration(mode), configFile, Charsets.UTF_8);
+		
+		new NLPTrain().train(configFile.getPath(), new String[]{featureFile}, trainDir.getPath(), modelFile.getPath(), mode);
+		return modelFile;
+	}
+	
+	/** Deletes the specific file or directory recursively. */
+	static public void delete(File file)
+	{
+		File[] files = file.listFiles();
+		
+		if (files != null)
+		{
+			for (File f : files)
+				delete(f);
+		}
+		
+		file.delete();
+	}
+	
+	static private String getConfiguration(String mode)
+	{
+		StringBuilder build = new StringBuilder();
+		
+		build.append("<configuration>\n");
+		build.append("  <language>en</language>\n");
+		build.append("  <reader type=\"srl\">\n");
+		build.append("    <column index=\"1\" field=\"id\"/>\n");
+		build.append("    <column index=\"2\" field=\"form\"/>\n");
+		build.append("    <column index=\"3\" field=\"lemma\"/>\n");
+		build.append("    <column index=\"4\" field=\"pos\"/>\n");
+		build.append("    <column index=\"5\" field=\"feats\"/>\n");
+		build.append("    <column index=\"6\" field=\"headId\"/>\n");
+		build.append("    <column index=\"7\" field=\"deprel\"/>\n");
+		build.append("    <column index=\"9\" field=\"sheads\"/>\n");
+		build.append("  </reader>\n");
+		build.append("  <").append(mode).append(">\n");
+		build.append("    <algorithm name=\"adagrad\" iter=\"3\" alpha=\"0.02\" rho=\"0.1\"/>\n");
+		build.append("    <algorithm name=\"adagrad\" iter=\"3\" alpha=\"0.02\" rho=\"0.1\"/>\n");
+		build.append("    <threads>1</threads>\n");
+		build.append("  </").append(mode).append(">\n");
+		build.append("</configuration>\n");
+		
+		return build.toString();
+	}
+}
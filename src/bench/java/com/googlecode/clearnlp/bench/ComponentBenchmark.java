@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.bench;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.io.Files;
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.dependency.DEPTree;
+import com.googlecode.clearnlp.engine.EngineGetter;
+import com.googlecode.clearnlp.engine.EngineProcess;
+import com.googlecode.clearnlp.nlp.NLPLib;
+import com.googlecode.clearnlp.reader.AbstractReader;
+
+/**
+ * Benchmarks {@code process(DEPTree)} of the part-of-speech tagger, dependency parser, and semantic role labeler
+ * on 100 synthetic sentences, using small models trained on 500 synthetic sentences during the setup.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+@State(Scope.Benchmark)
+public class ComponentBenchmark
+{
+	@Param({NLPLib.MODE_POS, NLPLib.MODE_DEP, NLPLib.MODE_SRL})
+	public String s_mode;
+	
+	private AbstractComponent c_component;
+	private List<DEPTree>     l_trees;
+	private File              f_dir;
+	
+	@Setup
+	public void setup() throws Exception
+	{
+		f_dir = Files.createTempDir();
+		File modelFile = BenchData.trainModel(s_mode, BenchData.getCorpus(500), f_dir);
+		
+		FileInputStream in = new FileInputStream(modelFile);
+		c_component = EngineGetter.getComponent(in, AbstractReader.LANG_EN, s_mode);
+		in.close();
+		
+		l_trees = BenchData.getTrees(BenchData.getCorpus(100));
+		
+		for (DEPTree tree : l_trees)
+			EngineProcess.normalizeForms(tree);
+	}
+	
+	@TearDown
+	public void tearDown()
+	{
+		BenchData.delete(f_dir);
+	}
+	
+	@Benchmark
+	public DEPTree process()
+	{
+		for (DEPTree tree : l_trees)
+			c_component.process(tree);
+		
+		return l_trees.get(0);
+	}
+}
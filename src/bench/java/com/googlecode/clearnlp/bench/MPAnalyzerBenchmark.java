@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.bench;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.ZipInputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.googlecode.clearnlp.component.morph.EnglishMPAnalyzer;
+import com.googlecode.clearnlp.dependency.DEPTree;
+
+/**
+ * Benchmarks {@link EnglishMPAnalyzer#process(DEPTree)} on a synthetic corpus of 100 sentences.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+@State(Scope.Benchmark)
+public class MPAnalyzerBenchmark
+{
+	private EnglishMPAnalyzer m_analyzer;
+	private List<DEPTree>     l_trees;
+	
+	@Setup
+	public void setup() throws Exception
+	{
+		m_analyzer = new EnglishMPAnalyzer(new ZipInputStream(new ByteArrayInputStream(BenchData.getDictionary())));
+		l_trees    = BenchData.getTrees(BenchData.getCorpus(100));
+	}
+	
+	@Benchmark
+	public String lemmatize()
+	{
+		for (DEPTree tree : l_trees)
+			m_analyzer.process(tree);
+		
+		return l_trees.get(0).get(1).lemma;
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.bench;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.googlecode.clearnlp.classification.model.StringModel;
+import com.googlecode.clearnlp.classification.vector.HashedFeatureVector;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
+import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+
+/**
+ * Benchmarks {@link StringModel#toSparseFeatureVector(StringFeatureVector)} and {@link StringModel#getScoresMulti(SparseFeatureVector, double[])}
+ * on a synthetic model with random weights.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+@State(Scope.Benchmark)
+public class StringModelBenchmark
+{
+	static private final int TYPES  = 40;
+	static private final int VALUES = 1000;
+	
+	/** The number of labels. */
+	@Param({"2", "50"})
+	public int n_labels;
+	/** The number of bits of hashed feature indices; {@code 0} to index features by strings. */
+	@Param({"0", "20"})
+	public int n_hashBits;
+	
+	private StringModel         s_model;
+	private StringFeatureVector s_vector;
+	private HashedFeatureVector h_vector;
+	private SparseFeatureVector x_vector;
+	private double[]            d_scores;
+	
+	@Setup
+	public void setup()
+	{
+		Random rand = new Random(BenchData.SEED);
+		int i, j;
+		
+		s_model = new StringModel();
+		for (i=0; i<n_labels; i++)	s_model.addLabel("L"+i);
+		s_model.initLabelArray();
+		
+		if (n_hashBits > 0)
+			s_model.setFeatureHashing(n_hashBits, false);
+		else
+		{
+			for (i=0; i<TYPES; i++)
+				for (j=0; j<VALUES; j++)
+					s_model.addFeature("t"+i, "v"+j);
+		}
+		
+		double[] weights = new double[s_model.getLabelSize() * s_model.getFeatureSize()];
+		for (i=0; i<weights.length; i++)	weights[i] = rand.nextGaussian();
+		s_model.setWeights(weights);
+		
+		s_vector = new StringFeatureVector();
+		h_vector = new HashedFeatureVector();
+		
+		for (i=0; i<TYPES; i++)
+		{
+			// every 4th feature is unseen
+			j = (i % 4 == 0) ? VALUES + i : rand.nextInt(VALUES);
+			s_vector.addFeature("t"+i, "v"+j);
+			h_vector.addFeature("t"+i, "v"+j);
+		}
+		
+		x_vector = s_model.toSparseFeatureVector(s_vector);
+		d_scores = new double[s_model.getLabelSize()];
+	}
+	
+	@Benchmark
+	public SparseFeatureVector toSparseFeatureVector()
+	{
+		return s_model.toSparseFeatureVector(s_vector);
+	}
+	
+	@Benchmark
+	public SparseFeatureVector toSparseFeatureVectorHashed()
+	{
+		return s_model.toSparseFeatureVector(h_vector);
+	}
+	
+	@Benchmark
+	public double[] getScoresMulti()
+	{
+		return s_model.getScoresMulti(x_vector, d_scores);
+	}
+}
@@ -40,8 +40,18 @@
  */
 package com.googlecode.clearnlp.classification.algorithm;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import com.googlecode.clearnlp.classification.model.AbstractModel;
+import com.googlecode.clearnlp.classification.train.AbstractTrainSpace;
 import com.googlecode.clearnlp.util.UTArray;
 
 /**
@@ -55,6 +65,8 @@ abstract public class AbstractAdaGrad extends AbstractAlgorithm
 	protected Random r_rand;
 	protected double d_alpha;
 	protected double d_rho;
+	/** The average training loss of each iteration from the last call to {@link AbstractAdaGrad#updateWeight(AbstractTrainSpace, double[], int)}. */
+	protected double[] d_losses;
 	
 	public AbstractAdaGrad(int iter, double alpha, double rho, Random rand)
 	{
@@ -64,6 +76,131 @@ abstract public class AbstractAdaGrad extends AbstractAlgorithm
 		d_rho   = rho;
 	}
 	
+	@Override
+	public double[] getWeight(AbstractTrainSpace space, int numThreads)
+	{
+		double[] weights = new double[AbstractModel.getWeightSize(space.getFeatureSize(), space.getLabelSize())];
+		
+		updateWeight(space, weights, numThreads);
+		return weights;
+	}
+	
+	public void updateWeight(AbstractTrainSpace space)
+	{
+		updateWeight(space, space.getModel().getWeights(), 1);
+	}
+	
+	public void updateWeight(AbstractTrainSpace space, int numThreads)
+	{
+		updateWeight(space, space.getModel().getWeights(), numThreads);
+	}
+	
+	public void updateWeight(AbstractTrainSpace space, double[] weights)
+	{
+		updateWeight(space, weights, 1);
+	}
+	
+	/**
+	 * Updates the specific weight vector by iterating over shuffled instances in the training space.
+	 * If {@code numThreads > 1}, the shuffled instances of each iteration are split into {@code numThreads} disjoint shards,
+	 * which are processed concurrently by updating the weight and gradient vectors without locking (Hogwild).
+	 * Concurrent updates to the same weights may occasionally be lost, which has little effect on sparse features;
+	 * with a single thread, training is deterministic given the random seed.
+	 * @param numThreads the number of threads.
+	 */
+	public void updateWeight(AbstractTrainSpace space, double[] weights, int numThreads)
+	{
+		final int D = space.getFeatureSize();
+		final int L = space.getLabelSize();
+		final int N = space.getInstanceSize();
+		double[] gs = new double[AbstractModel.getWeightSize(D, L)];
+		
+		ExecutorService executor = (numThreads > 1) ? Executors.newFixedThreadPool(numThreads) : null;
+		int[] indices;
+		double loss;
+		long st, et;
+		int i;
+		
+		d_losses = new double[n_iter];
+		
+		try
+		{
+			for (i=0; i<n_iter; i++)
+			{
+				st = System.currentTimeMillis();
+				indices = getShuffledIndices(N);
+				Arrays.fill(gs, 0);
+				
+				if (executor == null)
+					loss = updateWeight(space, L, gs, indices, 0, N, weights);
+				else
+					loss = updateWeight(space, L, gs, indices, weights, executor, numThreads);
+				
+				et = System.currentTimeMillis();
+				d_losses[i] = (N > 0) ? loss / N : 0;
+				LOG.info(String.format("- iter %3d: loss = %10.8f, threads = %d, time = %d ms\n", i, d_losses[i], numThreads, et-st));
+			}
+		}
+		finally
+		{
+			if (executor != null)	executor.shutdown();
+		}
+	}
+	
+	/** @return the sum of training losses of all shards. */
+	private double updateWeight(final AbstractTrainSpace space, final int L, final double[] gs, final int[] indices, final double[] weights, ExecutorService executor, int numThreads)
+	{
+		List<Future<Double>> futures = new ArrayList<Future<Double>>(numThreads);
+		int i, N = indices.length;
+		double loss = 0;
+		
+		for (i=0; i<numThreads; i++)
+		{
+			final int beginIndex = (int)((long)N * i     / numThreads);
+			final int endIndex   = (int)((long)N * (i+1) / numThreads);
+			
+			futures.add(executor.submit(new Callable<Double>()
+			{
+				@Override
+				public Double call()
+				{
+					return updateWeight(space, L, gs, indices, beginIndex, endIndex, weights);
+				}
+			}));
+		}
+		
+		try
+		{
+			for (Future<Double> future : futures)
+				loss += future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());
+		}
+		
+		return loss;
+	}
+	
+	/**
+	 * Updates the weight vector using instances {@code indices[beginIndex:endIndex)}.
+	 * @param L the number of labels.
+	 * @param gs the accumulated squared gradients.
+	 * @return the sum of training losses of the instances before their updates.
+	 */
+	abstract protected double updateWeight(AbstractTrainSpace space, int L, double[] gs, int[] indices, int beginIndex, int endIndex, double[] weights);
+	
+	/** @return the average training loss of each iteration from the last training if exists; otherwise, {@code null}. */
+	public double[] getLosses()
+	{
+		return d_losses;
+	}
+	
 	protected int[] getShuffledIndices(int N)
 	{
 		int[] indices = new int[N];
@@ -40,8 +40,7 @@
  */
 package com.googlecode.clearnlp.classification.algorithm;
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import com.carrotsearch.hppc.IntArrayList;
@@ -64,59 +63,39 @@ public class AdaGradHinge extends AbstractAdaGrad
 		super(iter, alpha, rho, rand);
 	}
 	
+	/** The training loss of each instance is {@code 1} if it violates the margin; otherwise, {@code 0}. */
 	@Override
-	public double[] getWeight(AbstractTrainSpace space, int numThreads)
+	protected double updateWeight(AbstractTrainSpace space, int L, double[] gs, int[] indices, int beginIndex, int endIndex, double[] weights)
 	{
-		double[] weights = new double[space.getFeatureSize() * space.getLabelSize()];
-		
-		updateWeight(space, weights);
-		return weights;
-	}
-	
-	public void updateWeight(AbstractTrainSpace space)
-	{
-		updateWeight(space, space.getModel().getWeights());
-	}
-	
-	public void updateWeight(AbstractTrainSpace space, double[] weights)
-	{	
-		final int D = space.getFeatureSize();
-		final int L = space.getLabelSize();
-		final int N = space.getInstanceSize();
-		double[] gs = new double[D*L];
-		
 		IntArrayList        ys = space.getYs();
-		ArrayList<int[]>    xs = space.getXs();
-		ArrayList<double[]> vs = space.getVs();
+		List<int[]>         xs = space.getXs();
+		List<double[]>      vs = space.getVs();
 		
 		IntPrediction max;
-		int[] indices;
-		int i, j;
+		double loss = 0;
+		int j;
 		
 		int      yi;
 		int[]    xi;
 		double[] vi = null;
 		
-		for (i=0; i<n_iter; i++)
+		for (j=beginIndex; j<endIndex; j++)
 		{
-			indices = getShuffledIndices(N);
-			Arrays.fill(gs, 0);
+			yi = ys.get(indices[j]);
+			xi = xs.get(indices[j]);
+			if (space.hasWeight())	vi = vs.get(indices[j]);
+			
+			max = getPrediction(L, yi, xi, vi, weights);
 			
-			for (j=0; j<N; j++)
+			if (max.label != yi)
 			{
-				yi = ys.get(indices[j]);
-				xi = xs.get(indices[j]);
-				if (space.hasWeight())	vi = vs.get(indices[j]);
-				
-				max = getPrediction(L, yi, xi, vi, weights);
-				
-				if (max.label != yi)
-				{
-					updateCounts (L, gs, yi, max.label, xi, vi);
-					updateWeights(L, gs, yi, max.label, xi, vi, weights);
-				}
+				updateCounts (L, gs, yi, max.label, xi, vi);
+				updateWeights(L, gs, yi, max.label, xi, vi, weights);
+				loss++;
 			}
 		}
+		
+		return loss;
 	}
 	
 	protected IntPrediction getPrediction(int L, int y, int[] x, double[] v, double[] weights)
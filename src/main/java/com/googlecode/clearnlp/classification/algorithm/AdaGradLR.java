@@ -40,8 +40,7 @@
  */
 package com.googlecode.clearnlp.classification.algorithm;
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import com.carrotsearch.hppc.IntArrayList;
@@ -63,56 +62,34 @@ public class AdaGradLR extends AbstractAdaGrad
 		super(iter, alpha, rho, rand);
 	}
 	
+	/** The training loss of each instance is the negative log-likelihood of its gold label. */
 	@Override
-	public double[] getWeight(AbstractTrainSpace space, int numThreads)
+	protected double updateWeight(AbstractTrainSpace space, int L, double[] gs, int[] indices, int beginIndex, int endIndex, double[] weights)
 	{
-		double[] weights = new double[space.getFeatureSize() * space.getLabelSize()];
-		
-		updateWeight(space, weights);
-		return weights;
-	}
-	
-	public void updateWeight(AbstractTrainSpace space)
-	{
-		updateWeight(space, space.getModel().getWeights());
-	}
-	
-	public void updateWeight(AbstractTrainSpace space, double[] weights)
-	{	
-		final int D = space.getFeatureSize();
-		final int L = space.getLabelSize();
-		final int N = space.getInstanceSize();
-		double[] gs = new double[D*L];
-		
 		IntArrayList        ys = space.getYs();
-		ArrayList<int[]>    xs = space.getXs();
-		ArrayList<double[]> vs = space.getVs();
+		List<int[]>         xs = space.getXs();
+		List<double[]>      vs = space.getVs();
 		
-		int i, j, size = weights.length;
-		int[] indices;
+		double loss = 0;
+		int j;
 		
 		int      yi;
 		int[]    xi;
 		double[] vi = null, grad;
-		double[] pWeights = new double[size];
 		
-		for (i=0; i<n_iter; i++)
+		for (j=beginIndex; j<endIndex; j++)
 		{
-			System.arraycopy(weights, 0, pWeights, 0, size);
-			indices = getShuffledIndices(N);
-			Arrays.fill(gs, 0);
+			yi = ys.get(indices[j]);
+			xi = xs.get(indices[j]);
+			if (space.hasWeight())	vi = vs.get(indices[j]);
 			
-			for (j=0; j<N; j++)
-			{
-				yi = ys.get(indices[j]);
-				xi = xs.get(indices[j]);
-				if (space.hasWeight())	vi = vs.get(indices[j]);
-				
-				grad = getGradients(L, yi, xi, vi, weights);
-				updateCounts(L, gs, grad, xi, vi);
-				updateWeights(L, gs, grad, xi, vi, weights);
-			}
+			grad = getGradients(L, yi, xi, vi, weights);
+			updateCounts(L, gs, grad, xi, vi);
+			updateWeights(L, gs, grad, xi, vi, weights);
+			loss -= Math.log(Math.max(1 - grad[yi], Double.MIN_VALUE));
 		}
+		
+		return loss;
 	}
 	
 	protected double[] getGradients(int L, int y, int[] x, double[] v, double[] weights)
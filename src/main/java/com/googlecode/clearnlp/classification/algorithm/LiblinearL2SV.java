@@ -40,7 +40,7 @@
  */
 package com.googlecode.clearnlp.classification.algorithm;
 
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import com.carrotsearch.hppc.IntArrayList;
@@ -79,8 +79,8 @@ public class LiblinearL2SV extends AbstractLiblinear
 		final int D = space.getFeatureSize();
 		
 		IntArrayList        ys = space.getYs();
-		ArrayList<int[]>    xs = space.getXs();
-		ArrayList<double[]> vs = space.getVs();
+		List<int[]>         xs = space.getXs();
+		List<double[]>      vs = space.getVs();
 		
 		double[] QD     = new double[N];
 		double[] alpha  = new double[N];
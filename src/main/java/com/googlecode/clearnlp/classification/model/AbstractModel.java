@@ -56,6 +56,7 @@ import org.slf4j.LoggerFactory;
 
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 import com.carrotsearch.hppc.cursors.ObjectCursor;
+import com.googlecode.clearnlp.classification.algorithm.AbstractAlgorithm;
 import com.googlecode.clearnlp.classification.prediction.IntPrediction;
 import com.googlecode.clearnlp.classification.prediction.StringPrediction;
 import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
@@ -74,6 +75,17 @@ abstract public class AbstractModel
 	static public String LABEL_TRUE  = "T";
 	static public String LABEL_FALSE = "F";
 	
+	/** Weights stored in double precision (default). */
+	static public final byte WEIGHT_DOUBLE = 0;
+	/** Weights stored in single precision. */
+	static public final byte WEIGHT_FLOAT  = 1;
+	/** Weights quantized to 16-bit integers with a scale per label. */
+	static public final byte WEIGHT_INT16  = 2;
+	/** Weights quantized to 8-bit integers with a scale per label. */
+	static public final byte WEIGHT_INT8   = 3;
+	/** Non-zero weights stored in compressed sparse rows, one row per feature. */
+	static public final byte WEIGHT_SPARSE = 4;
+	
 	/** The total number of labels. */
 	protected int      n_labels;
 	/** The total number of features. */
@@ -86,6 +98,22 @@ abstract public class AbstractModel
 	protected ObjectIntOpenHashMap<String> m_labels;
 	/** The type of a solver algorithm. */
 	protected byte i_solver;
+	/** The type of weights saved by {@link AbstractModel#saveWeightVector(ObjectOutputStream)} (default: {@link AbstractModel#WEIGHT_DOUBLE}). */
+	protected byte i_weightType = WEIGHT_DOUBLE;
+	/** The weight vector in single precision; used instead of {@link AbstractModel#d_weights} if not {@code null}. */
+	protected float[]  f_weights;
+	/** The weight vector quantized to 16-bit integers; used instead of {@link AbstractModel#d_weights} if not {@code null}. */
+	protected short[]  s_weights;
+	/** The weight vector quantized to 8-bit integers; used instead of {@link AbstractModel#d_weights} if not {@code null}. */
+	protected byte[]   b_weights;
+	/** The scales of quantized weights for all labels (one scale for binary classification). */
+	protected double[] d_scales;
+	/** The offsets of sparse rows in {@link AbstractModel#c_labels} and {@link AbstractModel#c_values}; the row of feature {@code i} is in {@code [c_offsets[i], c_offsets[i+1])}. */
+	protected int[]    c_offsets;
+	/** The label indices of non-zero weights in sparse rows, sorted in ascending order within each row. */
+	protected int[]    c_labels;
+	/** The non-zero weights in sparse rows. */
+	protected double[] c_values;
 	
 	/** Constructs an abstract model for training. */
 	public AbstractModel()
@@ -124,6 +152,179 @@ abstract public class AbstractModel
 	public void setWeights(double[] weights)
 	{
 		d_weights = weights; 
+		f_weights = null;
+		s_weights = null;
+		b_weights = null;
+		d_scales  = null;
+		c_offsets = null;
+		c_labels  = null;
+		c_values  = null;
+	}
+	
+	/**
+	 * Sets the type of weights saved by {@link AbstractModel#saveWeightVector(ObjectOutputStream)}.
+	 * @param type {@link AbstractModel#WEIGHT_DOUBLE}, {@link AbstractModel#WEIGHT_FLOAT}, {@link AbstractModel#WEIGHT_INT16}, or {@link AbstractModel#WEIGHT_INT8}.
+	 */
+	public void setWeightType(byte type)
+	{
+		i_weightType = type;
+	}
+	
+	/** @return the type of weights currently used for scoring. */
+	public byte getWeightType()
+	{
+		if (f_weights != null)	return WEIGHT_FLOAT;
+		if (s_weights != null)	return WEIGHT_INT16;
+		if (b_weights != null)	return WEIGHT_INT8;
+		if (c_offsets != null)	return WEIGHT_SPARSE;
+		return WEIGHT_DOUBLE;
+	}
+	
+	/** @return the type of weights corresponding to the specific name ({@code double|float|int16|int8|sparse}). */
+	static public byte getWeightType(String name)
+	{
+		if (name.equals("double"))	return WEIGHT_DOUBLE;
+		if (name.equals("float"))	return WEIGHT_FLOAT;
+		if (name.equals("int16"))	return WEIGHT_INT16;
+		if (name.equals("int8"))	return WEIGHT_INT8;
+		if (name.equals("sparse"))	return WEIGHT_SPARSE;
+		
+		throw new IllegalArgumentException("The requested weight type '"+name+"' is not supported.");
+	}
+	
+	/**
+	 * Converts the double-precision weight vector to the specific type for decoding.
+	 * Once compressed, the weight vector can no longer be updated.
+	 * @param type {@link AbstractModel#WEIGHT_FLOAT}, {@link AbstractModel#WEIGHT_INT16}, {@link AbstractModel#WEIGHT_INT8}, or {@link AbstractModel#WEIGHT_SPARSE}.
+	 */
+	public void compressWeights(byte type)
+	{
+		if (type == WEIGHT_DOUBLE || d_weights == null) return;
+		int i, size = d_weights.length;
+		
+		if (type == WEIGHT_SPARSE)
+		{
+			int label, labelSize = getWeightLabelSize(), nnz = 0, feature, features = size / labelSize;
+			
+			for (i=0; i<size; i++)
+				if (d_weights[i] != 0) nnz++;
+			
+			c_offsets = new int[features+1];
+			c_labels  = new int[nnz];
+			c_values  = new double[nnz];
+			
+			for (feature=0, i=0, nnz=0; feature<features; feature++)
+			{
+				c_offsets[feature] = nnz;
+				
+				for (label=0; label<labelSize; label++,i++)
+				{
+					if (d_weights[i] != 0)
+					{
+						c_labels[nnz] = label;
+						c_values[nnz] = d_weights[i];
+						nnz++;
+					}
+				}
+			}
+			
+			c_offsets[features] = nnz;
+		}
+		else if (type == WEIGHT_FLOAT)
+		{
+			f_weights = new float[size];
+			
+			for (i=0; i<size; i++)
+				f_weights[i] = (float)d_weights[i];
+		}
+		else
+		{
+			int max = (type == WEIGHT_INT16) ? Short.MAX_VALUE : Byte.MAX_VALUE;
+			int label, labelSize = getWeightLabelSize();
+			d_scales = new double[labelSize];
+			
+			for (i=0; i<size; i++)
+			{
+				label = i % labelSize;
+				d_scales[label] = Math.max(d_scales[label], Math.abs(d_weights[i]));
+			}
+			
+			for (label=0; label<labelSize; label++)
+				d_scales[label] = (d_scales[label] == 0) ? 1 : d_scales[label] / max;
+			
+			if (type == WEIGHT_INT16)	s_weights = new short[size];
+			else						b_weights = new byte [size];
+			
+			for (i=0; i<size; i++)
+			{
+				label = (int)Math.round(d_weights[i] / d_scales[i % labelSize]);
+				
+				if (type == WEIGHT_INT16)	s_weights[i] = (short)label;
+				else						b_weights[i] = (byte)label;
+			}
+		}
+		
+		d_weights = null;
+	}
+	
+	/** @return the weight at the specific index of the weight vector, dequantized if necessary. */
+	public double getWeight(int index)
+	{
+		if (d_weights != null)	return d_weights[index];
+		if (f_weights != null)	return f_weights[index];
+		
+		if (c_offsets != null)
+		{
+			int labelSize = getWeightLabelSize(), feature = index / labelSize;
+			int k = Arrays.binarySearch(c_labels, c_offsets[feature], c_offsets[feature+1], index % labelSize);
+			
+			return (k >= 0) ? c_values[k] : 0;
+		}
+		
+		double scale = d_scales[index % d_scales.length];
+		return (s_weights != null) ? s_weights[index] * scale : b_weights[index] * scale;
+	}
+	
+	/** @return the size of the weight vector regardless of its type. */
+	public int getWeightSize()
+	{
+		if (d_weights != null)	return d_weights.length;
+		if (f_weights != null)	return f_weights.length;
+		if (s_weights != null)	return s_weights.length;
+		if (b_weights != null)	return b_weights.length;
+		if (c_offsets != null)	return (c_offsets.length - 1) * getWeightLabelSize();
+		return 0;
+	}
+	
+	/** @return the number of bytes taken by the weight vector in its current type. */
+	public long getWeightBytes()
+	{
+		if (d_weights != null)	return 8L * d_weights.length;
+		if (f_weights != null)	return 4L * f_weights.length;
+		if (s_weights != null)	return 2L * s_weights.length + 8L * d_scales.length;
+		if (b_weights != null)	return (long)b_weights.length + 8L * d_scales.length;
+		if (c_offsets != null)	return 4L * c_offsets.length + 12L * c_values.length;
+		return 0;
+	}
+	
+	/** @return the weight vector in double precision, dequantized if necessary. */
+	public double[] getDoubleWeights()
+	{
+		if (d_weights != null) return d_weights;
+		
+		double[] weights = new double[getWeightSize()];
+		int i;
+		
+		for (i=0; i<weights.length; i++)
+			weights[i] = getWeight(i);
+		
+		return weights;
+	}
+	
+	/** @return the number of labels whose weights are interleaved in the weight vector. */
+	protected int getWeightLabelSize()
+	{
+		return isBinaryLabel() ? 1 : n_labels;
 	}
 	
 	public double[] getWeights()
@@ -208,12 +409,26 @@ abstract public class AbstractModel
 	/** Initializes the weight vector given the label and feature sizes. */
 	public void initWeightVector()
 	{
-		d_weights = isBinaryLabel() ? new double[n_features] : new double[n_features * n_labels];
+		d_weights = isBinaryLabel() ? new double[n_features] : new double[getWeightSize(n_features, n_labels)];
 	}
 	
 	public void initWeightVector(int nLabels)
 	{
-		d_weights = new double[n_features * nLabels];
+		d_weights = new double[getWeightSize(n_features, nLabels)];
+	}
+	
+	/**
+	 * Returns the size of a weight vector that interleaves the specific numbers of features and labels.
+	 * @throws IllegalArgumentException if the size exceeds {@link Integer#MAX_VALUE}.
+	 */
+	static public int getWeightSize(int features, int labels)
+	{
+		long size = (long)features * labels;
+		
+		if (size > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("The weight vector of "+features+" features and "+labels+" labels exceeds "+Integer.MAX_VALUE+" entries.");
+		
+		return (int)size;
 	}
 	
 	/**
@@ -244,7 +459,7 @@ abstract public class AbstractModel
 		int i;
 		
 		for (i=0; i<n_features; i++)
-			weights[i] = d_weights[getWeightIndex(label, i)];
+			weights[i] = getWeight(getWeightIndex(label, i));
 		
 		return weights;
 	}
@@ -266,7 +481,23 @@ abstract public class AbstractModel
 	 */
 	public double[] getScores(SparseFeatureVector x)
 	{
-		return isBinaryLabel() ? getScoresBinary(x) : getScoresMulti(x);
+		return getScores(x, null);
+	}
+	
+	/**
+	 * Returns the scores of all labels given the feature vector, stored in the specific buffer if it is large enough.
+	 * The buffer can be reused for every prediction so that no array is allocated per prediction.
+	 * @since 1.4.3
+	 * @param x the feature vector.
+	 * @param scores the buffer whose length is at least the number of labels; if shorter or {@code null}, a new buffer is allocated.
+	 * @return the buffer containing the scores of all labels given the feature vector.
+	 */
+	public double[] getScores(SparseFeatureVector x, double[] scores)
+	{
+		if (scores == null || scores.length < n_labels)
+			scores = new double[n_labels];
+		
+		return isBinaryLabel() ? getScoresBinary(x, scores) : getScoresMulti(x, scores);
 	}
 	
 	/**
@@ -277,6 +508,22 @@ abstract public class AbstractModel
 	 */
 	public double[] getScoresBinary(SparseFeatureVector x)
 	{
+		return getScoresBinary(x, new double[2]);
+	}
+	
+	/**
+	 * Stores the scores of all labels given the feature vector to the specific buffer.
+	 * This method is used for binary classification.
+	 * @since 1.4.3
+	 * @param x the feature vector.
+	 * @param scores the buffer whose length is at least {@code 2}.
+	 * @return the buffer containing the scores of all labels.
+	 */
+	public double[] getScoresBinary(SparseFeatureVector x, double[] scores)
+	{
+		if (d_weights == null)
+			return getScoresBinaryCompressed(x, scores);
+		
 		double score = d_weights[0];
 		int    i, index, size = x.size();
 		
@@ -293,7 +540,8 @@ abstract public class AbstractModel
 			}
 		}
 		
-		double[] scores = {score, -score};
+		scores[0] =  score;
+		scores[1] = -score;
 		return scores;
 	}
 	
@@ -305,7 +553,23 @@ abstract public class AbstractModel
 	 */
 	public double[] getScoresMulti(SparseFeatureVector x)
 	{
-		double[] scores = Arrays.copyOf(d_weights, n_labels);
+		return getScoresMulti(x, new double[n_labels]);
+	}
+	
+	/**
+	 * Stores the scores of all labels given the feature vector to the specific buffer.
+	 * This method is used for multi-classification.
+	 * @since 1.4.3
+	 * @param x the feature vector.
+	 * @param scores the buffer whose length is at least the number of labels.
+	 * @return the buffer containing the scores of all labels.
+	 */
+	public double[] getScoresMulti(SparseFeatureVector x, double[] scores)
+	{
+		if (d_weights == null)
+			return getScoresMultiCompressed(x, scores);
+		
+		System.arraycopy(d_weights, 0, scores, 0, n_labels);
 		int      i, index, label, weightIndex, size = x.size();
 		double   weight = 1;
 		
@@ -329,6 +593,211 @@ abstract public class AbstractModel
 		return scores;
 	}
 	
+	/**
+	 * Called by {@link AbstractModel#getScoresBinary(SparseFeatureVector, double[])} for compressed weights.
+	 * Quantized weights of features without values are summed as integers and scaled once.
+	 */
+	protected double[] getScoresBinaryCompressed(SparseFeatureVector x, double[] scores)
+	{
+		int    i, index, size = x.size();
+		double score;
+		
+		if (c_offsets != null)
+		{
+			score = getSparseRowSum(0);
+			
+			for (i=0; i<size; i++)
+			{
+				index = x.getIndex(i);
+				
+				if (isRange(index))
+				{
+					if (x.hasWeight())	score += getSparseRowSum(index) * x.getWeight(i);
+					else				score += getSparseRowSum(index);
+				}
+			}
+		}
+		else if (f_weights != null)
+		{
+			score = f_weights[0];
+			
+			for (i=0; i<size; i++)
+			{
+				index = x.getIndex(i);
+				
+				if (isRange(index))
+				{
+					if (x.hasWeight())	score += f_weights[index] * x.getWeight(i);
+					else				score += f_weights[index];
+				}
+			}
+		}
+		else if (x.hasWeight())
+		{
+			score = getQuantizedWeight(0);
+			
+			for (i=0; i<size; i++)
+			{
+				index = x.getIndex(i);
+				if (isRange(index))	score += getQuantizedWeight(index) * x.getWeight(i);
+			}
+			
+			score *= d_scales[0];
+		}
+		else
+		{
+			int sum = getQuantizedWeight(0);
+			
+			for (i=0; i<size; i++)
+			{
+				index = x.getIndex(i);
+				if (isRange(index))	sum += getQuantizedWeight(index);
+			}
+			
+			score = sum * d_scales[0];
+		}
+		
+		scores[0] =  score;
+		scores[1] = -score;
+		return scores;
+	}
+	
+	/**
+	 * Called by {@link AbstractModel#getScoresMulti(SparseFeatureVector, double[])} for compressed weights.
+	 * Quantized weights of features without values are summed in the specific scores, which is exact for integers, and scaled once per label.
+	 */
+	protected double[] getScoresMultiCompressed(SparseFeatureVector x, double[] scores)
+	{
+		int      i, index, label, offset, size = x.size();
+		
+		if (c_offsets != null)
+		{
+			int k, end;
+			double weight;
+			
+			Arrays.fill(scores, 0, n_labels, 0);
+			
+			for (k=c_offsets[0],end=c_offsets[1]; k<end; k++)
+				scores[c_labels[k]] = c_values[k];
+			
+			for (i=0; i<size; i++)
+			{
+				index = x.getIndex(i);
+				
+				if (isRange(index))
+				{
+					end = c_offsets[index+1];
+					
+					if (x.hasWeight())
+					{
+						weight = x.getWeight(i);
+						
+						for (k=c_offsets[index]; k<end; k++)
+							scores[c_labels[k]] += c_values[k] * weight;
+					}
+					else
+					{
+						for (k=c_offsets[index]; k<end; k++)
+							scores[c_labels[k]] += c_values[k];
+					}
+				}
+			}
+		}
+		else if (f_weights != null)
+		{
+			double weight = 1;
+			
+			for (label=0; label<n_labels; label++)
+				scores[label] = f_weights[label];
+			
+			for (i=0; i<size; i++)
+			{
+				index = x.getIndex(i);
+				if (x.hasWeight())	weight = x.getWeight(i);
+				
+				if (isRange(index))
+				{
+					offset = getWeightIndex(0, index);
+					
+					for (label=0; label<n_labels; label++)
+						scores[label] += f_weights[offset + label] * weight;
+				}
+			}
+		}
+		else if (x.hasWeight())
+		{
+			double weight;
+			
+			for (label=0; label<n_labels; label++)
+				scores[label] = getQuantizedWeight(label);
+			
+			for (i=0; i<size; i++)
+			{
+				index = x.getIndex(i);
+				
+				if (isRange(index))
+				{
+					weight = x.getWeight(i);
+					offset = getWeightIndex(0, index);
+					
+					for (label=0; label<n_labels; label++)
+						scores[label] += getQuantizedWeight(offset + label) * weight;
+				}
+			}
+			
+			for (label=0; label<n_labels; label++)
+				scores[label] *= d_scales[label];
+		}
+		else
+		{
+			for (label=0; label<n_labels; label++)
+				scores[label] = getQuantizedWeight(label);
+			
+			for (i=0; i<size; i++)
+			{
+				index = x.getIndex(i);
+				
+				if (isRange(index))
+				{
+					offset = getWeightIndex(0, index);
+					
+					if (s_weights != null)
+					{
+						for (label=0; label<n_labels; label++)
+							scores[label] += s_weights[offset + label];
+					}
+					else
+					{
+						for (label=0; label<n_labels; label++)
+							scores[label] += b_weights[offset + label];
+					}
+				}
+			}
+			
+			for (label=0; label<n_labels; label++)
+				scores[label] *= d_scales[label];
+		}
+		
+		return scores;
+	}
+	
+	/** @return the sum of the sparse row of the specific feature (the weight of the feature for binary classification). */
+	private double getSparseRowSum(int feature)
+	{
+		double sum = 0;
+		int k;
+		
+		for (k=c_offsets[feature]; k<c_offsets[feature+1]; k++)
+			sum += c_values[k];
+		
+		return sum;
+	}
+	
+	private int getQuantizedWeight(int index)
+	{
+		return (s_weights != null) ? s_weights[index] : b_weights[index];
+	}
+	
 	/**
 	 * Returns {@code true} if the specific feature index is within the range of this model.
 	 * @param featureIndex the index of the feature.
@@ -366,12 +835,34 @@ abstract public class AbstractModel
 	
 	/**
 	 * Loads the weight vector from the specific reader.
-	 * @param oin from {@code double[]} to {@code Object}.
+	 * Compressed weights saved by {@link AbstractModel#saveWeightVector(ObjectOutputStream)} are kept compressed.
+	 * @param oin from {@code double[]}, {@code float[]}, {@code short[]|byte[]} followed by {@code double[]} scales, or {@code int[]} offsets followed by {@code int[]} labels and {@code double[]} values to {@code Object}.
 	 * @throws Exception
 	 */
 	public void loadWeightVector(ObjectInputStream oin) throws Exception
 	{
-		d_weights = (double[])oin.readObject();
+		Object weights = oin.readObject();
+		setWeights(null);
+		
+		if (weights instanceof double[])
+			d_weights = (double[])weights;
+		else if (weights instanceof float[])
+			f_weights = (float[])weights;
+		else if (weights instanceof int[])
+		{
+			c_offsets = (int[])weights;
+			c_labels  = (int[])oin.readObject();
+			c_values  = (double[])oin.readObject();
+		}
+		else
+		{
+			if (weights instanceof short[])	s_weights = (short[])weights;
+			else							b_weights = (byte[]) weights;
+			
+			d_scales = (double[])oin.readObject();
+		}
+		
+		i_weightType = getWeightType();
 	}
 	
 	/**
@@ -408,13 +899,29 @@ abstract public class AbstractModel
 	}
 
 	/**
-	 * Saves the weight vector to the specific stream.
-	 * @param oout from {@code Object} to {@code double[]}. 
+	 * Saves the weight vector to the specific stream, compressed to the type set by {@link AbstractModel#setWeightType(byte)}.
+	 * @param oout from {@code Object} to {@code double[]}, {@code float[]}, {@code short[]|byte[]} followed by {@code double[]} scales, or {@code int[]} offsets followed by {@code int[]} labels and {@code double[]} values.
 	 * @throws Exception
 	 */
 	public void saveWeightVector(ObjectOutputStream oout) throws Exception
 	{
-		oout.writeObject(d_weights);
+		if (d_weights != null && i_weightType != WEIGHT_DOUBLE)
+		{
+			double[] weights = d_weights;
+			compressWeights(i_weightType);
+			saveWeightVector(oout);
+			setWeights(weights);
+			return;
+		}
+		
+		switch (getWeightType())
+		{
+		case WEIGHT_FLOAT : oout.writeObject(f_weights); break;
+		case WEIGHT_INT16 : oout.writeObject(s_weights); oout.writeObject(d_scales); break;
+		case WEIGHT_INT8  : oout.writeObject(b_weights); oout.writeObject(d_scales); break;
+		case WEIGHT_SPARSE: oout.writeObject(c_offsets); oout.writeObject(c_labels); oout.writeObject(c_values); break;
+		default           : oout.writeObject(d_weights);
+		}
 	}
 	
 	/**
@@ -493,17 +1000,15 @@ abstract public class AbstractModel
 	 */
 	public StringPrediction predictBest(SparseFeatureVector x)
 	{
-		List<StringPrediction> list = getPredictions(x);
-		StringPrediction max = list.get(0), p;
-		int i, size = list.size();
+		double[] scores = getScores(x);
+		int i, max = 0;
 		
-		for (i=1; i<size; i++)
+		for (i=1; i<n_labels; i++)
 		{
-			p = list.get(i);
-			if (max.score < p.score) max = p;
+			if (scores[max] < scores[i]) max = i;
 		}
 		
-		return max;
+		return getPrediction(scores, max);
 	}
 	
 	/**
@@ -513,7 +1018,11 @@ abstract public class AbstractModel
 	 */
 	public Pair<StringPrediction,StringPrediction> predictTwo(SparseFeatureVector x)
 	{
-		return predictTwo(getPredictions(x));
+		double[] scores = getScores(x);
+		int[] indices = new int[2];
+		getTopLabels(scores, indices, 2);
+		
+		return new Pair<StringPrediction,StringPrediction>(getPrediction(scores, indices[0]), getPrediction(scores, indices[1]));
 	}
 	
 	public Pair<StringPrediction,StringPrediction> predictTwo(List<StringPrediction> list)
@@ -543,6 +1052,71 @@ abstract public class AbstractModel
 		return new Pair<StringPrediction,StringPrediction>(fst, snd);
 	}
 	
+//	====================================== TOP-K ======================================
+	
+	/**
+	 * Stores the indices of the k best labels to the specific buffer in descending order of their scores.
+	 * Only k labels are kept while scanning the scores so that all labels are never sorted;
+	 * labels with the same score are ordered by their indices as {@link AbstractModel#predictAll(SparseFeatureVector)}.
+	 * @since 1.4.3
+	 * @param scores the scores of all labels (see {@link AbstractModel#getScores(SparseFeatureVector, double[])}).
+	 * @param indices the buffer whose length is at least {@code k}.
+	 * @param k the number of labels to find.
+	 * @return the number of label indices stored in the buffer, which is the smaller of {@code k} and the number of labels.
+	 */
+	public int getTopLabels(double[] scores, int[] indices, int k)
+	{
+		int i, j, size = 0;
+		double score;
+		
+		if (k > n_labels)	k = n_labels;
+		
+		for (i=0; i<n_labels; i++)
+		{
+			score = scores[i];
+			if (size == k && scores[indices[size-1]] >= score)	continue;
+			if (size < k)	size++;
+			
+			for (j=size-1; j>0 && scores[indices[j-1]] < score; j--)
+				indices[j] = indices[j-1];
+			
+			indices[j] = i;
+		}
+		
+		return size;
+	}
+	
+	/**
+	 * Returns the normalizer of the specific scores such that the normalized score of each label is
+	 * {@code Math.exp(score) / normalizer} as {@link AbstractAlgorithm#normalize(List)}.
+	 * Only labels whose normalized scores are read need to be divided by the normalizer.
+	 * @since 1.4.3
+	 * @param scores the scores of all labels (see {@link AbstractModel#getScores(SparseFeatureVector, double[])}).
+	 * @return the normalizer of the specific scores.
+	 */
+	public double getNormalizer(double[] scores)
+	{
+		double sum = 0;
+		int i;
+		
+		for (i=0; i<n_labels; i++)
+			sum += Math.exp(scores[i]);
+		
+		return sum;
+	}
+	
+	/**
+	 * Returns the prediction of the specific label.
+	 * @since 1.4.3
+	 * @param scores the scores of all labels.
+	 * @param index the index of the label.
+	 * @return the prediction of the specific label.
+	 */
+	public StringPrediction getPrediction(double[] scores, int index)
+	{
+		return new StringPrediction(getLabel(index), scores[index]);
+	}
+	
 	/**
 	 * Returns a sorted list of predictions given the specific feature vector.
 	 * @param x the feature vector.
@@ -0,0 +1,329 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.compress.utils.IOUtils;
+
+import com.googlecode.clearnlp.util.UTInput;
+
+/**
+ * Indexed container of string models loaded on their first use.
+ * Model and weight entries are kept as deflated bytes until their models are requested;
+ * at most {@link LazyStringModels#getCapacity()} models are resident at a time,
+ * and the least recently used model is evicted (and loaded again when requested) once the capacity is exceeded.
+ * The container can be shared by components decoding concurrently:
+ * resident models are looked up without locking, and a missing model is loaded once by the first thread requesting it
+ * while other threads requesting the same model wait for it.
+ * Entries are expected to be put before the container is shared.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class LazyStringModels
+{
+	/** The maximum length of the first line of a model entry read before deciding its format. */
+	private final int N_MARK_MODEL = 8192;
+	
+	private byte[][] b_models;
+	private byte[][] b_weights;
+	/** The models resident or being loaded. */
+	private ConcurrentMap<Integer,FutureTask<StringModel>> m_resident;
+	/** The last time each model was requested, in the order of {@link LazyStringModels#n_clock}. */
+	private AtomicLongArray a_used;
+	private AtomicLong     n_clock;
+	private AtomicLong     n_loads, n_evicts;
+	private volatile int   n_capacity;
+	/** The directory of the model archive, against which binary model paths are resolved ({@code null} for the working directory). */
+	private File f_dir;
+	
+	/**
+	 * Constructs a container of lazily loaded models.
+	 * @param size the number of models.
+	 * @param capacity the maximum number of resident models ({@code 0} for no limit).
+	 */
+	public LazyStringModels(int size, int capacity)
+	{
+		this(size, capacity, null);
+	}
+	
+	/**
+	 * Constructs a container of lazily loaded models.
+	 * @param size the number of models.
+	 * @param capacity the maximum number of resident models ({@code 0} for no limit).
+	 * @param dir the directory of the model archive, against which relative binary model paths are resolved
+	 * (see {@link MappedStringModel#read(java.io.BufferedReader, StringModel, int, File)}).
+	 */
+	public LazyStringModels(int size, int capacity, File dir)
+	{
+		b_models   = new byte[size][];
+		b_weights  = new byte[size][];
+		m_resident = new ConcurrentHashMap<Integer,FutureTask<StringModel>>();
+		a_used     = new AtomicLongArray(size);
+		n_clock    = new AtomicLong();
+		n_loads    = new AtomicLong();
+		n_evicts   = new AtomicLong();
+		n_capacity = capacity;
+		f_dir      = dir;
+	}
+	
+//	====================================== ENTRIES ======================================
+	
+	/**
+	 * Keeps the model entry of the specific index without loading it.
+	 * @param index the index of the model.
+	 * @param in the stream of the model entry (see {@link AbstractModel#load(java.io.BufferedReader)}); not closed by this method.
+	 */
+	synchronized public void putModelEntry(int index, InputStream in) throws IOException
+	{
+		b_models[index] = deflate(in);
+		m_resident.remove(index);
+	}
+	
+	/**
+	 * Keeps the weight entry of the specific index without loading it.
+	 * @param index the index of the model.
+	 * @param in the stream of the weight entry (see {@link AbstractModel#loadWeightVector(ObjectInputStream)}); not closed by this method.
+	 */
+	synchronized public void putWeightEntry(int index, InputStream in) throws IOException
+	{
+		b_weights[index] = deflate(in);
+		m_resident.remove(index);
+	}
+	
+	private byte[] deflate(InputStream in) throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		DeflaterOutputStream  dout = new DeflaterOutputStream(bout, new Deflater(Deflater.BEST_SPEED));
+		
+		IOUtils.copy(in, dout);
+		dout.close();
+		
+		return bout.toByteArray();
+	}
+	
+	private InputStream inflate(byte[] bytes)
+	{
+		return new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)));
+	}
+	
+//	====================================== GETTERS/SETTERS ======================================
+	
+	/**
+	 * Returns the model of the specific index, loading it if it is not resident.
+	 * @param index the index of the model.
+	 * @return the model of the specific index.
+	 * @throws IllegalStateException if the model entry does not exist or cannot be loaded.
+	 */
+	public StringModel get(int index)
+	{
+		FutureTask<StringModel> future = m_resident.get(index);
+		
+		if (future == null)
+		{
+			FutureTask<StringModel> task = new FutureTask<StringModel>(new LoadTask(index));
+			
+			if ((future = m_resident.putIfAbsent(index, task)) == null)
+			{
+				future = task;
+				a_used.set(index, n_clock.incrementAndGet());
+				task.run();
+				evict();
+			}
+		}
+		
+		a_used.set(index, n_clock.incrementAndGet());
+		
+		try
+		{
+			return future.get();
+		}
+		catch (ExecutionException e)
+		{
+			// the next request tries to load the model again
+			m_resident.remove(index, future);
+			Throwable cause = e.getCause();
+			throw (cause instanceof IllegalStateException) ? (IllegalStateException)cause : new IllegalStateException(cause);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while loading the model entry: "+index, e);
+		}
+	}
+	
+	/** Loads a model; called by the first thread requesting the model. */
+	private class LoadTask implements Callable<StringModel>
+	{
+		private int i_index;
+		
+		public LoadTask(int index)
+		{
+			i_index = index;
+		}
+		
+		@Override
+		public StringModel call()
+		{
+			return load(i_index);
+		}
+	}
+	
+	private StringModel load(int index)
+	{
+		if (b_models[index] == null)
+			throw new IllegalStateException("The model entry does not exist: "+index);
+		
+		try
+		{
+			StringModel model = MappedStringModel.read(UTInput.createBufferedReader(inflate(b_models[index])), new StringModel(), N_MARK_MODEL, f_dir);
+			
+			if (b_weights[index] != null)
+			{
+				ObjectInputStream oin = new ObjectInputStream(inflate(b_weights[index]));
+				model.loadWeightVector(oin);
+				oin.close();
+			}
+			
+			n_loads.incrementAndGet();
+			return model;
+		}
+		catch (Exception e)
+		{
+			throw new IllegalStateException("Failed to load the model entry: "+index, e);
+		}
+	}
+	
+	/** Evicts the least recently used models until at most {@link LazyStringModels#n_capacity} models are resident; called only after loading a model. */
+	synchronized private void evict()
+	{
+		int capacity = n_capacity;
+		
+		while (capacity > 0 && m_resident.size() > capacity)
+		{
+			Integer lru = null;
+			long used, min = Long.MAX_VALUE;
+			
+			for (Map.Entry<Integer,FutureTask<StringModel>> entry : m_resident.entrySet())
+			{
+				if ((used = a_used.get(entry.getKey())) < min)
+				{
+					min = used;
+					lru = entry.getKey();
+				}
+			}
+			
+			if (lru == null)	break;
+			m_resident.remove(lru);
+			n_evicts.incrementAndGet();
+		}
+	}
+	
+	/** @return the number of models in this container. */
+	public int size()
+	{
+		return b_models.length;
+	}
+	
+	/** @return the number of models currently loaded or being loaded. */
+	public int getResidentSize()
+	{
+		return m_resident.size();
+	}
+	
+	/** @return {@code true} if the model of the specific index is currently loaded or being loaded. */
+	public boolean isResident(int index)
+	{
+		return m_resident.containsKey(index);
+	}
+	
+	/** @return the maximum number of resident models ({@code 0} for no limit). */
+	public int getCapacity()
+	{
+		return n_capacity;
+	}
+	
+	/**
+	 * Sets the maximum number of resident models, evicting the least recently used models if necessary.
+	 * @param capacity the maximum number of resident models ({@code 0} for no limit).
+	 */
+	public void setCapacity(int capacity)
+	{
+		n_capacity = capacity;
+		evict();
+	}
+	
+	/** @return the number of times models have been loaded, including reloads after evictions. */
+	public long getLoadCount()
+	{
+		return n_loads.get();
+	}
+	
+	/** @return the number of times models have been evicted. */
+	public long getEvictCount()
+	{
+		return n_evicts.get();
+	}
+	
+	@Override
+	public String toString()
+	{
+		int capacity = n_capacity;
+		return String.format("models: %d, resident: %d/%s, loads: %d, evictions: %d", b_models.length, m_resident.size(), (capacity > 0) ? Integer.toString(capacity) : "-", n_loads.get(), n_evicts.get());
+	}
+}
@@ -0,0 +1,665 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.model;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+import com.googlecode.clearnlp.classification.vector.HashedFeatureVector;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
+import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+import com.googlecode.clearnlp.util.UTInput;
+
+/**
+ * String vector model read from a binary file for decoding.
+ * Features are kept in an open-addressing hash table and weights in a flat array, both of which are memory-mapped;
+ * thus, loading takes no parsing and processes mapping the same file share its pages.
+ * The weights are mapped in segments of at most {@code 2^27} weights (1GB) so they are not limited by the size of a single buffer.
+ * This model is read-only; features and weights can be read and saved, but cannot be added or updated.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class MappedStringModel extends StringModel
+{
+	/** The first line of a model entry pointing to a binary model file (e.g., {@code #MAPPED model.bin}), relative to the directory of the model archive. */
+	static public final String HEADER_MAPPED = "#MAPPED ";
+	
+	static private final int MAGIC   = 0x434C4E42;	// "CLNB"
+	static private final int VERSION = 1;
+	static private final int N_HEADER = 40;
+	static private final int N_ENTRY  = 4;			// type ID, char offset, char length, feature index
+	static private final int N_WEIGHTS_PER_WRITE = 1 << 20;
+	/** The number of bits of the number of weights in each mapped segment. */
+	static private final int SEGMENT_BITS = 27;
+	
+	/** The map between feature types and their IDs + 1. */
+	private ObjectIntOpenHashMap<String> m_types;
+	/** The hash table containing (entry ID + 1)s; {@code 0} if the slot is empty. */
+	private IntBuffer    b_slots;
+	/** The entries of all features. */
+	private IntBuffer    b_entries;
+	/** The characters of all feature values. */
+	private CharBuffer   b_chars;
+	/** The segments of the weight vector for all labels; each segment but the last contains {@code 2^n_segmentBits} weights. */
+	private DoubleBuffer[] b_doubles;
+	private int            n_segmentBits;
+	private int            n_segmentMask;
+	private int            n_weightSize;
+	private int            n_mask;
+	/** The memory-mapped buffers released by {@link MappedStringModel#unmap()} ({@code null} if not mapped from a file). */
+	private MappedByteBuffer[] m_buffers;
+	
+	/**
+	 * Constructs a string model for decoding from the specific binary data.
+	 * @param table the buffer containing the header and the feature table.
+	 * @param weights the buffer containing the weight vector.
+	 */
+	public MappedStringModel(ByteBuffer table, ByteBuffer weights)
+	{
+		this(table, new ByteBuffer[]{weights}, 31);
+	}
+	
+	/**
+	 * Constructs a string model for decoding from the specific binary data.
+	 * @param table the buffer containing the header and the feature table.
+	 * @param weights the buffers containing the segments of the weight vector, where each segment but the last contains {@code 2^segmentBits} weights.
+	 * @param segmentBits the number of bits of the number of weights in each segment.
+	 */
+	public MappedStringModel(ByteBuffer table, ByteBuffer[] weights, int segmentBits)
+	{
+		table = table.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		
+		if (table.getInt() != MAGIC || table.getInt() != VERSION)
+			throw new IllegalArgumentException("Not a binary string model.");
+		
+		i_solver   = (byte)table.getInt();
+		n_labels   = table.getInt();
+		n_features = table.getInt();
+		
+		int i, typeSize = table.getInt(), entrySize = table.getInt(), capacity = table.getInt(), charSize = table.getInt();
+		n_weightSize = table.getInt();
+		
+		a_labels = new String[n_labels];
+		m_labels = new ObjectIntOpenHashMap<String>();
+		m_types  = new ObjectIntOpenHashMap<String>();
+		
+		for (i=0; i<n_labels; i++)
+		{
+			a_labels[i] = getString(table);
+			m_labels.put(a_labels[i], i+1);
+		}
+		
+		for (i=0; i<typeSize; i++)
+			m_types.put(getString(table), i+1);
+		
+		table.position(align(table.position()));
+		b_slots   = slice(table, capacity * 4).asIntBuffer();
+		b_entries = slice(table, entrySize * N_ENTRY * 4).asIntBuffer();
+		b_chars   = slice(table, charSize * 2).asCharBuffer();
+		b_doubles = new DoubleBuffer[weights.length];
+		n_mask    = capacity - 1;
+		
+		for (i=0; i<weights.length; i++)
+			b_doubles[i] = weights[i].duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+		
+		n_segmentBits = segmentBits;
+		n_segmentMask = (int)((1L << segmentBits) - 1);
+	}
+	
+	/**
+	 * Memory-maps the binary model in the specific file.
+	 * @param file the file saved by {@link MappedStringModel#save(StringModel, File)}.
+	 */
+	static public MappedStringModel map(File file) throws IOException
+	{
+		return map(file, SEGMENT_BITS);
+	}
+	
+	/** Called by {@link MappedStringModel#map(File)}; segments of {@code 2^segmentBits} weights are mapped separately. */
+	static MappedStringModel map(File file, int segmentBits) throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		
+		try
+		{
+			FileChannel channel = raf.getChannel();
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, N_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+			long weightSize = 8L * header.getInt(N_HEADER-4), offset = channel.size() - weightSize, segmentSize = 8L << segmentBits;
+			
+			if (offset > Integer.MAX_VALUE)
+				throw new IOException("The feature table is too large to be mapped: "+file.getPath());
+			
+			MappedByteBuffer[] buffers = new MappedByteBuffer[1 + (int)Math.max(1, (weightSize + segmentSize - 1) / segmentSize)];
+			int i;
+			
+			buffers[0] = channel.map(FileChannel.MapMode.READ_ONLY, 0, offset);
+			
+			for (i=1; i<buffers.length; i++, offset+=segmentSize)
+				buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(segmentSize, channel.size() - offset));
+			
+			ByteBuffer[] weights = new ByteBuffer[buffers.length-1];
+			System.arraycopy(buffers, 1, weights, 0, weights.length);
+			
+			MappedStringModel model = new MappedStringModel(buffers[0], weights, segmentBits);
+			model.m_buffers = buffers;
+			return model;
+		}
+		finally
+		{
+			raf.close();	// mapped buffers remain valid after closing
+		}
+	}
+	
+	/**
+	 * Returns the memory-mapped model if the specific reader starts with {@link MappedStringModel#HEADER_MAPPED};
+	 * otherwise, loads the reader to the specific model and returns it.
+	 * Relative binary model paths are resolved against the working directory.
+	 * @since 1.4.3
+	 * @param fin the reader of a model entry.
+	 * @param model the model to load the reader to if the entry is not mapped.
+	 * @param markLimit the maximum length of the first line read before deciding the format.
+	 */
+	static public StringModel read(BufferedReader fin, StringModel model, int markLimit) throws IOException
+	{
+		return read(fin, model, markLimit, null);
+	}
+	
+	/**
+	 * Returns the memory-mapped model if the specific reader starts with {@link MappedStringModel#HEADER_MAPPED};
+	 * otherwise, loads the reader to the specific model and returns it.
+	 * @since 1.4.3
+	 * @param fin the reader of a model entry.
+	 * @param model the model to load the reader to if the entry is not mapped.
+	 * @param markLimit the maximum length of the first line read before deciding the format.
+	 * @param dir the directory of the model archive, against which a relative binary model path is resolved
+	 * (see {@link ModelInputStream#getDirectory(java.util.zip.ZipInputStream)}); if {@code null}, the working directory.
+	 */
+	static public StringModel read(BufferedReader fin, StringModel model, int markLimit, File dir) throws IOException
+	{
+		fin.mark(markLimit);
+		String line = fin.readLine();
+		
+		if (line != null && line.startsWith(HEADER_MAPPED))
+		{
+			File file = new File(line.substring(HEADER_MAPPED.length()));
+			if (dir != null && !file.isAbsolute())	file = new File(dir, file.getPath());
+			
+			model.LOG.info("Mapping model: "+file.getPath()+"\n");
+			return map(file);
+		}
+		
+		fin.reset();
+		model.load(fin);
+		return model;
+	}
+	
+//	====================================== SAVE ======================================
+
+	/**
+	 * Saves the specific string model and its weights to the specific file in the binary format.
+	 * @param model the string model to be saved.
+	 * @param file the file to save the model to.
+	 */
+	static public void save(StringModel model, File file) throws IOException
+	{
+		if (model.isFeatureHashing())
+			throw new IllegalArgumentException("Models using feature hashing do not have feature maps to be mapped.");
+		
+		List<String> types = new ArrayList<String>(model.m_features.keySet());
+		int i, typeId, capacity, entrySize = 0, charSize = 0;
+		ObjectIntOpenHashMap<String> map;
+		Collections.sort(types);
+		
+		for (String type : types)
+		{
+			map = model.m_features.get(type);
+			entrySize += map.size();
+			
+			for (ObjectCursor<String> cur : map.keys())
+				charSize += cur.value.length();
+		}
+		
+		for (capacity=2; capacity < entrySize * 2; capacity <<= 1);
+		int[] slots = new int[capacity], entries = new int[entrySize * N_ENTRY];
+		char[] chars = new char[charSize];
+		int slot, index, entryId = 0, charOffset = 0;
+		String value;
+		
+		for (typeId=0; typeId<types.size(); typeId++)
+		{
+			map = model.m_features.get(types.get(typeId));
+			
+			for (ObjectCursor<String> cur : map.keys())
+			{
+				value = cur.value;
+				index = entryId * N_ENTRY;
+				entries[index  ] = typeId;
+				entries[index+1] = charOffset;
+				entries[index+2] = value.length();
+				entries[index+3] = map.get(value);
+				value.getChars(0, value.length(), chars, charOffset);
+				charOffset += value.length();
+				
+				for (slot = getHash(typeId, value) & (capacity-1); slots[slot] != 0; slot = (slot+1) & (capacity-1));
+				slots[slot] = ++entryId;
+			}
+		}
+		
+		double[] weights = model.getDoubleWeights();
+		FileOutputStream out = new FileOutputStream(file);
+		FileChannel channel = out.getChannel();
+		
+		try
+		{
+			ByteBuffer buffer = allocate(N_HEADER + getStringSize(model.a_labels) + getStringSize(types));
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(model.i_solver).putInt(model.n_labels).putInt(model.n_features);
+			buffer.putInt(types.size()).putInt(entrySize).putInt(capacity).putInt(charSize).putInt(weights.length);
+			for (String label : model.a_labels)	putString(buffer, label);
+			for (String type  : types)			putString(buffer, type);
+			write(channel, buffer);
+			
+			buffer = allocate(4 * (slots.length + entries.length));
+			buffer.asIntBuffer().put(slots).put(entries);
+			write(channel, buffer);
+			
+			buffer = allocate(2 * chars.length);
+			buffer.asCharBuffer().put(chars);
+			write(channel, buffer);
+			
+			for (i=0; i<weights.length; i+=N_WEIGHTS_PER_WRITE)
+			{
+				buffer = allocate(8 * Math.min(N_WEIGHTS_PER_WRITE, weights.length - i));
+				buffer.asDoubleBuffer().put(weights, i, buffer.capacity() / 8);
+				write(channel, buffer);
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+	
+	/** Writes the specific buffer padded to 8 bytes. */
+	static private void write(FileChannel channel, ByteBuffer buffer) throws IOException
+	{
+		buffer.clear();
+		while (buffer.hasRemaining()) channel.write(buffer);
+	}
+	
+	static private ByteBuffer allocate(int size)
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(align(size)).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.limit(size);
+		return buffer;
+	}
+	
+	static private int getStringSize(List<String> list)
+	{
+		int size = 0;
+		for (String s : list) size += 4 + 2 * s.length();
+		return size;
+	}
+	
+	static private int getStringSize(String[] array)
+	{
+		int size = 0;
+		for (String s : array) size += 4 + 2 * s.length();
+		return size;
+	}
+	
+	static private void putString(ByteBuffer buffer, String s)
+	{
+		int i, len = s.length();
+		buffer.putInt(len);
+		for (i=0; i<len; i++) buffer.putChar(s.charAt(i));
+	}
+	
+	static private String getString(ByteBuffer buffer)
+	{
+		char[] cs = new char[buffer.getInt()];
+		int i;
+		
+		for (i=0; i<cs.length; i++)
+			cs[i] = buffer.getChar();
+		
+		return new String(cs);
+	}
+	
+	static private ByteBuffer slice(ByteBuffer buffer, int size)
+	{
+		ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		slice.limit(size);
+		buffer.position(buffer.position() + align(size));
+		return slice;
+	}
+	
+	static private int align(int size)
+	{
+		return (size + 7) & ~7;
+	}
+	
+	static private int getHash(int typeId, String value)
+	{
+		int h = (value.hashCode() * 31 + typeId) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	@Override
+	protected void saveFeatures(PrintStream fout)
+	{
+		int[] sizes = new int[m_types.size()];
+		String[] types = new String[sizes.length];
+		int entryId, typeId, offset, size = b_entries.limit();
+		
+		for (ObjectCursor<String> cur : m_types.keys())
+			types[m_types.get(cur.value)-1] = cur.value;
+		
+		for (entryId=0; entryId<size; entryId+=N_ENTRY)
+			sizes[b_entries.get(entryId)]++;
+		
+		fout.println(n_features);
+		fout.println(types.length);
+		
+		// entries are saved in the order of their type IDs by {@link MappedStringModel#save(StringModel, File)}
+		for (typeId=0,entryId=0; typeId<types.length; typeId++)
+		{
+			fout.println(types[typeId]);
+			fout.println(sizes[typeId]);
+			
+			for (; entryId<size && b_entries.get(entryId) == typeId; entryId+=N_ENTRY)
+			{
+				offset = b_entries.get(entryId+1);
+				fout.println(getValue(offset, b_entries.get(entryId+2))+" "+b_entries.get(entryId+3));
+			}
+		}
+	}
+	
+	private String getValue(int offset, int length)
+	{
+		char[] cs = new char[length];
+		int i;
+		
+		for (i=0; i<length; i++)
+			cs[i] = b_chars.get(offset+i);
+		
+		return new String(cs);
+	}
+	
+	/**
+	 * Saves the mapped weight vector to the specific stream, compressed to the type set by {@link AbstractModel#setWeightType(byte)}.
+	 * The weights are copied to the heap while saving.
+	 */
+	@Override
+	synchronized public void saveWeightVector(ObjectOutputStream oout) throws Exception
+	{
+		d_weights = getDoubleWeights();
+		
+		try
+		{
+			super.saveWeightVector(oout);
+		}
+		finally
+		{
+			d_weights = null;
+		}
+	}
+	
+	/**
+	 * Releases the memory-mapped buffers of this model without waiting for garbage collection.
+	 * This model must not be used afterwards.
+	 */
+	public void unmap()
+	{
+		if (m_buffers != null)
+		{
+			for (MappedByteBuffer buffer : m_buffers)
+				UTInput.unmap(buffer);
+			
+			m_buffers = null;
+		}
+	}
+	
+//	====================================== DECODE ======================================
+	
+	@Override
+	public int getFeatureIndex(String type, String value)
+	{
+		int typeId = m_types.get(type) - 1;
+		if (typeId < 0) return 0;
+		
+		int slot, entryId;
+		
+		for (slot = getHash(typeId, value) & n_mask; (entryId = b_slots.get(slot)) != 0; slot = (slot+1) & n_mask)
+		{
+			entryId = (entryId - 1) * N_ENTRY;
+			
+			if (b_entries.get(entryId) == typeId && equals(value, b_entries.get(entryId+1), b_entries.get(entryId+2)))
+				return b_entries.get(entryId+3);
+		}
+		
+		return 0;
+	}
+	
+	private boolean equals(String value, int offset, int length)
+	{
+		if (value.length() != length) return false;
+		int i;
+		
+		for (i=0; i<length; i++)
+		{
+			if (value.charAt(i) != b_chars.get(offset+i))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	@Override
+	protected LongIntOpenHashMap buildFeatureHashes()
+	{
+		LongIntOpenHashMap hashes = new LongIntOpenHashMap();
+		long[] typeHashes = new long[m_types.size()];
+		int i, j, entryId, offset, length, size = b_entries.limit();
+		int collisions = 0;
+		long hash;
+		
+		for (ObjectCursor<String> cur : m_types.keys())
+			typeHashes[m_types.get(cur.value)-1] = HashedFeatureVector.getTypeHash(cur.value);
+		
+		for (entryId=0; entryId<size; entryId+=N_ENTRY)
+		{
+			hash   = typeHashes[b_entries.get(entryId)];
+			offset = b_entries.get(entryId+1);
+			length = b_entries.get(entryId+2);
+			
+			for (i=0,j=offset; i<length; i++,j++)
+				hash = HashedFeatureVector.getHash(hash, b_chars.get(j));
+			
+			if (!hashes.putIfAbsent(hash, b_entries.get(entryId+3)))
+				collisions++;
+		}
+		
+		if (collisions > 0)
+			LOG.warn("Feature hash collisions: "+collisions+"\n");
+		
+		return hashes;
+	}
+	
+	@Override
+	public SparseFeatureVector toSparseFeatureVector(StringFeatureVector vector)
+	{
+		SparseFeatureVector sparse = new SparseFeatureVector(vector.hasWeight());
+		int i, index, size = vector.size();
+		
+		for (i=0; i<size; i++)
+		{
+			if ((index = getFeatureIndex(vector.getType(i), vector.getValue(i))) > 0)
+			{
+				if (sparse.hasWeight())
+					sparse.addFeature(index, vector.getWeight(i));
+				else
+					sparse.addFeature(index);
+			}
+		}
+		
+		sparse.trimToSize();
+		return sparse;
+	}
+	
+	@Override
+	public double[] getScoresBinary(SparseFeatureVector x, double[] scores)
+	{
+		double score = getWeight(0);
+		int    i, index, size = x.size();
+		
+		for (i=0; i<size; i++)
+		{
+			index = x.getIndex(i);
+			
+			if (isRange(index))
+			{
+				if (x.hasWeight())
+					score += getWeight(index) * x.getWeight(i);
+				else
+					score += getWeight(index);
+			}
+		}
+		
+		scores[0] =  score;
+		scores[1] = -score;
+		return scores;
+	}
+	
+	@Override
+	public double[] getScoresMulti(SparseFeatureVector x, double[] scores)
+	{
+		int      i, index, label, offset, size = x.size();
+		double   weight = 1;
+		DoubleBuffer segment;
+		
+		for (label=0; label<n_labels; label++)
+			scores[label] = getWeight(label);
+		
+		for (i=0; i<size; i++)
+		{
+			index = x.getIndex(i);
+			if (x.hasWeight())	weight = x.getWeight(i);
+			
+			if (isRange(index))
+			{
+				offset = getWeightIndex(0, index);
+				
+				if ((long)(offset & n_segmentMask) + n_labels <= n_segmentMask + 1L)
+				{
+					segment = b_doubles[offset >>> n_segmentBits];
+					offset &= n_segmentMask;
+					
+					for (label=0; label<n_labels; label++)
+						scores[label] += segment.get(offset + label) * weight;
+				}
+				else	// the row spans two segments
+				{
+					for (label=0; label<n_labels; label++)
+						scores[label] += getWeight(offset + label) * weight;
+				}
+			}
+		}
+		
+		return scores;
+	}
+	
+	@Override
+	public double getWeight(int index)
+	{
+		return b_doubles[index >>> n_segmentBits].get(index & n_segmentMask);
+	}
+	
+	@Override
+	public int getWeightSize()
+	{
+		return n_weightSize;
+	}
+	
+	/** @return the number of bytes taken by the mapped weight vector. */
+	@Override
+	public long getWeightBytes()
+	{
+		return 8L * n_weightSize;
+	}
+	
+//	====================================== UNSUPPORTED ======================================
+	
+	@Override
+	public void load(BufferedReader reader)
+	{
+		throw new UnsupportedOperationException("Use MappedStringModel.map(File) to load a binary model.");
+	}
+	
+	@Override
+	public void addFeature(String type, String value)
+	{
+		throw new UnsupportedOperationException("A binary model is read-only.");
+	}
+	
+	@Override
+	public void updateWeightVector(int y, int[] xs, double[] costs)
+	{
+		throw new UnsupportedOperationException("A binary model is read-only.");
+	}
+}
@@ -346,6 +346,7 @@ public class ONStringModel extends StringModel
 		{
 			map.put(value, n_features++);
 			addFeatureAux();
+			clearFeatureHashes();
 		}
 	}
 	
@@ -394,6 +395,24 @@ public class ONStringModel extends StringModel
 		return scores;
 	}
 	
+	@Override
+	public double[] getScores(SparseFeatureVector x, double[] scores)
+	{
+		double[] tmp = getScores(x);
+		
+		if (scores == null || scores.length < n_labels)
+			return tmp;
+		
+		System.arraycopy(tmp, 0, scores, 0, n_labels);
+		return scores;
+	}
+	
+	@Override
+	public String getLabel(int index)
+	{
+		return a_labels.get(index);
+	}
+	
 	@Override
 	public List<StringPrediction> getPredictions(SparseFeatureVector x)
 	{
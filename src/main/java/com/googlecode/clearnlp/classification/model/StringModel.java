@@ -48,9 +48,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
+import com.carrotsearch.hppc.LongIntOpenHashMap;
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.googlecode.clearnlp.classification.prediction.StringPrediction;
+import com.googlecode.clearnlp.classification.vector.HashedFeatureVector;
 import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
 import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
 import com.googlecode.clearnlp.util.pair.Pair;
@@ -63,8 +65,17 @@ import com.googlecode.clearnlp.util.pair.Pair;
  */
 public class StringModel extends AbstractModel
 {
+	/** The number of feature types saved in place of the feature map by models using feature hashing. */
+	static private final int HASHED_TYPE_SIZE = -1;
+	
 	/** The map between features and their indices. */
 	protected Map<String,ObjectIntOpenHashMap<String>> m_features;
+	/** The map between the hashes of features and their indices, built on demand for {@link HashedFeatureVector}. */
+	private volatile LongIntOpenHashMap m_hashes;
+	/** The number of bits of hashed feature indices; {@code 0} if features are indexed by {@link StringModel#m_features}. */
+	protected int     i_hashBits;
+	/** {@code true} if hashed features are weighted by {@code +1} or {@code -1} depending on their hashes. */
+	protected boolean b_hashSign;
 	
 	/** Constructs a string model for training. */
 	public StringModel()
@@ -122,6 +133,15 @@ public class StringModel extends AbstractModel
 		n_features = Integer.parseInt(fin.readLine());
 		typeSize   = Integer.parseInt(fin.readLine());
 		m_features = new HashMap<String, ObjectIntOpenHashMap<String>>();
+		m_hashes   = null;
+		
+		if (typeSize == HASHED_TYPE_SIZE)
+		{
+			tmp = fin.readLine().split(" ");
+			i_hashBits = Integer.parseInt(tmp[0]);
+			b_hashSign = Boolean.parseBoolean(tmp[1]);
+			return;
+		}
 		
 		Pattern P_DELIM = Pattern.compile(" ");
 		
@@ -148,6 +168,14 @@ public class StringModel extends AbstractModel
 		String value;
 		
 		fout.println(n_features);
+		
+		if (isFeatureHashing())
+		{
+			fout.println(HASHED_TYPE_SIZE);
+			fout.println(i_hashBits+" "+b_hashSign);
+			return;
+		}
+		
 		fout.println(m_features.size());
 		
 		for (String type : m_features.keySet())
@@ -177,6 +205,9 @@ public class StringModel extends AbstractModel
 	 */
 	public void addFeature(String type, String value)
 	{
+		if (isFeatureHashing())
+			throw new IllegalStateException("Features cannot be added to a model using feature hashing.");
+		
 		ObjectIntOpenHashMap<String> map;
 		
 		if (m_features.containsKey(type))
@@ -191,8 +222,88 @@ public class StringModel extends AbstractModel
 			map.put(value, n_features++);
 			m_features.put(type, map);
 		}
+		
+		clearFeatureHashes();
 	}
 
+	/**
+	 * Removes features whose weights for all labels are within the specific threshold in absolute values,
+	 * and re-indexes the remaining features and their weights.
+	 * With the threshold of {@code 0}, only features with all-zero weights are removed so predictions are unchanged.
+	 * @since 1.4.3
+	 * @param threshold the threshold of absolute weights.
+	 * @return the number of removed features.
+	 */
+	public int pruneFeatures(double threshold)
+	{
+		if (d_weights == null)
+			throw new IllegalStateException("Features can be pruned only with double-precision weights.");
+		if (isFeatureHashing())
+			throw new IllegalStateException("Features cannot be pruned from a model using feature hashing.");
+		
+		int i, j, labelSize = getWeightLabelSize(), nFeatures = 1;
+		int[] indices = new int[n_features];
+		
+		for (i=1; i<n_features; i++)
+		{
+			for (j=0; j<labelSize; j++)
+			{
+				if (Math.abs(d_weights[i*labelSize+j]) > threshold)
+				{
+					indices[i] = nFeatures++;
+					break;
+				}
+			}
+		}
+		
+		double[] weights = new double[nFeatures * labelSize];
+		System.arraycopy(d_weights, 0, weights, 0, labelSize);
+		
+		for (i=1; i<n_features; i++)
+		{
+			if (indices[i] > 0)
+				System.arraycopy(d_weights, i*labelSize, weights, indices[i]*labelSize, labelSize);
+		}
+		
+		Map<String,ObjectIntOpenHashMap<String>> features = new HashMap<String,ObjectIntOpenHashMap<String>>();
+		ObjectIntOpenHashMap<String> oMap, nMap;
+		int index;
+		
+		for (String type : m_features.keySet())
+		{
+			oMap = m_features.get(type);
+			nMap = new ObjectIntOpenHashMap<String>();
+			
+			for (ObjectCursor<String> cur : oMap.keys())
+			{
+				if ((index = indices[oMap.get(cur.value)]) > 0)
+					nMap.put(cur.value, index);
+			}
+			
+			if (!nMap.isEmpty())
+				features.put(type, nMap);
+		}
+		
+		int pruned = n_features - nFeatures;
+		m_features = features;
+		m_hashes   = null;
+		n_features = nFeatures;
+		d_weights  = weights;
+		
+		return pruned;
+	}
+	
+	/**
+	 * Returns the index of the specific feature.
+	 * @since 1.4.3
+	 * @return the index of the specific feature if exists; otherwise, {@code 0}.
+	 */
+	public int getFeatureIndex(String type, String value)
+	{
+		ObjectIntOpenHashMap<String> map = m_features.get(type);
+		return (map != null) ? map.get(value) : 0;
+	}
+	
 	/**
 	 * Returns the sparse feature vector converted from the string feature vector.
 	 * During the conversion, discards features not found in this model.
@@ -201,6 +312,9 @@ public class StringModel extends AbstractModel
 	 */
 	public SparseFeatureVector toSparseFeatureVector(StringFeatureVector vector)
 	{
+		if (isFeatureHashing())
+			return toHashedSparseFeatureVector(vector);
+		
 		SparseFeatureVector sparse = new SparseFeatureVector(vector.hasWeight());
 		int i, index, size = vector.size();
 		ObjectIntOpenHashMap<String> map;
@@ -224,11 +338,253 @@ public class StringModel extends AbstractModel
 		return sparse;
 	}
 	
+	/**
+	 * Returns the sparse feature vector converted from the hashed feature vector.
+	 * The returned vector is reused by the hashed feature vector; it is valid until the next conversion.
+	 * During the conversion, discards features not found in this model.
+	 * @since 1.4.3
+	 * @param vector the hashed feature vector.
+	 * @return the sparse feature vector converted from the hashed feature vector.
+	 */
+	public SparseFeatureVector toSparseFeatureVector(HashedFeatureVector vector)
+	{
+		int i, index, size = vector.size();
+		boolean hasWeight = vector.hasWeight();
+		SparseFeatureVector sparse;
+		double weight;
+		long hash;
+		
+		if (isFeatureHashing())
+		{
+			sparse = vector.getSparseBuffer(b_hashSign || hasWeight);
+			sparse.clear();
+			
+			for (i=0; i<size; i++)
+			{
+				hash = mixHash(vector.getHash(i));
+				
+				if (sparse.hasWeight())
+				{
+					weight = hasWeight ? vector.getWeight(i) : 1;
+					if (b_hashSign)	weight *= getHashedSign(hash);
+					sparse.addFeature(getHashedIndex(hash), weight);
+				}
+				else
+					sparse.addFeature(getHashedIndex(hash));
+			}
+			
+			return sparse;
+		}
+		
+		LongIntOpenHashMap hashes = getFeatureHashes();
+		sparse = vector.getSparseBuffer(hasWeight);
+		sparse.clear();
+		
+		for (i=0; i<size; i++)
+		{
+			if ((index = hashes.get(vector.getHash(i))) > 0)
+			{
+				if (hasWeight)	sparse.addFeature(index, vector.getWeight(i));
+				else			sparse.addFeature(index);
+			}
+		}
+		
+		return sparse;
+	}
+	
+	/** Called by {@link StringModel#toSparseFeatureVector(StringFeatureVector)}. */
+	private SparseFeatureVector toHashedSparseFeatureVector(StringFeatureVector vector)
+	{
+		SparseFeatureVector sparse = new SparseFeatureVector(b_hashSign || vector.hasWeight());
+		int i, size = vector.size();
+		double weight;
+		long hash;
+		
+		for (i=0; i<size; i++)
+		{
+			hash = getFeatureHash(vector.getType(i), vector.getValue(i));
+			
+			if (sparse.hasWeight())
+			{
+				weight = vector.hasWeight() ? vector.getWeight(i) : 1;
+				if (b_hashSign)	weight *= getHashedSign(hash);
+				sparse.addFeature(getHashedIndex(hash), weight);
+			}
+			else
+				sparse.addFeature(getHashedIndex(hash));
+		}
+		
+		sparse.trimToSize();
+		return sparse;
+	}
+	
+//	====================================== FEATURE HASHING ======================================
+	
+	/**
+	 * Indexes features by hashing them into {@code 2^bits} indices instead of keeping the map between features and their indices.
+	 * Models using feature hashing do not save feature strings.
+	 * @since 1.4.3
+	 * @param bits the number of bits of hashed feature indices ({@code 1 <= bits <= 30}).
+	 * {@code (2^bits + 1) * labels} must not exceed {@link Integer#MAX_VALUE} so that the weight vector can be allocated.
+	 * @param signed if {@code true}, each feature is weighted by {@code +1} or {@code -1} depending on its hash so that collisions tend to cancel out.
+	 * @throws IllegalArgumentException if {@code bits} is out of range or the weight vector would be too large for the current labels.
+	 */
+	public void setFeatureHashing(int bits, boolean signed)
+	{
+		if (bits < 1 || bits > 30)
+			throw new IllegalArgumentException("The number of hash bits must be between 1 and 30: "+bits);
+		
+		checkHashedWeightSize(bits, n_labels);
+		i_hashBits = bits;
+		b_hashSign = signed;
+		n_features = (1 << bits) + 1;
+		m_features.clear();
+		clearFeatureHashes();
+	}
+	
+	/**
+	 * Adds the specific label to this model.
+	 * If features are hashed, the label is rejected when the weight vector would become too large.
+	 * @see StringModel#setFeatureHashing(int, boolean)
+	 */
+	@Override
+	public void addLabel(String label)
+	{
+		if (isFeatureHashing() && !m_labels.containsKey(label))
+			checkHashedWeightSize(i_hashBits, n_labels+1);
+		
+		super.addLabel(label);
+	}
+	
+	/** Called by {@link StringModel#setFeatureHashing(int, boolean)} and {@link StringModel#addLabel(String)}. */
+	private void checkHashedWeightSize(int bits, int labels)
+	{
+		if (((long)(1 << bits) + 1) * Math.max(labels, 1) > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("The weight vector of "+bits+" hash bits and "+labels+" labels exceeds "+Integer.MAX_VALUE+" entries; use fewer hash bits.");
+	}
+	
+	/**
+	 * Returns {@code true} if this model indexes features by hashing.
+	 * @since 1.4.3
+	 */
+	public boolean isFeatureHashing()
+	{
+		return i_hashBits > 0;
+	}
+	
+	/**
+	 * Returns {@code true} if hashed features are weighted by their signs.
+	 * @since 1.4.3
+	 */
+	public boolean isSignedHashing()
+	{
+		return b_hashSign;
+	}
+	
+	/**
+	 * Returns the mixed 64-bit hash of the specific feature, from which {@link StringModel#getHashedIndex(long)} and {@link StringModel#getHashedSign(long)} are derived.
+	 * @since 1.4.3
+	 */
+	static public long getFeatureHash(String type, String value)
+	{
+		return mixHash(HashedFeatureVector.getHash(type, value));
+	}
+	
+	/**
+	 * Returns the feature index of the specific mixed hash, between {@code 1} and {@code 2^bits} (index {@code 0} is reserved as in the feature map).
+	 * @since 1.4.3
+	 * @param hash the mixed hash (see {@link StringModel#getFeatureHash(String, String)}).
+	 */
+	public int getHashedIndex(long hash)
+	{
+		return 1 + (int)(hash >>> (64 - i_hashBits));
+	}
+	
+	/**
+	 * Returns {@code +1} or {@code -1} given the specific mixed hash, using a bit not used by {@link StringModel#getHashedIndex(long)}.
+	 * @since 1.4.3
+	 * @param hash the mixed hash (see {@link StringModel#getFeatureHash(String, String)}).
+	 */
+	public double getHashedSign(long hash)
+	{
+		return ((hash & 1) == 0) ? 1 : -1;
+	}
+	
+	/** Spreads the bits of a FNV-1a hash so that its high bits can be used as an index (finalizer of MurmurHash3). */
+	static private long mixHash(long hash)
+	{
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+	
+	/**
+	 * Returns the map between the hashes of features and their indices, which is built once and shared by all threads.
+	 * @since 1.4.3
+	 */
+	protected LongIntOpenHashMap getFeatureHashes()
+	{
+		LongIntOpenHashMap hashes = m_hashes;
+		
+		if (hashes == null)
+		{
+			synchronized (this)
+			{
+				if ((hashes = m_hashes) == null)
+					m_hashes = hashes = buildFeatureHashes();
+			}
+		}
+		
+		return hashes;
+	}
+	
+	/**
+	 * Called by {@link StringModel#getFeatureHashes()}.
+	 * Features whose hashes collide keep the first index found; such collisions are reported as a warning.
+	 * @since 1.4.3
+	 */
+	protected LongIntOpenHashMap buildFeatureHashes()
+	{
+		LongIntOpenHashMap hashes = new LongIntOpenHashMap();
+		ObjectIntOpenHashMap<String> map;
+		int collisions = 0;
+		long typeHash;
+		
+		for (String type : m_features.keySet())
+		{
+			map = m_features.get(type);
+			typeHash = HashedFeatureVector.getTypeHash(type);
+			
+			for (ObjectCursor<String> cur : map.keys())
+			{
+				if (!hashes.putIfAbsent(HashedFeatureVector.getHash(typeHash, cur.value), map.get(cur.value)))
+					collisions++;
+			}
+		}
+		
+		if (collisions > 0)
+			LOG.warn("Feature hash collisions: "+collisions+"\n");
+		
+		return hashes;
+	}
+	
+	/**
+	 * Clears the map between the hashes of features and their indices.
+	 * Subclasses adding features without {@link StringModel#addFeature(String, String)} must call this method.
+	 * @since 1.4.3
+	 */
+	protected void clearFeatureHashes()
+	{
+		m_hashes = null;
+	}
+	
 	public StringFeatureVector trimFeatures(StringFeatureVector oVector, String label, double threshold)
 	{
 		StringFeatureVector nVector = new StringFeatureVector(oVector.hasWeight());
 		int i, size = oVector.size(), fIndex, lIndex = getLabelIndex(label);
-		ObjectIntOpenHashMap<String> map;
 		String type, value;
 		boolean add;
 		
@@ -238,9 +594,9 @@ public class StringModel extends AbstractModel
 			value = oVector.getValue(i);
 			add   = false;
 			
-			if ((map = m_features.get(type)) != null && (fIndex = map.get(value)) > 0)
+			if ((fIndex = getFeatureIndex(type, value)) > 0)
 			{
-				if (d_weights[getWeightIndex(lIndex, fIndex)] == threshold)
+				if (getWeight(getWeightIndex(lIndex, fIndex)) == threshold)
 					add = true;
 			}
 			else
@@ -258,6 +614,18 @@ public class StringModel extends AbstractModel
 		return nVector;
 	}
 	
+	/**
+	 * Returns the scores of all labels given the feature vector.
+	 * @since 1.4.3
+	 * @param x the feature vector.
+	 * @param scores the buffer to store the scores ({@code null} or too short to allocate a new one).
+	 * @return the scores of all labels in the order of label indices.
+	 */
+	public double[] getScores(StringFeatureVector x, double[] scores)
+	{
+		return getScores(toSparseFeatureVector(x), scores);
+	}
+	
 	public StringPrediction predictBest(StringFeatureVector x)
 	{
 		return predictBest(toSparseFeatureVector(x));
@@ -0,0 +1,359 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.prediction;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of top predictions keyed by 64-bit fingerprints of feature vectors
+ * (see {@link com.googlecode.clearnlp.classification.vector.SparseFeatureVector#getFingerprint()}).
+ * Entries are stored in primitive arrays using open addressing; once the probe window of a key is full,
+ * one of its entries is evicted in round-robin so the cache never grows beyond its capacity.
+ * Slots are split into stripes, each guarded by its own lock, so parsers exploring branches in parallel
+ * can share the cache while rarely waiting for each other; waits are counted as contentions.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class PredictionCache
+{
+	/** The default number of entries. */
+	static public final int DEFAULT_CAPACITY = 1 << 16;
+	/** The default maximum number of stripes. */
+	static public final int DEFAULT_STRIPES = 16;
+	/** The maximum number of slots visited for each key. */
+	static private final int MAX_PROBE = 8;
+	
+	private Stripe[] s_stripes;
+	private int      n_width, n_mask;
+	
+	/**
+	 * Constructs a prediction cache with at most {@link PredictionCache#DEFAULT_STRIPES} stripes.
+	 * @param capacity the maximum number of entries, rounded up to a power of 2.
+	 * @param width the maximum number of predictions stored in each entry.
+	 */
+	public PredictionCache(int capacity, int width)
+	{
+		this(capacity, width, DEFAULT_STRIPES);
+	}
+	
+	/**
+	 * Constructs a prediction cache.
+	 * @param capacity the maximum number of entries, rounded up to a power of 2.
+	 * @param width the maximum number of predictions stored in each entry.
+	 * @param stripes the maximum number of stripes, rounded up to a power of 2; each stripe keeps at least {@code 8} entries.
+	 */
+	public PredictionCache(int capacity, int width, int stripes)
+	{
+		int size = getPowerOf2(Math.max(capacity, MAX_PROBE)), i;
+		stripes = Math.min(getPowerOf2(Math.max(stripes, 1)), size / MAX_PROBE);
+		
+		s_stripes = new Stripe[stripes];
+		n_width   = width;
+		n_mask    = stripes - 1;
+		
+		for (i=0; i<stripes; i++)
+			s_stripes[i] = new Stripe(size / stripes, width);
+	}
+	
+	/** @return the smallest power of 2 greater than or equal to the specific positive number. */
+	static private int getPowerOf2(int n)
+	{
+		return (n == 1) ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+	
+	/**
+	 * Copies the predictions of the specific key to the specific buffers.
+	 * @param key the fingerprint of a feature vector.
+	 * @param labels the buffer to store label indices, whose length is at least the width of this cache.
+	 * @param scores the buffer to store the scores of the copied predictions in order, whose length is at least the width of this cache.
+	 * @return the number of predictions copied if the key exists; otherwise, {@code -1}.
+	 */
+	public int get(long key, int[] labels, double[] scores)
+	{
+		Stripe stripe = getStripe(key = toKey(key));
+		lock(stripe);
+		
+		try
+		{
+			return stripe.get(key, labels, scores);
+		}
+		finally
+		{
+			stripe.unlock();
+		}
+	}
+	
+	/**
+	 * Puts the predictions of the specific key, evicting another entry if the probe window of the key is full.
+	 * @param key the fingerprint of a feature vector.
+	 * @param labels the label indices of the predictions.
+	 * @param scores the scores of the predictions in the order of the label indices.
+	 * @param size the number of predictions to store (truncated to the width of this cache).
+	 */
+	public void put(long key, int[] labels, double[] scores, int size)
+	{
+		Stripe stripe = getStripe(key = toKey(key));
+		lock(stripe);
+		
+		try
+		{
+			stripe.put(key, labels, scores, Math.min(size, n_width));
+		}
+		finally
+		{
+			stripe.unlock();
+		}
+	}
+	
+	/** Stripes are chosen by the upper bits of keys; slots within each stripe by the lower bits. */
+	private Stripe getStripe(long key)
+	{
+		return s_stripes[(int)(key >>> 40) & n_mask];
+	}
+	
+	/** Acquires the lock of the specific stripe, counting a contention if another thread holds it. */
+	private void lock(Stripe stripe)
+	{
+		if (!stripe.tryLock())
+		{
+			stripe.lock();
+			stripe.n_contentions++;
+		}
+	}
+	
+	/** Reserves {@code 0} for empty slots. */
+	private long toKey(long key)
+	{
+		return (key == 0) ? 1 : key;
+	}
+	
+	/** Removes all entries and statistics. */
+	public void clear()
+	{
+		for (Stripe stripe : s_stripes)
+		{
+			stripe.lock();
+			try {stripe.clear();}
+			finally {stripe.unlock();}
+		}
+	}
+	
+//	====================================== STATISTICS ======================================
+	
+	/** The indices of statistics summed by {@link PredictionCache#getStatistics()}. */
+	static private final int STAT_HITS = 0, STAT_MISSES = 1, STAT_EVICTIONS = 2, STAT_CONTENTIONS = 3, STAT_SIZE = 4;
+	
+	/** @return the statistics summed over all stripes, each read under its lock. */
+	private long[] getStatistics()
+	{
+		long[] stats = new long[5];
+		
+		for (Stripe stripe : s_stripes)
+		{
+			stripe.lock();
+			
+			try
+			{
+				stats[STAT_HITS]        += stripe.n_hits;
+				stats[STAT_MISSES]      += stripe.n_misses;
+				stats[STAT_EVICTIONS]   += stripe.n_evictions;
+				stats[STAT_CONTENTIONS] += stripe.n_contentions;
+				stats[STAT_SIZE]        += stripe.n_size;
+			}
+			finally
+			{
+				stripe.unlock();
+			}
+		}
+		
+		return stats;
+	}
+	
+	/** @return the number of entries in this cache. */
+	public int size()
+	{
+		return (int)getStatistics()[STAT_SIZE];
+	}
+	
+	/** @return the maximum number of entries in this cache. */
+	public int getCapacity()
+	{
+		return s_stripes.length * s_stripes[0].l_keys.length;
+	}
+	
+	/** @return the number of stripes, each guarded by its own lock. */
+	public int getStripeSize()
+	{
+		return s_stripes.length;
+	}
+	
+	public long getHits()
+	{
+		return getStatistics()[STAT_HITS];
+	}
+	
+	public long getMisses()
+	{
+		return getStatistics()[STAT_MISSES];
+	}
+	
+	public long getEvictions()
+	{
+		return getStatistics()[STAT_EVICTIONS];
+	}
+	
+	/** @return the number of lookups that waited for another thread holding the same stripe. */
+	public long getContentions()
+	{
+		return getStatistics()[STAT_CONTENTIONS];
+	}
+	
+	/** @return the ratio of lookups found in this cache ({@code 0} if no lookup has been made). */
+	public double getHitRate()
+	{
+		long[] stats = getStatistics();
+		return getHitRate(stats[STAT_HITS], stats[STAT_MISSES]);
+	}
+	
+	static private double getHitRate(long hits, long misses)
+	{
+		long total = hits + misses;
+		return (total == 0) ? 0 : (double)hits / total;
+	}
+	
+	@Override
+	public String toString()
+	{
+		long[] stats = getStatistics();
+		return String.format("hits: %d, misses: %d, hit-rate: %5.2f%%, evictions: %d, contentions: %d, size: %d/%d", stats[STAT_HITS], stats[STAT_MISSES], 100*getHitRate(stats[STAT_HITS], stats[STAT_MISSES]), stats[STAT_EVICTIONS], stats[STAT_CONTENTIONS], stats[STAT_SIZE], getCapacity());
+	}
+	
+//	====================================== STRIPE ======================================
+	
+	/** Slots guarded by one lock; all fields are accessed while holding the lock. */
+	@SuppressWarnings("serial")
+	static private class Stripe extends ReentrantLock
+	{
+		private long[]   l_keys;	// 0 indicates an empty slot
+		private int[]    i_sizes;
+		private int[]    i_labels;
+		private double[] d_scores;
+		private int      n_width, n_mask, n_victim, n_size;
+		private long     n_hits, n_misses, n_evictions, n_contentions;
+		
+		public Stripe(int size, int width)
+		{
+			l_keys   = new long[size];
+			i_sizes  = new int[size];
+			i_labels = new int[size * width];
+			d_scores = new double[size * width];
+			n_width  = width;
+			n_mask   = size - 1;
+		}
+		
+		public int get(long key, int[] labels, double[] scores)
+		{
+			int slot = getSlot(key);
+			
+			if (slot < 0 || l_keys[slot] != key)
+			{
+				n_misses++;
+				return -1;
+			}
+			
+			int size = i_sizes[slot];
+			System.arraycopy(i_labels, slot * n_width, labels, 0, size);
+			System.arraycopy(d_scores, slot * n_width, scores, 0, size);
+			
+			n_hits++;
+			return size;
+		}
+		
+		public void put(long key, int[] labels, double[] scores, int size)
+		{
+			int i, slot = getSlot(key), offset;
+			
+			if (slot < 0)
+			{
+				slot = (int)key + n_victim;
+				slot &= n_mask;
+				n_victim = (n_victim + 1) % MAX_PROBE;
+				n_evictions++;
+			}
+			else if (l_keys[slot] == 0)
+				n_size++;
+			
+			offset = slot * n_width;
+			
+			for (i=0; i<size; i++)
+			{
+				i_labels[offset+i] = labels[i];
+				d_scores[offset+i] = scores[i];
+			}
+			
+			l_keys [slot] = key;
+			i_sizes[slot] = size;
+		}
+		
+		/** @return the slot containing the key or the first empty slot in its probe window if exists; otherwise, {@code -1}. */
+		private int getSlot(long key)
+		{
+			int i, slot = (int)key;
+			
+			for (i=0; i<MAX_PROBE; i++)
+			{
+				slot &= n_mask;
+				if (l_keys[slot] == key || l_keys[slot] == 0)	return slot;
+				slot++;
+			}
+			
+			return -1;
+		}
+		
+		public void clear()
+		{
+			Arrays.fill(l_keys, 0);
+			n_size = n_victim = 0;
+			n_hits = n_misses = n_evictions = n_contentions = 0;
+		}
+	}
+}
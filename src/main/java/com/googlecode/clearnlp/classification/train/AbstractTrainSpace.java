@@ -45,6 +45,7 @@ import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -135,6 +136,15 @@ abstract public class AbstractTrainSpace
 	/** Generates vector space given training instances. */
 	abstract public void build();
 	
+	/**
+	 * Generates vector space given training instances using the specific number of threads.
+	 * By default, calls {@link AbstractTrainSpace#build(boolean)}.
+	 */
+	public void build(boolean clearInstances, int numThreads)
+	{
+		build(clearInstances);
+	}
+	
 	/**
 	 * Returns the list of training labels.
 	 * @return the list of training labels.
@@ -148,7 +158,7 @@ abstract public class AbstractTrainSpace
 	 * Returns the list of training feature indices.
 	 * @return the list of training feature indices.
 	 */
-	public ArrayList<int[]>getXs()
+	public List<int[]> getXs()
 	{
 		return a_xs;
 	}
@@ -157,7 +167,7 @@ abstract public class AbstractTrainSpace
 	 * Returns the list of training feature weights.
 	 * @return the list of training feature weights.
 	 */
-	public ArrayList<double[]> getVs()
+	public List<double[]> getVs()
 	{
 		return a_vs;
 	}
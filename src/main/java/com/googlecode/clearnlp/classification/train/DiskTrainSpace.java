@@ -0,0 +1,512 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.train;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import com.google.common.io.Files;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
+import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+import com.googlecode.clearnlp.util.UTInput;
+
+/**
+ * Train space containing string vectors, where training instances are kept on disk instead of memory.
+ * Only label and feature counts, label indices, and file offsets of instances stay in memory.
+ * Instances are spilled to a temporary file as they are added, compiled to another binary file by {@link DiskTrainSpace#build(boolean)},
+ * and read back through memory-mapped buffers whenever {@link DiskTrainSpace#getXs()} or {@link DiskTrainSpace#getVs()} is accessed.
+ * Arrays returned by these lists are reused by the calling thread so that reading instances does not allocate.
+ * Each compiled instance is stored as {@code <n><index>^n[<weight>^n]}.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class DiskTrainSpace extends StringTrainSpace
+{
+	/** The maximum number of bytes in each memory-mapped segment. */
+	static private final int SEGMENT_SIZE = 1 << 30;
+	
+	/** The file containing string instances. */
+	private File f_raw;
+	/** The file containing compiled instances. */
+	private File f_bin;
+	/** The output stream to {@link DiskTrainSpace#f_raw}. */
+	private DataOutputStream d_raw;
+	/** The number of string instances in {@link DiskTrainSpace#f_raw}. */
+	private int n_raw;
+	/** The file offsets of compiled instances. */
+	private LongArrayList l_offsets;
+	/** The file offsets of memory-mapped segments. */
+	private LongArrayList l_segments;
+	/** The index of the first instance in each segment. */
+	private IntArrayList  i_segments;
+	/** The memory-mapped segments of {@link DiskTrainSpace#f_bin}. */
+	private MappedByteBuffer[] m_segments;
+	/** The list of training feature indices read from {@link DiskTrainSpace#m_segments}. */
+	private List<int[]>    l_xs;
+	/** The list of training feature weights read from {@link DiskTrainSpace#m_segments}. */
+	private List<double[]> l_vs;
+	
+	/**
+	 * Constructs a train space containing string vectors, where instances are spilled to the specific directory.
+	 * @param hasWeight {@code true} if features are assigned with different weights.
+	 * @param labelCutoff the label count cutoff (exclusive).
+	 * @param featureCutoff the feature count cutoff (exclusive).
+	 * @param tmpDir the directory to spill instances to; if {@code null}, the system temporary directory is used.
+	 */
+	public DiskTrainSpace(boolean hasWeight, int labelCutoff, int featureCutoff, File tmpDir)
+	{
+		super(hasWeight, labelCutoff, featureCutoff);
+		
+		try
+		{
+			f_raw = File.createTempFile("clearnlp-", ".raw", tmpDir);
+			f_bin = File.createTempFile("clearnlp-", ".bin", tmpDir);
+			f_raw.deleteOnExit();
+			f_bin.deleteOnExit();
+		}
+		catch (IOException e) {throw new IllegalArgumentException(e);}
+		
+		l_offsets  = new LongArrayList();
+		l_segments = new LongArrayList();
+		i_segments = new IntArrayList();
+		l_xs = new IndexList();
+		l_vs = new WeightList();
+	}
+	
+	//	======================== Instances ========================
+	
+	@Override
+	protected void putInstance(String label, StringFeatureVector vector)
+	{
+		int i, size = vector.size();
+		
+		try
+		{
+			DataOutputStream out = getRawOutputStream();
+			
+			out.writeUTF(label);
+			out.writeInt(size);
+			
+			for (i=0; i<size; i++)
+			{
+				out.writeUTF(vector.getType(i));
+				out.writeUTF(vector.getValue(i));
+				if (b_stringWeight)	out.writeDouble(vector.getWeight(i));
+			}
+			
+			n_raw++;
+		}
+		catch (IOException e) {throw new IllegalStateException(e);}
+	}
+	
+	@Override
+	protected void putInstances(StringTrainSpace space)
+	{
+		try
+		{
+			closeRawOutputStream();
+			
+			if (space instanceof DiskTrainSpace)
+			{
+				DiskTrainSpace disk = (DiskTrainSpace)space;
+				Files.copy(f_raw, disk.getRawOutputStream());
+				disk.n_raw += n_raw;
+			}
+			else
+			{
+				DataInputStream in = getRawInputStream();
+				int i;
+				
+				try
+				{
+					for (i=0; i<n_raw; i++)
+						space.putInstance(in.readUTF(), readVector(in));
+				}
+				finally
+				{
+					in.close();
+				}
+			}
+		}
+		catch (IOException e) {throw new IllegalStateException(e);}
+	}
+	
+	/** Called by {@link DiskTrainSpace#putInstances(StringTrainSpace)} and {@link DiskTrainSpace#build(boolean, int)}. */
+	private StringFeatureVector readVector(DataInputStream in) throws IOException
+	{
+		StringFeatureVector vector = new StringFeatureVector(b_stringWeight);
+		int i, size = in.readInt();
+		String type, value;
+		
+		for (i=0; i<size; i++)
+		{
+			type  = in.readUTF();
+			value = in.readUTF();
+			
+			if (b_stringWeight)	vector.addFeature(type, value, in.readDouble());
+			else			vector.addFeature(type, value);
+		}
+		
+		return vector;
+	}
+	
+	private DataOutputStream getRawOutputStream() throws IOException
+	{
+		if (d_raw == null)
+			d_raw = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f_raw, true), 1 << 16));
+		
+		return d_raw;
+	}
+	
+	private void closeRawOutputStream() throws IOException
+	{
+		if (d_raw != null)
+		{
+			d_raw.close();
+			d_raw = null;
+		}
+	}
+	
+	private DataInputStream getRawInputStream() throws IOException
+	{
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(f_raw), 1 << 16));
+	}
+	
+	@Override
+	public void printInstances(PrintStream fout)
+	{
+		StringTrainSpace space = new StringTrainSpace(b_stringWeight, 0, 0);
+		putInstances(space);
+		space.printInstances(fout);
+	}
+	
+	//	======================== Build ========================
+	
+	/**
+	 * Compiles instances to a binary file and memory-maps the file.
+	 * Instances are streamed from disk in the order they were added; thus, {@code numThreads} is not used.
+	 */
+	@Override
+	public void build(boolean clearInstances, int numThreads)
+	{
+		LOG.info("Building:\n");
+		initModelMaps();
+		
+		a_ys.clear();
+		l_offsets.clear();
+		l_segments.clear();
+		i_segments.clear();
+		unmap();
+		r_hash = s_model.isFeatureHashing() ? new FeatureHashReport(s_model) : null;
+		
+		try
+		{
+			closeRawOutputStream();
+			compile();
+			map();
+		}
+		catch (IOException e) {throw new IllegalStateException(e);}
+		
+		LOG.info("- # of labels   : "+s_model.getLabelSize()+"\n");
+		LOG.info("- # of features : "+s_model.getFeatureSize()+"\n");
+		LOG.info("- # of instances: "+a_ys.size()+"\n");
+		if (r_hash != null)	LOG.info("- feature hashing: "+r_hash+"\n");
+		
+		if (clearInstances)
+		{
+			f_raw.delete();
+			n_raw = 0;
+		}
+	}
+	
+	/** Called by {@link DiskTrainSpace#build(boolean, int)}. */
+	private void compile() throws IOException
+	{
+		DataInputStream  in  = getRawInputStream();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f_bin), 1 << 16));
+		long offset = 0, segment = 0;
+		StringFeatureVector vector;
+		SparseFeatureVector x;
+		int i, j, y, len, bytes;
+		int[] indices;
+		double[] weights;
+		String label;
+		
+		try
+		{
+			for (i=0; i<n_raw; i++)
+			{
+				label  = in.readUTF();
+				vector = readVector(in);
+				x = s_model.toSparseFeatureVector(vector);
+				if (r_hash != null)	r_hash.add(vector);
+				if ((y = s_model.getLabelIndex(label)) < 0)	continue;
+				
+				indices = x.getIndices();
+				len     = indices.length;
+				bytes   = b_weight ? 4 + 12 * len : 4 + 4 * len;
+				
+				if (l_segments.isEmpty() || offset + bytes - segment > SEGMENT_SIZE)
+				{
+					l_segments.add(segment = offset);
+					i_segments.add(a_ys.size());
+				}
+				
+				a_ys.add(y);
+				l_offsets.add(offset);
+				
+				out.writeInt(len);
+				for (j=0; j<len; j++)	out.writeInt(indices[j]);
+				
+				if (b_weight)
+				{
+					weights = x.getWeights();
+					for (j=0; j<len; j++)	out.writeDouble(weights[j]);
+				}
+				
+				offset += bytes;
+			}
+		}
+		catch (EOFException e) {throw new IOException("Unexpected end of "+f_raw, e);}
+		finally
+		{
+			in.close();
+			out.close();
+		}
+		
+		a_ys.trimToSize();
+		l_offsets.trimToSize();
+	}
+	
+	/** Called by {@link DiskTrainSpace#build(boolean, int)}. */
+	private void map() throws IOException
+	{
+		RandomAccessFile file = new RandomAccessFile(f_bin, "r");
+		int i, size = l_segments.size();
+		long begin, end;
+		
+		try
+		{
+			FileChannel channel = file.getChannel();
+			m_segments = new MappedByteBuffer[size];
+			
+			for (i=0; i<size; i++)
+			{
+				begin = l_segments.get(i);
+				end   = (i+1 < size) ? l_segments.get(i+1) : channel.size();
+				m_segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, begin, end - begin);
+			}
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+	
+	/** Releases the memory-mapped segments; called only when there is no instance to read. */
+	private void unmap()
+	{
+		if (m_segments != null)
+		{
+			for (MappedByteBuffer segment : m_segments)
+				UTInput.unmap(segment);
+			
+			m_segments = null;
+		}
+	}
+	
+	//	======================== Getters ========================
+	
+	/**
+	 * Returns the list of training feature indices read from the memory-mapped file.
+	 * An array returned by this list is reused by the calling thread for the next instance with the same number of features; copy it to keep it.
+	 */
+	@Override
+	public List<int[]> getXs()
+	{
+		return l_xs;
+	}
+	
+	/**
+	 * Returns the list of training feature weights read from the memory-mapped file.
+	 * An array returned by this list is reused by the calling thread for the next instance with the same number of features; copy it to keep it.
+	 */
+	@Override
+	public List<double[]> getVs()
+	{
+		return b_weight ? l_vs : null;
+	}
+	
+	/** Reads feature indices into arrays reused per thread and per length. */
+	private class IndexList extends AbstractList<int[]>
+	{
+		private ThreadLocal<int[][]> t_buffers = new ThreadLocal<int[][]>();
+		
+		@Override
+		public int[] get(int index)
+		{
+			int seg = getSegment(index), offset = getOffset(seg, index);
+			MappedByteBuffer buffer = m_segments[seg];
+			int i, len = buffer.getInt(offset);
+			int[] indices = getBuffer(len);
+			
+			for (i=0, offset+=4; i<len; i++, offset+=4)
+				indices[i] = buffer.getInt(offset);
+			
+			return indices;
+		}
+		
+		private int[] getBuffer(int len)
+		{
+			int[][] buffers = t_buffers.get();
+			
+			if (buffers == null || buffers.length <= len)
+			{
+				buffers = (buffers == null) ? new int[len+1][] : Arrays.copyOf(buffers, Math.max(len+1, buffers.length*2));
+				t_buffers.set(buffers);
+			}
+			
+			if (buffers[len] == null)
+				buffers[len] = new int[len];
+			
+			return buffers[len];
+		}
+		
+		@Override
+		public int size()
+		{
+			return a_ys.size();
+		}
+	}
+	
+	/** Reads feature weights into arrays reused per thread and per length. */
+	private class WeightList extends AbstractList<double[]>
+	{
+		private ThreadLocal<double[][]> t_buffers = new ThreadLocal<double[][]>();
+		
+		@Override
+		public double[] get(int index)
+		{
+			int seg = getSegment(index), offset = getOffset(seg, index);
+			MappedByteBuffer buffer = m_segments[seg];
+			int i, len = buffer.getInt(offset);
+			double[] weights = getBuffer(len);
+			
+			for (i=0, offset+=4+4*len; i<len; i++, offset+=8)
+				weights[i] = buffer.getDouble(offset);
+			
+			return weights;
+		}
+		
+		private double[] getBuffer(int len)
+		{
+			double[][] buffers = t_buffers.get();
+			
+			if (buffers == null || buffers.length <= len)
+			{
+				buffers = (buffers == null) ? new double[len+1][] : Arrays.copyOf(buffers, Math.max(len+1, buffers.length*2));
+				t_buffers.set(buffers);
+			}
+			
+			if (buffers[len] == null)
+				buffers[len] = new double[len];
+			
+			return buffers[len];
+		}
+		
+		@Override
+		public int size()
+		{
+			return a_ys.size();
+		}
+	}
+	
+	/** @return the index of the segment containing the specific instance. */
+	private int getSegment(int index)
+	{
+		int seg = Arrays.binarySearch(i_segments.buffer, 0, i_segments.size(), index);
+		return (seg < 0) ? -(seg+2) : seg;
+	}
+	
+	/** @return the offset of the specific instance within the specific segment. */
+	private int getOffset(int seg, int index)
+	{
+		return (int)(l_offsets.get(index) - l_segments.get(seg));
+	}
+	
+	/** Unlike {@link StringTrainSpace#clear()}, removes compiled instances as well because their file gets unmapped and deleted. */
+	@Override
+	public void clear()
+	{
+		super.clear();
+		
+		try
+		{
+			closeRawOutputStream();
+		}
+		catch (IOException e) {e.printStackTrace();}
+		
+		unmap();
+		a_ys.clear();
+		l_offsets.clear();
+		l_segments.clear();
+		i_segments.clear();
+		f_raw.delete();
+		f_bin.delete();
+		n_raw = 0;
+	}
+}
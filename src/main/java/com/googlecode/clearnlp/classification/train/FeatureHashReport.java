@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.train;
+
+import java.util.BitSet;
+
+import com.carrotsearch.hppc.LongOpenHashSet;
+import com.googlecode.clearnlp.classification.model.StringModel;
+import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+
+/**
+ * Counts distinct features and hashed feature indices to report collisions of feature hashing.
+ * Only 64-bit hashes of features are kept, not their strings.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class FeatureHashReport
+{
+	private StringModel     s_model;
+	/** The mixed hashes of distinct features. */
+	private LongOpenHashSet s_features;
+	/** The hashed indices used by at least one feature. */
+	private BitSet          b_indices;
+	
+	/** @param model the model using feature hashing. */
+	public FeatureHashReport(StringModel model)
+	{
+		s_model    = model;
+		s_features = new LongOpenHashSet();
+		b_indices  = new BitSet();
+	}
+	
+	/** Counts all features in the specific vector. */
+	public void add(StringFeatureVector vector)
+	{
+		int i, size = vector.size();
+		long hash;
+		
+		for (i=0; i<size; i++)
+		{
+			hash = StringModel.getFeatureHash(vector.getType(i), vector.getValue(i));
+			
+			if (s_features.add(hash))
+				b_indices.set(s_model.getHashedIndex(hash));
+		}
+	}
+	
+	/** @return the number of distinct features. */
+	public int getFeatureSize()
+	{
+		return s_features.size();
+	}
+	
+	/** @return the number of hashed indices used by at least one feature. */
+	public int getIndexSize()
+	{
+		return b_indices.cardinality();
+	}
+	
+	/** @return the ratio of features sharing their indices with other features that were counted earlier. */
+	public double getCollisionRate()
+	{
+		int features = getFeatureSize();
+		return (features == 0) ? 0 : (double)(features - getIndexSize()) / features;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return String.format("features=%d, indices=%d, collision rate=%5.2f%%", getFeatureSize(), getIndexSize(), 100d * getCollisionRate());
+	}
+}
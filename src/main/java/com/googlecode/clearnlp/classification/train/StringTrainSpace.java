@@ -43,9 +43,15 @@ package com.googlecode.clearnlp.classification.train;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 import com.carrotsearch.hppc.cursors.ObjectCursor;
@@ -63,17 +69,21 @@ import com.googlecode.clearnlp.util.pair.Pair;
 public class StringTrainSpace extends AbstractTrainSpace
 {
 	/** Casted from {@likn AbstractTrainSpace#m_model}. */
-	private StringModel s_model;
+	protected StringModel s_model;
 	/** The label count cutoff (exclusive). */
 	private int l_cutoff;
 	/** The feature count cutoff (exclusive). */
 	private int f_cutoff;
 	/** The list of all training instances. */
-	private List<Pair<String,StringFeatureVector>> s_instances;
+	protected List<Pair<String,StringFeatureVector>> s_instances;
 	/** The map between labels and their counts. */
 	private ObjectIntOpenHashMap<String> m_labels;
 	/** The map between features and their counts. */
 	private Map<String,ObjectIntOpenHashMap<String>> m_features;
+	/** {@code true} if string instances are assigned with weights; {@link AbstractTrainSpace#b_weight} may also be set by signed feature hashing. */
+	protected boolean b_stringWeight;
+	/** The collision report of feature hashing made by the last build. */
+	protected FeatureHashReport r_hash;
 	
 	/**
 	 * Constructs a train space containing string vectors.
@@ -91,6 +101,33 @@ public class StringTrainSpace extends AbstractTrainSpace
 		s_instances = new ArrayList<Pair<String,StringFeatureVector>>();
 		m_labels    = new ObjectIntOpenHashMap<String>();
 		m_features  = new HashMap<String, ObjectIntOpenHashMap<String>>();
+		b_stringWeight = hasWeight;
+	}
+	
+	/**
+	 * Returns the collision report of feature hashing made by the last build, or {@code null} if feature hashing is not used.
+	 * @since 1.4.3
+	 */
+	public FeatureHashReport getFeatureHashReport()
+	{
+		return r_hash;
+	}
+	
+	/**
+	 * Indexes features by hashing instead of counting them in this space; the feature count cutoff is not applied.
+	 * This method must be called before any instance is added.
+	 * @since 1.4.3
+	 * @see StringModel#setFeatureHashing(int, boolean)
+	 */
+	public void setFeatureHashing(int bits, boolean signed)
+	{
+		s_model.setFeatureHashing(bits, signed);
+		
+		if (signed && !b_weight)
+		{
+			b_weight = true;
+			a_vs = new ArrayList<double[]>();
+		}
 	}
 	
 	public void printInstances(PrintStream fout)
@@ -119,16 +156,34 @@ public class StringTrainSpace extends AbstractTrainSpace
 	public void addInstance(String label, StringFeatureVector vector)
 	{
 		addLexica(label, vector);
+		putInstance(label, vector);
+	}
+	
+	/** Stores the specific instance without counting its lexica. */
+	protected void putInstance(String label, StringFeatureVector vector)
+	{
 		s_instances.add(new Pair<String, StringFeatureVector>(label, vector));
 	}
 	
+	/** Stores all instances of this space to the specific space using {@link StringTrainSpace#putInstance(String, StringFeatureVector)}. */
+	protected void putInstances(StringTrainSpace space)
+	{
+		if (!space.getClass().equals(StringTrainSpace.class))
+		{
+			for (Pair<String,StringFeatureVector> p : s_instances)
+				space.putInstance(p.o1, p.o2);
+		}
+		else
+			space.s_instances.addAll(s_instances);
+	}
+	
 	/**
 	 * Adds a training instance to this space.
 	 * @param line {@code <label>}{@link AbstractTrainSpace#DELIM_COL}{@link StringFeatureVector#toString()}.
 	 */
 	public void addInstance(String line)
 	{
-		Pair<String,StringFeatureVector> instance = toInstance(line, b_weight);
+		Pair<String,StringFeatureVector> instance = toInstance(line, b_stringWeight);
 		addInstance(instance.o1, instance.o2);
 	}
 	
@@ -178,7 +233,79 @@ public class StringTrainSpace extends AbstractTrainSpace
 	
 	private void appendSpaceInstances(StringTrainSpace space)
 	{
-		s_instances.addAll(space.s_instances);
+		space.putInstances(this);
+	}
+	
+	/**
+	 * Appends all specific spaces to this space, where counts of each feature type are merged by a separate task.
+	 * Maps of the specific spaces may be moved to this space; thus, the specific spaces should be cleared afterwards.
+	 * @param spaces the spaces to be appended.
+	 * @param numThreads the number of threads.
+	 */
+	public void appendSpaces(Collection<StringTrainSpace> spaces, int numThreads)
+	{
+		int size = s_instances.size();
+		
+		for (StringTrainSpace space : spaces)
+		{
+			appendSpaceLabels(space);
+			size += space.s_instances.size();
+		}
+		
+		// tasks merging counts of one feature type each
+		final Map<String,List<ObjectIntOpenHashMap<String>>> mSources = new HashMap<String,List<ObjectIntOpenHashMap<String>>>();
+		List<ObjectIntOpenHashMap<String>> sources;
+		
+		for (StringTrainSpace space : spaces)
+		{
+			for (Map.Entry<String,ObjectIntOpenHashMap<String>> entry : space.m_features.entrySet())
+			{
+				if (!m_features.containsKey(entry.getKey()))
+					m_features.put(entry.getKey(), entry.getValue());
+				else
+				{
+					if ((sources = mSources.get(entry.getKey())) == null)
+						mSources.put(entry.getKey(), sources = new ArrayList<ObjectIntOpenHashMap<String>>());
+					
+					sources.add(entry.getValue());
+				}
+			}
+		}
+		
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(mSources.size());
+		
+		for (final String type : mSources.keySet())
+		{
+			tasks.add(new Callable<Object>()
+			{
+				@Override
+				public Object call()
+				{
+					ObjectIntOpenHashMap<String> tMap = m_features.get(type);
+					String value;
+					
+					for (ObjectIntOpenHashMap<String> sMap : mSources.get(type))
+					{
+						for (ObjectCursor<String> cur : sMap.keys())
+						{
+							value = cur.value;
+							tMap.put(value, tMap.get(value) + sMap.get(value));
+						}
+					}
+					
+					return null;
+				}
+			});
+		}
+		
+		invokeAll(tasks, numThreads);
+		
+		// instances
+		if (s_instances instanceof ArrayList)
+			((ArrayList<Pair<String,StringFeatureVector>>)s_instances).ensureCapacity(size);
+		
+		for (StringTrainSpace space : spaces)
+			appendSpaceInstances(space);
 	}
 	
 	public void clear()
@@ -195,7 +322,7 @@ public class StringTrainSpace extends AbstractTrainSpace
 	private void addLexica(String label, StringFeatureVector vector)
 	{
 		addLexicaLabel(label);
-		addLexicaFeatures(vector);
+		if (!s_model.isFeatureHashing())	addLexicaFeatures(vector);
 	}
 	
 	private void addLexicaLabel(String label)
@@ -230,26 +357,71 @@ public class StringTrainSpace extends AbstractTrainSpace
 	
 	@Override
 	public void build(boolean clearInstances)
+	{
+		build(clearInstances, 1);
+	}
+	
+	/**
+	 * Generates vector space given training instances, where instances are converted to sparse vectors in {@code numThreads} contiguous shards.
+	 * The order of instances is the same regardless of the number of threads.
+	 */
+	@Override
+	public void build(boolean clearInstances, int numThreads)
 	{
 		LOG.info("Building:\n");
 		initModelMaps();
 		
-		Pair<String,StringFeatureVector> instance;
-		int y, i, size = s_instances.size();
-		SparseFeatureVector x;
+		final int size = s_instances.size();
+		final int[] ys = new int[size];
+		final SparseFeatureVector[] xs = new SparseFeatureVector[size];
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(numThreads);
+		int i, shards = Math.max(1, Math.min(numThreads, size));
 		
-		for (i=0; i<size; i++)
+		for (i=0; i<shards; i++)
 		{
-			instance = s_instances.get(i);
-			
-			if ((y = s_model.getLabelIndex(instance.o1)) < 0)
-				continue;
+			final int beginIndex = (int)((long)size * i     / shards);
+			final int endIndex   = (int)((long)size * (i+1) / shards);
 			
-			x = s_model.toSparseFeatureVector(instance.o2);
+			tasks.add(new Callable<Object>()
+			{
+				@Override
+				public Object call()
+				{
+					Pair<String,StringFeatureVector> instance;
+					
+					for (int j=beginIndex; j<endIndex; j++)
+					{
+						instance = s_instances.get(j);
+						
+						if ((ys[j] = s_model.getLabelIndex(instance.o1)) >= 0)
+							xs[j] = s_model.toSparseFeatureVector(instance.o2);
+					}
+					
+					return null;
+				}
+			});
+		}
+		
+		invokeAll(tasks, numThreads);
+		r_hash = s_model.isFeatureHashing() ? new FeatureHashReport(s_model) : null;
+		
+		if (r_hash != null)
+		{
+			for (Pair<String,StringFeatureVector> instance : s_instances)
+				r_hash.add(instance.o2);
+		}
+		
+		a_ys.ensureCapacity(a_ys.size() + size);
+		a_xs.ensureCapacity(a_xs.size() + size);
+		if (b_weight)	a_vs.ensureCapacity(a_vs.size() + size);
+		
+		for (i=0; i<size; i++)
+		{
+			if (ys[i] < 0)	continue;
 			
-			a_ys.add(y);
-			a_xs.add(x.getIndices());
-			if (b_weight)	a_vs.add(x.getWeights());
+			a_ys.add(ys[i]);
+			a_xs.add(xs[i].getIndices());
+			if (b_weight)	a_vs.add(xs[i].getWeights());
 		}
 		
 		a_ys.trimToSize();
@@ -259,6 +431,7 @@ public class StringTrainSpace extends AbstractTrainSpace
 		LOG.info("- # of labels   : "+s_model.getLabelSize()+"\n");
 		LOG.info("- # of features : "+s_model.getFeatureSize()+"\n");
 		LOG.info("- # of instances: "+a_ys.size()+"\n");
+		if (r_hash != null)	LOG.info("- feature hashing: "+r_hash+"\n");
 		
 		if (clearInstances)	s_instances.clear();
 	}
@@ -270,7 +443,7 @@ public class StringTrainSpace extends AbstractTrainSpace
 	}
 	
 	/** Called by {@link StringTrainSpace#build()}. */
-	private void initModelMaps()
+	protected void initModelMaps()
 	{
 		// initialize label map
 		String label;
@@ -327,6 +500,46 @@ public class StringTrainSpace extends AbstractTrainSpace
 		}*/
 	}
 	
+	/** Runs the specific tasks using {@code numThreads} threads, or in this thread if {@code numThreads <= 1}. */
+	private void invokeAll(List<Callable<Object>> tasks, int numThreads)
+	{
+		try
+		{
+			if (numThreads <= 1 || tasks.size() <= 1)
+			{
+				for (Callable<Object> task : tasks)
+					task.call();
+				
+				return;
+			}
+			
+			ExecutorService executor = Executors.newFixedThreadPool(Math.min(numThreads, tasks.size()));
+			
+			try
+			{
+				for (Future<Object> future : executor.invokeAll(tasks))
+					future.get();
+			}
+			finally
+			{
+				executor.shutdown();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());
+		}
+		catch (Exception e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+	
 	/** Pair of label and feature vector. */
 	static public Pair<String,StringFeatureVector> toInstance(String line, boolean hasWeight)
 	{
@@ -0,0 +1,287 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.vector;
+
+import java.util.Arrays;
+
+import com.googlecode.clearnlp.classification.train.AbstractTrainSpace;
+
+
+/**
+ * Vector containing string features as 64-bit hashes for decoding.
+ * The hash of a feature is computed over its type and value (see {@link HashedFeatureVector#getHash(String, String)}),
+ * so a value joined from multiple fields can be hashed field by field without building the joined string.
+ * The same vector can be cleared and refilled for every prediction without allocation.
+ * Feature types and values are not kept; thus, this vector is not a {@link StringFeatureVector} and cannot be used for training.
+ * Models convert this vector by {@link com.googlecode.clearnlp.classification.model.StringModel#toSparseFeatureVector(HashedFeatureVector)}.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class HashedFeatureVector extends AbstractFeatureVector
+{
+	/** The initial value of a hash (FNV-1a). */
+	static public final long HASH_INIT  = 0xcbf29ce484222325L;
+	static private final long HASH_PRIME = 0x100000001b3L;
+	static private final int  N_INIT_SIZE = 64;
+	
+	private long[] l_hashes;
+	private int    n_size;
+	/** The sparse vector reused by models to convert this vector. */
+	private SparseFeatureVector x_sparse;
+	/** The weighted sparse vector reused by models to convert this vector, created on demand. */
+	private SparseFeatureVector x_weighted;
+	
+	/** Constructs a vector containing hashed features without weights. */
+	public HashedFeatureVector()
+	{
+		super();
+	}
+	
+	/**
+	 * Constructs a vector containing hashed features.
+	 * @param hasWeight {@code true} if features are assigned with different weights.
+	 */
+	public HashedFeatureVector(boolean hasWeight)
+	{
+		super(hasWeight);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.googlecode.clearnlp.classification.vector.AbstractFeatureVector#init()
+	 */
+	protected void init()
+	{
+		l_hashes = new long[N_INIT_SIZE];
+		n_size   = 0;
+		x_sparse = new SparseFeatureVector();
+	}
+	
+	public HashedFeatureVector clone()
+	{
+		HashedFeatureVector copy = new HashedFeatureVector(b_weight);
+		
+		copy.l_hashes = Arrays.copyOf(l_hashes, Math.max(n_size, N_INIT_SIZE));
+		copy.n_size   = n_size;
+		if (b_weight) copy.d_weights = d_weights.clone();
+		
+		return copy;
+	}
+	
+//	====================================== HASH ======================================
+	
+	/**
+	 * Returns the hash of the specific character sequence continued from the specific hash.
+	 * @param hash the previous hash (e.g., {@link HashedFeatureVector#HASH_INIT}).
+	 */
+	static public long getHash(long hash, CharSequence s)
+	{
+		int i, len = s.length();
+		
+		for (i=0; i<len; i++)
+			hash = getHash(hash, s.charAt(i));
+		
+		return hash;
+	}
+	
+	/**
+	 * Returns the hash of the specific character continued from the specific hash.
+	 * @param hash the previous hash (e.g., {@link HashedFeatureVector#HASH_INIT}).
+	 */
+	static public long getHash(long hash, char c)
+	{
+		return (hash ^ c) * HASH_PRIME;
+	}
+	
+	/**
+	 * Returns the hash of the specific feature type, from which the hash of its value continues.
+	 * @param type the feature type.
+	 */
+	static public long getTypeHash(String type)
+	{
+		return getHash(getHash(HASH_INIT, type), DELIM.charAt(0));
+	}
+	
+	/**
+	 * Returns the hash of the specific feature, which is the same as
+	 * {@code getHash(getTypeHash(type), value)}.
+	 * @param type the feature type.
+	 * @param value the feature value.
+	 */
+	static public long getHash(String type, String value)
+	{
+		return getHash(getTypeHash(type), value);
+	}
+	
+//	====================================== FEATURES ======================================
+	
+	/** Removes all features while keeping the internal buffers. */
+	public void clear()
+	{
+		n_size = 0;
+		if (b_weight) d_weights.clear();
+	}
+	
+	/**
+	 * Adds a feature with the specific hash.
+	 * @param hash the hash of the feature (see {@link HashedFeatureVector#getHash(String, String)}).
+	 */
+	public void addFeature(long hash)
+	{
+		if (n_size == l_hashes.length)
+			l_hashes = Arrays.copyOf(l_hashes, n_size * 2);
+		
+		l_hashes[n_size++] = hash;
+	}
+	
+	/**
+	 * Adds a feature with the specific hash and weight.
+	 * @param hash the hash of the feature (see {@link HashedFeatureVector#getHash(String, String)}).
+	 * @param weight the feature weight.
+	 */
+	public void addFeature(long hash, double weight)
+	{
+		addFeature(hash);
+		d_weights.add(weight);
+	}
+	
+	/**
+	 * Adds a feature.
+	 * @param type the feature type.
+	 * @param value the feature value.
+	 */
+	public void addFeature(String type, String value)
+	{
+		addFeature(getHash(type, value));
+	}
+	
+	/**
+	 * Adds a feature.
+	 * @param type the feature type.
+	 * @param value the feature value.
+	 * @param weight the feature weight.
+	 */
+	public void addFeature(String type, String value, double weight)
+	{
+		addFeature(getHash(type, value), weight);
+	}
+	
+	/**
+	 * Adds a feature.
+	 * @param feature {@code <type>}{@link AbstractFeatureVector#DELIM}{@code <value>[}{@link AbstractFeatureVector#DELIM}{@code <weight>]}.
+	 */
+	public void addFeature(String feature)
+	{
+		int idx0 = feature.indexOf(DELIM);
+		
+		if (b_weight)
+		{
+			int idx1 = feature.lastIndexOf(DELIM);
+			addFeature(feature.substring(0, idx0), feature.substring(idx0+1, idx1), Double.parseDouble(feature.substring(idx1+1)));
+		}
+		else
+			addFeature(feature.substring(0, idx0), feature.substring(idx0+1));
+	}
+	
+	public void addFeatures(HashedFeatureVector vector)
+	{
+		int i, size = vector.size();
+		
+		for (i=0; i<size; i++)
+		{
+			if (b_weight)	addFeature(vector.getHash(i), vector.hasWeight() ? vector.getWeight(i) : 1);
+			else			addFeature(vector.getHash(i));
+		}
+	}
+	
+	/**
+	 * Returns the index'th feature hash.
+	 * @param index the index of the feature hash to return.
+	 * @return the index'th feature hash.
+	 */
+	public long getHash(int index)
+	{
+		return l_hashes[index];
+	}
+	
+	/**
+	 * Returns the total number of features in this vector.
+	 * @return the total number of features in this vector.
+	 */
+	public int size()
+	{
+		return n_size;
+	}
+	
+	/**
+	 * Returns the sparse vector reused by models to convert this vector; it is valid until the next conversion.
+	 * @param hasWeight {@code true} if the sparse vector needs weights.
+	 * @return the sparse vector reused by models to convert this vector.
+	 */
+	public SparseFeatureVector getSparseBuffer(boolean hasWeight)
+	{
+		if (!hasWeight)	return x_sparse;
+		if (x_weighted == null)	x_weighted = new SparseFeatureVector(true);
+		return x_weighted;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString()
+	{
+		StringBuilder build = new StringBuilder();
+		int i;
+		
+		for (i=0; i<n_size; i++)
+		{
+			build.append(AbstractTrainSpace.DELIM_COL);
+			build.append(Long.toHexString(l_hashes[i]));
+			
+			if (b_weight)
+			{
+				build.append(DELIM);
+				build.append(d_weights.get(i));
+			}
+		}
+		
+		return build.length() > 0 ? build.substring(AbstractTrainSpace.DELIM_COL.length()) : "";
+	}
+}
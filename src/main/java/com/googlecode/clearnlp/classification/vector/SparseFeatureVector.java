@@ -152,6 +152,44 @@ public class SparseFeatureVector extends AbstractFeatureVector
 		return i_indices.size();
 	}
 	
+	/**
+	 * Returns the 64-bit fingerprint of this vector, which is the same for vectors containing the same features in the same order.
+	 * Collisions between different vectors are unlikely enough for the fingerprint to be used as a key of prediction caches.
+	 * @since 1.4.3
+	 * @return the 64-bit fingerprint of this vector.
+	 */
+	public long getFingerprint()
+	{
+		long hash = HashedFeatureVector.HASH_INIT;
+		int i, size = i_indices.size();
+		
+		for (i=0; i<size; i++)
+		{
+			hash = mix(hash, i_indices.get(i));
+			if (b_weight)	hash = mix(hash, Double.doubleToLongBits(d_weights.get(i)));
+		}
+		
+		return hash;
+	}
+	
+	/** Called by {@link SparseFeatureVector#getFingerprint()}. */
+	static private long mix(long hash, long value)
+	{
+		hash ^= value * 0x9e3779b97f4a7c15L;
+		hash ^= hash >>> 31;
+		return hash * 0xbf58476d1ce4e5b9L;
+	}
+	
+	/**
+	 * Removes all features while keeping the internal buffer so this vector can be refilled without allocation.
+	 * @since 1.4.3
+	 */
+	public void clear()
+	{
+		i_indices.clear();
+		if (b_weight)	d_weights.clear();
+	}
+
 	/** Trims the internal buffer to the current size. */
 	public void trimToSize()
 	{
@@ -47,6 +47,7 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.googlecode.clearnlp.component.metrics.ComponentMetrics;
 import com.googlecode.clearnlp.dependency.DEPArc;
 import com.googlecode.clearnlp.dependency.DEPTree;
 
@@ -65,10 +66,43 @@ abstract public class AbstractComponent
 	protected final byte FLAG_DEVELOP	= 4;
 	
 	protected byte i_flag;
+	/** The metrics to record to ({@code null} if metrics are not recorded). */
+	protected ComponentMetrics m_metrics;
 	
 	/** Process this joint-component. */
 	abstract public void process(DEPTree tree);
 	
+	/**
+	 * Returns a component that shares all models and lexica with this component but keeps its own per-sentence states,
+	 * so the returned component can process trees concurrently with this component.
+	 * Components without per-sentence states return themselves.
+	 * @since 1.4.3
+	 */
+	public AbstractComponent getSharedComponent()
+	{
+		return this;
+	}
+	
+	/**
+	 * Sets the metrics to which this component records its events (e.g., transitions, cache lookups).
+	 * Components sharing models with this component (see {@link AbstractComponent#getSharedComponent()}) created afterwards record to the same metrics.
+	 * @since 1.4.3
+	 * @param metrics the metrics to record to ({@code null} to stop recording).
+	 */
+	public void setMetrics(ComponentMetrics metrics)
+	{
+		m_metrics = metrics;
+	}
+	
+	/**
+	 * @since 1.4.3
+	 * @return the metrics to which this component records its events ({@code null} if metrics are not recorded).
+	 */
+	public ComponentMetrics getMetrics()
+	{
+		return m_metrics;
+	}
+	
 	protected String[] getDeprelSet(List<DEPArc> deps)
 	{
 		if (deps.isEmpty())	return null;
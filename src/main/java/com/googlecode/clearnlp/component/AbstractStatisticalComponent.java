@@ -65,9 +65,14 @@ import org.apache.commons.compress.utils.IOUtils;
 import com.googlecode.clearnlp.classification.feature.FtrTemplate;
 import com.googlecode.clearnlp.classification.feature.FtrToken;
 import com.googlecode.clearnlp.classification.feature.JointFtrXml;
+import com.googlecode.clearnlp.classification.model.LazyStringModels;
+import com.googlecode.clearnlp.classification.model.MappedStringModel;
+import com.googlecode.clearnlp.classification.model.ModelInputStream;
 import com.googlecode.clearnlp.classification.model.ONStringModel;
 import com.googlecode.clearnlp.classification.model.StringModel;
 import com.googlecode.clearnlp.classification.train.StringTrainSpace;
+import com.googlecode.clearnlp.classification.vector.HashedFeatureVector;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
 import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
 import com.googlecode.clearnlp.dependency.DEPArc;
 import com.googlecode.clearnlp.dependency.DEPNode;
@@ -81,10 +86,15 @@ import com.googlecode.clearnlp.util.pair.Pair;
  * @since 1.3.0
  * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
  */
-abstract public class AbstractStatisticalComponent extends AbstractComponent
+abstract public class AbstractStatisticalComponent extends AbstractComponent implements Cloneable
 {
+	/** The maximum length of the first line of a model entry read before deciding its format. */
+	protected final int N_MARK_MODEL = 8192;
+	
 	protected StringTrainSpace[] s_spaces;
 	protected StringModel[]      s_models;
+	/** Models loaded on their first use instead of {@link AbstractStatisticalComponent#s_models} ({@code null} if models are loaded eagerly). */
+	protected LazyStringModels   s_lazyModels;
 	protected JointFtrXml[]      f_xmls;
 
 	protected DEPTree	d_tree;
@@ -93,6 +103,9 @@ abstract public class AbstractStatisticalComponent extends AbstractComponent
 	protected DEPNode[]	lm_deps, rm_deps;
 	protected DEPNode[]	ln_sibs, rn_sibs;
 	
+	/** The feature vector reused for decoding; created per component since shared components decode concurrently. */
+	private HashedFeatureVector h_vector;
+	
 //	====================================== CONSTRUCTORS ======================================
 	
 	public AbstractStatisticalComponent() {}
@@ -163,6 +176,21 @@ abstract public class AbstractStatisticalComponent extends AbstractComponent
 			s_models[i] = new StringModel();
 	}
 
+	/**
+	 * Loads the configuration saved by {@link AbstractStatisticalComponent#saveDefaultConfiguration(ZipOutputStream, String)}
+	 * for models loaded on their first use (see {@link AbstractStatisticalComponent#getModel(int)}).
+	 * @since 1.4.3
+	 */
+	protected void loadLazyConfiguration(ZipInputStream zin) throws Exception
+	{
+		BufferedReader fin = UTInput.createBufferedReader(zin);
+		int mSize = Integer.parseInt(fin.readLine());
+		
+		LOG.info("Loading configuration.\n");
+		s_models     = null;
+		s_lazyModels = new LazyStringModels(mSize, 0, ModelInputStream.getDirectory(zin));
+	}
+	
 	/** Called by {@link AbstractStatisticalComponent#loadModels(ZipInputStream)}}. */
 	protected ByteArrayInputStream loadFeatureTemplates(ZipInputStream zin, int index) throws Exception
 	{
@@ -193,7 +221,7 @@ abstract public class AbstractStatisticalComponent extends AbstractComponent
 	protected void loadStatisticalModels(ZipInputStream zin, int index) throws Exception
 	{
 		BufferedReader fin = UTInput.createBufferedReader(zin);
-		s_models[index].load(fin);
+		s_models[index] = MappedStringModel.read(fin, s_models[index], N_MARK_MODEL, ModelInputStream.getDirectory(zin));
 	//	s_models[index] = new StringModel(fin);
 	}
 	
@@ -203,6 +231,24 @@ abstract public class AbstractStatisticalComponent extends AbstractComponent
 		s_models[index].loadWeightVector(oin);
 	}
 	
+	/**
+	 * Keeps the model entry without loading it (see {@link AbstractStatisticalComponent#loadLazyConfiguration(ZipInputStream)}).
+	 * @since 1.4.3
+	 */
+	protected void loadLazyStatisticalModels(ZipInputStream zin, int index) throws Exception
+	{
+		s_lazyModels.putModelEntry(index, zin);
+	}
+	
+	/**
+	 * Keeps the weight entry without loading it (see {@link AbstractStatisticalComponent#loadLazyConfiguration(ZipInputStream)}).
+	 * @since 1.4.3
+	 */
+	protected void loadLazyWeightVector(ZipInputStream zin, int index) throws Exception
+	{
+		s_lazyModels.putWeightEntry(index, zin);
+	}
+	
 	/** For online decoders. */
 	protected void loadOnlineModels(ZipInputStream zin, int index, double alpha, double rho) throws Exception
 	{
@@ -330,15 +376,70 @@ abstract public class AbstractStatisticalComponent extends AbstractComponent
 		return s_spaces;
 	}
 	
-	/** @return all models of this joint-components. */
+	/** @return all models of this joint-components ({@code null} if models are loaded on their first use; see {@link AbstractStatisticalComponent#getLazyModels()}). */
 	public StringModel[] getModels()
 	{
 		return s_models;
 	}
 	
+	/**
+	 * Returns the model of the specific index, loading it if it is loaded on its first use.
+	 * @since 1.4.3
+	 */
+	protected StringModel getModel(int index)
+	{
+		return (s_lazyModels != null) ? s_lazyModels.get(index) : s_models[index];
+	}
+	
+	/**
+	 * Returns the models loaded on their first use, whose capacity and load/eviction counts can be accessed.
+	 * @since 1.4.3
+	 * @return the models loaded on their first use ({@code null} if models are loaded eagerly).
+	 */
+	public LazyStringModels getLazyModels()
+	{
+		return s_lazyModels;
+	}
+	
 	/** @return all objects containing lexica. */
 	abstract public Object[] getLexica();
 	
+//	====================================== SHARED COMPONENTS ======================================
+	
+	/**
+	 * Returns a shallow copy of this component sharing its models, feature templates, and lexica.
+	 * Only components for decoding can be shared because other modes update their models or training spaces.
+	 * @since 1.4.3
+	 */
+	@Override
+	public AbstractStatisticalComponent getSharedComponent()
+	{
+		if (i_flag != FLAG_DECODE)
+			throw new IllegalStateException("Only components for decoding can be shared.");
+		
+		try
+		{
+			AbstractStatisticalComponent component = (AbstractStatisticalComponent)clone();
+			component.clearStates();
+			return component;
+		}
+		catch (CloneNotSupportedException e) {throw new AssertionError(e);}
+	}
+	
+	/**
+	 * Clears per-sentence states copied by {@link AbstractStatisticalComponent#getSharedComponent()}.
+	 * Subclasses keeping more per-sentence states must override this method and call {@code super.clearStates()}.
+	 * @since 1.4.3
+	 */
+	protected void clearStates()
+	{
+		d_tree  = null;
+		t_size  = 0;
+		lm_deps = rm_deps = null;
+		ln_sibs = rn_sibs = null;
+		h_vector = null;
+	}
+	
 //	====================================== PROCESS ======================================
 
 	/** Counts the number of correctly classified labels. */
@@ -395,7 +496,11 @@ abstract public class AbstractStatisticalComponent extends AbstractComponent
 		return null;
 	}
 	
-	/** @return a feature vector using the specific feature template. */
+	/**
+	 * Returns a feature vector using the specific feature template.
+	 * The size of the vector is recorded if metrics are set (see {@link AbstractComponent#setMetrics(com.googlecode.clearnlp.component.metrics.ComponentMetrics)}).
+	 * @return a feature vector using the specific feature template.
+	 */
 	protected StringFeatureVector getFeatureVector(JointFtrXml xml)
 	{
 		StringFeatureVector vector = new StringFeatureVector();
@@ -403,8 +508,24 @@ abstract public class AbstractStatisticalComponent extends AbstractComponent
 		for (FtrTemplate template : xml.getFtrTemplates())
 			addFeatures(vector, template);
 		
+		if (m_metrics != null)	m_metrics.addFeatureVector(vector.size());
 		return vector;
 	}
+	
+	/**
+	 * Returns the sparse feature vector of the specific model using the specific feature template.
+	 * For decoding, features are hashed as they are extracted (see {@link AbstractStatisticalComponent#getHashedFeatureVector(JointFtrXml)});
+	 * otherwise, they are converted from {@link AbstractStatisticalComponent#getFeatureVector(JointFtrXml)}.
+	 * @since 1.4.3
+	 * @return the sparse feature vector of the specific model using the specific feature template.
+	 */
+	protected SparseFeatureVector getSparseFeatureVector(JointFtrXml xml, StringModel model)
+	{
+		if (i_flag == FLAG_DECODE)
+			return model.toSparseFeatureVector(getHashedFeatureVector(xml));
+		else
+			return model.toSparseFeatureVector(getFeatureVector(xml));
+	}
 
 	/** Called by {@link AbstractStatisticalComponent#getFeatureVector(JointFtrXml)}. */
 	private void addFeatures(StringFeatureVector vector, FtrTemplate template)
@@ -461,6 +582,85 @@ abstract public class AbstractStatisticalComponent extends AbstractComponent
 			vector.addFeature(type, prev);
 	}
 	
+	/**
+	 * Returns a hashed feature vector using the specific feature template.
+	 * Fields are hashed as they are extracted so no feature string is built,
+	 * and the returned vector is reused by this component; it is valid until the next call.
+	 * @since 1.4.3
+	 * @return a hashed feature vector using the specific feature template.
+	 */
+	protected HashedFeatureVector getHashedFeatureVector(JointFtrXml xml)
+	{
+		if (h_vector == null)
+			h_vector = new HashedFeatureVector();
+		else
+			h_vector.clear();
+		
+		for (FtrTemplate template : xml.getFtrTemplates())
+			addHashedFeatures(h_vector, template);
+		
+		if (m_metrics != null)	m_metrics.addFeatureVector(h_vector.size());
+		return h_vector;
+	}
+	
+	/** Called by {@link AbstractStatisticalComponent#getHashedFeatureVector(JointFtrXml)}. */
+	private void addHashedFeatures(HashedFeatureVector vector, FtrTemplate template)
+	{
+		long hash = HashedFeatureVector.getTypeHash(template.type);
+		FtrToken[] tokens = template.tokens;
+		int i, size = tokens.length;
+		
+		if (template.isSetFeature())
+		{
+			String[][] fields = new String[size][];
+			String[]   tmp;
+			
+			for (i=0; i<size; i++)
+			{
+				tmp = getFields(tokens[i]);
+				if (tmp == null)	return;
+				fields[i] = tmp;
+			}
+			
+			addHashedFeatures(vector, fields, 0, hash, true);
+		}
+		else
+		{
+			String field;
+			
+			for (i=0; i<size; i++)
+			{
+				field = getField(tokens[i]);
+				if (field == null)	return;
+				
+				if (i > 0)	hash = HashedFeatureVector.getHash(hash, AbstractColumnReader.BLANK_COLUMN);
+				hash = HashedFeatureVector.getHash(hash, field);
+			}
+			
+			vector.addFeature(hash);
+		}
+	}
+	
+	/**
+	 * Called by {@link AbstractStatisticalComponent#getHashedFeatureVector(JointFtrXml)}.
+	 * @param empty {@code true} if the value hashed so far is empty, in which case no delimiter is hashed.
+	 */
+	private void addHashedFeatures(HashedFeatureVector vector, String[][] fields, int index, long hash, boolean empty)
+	{
+		if (index < fields.length)
+		{
+			for (String field : fields[index])
+			{
+				if (empty)
+					addHashedFeatures(vector, fields, index+1, HashedFeatureVector.getHash(hash, field), field.isEmpty());
+				else
+					addHashedFeatures(vector, fields, index+1, HashedFeatureVector.getHash(HashedFeatureVector.getHash(hash, AbstractColumnReader.BLANK_COLUMN), field), false);
+			}
+		}
+		else
+			vector.addFeature(hash);
+	}
+	
 	protected List<Pair<String,StringFeatureVector>> getTrimmedInstances(List<Pair<String,StringFeatureVector>> insts)
 	{
 		List<Pair<String,StringFeatureVector>> nInsts = new ArrayList<Pair<String,StringFeatureVector>>();
@@ -42,6 +42,13 @@ package com.googlecode.clearnlp.component;
 
 import java.io.BufferedReader;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -62,6 +69,8 @@ abstract public class AbstractStatisticalComponentSB extends AbstractStatistical
 	protected double  d_margin;		// margin threshold
 	protected double  d_score;		// total score of the current sequence
 	protected boolean b_first;		// true if the current sequence is the first one
+	/** The executor for exploring branches in parallel ({@code null} if exploring sequentially). */
+	protected ExecutorService e_branches;
 	
 	public AbstractStatisticalComponentSB() {}
 	
@@ -111,6 +120,78 @@ abstract public class AbstractStatisticalComponentSB extends AbstractStatistical
 		n_beams = beams;
 	}
 	
+	/**
+	 * Sets the executor for exploring branches of selectional branching in parallel.
+	 * Each branch is explored on its own copy of the parse state; thus, results are the same as exploring sequentially.
+	 * The executor can be shared by components and threads, but must not be the one running this component
+	 * since this component waits for its branches.
+	 * @since 1.4.3
+	 * @param executor the executor for exploring branches ({@code null} to explore branches sequentially).
+	 */
+	public void setBranchExecutor(ExecutorService executor)
+	{
+		e_branches = executor;
+	}
+	
+	/**
+	 * Returns {@code true} if the specific number of branches are explored in parallel by {@link AbstractStatisticalComponentSB#runBranches(List)}.
+	 * Branches explored sequentially can share the state of this component; otherwise, each branch needs its own copy.
+	 * @since 1.4.3
+	 */
+	protected boolean isParallelBranches(int size)
+	{
+		return e_branches != null && size > 1;
+	}
+	
+	/**
+	 * Runs the specific branch tasks using {@link AbstractStatisticalComponentSB#e_branches} if {@link AbstractStatisticalComponentSB#isParallelBranches(int)}; otherwise, sequentially.
+	 * @since 1.4.3
+	 * @return the results of the tasks in the order of the tasks.
+	 */
+	protected <T>List<T> runBranches(List<Callable<T>> tasks)
+	{
+		List<T> results = new ArrayList<T>(tasks.size());
+		
+		try
+		{
+			if (isParallelBranches(tasks.size()))
+			{
+				for (Future<T> future : e_branches.invokeAll(tasks))
+					results.add(future.get());
+			}
+			else
+			{
+				FutureTask<T> future;
+				
+				for (Callable<T> task : tasks)
+				{
+					future = new FutureTask<T>(task);
+					future.run();
+					results.add(future.get());
+				}
+			}
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException("Failed to explore a branch.", e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while exploring branches.", e);
+		}
+		
+		return results;
+	}
+	
+	@Override
+	protected void clearStates()
+	{
+		super.clearStates();
+		d_score = 0;
+		b_first = true;
+	}
+	
 	protected void loadSBConfiguration(ZipInputStream zin) throws Exception
 	{
 		BufferedReader fin = UTInput.createBufferedReader(zin);
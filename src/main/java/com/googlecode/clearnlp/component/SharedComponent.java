@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.googlecode.clearnlp.component.metrics.ComponentMetrics;
+import com.googlecode.clearnlp.dependency.DEPTree;
+
+/**
+ * Thread-safe component that keeps a pool of components sharing models with the original component.
+ * Each call of {@link SharedComponent#process(DEPTree)} borrows a component from the pool,
+ * so multiple threads can decode concurrently against a single copy of the models.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class SharedComponent extends AbstractComponent
+{
+	private AbstractComponent        c_component;
+	private Queue<AbstractComponent> q_pool;
+	
+	/** @param component the component for decoding whose models are shared. */
+	public SharedComponent(AbstractComponent component)
+	{
+		c_component = component;
+		q_pool      = new ConcurrentLinkedQueue<AbstractComponent>();
+		q_pool.add(component);
+	}
+	
+	@Override
+	public void process(DEPTree tree)
+	{
+		AbstractComponent component = borrow();
+		
+		try
+		{
+			component.process(tree);
+		}
+		finally
+		{
+			release(component);
+		}
+	}
+	
+	/** @return a component that is not used by any other thread. */
+	public AbstractComponent borrow()
+	{
+		AbstractComponent component = q_pool.poll();
+		return (component != null) ? component : c_component.getSharedComponent();
+	}
+	
+	/** Returns the specific component borrowed by {@link SharedComponent#borrow()} to the pool. */
+	public void release(AbstractComponent component)
+	{
+		q_pool.offer(component);
+	}
+	
+	/** @return the original component whose models are shared. */
+	public AbstractComponent getComponent()
+	{
+		return c_component;
+	}
+	
+	@Override
+	public AbstractComponent getSharedComponent()
+	{
+		return this;
+	}
+	
+	/** Sets the specific metrics to the original component and all components in the pool. */
+	@Override
+	public void setMetrics(ComponentMetrics metrics)
+	{
+		super.setMetrics(metrics);
+		c_component.setMetrics(metrics);
+		
+		for (AbstractComponent component : q_pool)
+			component.setMetrics(metrics);
+	}
+	
+	/** @return components wrapping the specific components for concurrent decoding. */
+	static public AbstractComponent[] toSharedComponents(AbstractComponent[] components)
+	{
+		int i, size = components.length;
+		AbstractComponent[] shared = new AbstractComponent[size];
+		
+		for (i=0; i<size; i++)
+			shared[i] = (components[i] instanceof SharedComponent) ? components[i] : new SharedComponent(components[i]);
+		
+		return shared;
+	}
+}
@@ -45,10 +45,9 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -57,14 +56,17 @@ import java.util.zip.ZipOutputStream;
 import com.carrotsearch.hppc.IntOpenHashSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import com.googlecode.clearnlp.classification.algorithm.AbstractAlgorithm;
 import com.googlecode.clearnlp.classification.feature.FtrToken;
 import com.googlecode.clearnlp.classification.feature.JointFtrXml;
 import com.googlecode.clearnlp.classification.model.StringModel;
+import com.googlecode.clearnlp.classification.prediction.PredictionCache;
 import com.googlecode.clearnlp.classification.prediction.StringPrediction;
 import com.googlecode.clearnlp.classification.train.StringTrainSpace;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
 import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
 import com.googlecode.clearnlp.component.AbstractStatisticalComponentSB;
+import com.googlecode.clearnlp.component.metrics.ComponentMetrics;
+import com.googlecode.clearnlp.component.metrics.StripedCounter;
 import com.googlecode.clearnlp.dependency.DEPHead;
 import com.googlecode.clearnlp.dependency.DEPLabel;
 import com.googlecode.clearnlp.dependency.DEPLib;
@@ -100,16 +102,38 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 	protected final String LB_REDUCE	= "R";
 	protected final String LB_PASS		= "P";
 	
+	/** The indices of transitions recorded to metrics in {@link AbstractDEPParser#TRANS_NAMES}. */
+	protected final int TRANS_LEFT_REDUCE	= 0;
+	protected final int TRANS_LEFT_PASS		= 1;
+	protected final int TRANS_RIGHT_SHIFT	= 2;
+	protected final int TRANS_RIGHT_PASS	= 3;
+	protected final int TRANS_NO_SHIFT		= 4;
+	protected final int TRANS_NO_REDUCE		= 5;
+	protected final int TRANS_NO_PASS		= 6;
+	/** The names of transitions recorded to metrics (see {@link ComponentMetrics#getTransitionCounter(String)}). */
+	protected final String[] TRANS_NAMES	= {"left-reduce", "left-pass", "right-shift", "right-pass", "no-shift", "no-reduce", "no-pass"};
+	/** The counters of transitions resolved when the metrics are set ({@code null} if metrics are not recorded). */
+	private StripedCounter[] c_transitions;
+	
 	protected IntOpenHashSet	s_reduce;
 	protected StringIntPair[]	g_heads;
 	protected int				i_lambda, i_beta;
 
 	List<ObjectDoublePair<Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>>> l_branches;
-	protected Map<String,Pair<DEPLabel,DEPLabel>> m_labels;
 	protected List<List<DEPHead>> l_2ndDep;
 	protected double[] n_2ndPos;
 	protected int n_trans;
 	
+	/** The number of top predictions initially considered for reranking (see {@link AbstractDEPParser#getTopPredictions(SparseFeatureVector)}). */
+	private final int N_TOP_LABELS = 4;
+	private double[] d_scores;
+	private double[] d_tops;
+	private int[]    i_labels;
+	
+	/** The cache of top predictions shared by branches, reused across sentences. */
+	protected PredictionCache p_cache;
+	private   int             n_cacheSize = PredictionCache.DEFAULT_CAPACITY;
+	
 //	====================================== CONSTRUCTORS ======================================
 	
 	/** Constructs a dependency parsing for training. */
@@ -224,6 +248,27 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 	@Override
 	public Object[] getLexica() {return null;}
 	
+	/** Sets the specific metrics and resolves the counters of transitions (see {@link AbstractDEPParser#TRANS_NAMES}). */
+	@Override
+	public void setMetrics(ComponentMetrics metrics)
+	{
+		super.setMetrics(metrics);
+		
+		if (metrics == null)
+		{
+			c_transitions = null;
+			return;
+		}
+		
+		int i, size = TRANS_NAMES.length;
+		StripedCounter[] counters = new StripedCounter[size];
+		
+		for (i=0; i<size; i++)
+			counters[i] = metrics.getTransitionCounter(TRANS_NAMES[i]);
+		
+		c_transitions = counters;
+	}
+	
 	@Override
 	public void countAccuracy(int[] counts)
 	{
@@ -301,13 +346,52 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 		return trees;
 	}
 	
+	/**
+	 * Sets the maximum number of entries in the prediction cache, which is created when the next tree is parsed.
+	 * @since 1.4.3
+	 * @param size the maximum number of entries ({@code 0} to disable the cache).
+	 */
+	public void setPredictionCacheSize(int size)
+	{
+		n_cacheSize = size;
+		p_cache     = null;
+	}
+	
+	/**
+	 * Returns the prediction cache of this parser, whose statistics can be used to tune its size.
+	 * @since 1.4.3
+	 * @return the prediction cache of this parser ({@code null} if no tree has been parsed or the cache is disabled).
+	 */
+	public PredictionCache getPredictionCache()
+	{
+		return p_cache;
+	}
+	
+	@Override
+	protected void clearStates()
+	{
+		super.clearStates();
+		s_reduce   = null;
+		g_heads    = null;
+		l_branches = null;
+		p_cache    = null;
+		l_2ndDep   = null;
+		n_2ndPos   = null;
+		d_scores   = null;
+		d_tops     = null;
+		i_labels   = null;
+		i_lambda   = i_beta = n_trans = 0;
+	}
+	
 	/** Called by {@link AbstractDEPParser#process(DEPTree)}. */
 	protected void init(DEPTree tree)
 	{
 	 	d_tree = tree;
 	 	t_size = tree.size();
 	 	
-	 	m_labels = new HashMap<String,Pair<DEPLabel,DEPLabel>>();
+	 	if (p_cache == null && n_cacheSize > 0)
+	 		p_cache = new PredictionCache(n_cacheSize, N_TOP_LABELS);
+	 	
 	 	l_2ndDep = new ArrayList<List<DEPHead>>();
 	 	n_2ndPos = new double[t_size];
 	 	
@@ -448,21 +532,23 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 	/** Called by {@link AbstractDEPParser#parse()}. */
 	protected DEPLabel getLabel(List<Pair<String,StringFeatureVector>> insts, List<DEPState> states)
 	{
-		StringFeatureVector vector = getFeatureVector(f_xmls[0]);
+		StringFeatureVector vector;
 		DEPLabel label = null;
 		
 		if (i_flag == FLAG_TRAIN)
 		{
-			label = getGoldLabel();
+			vector = getFeatureVector(f_xmls[0]);
+			label  = getGoldLabel();
 			insts.add(new Pair<String,StringFeatureVector>(label.toString(), vector));
 		}
 		else if (i_flag == FLAG_DECODE || i_flag == FLAG_DEVELOP)
 		{
-			label = getAutoLabel(vector, states);
+			label = getAutoLabel(getSparseFeatureVector(f_xmls[0], s_models[0]), states);
 		}
 		else if (i_flag == FLAG_BOOTSTRAP)
 		{
-			label = getAutoLabel(vector, states);
+			vector = getFeatureVector(f_xmls[0]);
+			label  = getAutoLabel(s_models[0].toSparseFeatureVector(vector), states);
 			insts.add(new Pair<String,StringFeatureVector>(getGoldLabel().toString(), vector));
 		}
 		
@@ -542,28 +628,13 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 	}
 	
 	/** Called by {@link AbstractDEPParser#getLabel()}. */
-	private DEPLabel getAutoLabel(StringFeatureVector vector, List<DEPState> states)
+	private DEPLabel getAutoLabel(SparseFeatureVector x, List<DEPState> states)
 	{
-		String key = vector.toString();
-		Pair<DEPLabel,DEPLabel> val = m_labels.get(key);
-		DEPLabel fst, snd;
+		List<StringPrediction> ps = getTopPredictions(x);
+		DEPLabel fst = new DEPLabel(ps.get(0).label, ps.get(0).score);
+		DEPLabel snd = new DEPLabel(ps.get(1).label, ps.get(1).score);
 		List<DEPHead> p;
 		
-		if (val != null)
-		{
-			fst = val.o1;
-			snd = val.o2;
-		}
-		else
-		{
-			List<StringPrediction> ps = getPredictions(vector);
-
-			fst = new DEPLabel(ps.get(0).label, ps.get(0).score);
-			snd = new DEPLabel(ps.get(1).label, ps.get(1).score);
-			
-			m_labels.put(key, new Pair<DEPLabel,DEPLabel>(fst, snd));
-		}
-		
 		if (fst.score - snd.score < d_margin)
 		{
 			if (fst.isArc(LB_NO))
@@ -587,18 +658,142 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 		return fst;
 	}
 	
-	private List<StringPrediction> getPredictions(StringFeatureVector vector)
+	/**
+	 * Returns the reranked top predictions given the feature vector, where at least the first two are valid unless fewer labels are valid.
+	 * Only the top-k labels are selected and normalized instead of sorting and normalizing all labels;
+	 * k is doubled whenever reranking leaves fewer than two valid predictions so the first two are the same as
+	 * reranking the predictions of all labels.
+	 * The top predictions before reranking are cached by the fingerprint of the sparse feature vector
+	 * so repeated transitions are reranked against the current parse state without being scored again.
+	 * Called by {@link AbstractDEPParser#getAutoLabel(SparseFeatureVector, List)}.
+	 */
+	private List<StringPrediction> getTopPredictions(SparseFeatureVector x)
+	{
+		StringModel model = s_models[0];
+		int i, k, size, labels = model.getLabelSize();
+		List<StringPrediction> ps;
+		double normalizer = 0;
+		
+		initTopPredictions(labels);
+		long key = x.getFingerprint();
+		size = (p_cache != null) ? p_cache.get(key, i_labels, d_tops) : -1;
+		if (p_cache != null && m_metrics != null)	m_metrics.addCacheLookup(size >= 0);
+		
+		if (size < 0)
+		{
+			d_scores   = model.getScores(x, d_scores);
+			normalizer = model.getNormalizer(d_scores);
+			size = getTopPredictions(model, N_TOP_LABELS, normalizer);
+			if (p_cache != null)	p_cache.put(key, i_labels, d_tops, size);
+		}
+		else
+			normalizer = -1;	// not scored yet
+		
+		ps = getRerankedPredictions(model, size);
+		
+		for (k=N_TOP_LABELS*2; size < labels && !hasTwoValid(ps); k*=2)
+		{
+			if (normalizer < 0)
+			{
+				d_scores   = model.getScores(x, d_scores);
+				normalizer = model.getNormalizer(d_scores);
+			}
+			
+			size = getTopPredictions(model, k, normalizer);
+			ps   = getRerankedPredictions(model, size);
+		}
+		
+		return ps;
+	}
+	
+	/**
+	 * Returns the first label with the specific arc in the reranked predictions given the feature vector if its score is greater than the specific threshold.
+	 * Only the top-k labels are selected and normalized; k is doubled while a label outside the top-k may precede the returned label.
+	 * Called by {@link AbstractDEPParser#postProcessAux(DEPNode, int, Triple)}.
+	 * @return the label if exists; otherwise, {@code null}.
+	 */
+	private DEPLabel getTopArc(SparseFeatureVector x, String arc, double threshold)
 	{
-		List<StringPrediction> ps = s_models[0].predictAll(vector);
-		AbstractAlgorithm.normalize(ps);
-		rerankPredictions(ps);
+		StringModel model = s_models[0];
+		int k, size, labels = model.getLabelSize();
+		List<StringPrediction> ps;
+		double normalizer, lowest;
+		DEPLabel label;
+		
+		initTopPredictions(labels);
+		d_scores   = model.getScores(x, d_scores);
+		normalizer = model.getNormalizer(d_scores);
+		
+		for (k=N_TOP_LABELS; ; k*=2)
+		{
+			size   = getTopPredictions(model, k, normalizer);
+			ps     = getRerankedPredictions(model, size);
+			lowest = (size < labels) ? d_tops[size-1] : Double.NEGATIVE_INFINITY;	// labels outside the top-k score at most this
+			
+			for (StringPrediction p : ps)
+			{
+				if (p.score < lowest)		break;
+				if (p.score <= threshold)	return null;
+				
+				label = new DEPLabel(p.label, p.score);
+				if (label.isArc(arc))	return label;
+			}
+			
+			if (lowest <= threshold)
+				return null;
+		}
+	}
+	
+	private void initTopPredictions(int labels)
+	{
+		if (i_labels == null || i_labels.length < labels)
+		{
+			d_scores = new double[labels];
+			d_tops   = new double[labels];
+			i_labels = new int[labels];
+		}
+	}
+	
+	/** Stores the top-k label indices and their normalized scores to {@link AbstractDEPParser#i_labels} and {@link AbstractDEPParser#d_tops}. */
+	private int getTopPredictions(StringModel model, int k, double normalizer)
+	{
+		int i, size = model.getTopLabels(d_scores, i_labels, k);
+		
+		for (i=0; i<size; i++)
+			d_tops[i] = Math.exp(d_scores[i_labels[i]]) / normalizer;
 		
+		return size;
+	}
+	
+	private List<StringPrediction> getRerankedPredictions(StringModel model, int size)
+	{
+		List<StringPrediction> ps = new ArrayList<StringPrediction>(size);
+		int i;
+		
+		for (i=0; i<size; i++)
+			ps.add(new StringPrediction(model.getLabel(i_labels[i]), d_tops[i]));
+		
+		rerankPredictions(ps);
 		return ps;
 	}
 	
+	private boolean hasTwoValid(List<StringPrediction> ps)
+	{
+		int count = 0;
+		
+		for (StringPrediction p : ps)
+		{
+			if (p.score >= 0 && ++count >= 2)
+				return true;
+		}
+		
+		return false;
+	}
+	
 	/** Called by {@link AbstractDEPParser#depParseAux()}. */
 	protected void leftReduce(DEPNode lambda, DEPNode beta, String deprel)
 	{
+		countTransition(TRANS_LEFT_REDUCE);
 		leftArc(lambda, beta, deprel);
 		reduce();
 	}
@@ -606,6 +801,7 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 	/** Called by {@link AbstractDEPParser#depParseAux()}. */
 	protected void leftPass(DEPNode lambda, DEPNode beta, String deprel)
 	{
+		countTransition(TRANS_LEFT_PASS);
 		leftArc(lambda, beta, deprel);
 		pass();
 	}
@@ -613,6 +809,7 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 	/** Called by {@link AbstractDEPParser#depParseAux()}. */
 	protected void rightShift(DEPNode lambda, DEPNode beta, String deprel)
 	{
+		countTransition(TRANS_RIGHT_SHIFT);
 		rightArc(lambda, beta, deprel);
 		shift();
 	}
@@ -620,6 +817,7 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 	/** Called by {@link AbstractDEPParser#depParseAux()}. */
 	protected void rightPass(DEPNode lambda, DEPNode beta, String deprel)
 	{
+		countTransition(TRANS_RIGHT_PASS);
 		rightArc(lambda, beta, deprel);
 		pass();
 	}
@@ -627,21 +825,29 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 	/** Called by {@link AbstractDEPParser#depParseAux()}. */
 	protected void noShift()
 	{
+		countTransition(TRANS_NO_SHIFT);
 		shift();
 	}
 	
 	/** Called by {@link AbstractDEPParser#depParseAux()}. */
 	protected void noReduce()
 	{
+		countTransition(TRANS_NO_REDUCE);
 		reduce();
 	}
 	
 	/** Called by {@link AbstractDEPParser#depParseAux()}. */
 	protected void noPass()
 	{
+		countTransition(TRANS_NO_PASS);
 		pass();
 	}
 	
+	private void countTransition(int index)
+	{
+		if (c_transitions != null)	c_transitions[index].increment();
+	}
+	
 	private void leftArc(DEPNode lambda, DEPNode beta, String deprel)
 	{
 		lambda.setHead(beta, deprel);
@@ -727,7 +933,7 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 	
 	protected void postProcessAux(DEPNode node, int dir, Triple<DEPNode,String,Double> max)
 	{
-		List<StringPrediction> ps;
+		String   arc = (dir < 0) ? LB_RIGHT : LB_LEFT;
 		DEPLabel label;
 		DEPNode  head;
 		int i;
@@ -743,21 +949,8 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 			if (dir < 0)	i_lambda = i;
 			else			i_beta   = i;
 			
-			ps = getPredictions(getFeatureVector(f_xmls[0]));
-			
-			for (StringPrediction p : ps)
-			{
-				if (p.score <= max.o3)
-					break;
-				
-				label = new DEPLabel(p.label);
-				
-				if ((dir < 0 && label.isArc(LB_RIGHT)) || (dir > 0 && label.isArc(LB_LEFT)))
-				{
-					max.set(head, label.deprel, p.score);
-					break;
-				}
-			}
+			label = getTopArc(getSparseFeatureVector(f_xmls[0], s_models[0]), arc, max.o3);
+			if (label != null)	max.set(head, label.deprel, label.score);
 		}
 	}
 
@@ -916,7 +1109,7 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 		Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>> tm;
 		b_first = false;
 		
-		branch(l_branches, t0.o3);
+		List<AbstractDEPParser> parsers = branch(l_branches, t0.o3);
 		
 		if (i_flag == FLAG_DECODE || i_flag == FLAG_DEVELOP)
 		{
@@ -927,7 +1120,11 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 //				System.out.println(pp.d+"\n"+d_tree.toStringDEP()+"\n");
 //			}
 			
-			tm = (Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>)getMax(l_branches).o;
+			ObjectDoublePair<Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>> max = getMax(l_branches);
+			int idx = l_branches.indexOf(max);
+			
+			if (idx > 0)	resetNodes(parsers.get(idx-1).d_tree);
+			tm = (Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>)max.o;
 			d_tree.resetHeads(tm.o1);
 			return null;
 		}
@@ -943,17 +1140,105 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB
 		}
 	}
 	
-	private void branch(List<ObjectDoublePair<Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>>> list, List<DEPState> states)
+	/**
+	 * Explores the specific states, each on its own copy of the current parse state, in parallel if {@link AbstractDEPParser#isParallelBranches(int)}.
+	 * Second-best heads and part-of-speech votes found in branches are merged back in the order of the states.
+	 * @return the parsers that explored the states, in the order of the states.
+	 */
+	private List<AbstractDEPParser> branch(List<ObjectDoublePair<Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>>> list, List<DEPState> states)
 	{
-		Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>> t1;
-		double s1;
+		List<Callable<Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>>> tasks = new ArrayList<Callable<Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>>>();
+		List<AbstractDEPParser> parsers = new ArrayList<AbstractDEPParser>();
+		AbstractDEPParser parser;
+		int i, j, size = states.size();
 		
 		for (DEPState state : states)
 		{
-			resetState(state);
-			t1 = parseMain();
-			s1 = d_score / n_trans;
-			list.add(new ObjectDoublePair<Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>>(t1, s1));
+			parser = getBranchParser();
+			parsers.add(parser);
+			tasks.add(new BranchTask(parser, state));
+		}
+		
+		List<Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>> ts = runBranches(tasks);
+		
+		for (i=0; i<size; i++)
+		{
+			parser = parsers.get(i);
+			list.add(new ObjectDoublePair<Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>>(ts.get(i), parser.d_score / parser.n_trans));
+			
+			for (j=0; j<t_size; j++)
+			{
+				l_2ndDep.get(j).addAll(parser.l_2ndDep.get(j));
+				n_2ndPos[j] += parser.n_2ndPos[j];
+			}
+		}
+		
+		return parsers;
+	}
+	
+	/**
+	 * Returns a copy of this parser for exploring a branch, which shares models and the prediction cache with this parser
+	 * but keeps its own copy of the current tree and parse state.
+	 * @since 1.4.3
+	 */
+	protected AbstractDEPParser getBranchParser()
+	{
+		AbstractDEPParser parser;
+		
+		try
+		{
+			parser = (AbstractDEPParser)clone();
+		}
+		catch (CloneNotSupportedException e) {throw new AssertionError(e);}
+		
+		parser.clearStates();
+		parser.d_tree   = d_tree.clone();
+		parser.t_size   = t_size;
+		parser.g_heads  = g_heads;
+		parser.p_cache  = p_cache;
+		parser.n_2ndPos = new double[t_size];
+		parser.l_2ndDep = new ArrayList<List<DEPHead>>();
+		parser.b_first  = false;
+		
+		int i; for (i=0; i<t_size; i++)
+			parser.l_2ndDep.add(new ArrayList<DEPHead>());
+		
+		return parser;
+	}
+	
+	/** Resets the part-of-speech tags and features of the current tree to the ones revised while exploring the specific tree. */
+	private void resetNodes(DEPTree tree)
+	{
+		DEPNode oNode, nNode;
+		int i;
+		
+		for (i=1; i<t_size; i++)
+		{
+			oNode = d_tree.get(i);
+			nNode = tree.get(i);
+			
+			oNode.pos = nNode.pos;
+			oNode.setFeats(nNode.getFeats());
+		}
+	}
+	
+	/** Explores a branch from the specific state. */
+	private class BranchTask implements Callable<Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>>>
+	{
+		AbstractDEPParser d_parser;
+		DEPState          d_state;
+		
+		public BranchTask(AbstractDEPParser parser, DEPState state)
+		{
+			d_parser = parser;
+			d_state  = state;
+		}
+		
+		@Override
+		public Triple<StringIntPair[],List<Pair<String,StringFeatureVector>>,List<DEPState>> call()
+		{
+			d_parser.resetState(d_state);
+			return d_parser.parseMain();
 		}
 	}
 	
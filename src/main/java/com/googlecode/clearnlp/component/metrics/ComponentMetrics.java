@@ -0,0 +1,284 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.component.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Metrics of a component: per-sentence latencies, sentence and token throughput,
+ * parser transition counts, prediction-cache hit rates, and feature-vector sizes.
+ * All recording methods are lock-free (see {@link StripedCounter}) so metrics can stay enabled while decoding.
+ * Throughputs are measured against the wall-clock time since this object was created or reset.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class ComponentMetrics implements ComponentMetricsMBean
+{
+	static private final double NANOS_PER_MILLI  = 1e6;
+	static private final double NANOS_PER_SECOND = 1e9;
+	
+	private String           s_name;
+	private LatencyHistogram h_latency;
+	private StripedCounter   c_tokens;
+	private StripedCounter   c_vectors;
+	private StripedCounter   c_features;
+	private StripedCounter   c_cacheHits;
+	private StripedCounter   c_cacheMisses;
+	private ConcurrentMap<String,StripedCounter> m_transitions;
+	private volatile long    n_start;
+	
+	/** @param name the name of the component (e.g., {@code dep}). */
+	public ComponentMetrics(String name)
+	{
+		s_name        = name;
+		h_latency     = new LatencyHistogram();
+		c_tokens      = new StripedCounter();
+		c_vectors     = new StripedCounter();
+		c_features    = new StripedCounter();
+		c_cacheHits   = new StripedCounter();
+		c_cacheMisses = new StripedCounter();
+		m_transitions = new ConcurrentHashMap<String,StripedCounter>();
+		n_start       = System.nanoTime();
+	}
+	
+//	====================================== RECORD ======================================
+	
+	/**
+	 * Records a processed sentence.
+	 * @param nanos the time taken to process the sentence in nanoseconds.
+	 * @param tokens the number of tokens in the sentence.
+	 */
+	public void addSentence(long nanos, int tokens)
+	{
+		h_latency.record(nanos);
+		c_tokens.add(tokens);
+	}
+	
+	/** Records a feature vector of the specific size extracted for a prediction. */
+	public void addFeatureVector(int size)
+	{
+		c_vectors.increment();
+		c_features.add(size);
+	}
+	
+	/** Records a lookup of the prediction cache. */
+	public void addCacheLookup(boolean hit)
+	{
+		if (hit)	c_cacheHits  .increment();
+		else		c_cacheMisses.increment();
+	}
+	
+	/**
+	 * Returns the counter of transitions of the specific name (e.g., {@code left-reduce}), creating it if absent.
+	 * Components resolve their counters once (e.g., when the metrics are set) and increment them while decoding,
+	 * so recording a transition does not look up the name.
+	 * Counters are kept by {@link ComponentMetrics#reset()}, which only resets their counts.
+	 * @param name the name of the transition.
+	 * @return the counter of transitions of the specific name.
+	 */
+	public StripedCounter getTransitionCounter(String name)
+	{
+		StripedCounter counter = m_transitions.get(name);
+		
+		if (counter == null)
+		{
+			StripedCounter prev = m_transitions.putIfAbsent(name, counter = new StripedCounter());
+			if (prev != null)	counter = prev;
+		}
+		
+		return counter;
+	}
+	
+//	====================================== GETTERS ======================================
+	
+	@Override
+	public String getName()
+	{
+		return s_name;
+	}
+	
+	/** @return the histogram of per-sentence latencies. */
+	public LatencyHistogram getLatencyHistogram()
+	{
+		return h_latency;
+	}
+	
+	@Override
+	public long getSentenceCount()
+	{
+		return h_latency.getCount();
+	}
+	
+	@Override
+	public long getTokenCount()
+	{
+		return c_tokens.sum();
+	}
+	
+	@Override
+	public double getSentencesPerSecond()
+	{
+		return perSecond(getSentenceCount());
+	}
+	
+	@Override
+	public double getTokensPerSecond()
+	{
+		return perSecond(getTokenCount());
+	}
+	
+	private double perSecond(long count)
+	{
+		long elapsed = System.nanoTime() - n_start;
+		return (elapsed <= 0) ? 0 : count * NANOS_PER_SECOND / elapsed;
+	}
+	
+	@Override
+	public double getMeanLatencyMillis()
+	{
+		return h_latency.getMean() / NANOS_PER_MILLI;
+	}
+	
+	@Override
+	public double getLatencyMillis50()
+	{
+		return h_latency.getPercentile(0.50) / NANOS_PER_MILLI;
+	}
+	
+	@Override
+	public double getLatencyMillis90()
+	{
+		return h_latency.getPercentile(0.90) / NANOS_PER_MILLI;
+	}
+	
+	@Override
+	public double getLatencyMillis99()
+	{
+		return h_latency.getPercentile(0.99) / NANOS_PER_MILLI;
+	}
+	
+	public long getCacheHits()
+	{
+		return c_cacheHits.sum();
+	}
+	
+	public long getCacheMisses()
+	{
+		return c_cacheMisses.sum();
+	}
+	
+	/** @return the ratio of cache lookups that are hits ({@code 0} if no lookup has been made). */
+	@Override
+	public double getCacheHitRate()
+	{
+		long hits = getCacheHits(), total = hits + getCacheMisses();
+		return (total == 0) ? 0 : (double)hits / total;
+	}
+	
+	/** @return the mean number of features per feature vector ({@code 0} if no vector has been recorded). */
+	@Override
+	public double getMeanFeatureVectorSize()
+	{
+		long vectors = c_vectors.sum();
+		return (vectors == 0) ? 0 : (double)c_features.sum() / vectors;
+	}
+	
+	/** @return the counts of transitions sorted by their names, including transitions not counted since the last reset. */
+	public Map<String,Long> getTransitionCounts()
+	{
+		Map<String,Long> map = new TreeMap<String,Long>();
+		
+		for (Map.Entry<String,StripedCounter> entry : m_transitions.entrySet())
+			map.put(entry.getKey(), entry.getValue().sum());
+		
+		return map;
+	}
+	
+	@Override
+	public String getTransitions()
+	{
+		return getTransitionCounts().toString();
+	}
+	
+	/** Resets all metrics and restarts measuring throughputs. */
+	@Override
+	public void reset()
+	{
+		h_latency    .reset();
+		c_tokens     .reset();
+		c_vectors    .reset();
+		c_features   .reset();
+		c_cacheHits  .reset();
+		c_cacheMisses.reset();
+		
+		for (StripedCounter counter : m_transitions.values())
+			counter.reset();
+		
+		n_start = System.nanoTime();
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder build = new StringBuilder();
+		
+		build.append(String.format("%s: sentences: %d (%.1f/s), tokens: %d (%.1f/s), latency (ms): mean %.3f, p50 %.3f, p90 %.3f, p99 %.3f",
+			s_name, getSentenceCount(), getSentencesPerSecond(), getTokenCount(), getTokensPerSecond(),
+			getMeanLatencyMillis(), getLatencyMillis50(), getLatencyMillis90(), getLatencyMillis99()));
+		
+		if (c_vectors.sum() > 0)
+			build.append(String.format(", features/vector: %.1f", getMeanFeatureVectorSize()));
+		
+		if (getCacheHits() + getCacheMisses() > 0)
+			build.append(String.format(", cache hit-rate: %5.2f%%", 100*getCacheHitRate()));
+		
+		if (!m_transitions.isEmpty())
+		{
+			build.append(", transitions: ");
+			build.append(getTransitions());
+		}
+		
+		return build.toString();
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.component.metrics;
+
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.dependency.DEPTree;
+
+/**
+ * Component that records the latency and the number of tokens of each tree processed by another component.
+ * The metrics are also set to the wrapped component (see {@link AbstractComponent#setMetrics(ComponentMetrics)})
+ * so statistical components can record their own events such as transitions and cache lookups.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class InstrumentedComponent extends AbstractComponent
+{
+	private AbstractComponent c_component;
+	
+	/**
+	 * @param component the component to be instrumented.
+	 * @param metrics the metrics to record to.
+	 */
+	public InstrumentedComponent(AbstractComponent component, ComponentMetrics metrics)
+	{
+		c_component = component;
+		setMetrics(metrics);
+	}
+	
+	@Override
+	public void process(DEPTree tree)
+	{
+		long start = System.nanoTime();
+		
+		c_component.process(tree);
+		m_metrics.addSentence(System.nanoTime() - start, tree.size() - 1);
+	}
+	
+	@Override
+	public void setMetrics(ComponentMetrics metrics)
+	{
+		super.setMetrics(metrics);
+		c_component.setMetrics(metrics);
+	}
+	
+	/** @return the component being instrumented. */
+	public AbstractComponent getComponent()
+	{
+		return c_component;
+	}
+	
+	/** Instrumented components are thread-safe if the components they wrap are. */
+	@Override
+	public AbstractComponent getSharedComponent()
+	{
+		AbstractComponent shared = c_component.getSharedComponent();
+		return (shared == c_component) ? this : new InstrumentedComponent(shared, m_metrics);
+	}
+	
+	/**
+	 * Returns components wrapping the specific components, whose metrics are registered to the specific registry.
+	 * @param names the names of the metrics in the order of the components (e.g., modes).
+	 */
+	static public AbstractComponent[] toInstrumentedComponents(AbstractComponent[] components, String[] names, MetricsRegistry registry)
+	{
+		int i, size = components.length;
+		AbstractComponent[] instrumented = new AbstractComponent[size];
+		
+		for (i=0; i<size; i++)
+			instrumented[i] = new InstrumentedComponent(components[i], registry.register(names[i]));
+		
+		return instrumented;
+	}
+}
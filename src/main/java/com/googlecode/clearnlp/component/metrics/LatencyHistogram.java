@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.component.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds.
+ * Each power of 2 is split into {@code 8} buckets so percentiles are reported within 12.5% of their true values,
+ * and values are recorded with a single atomic addition on a fixed array.
+ * As in {@link StripedCounter}, the buckets are striped by the calling thread and stripes are padded apart,
+ * so threads decoding concurrently rarely contend for the same cache line.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class LatencyHistogram
+{
+	/** The number of bits of each value kept below its highest bit. */
+	static private final int SUB_BITS  = 3;
+	static private final int SUB_SIZE  = 1 << SUB_BITS;
+	static private final int SUB_MASK  = SUB_SIZE - 1;
+	/** The number of buckets covering all non-negative longs. */
+	static private final int BUCKETS   = (63 - SUB_BITS + 1) * SUB_SIZE;
+	
+	/** The number of longs between the first buckets of two stripes. */
+	static private final int STRIDE    = BUCKETS + StripedCounter.PADDING;
+	
+	private AtomicLongArray a_buckets;
+	private int             n_mask;
+	private StripedCounter  c_count;
+	private StripedCounter  c_sum;
+	
+	/** Constructs a histogram with twice as many stripes as available processors. */
+	public LatencyHistogram()
+	{
+		this(Runtime.getRuntime().availableProcessors() * 2);
+	}
+	
+	/** @param stripes the number of stripes, rounded up to a power of 2. */
+	public LatencyHistogram(int stripes)
+	{
+		int size = StripedCounter.getPowerOf2(stripes);
+		
+		a_buckets = new AtomicLongArray(size * STRIDE);
+		n_mask    = size - 1;
+		c_count   = new StripedCounter(size);
+		c_sum     = new StripedCounter(size);
+	}
+	
+	/** Records the specific latency in nanoseconds (negative values are recorded as {@code 0}). */
+	public void record(long nanos)
+	{
+		if (nanos < 0)	nanos = 0;
+		
+		a_buckets.incrementAndGet(StripedCounter.getStripe(n_mask) * STRIDE + getBucket(nanos));
+		c_count.increment();
+		c_sum.add(nanos);
+	}
+	
+	/** @return the number of recorded latencies. */
+	public long getCount()
+	{
+		return c_count.sum();
+	}
+	
+	/** @return the sum of recorded latencies in nanoseconds. */
+	public long getSum()
+	{
+		return c_sum.sum();
+	}
+	
+	/** @return the mean of recorded latencies in nanoseconds ({@code 0} if none is recorded). */
+	public double getMean()
+	{
+		long count = getCount();
+		return (count == 0) ? 0 : (double)getSum() / count;
+	}
+	
+	/**
+	 * Returns the upper bound of the bucket containing the specific percentile.
+	 * @param percentile the percentile in {@code [0, 1]} (e.g., {@code 0.99}).
+	 * @return the upper bound of the bucket containing the specific percentile in nanoseconds ({@code 0} if none is recorded).
+	 */
+	public long getPercentile(double percentile)
+	{
+		long[] counts = getCounts();
+		long   total  = 0, rank, sum = 0;
+		int    i;
+		
+		for (long count : counts)
+			total += count;
+		
+		if (total == 0)	return 0;
+		rank = Math.max(1, (long)Math.ceil(percentile * total));
+		
+		for (i=0; i<BUCKETS; i++)
+		{
+			if ((sum += counts[i]) >= rank)
+				return getUpperBound(i);
+		}
+		
+		return getUpperBound(BUCKETS-1);
+	}
+	
+	/** @return a snapshot of the bucket counts summed over all stripes. */
+	private long[] getCounts()
+	{
+		int i, offset, size = a_buckets.length();
+		long[] counts = new long[BUCKETS];
+		
+		for (offset=0; offset<size; offset+=STRIDE)
+			for (i=0; i<BUCKETS; i++)
+				counts[i] += a_buckets.get(offset + i);
+		
+		return counts;
+	}
+	
+	/** Resets all counts to {@code 0}. */
+	public void reset()
+	{
+		int i, size = a_buckets.length();
+		
+		for (i=0; i<size; i++)
+			a_buckets.set(i, 0);
+		
+		c_count.reset();
+		c_sum.reset();
+	}
+	
+	/** @return the index of the bucket containing the specific non-negative value. */
+	static int getBucket(long value)
+	{
+		if (value < SUB_SIZE)	return (int)value;
+		int exp = 63 - Long.numberOfLeadingZeros(value);
+		
+		return (exp - SUB_BITS + 1) * SUB_SIZE + (int)((value >>> (exp - SUB_BITS)) & SUB_MASK);
+	}
+	
+	/** @return the smallest value in the bucket of the specific index. */
+	static long getLowerBound(int bucket)
+	{
+		if (bucket < SUB_SIZE)	return bucket;
+		int exp = bucket / SUB_SIZE + SUB_BITS - 1;
+		
+		return (long)(SUB_SIZE + bucket % SUB_SIZE) << (exp - SUB_BITS);
+	}
+	
+	/** @return the largest value in the bucket of the specific index. */
+	static long getUpperBound(int bucket)
+	{
+		return (bucket+1 < BUCKETS) ? getLowerBound(bucket+1) - 1 : Long.MAX_VALUE;
+	}
+}
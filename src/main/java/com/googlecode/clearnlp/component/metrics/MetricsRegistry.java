@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.component.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of component metrics, which are optionally exposed as MBeans named
+ * {@code com.googlecode.clearnlp:type=ComponentMetrics,name=<name>} on the platform MBean server.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class MetricsRegistry
+{
+	static public final String JMX_DOMAIN = "com.googlecode.clearnlp";
+	
+	private final Logger LOG = LoggerFactory.getLogger(this.getClass());
+	private Map<String,ComponentMetrics> m_metrics;
+	private List<ObjectName> l_names;
+	private boolean b_jmx;
+	
+	/** @param jmx if {@code true}, registers metrics to the platform MBean server. */
+	public MetricsRegistry(boolean jmx)
+	{
+		m_metrics = new LinkedHashMap<String,ComponentMetrics>();
+		l_names   = new ArrayList<ObjectName>();
+		b_jmx     = jmx;
+	}
+	
+	/** @return the metrics of the specific name, which are created and registered if they do not exist. */
+	synchronized public ComponentMetrics register(String name)
+	{
+		ComponentMetrics metrics = m_metrics.get(name);
+		
+		if (metrics == null)
+		{
+			metrics = new ComponentMetrics(name);
+			m_metrics.put(name, metrics);
+			if (b_jmx)	registerMBean(metrics);
+		}
+		
+		return metrics;
+	}
+	
+	/** @return the metrics of the specific name ({@code null} if they do not exist). */
+	synchronized public ComponentMetrics get(String name)
+	{
+		return m_metrics.get(name);
+	}
+	
+	/** @return all metrics in this registry in the order of their registrations. */
+	synchronized public List<ComponentMetrics> getMetrics()
+	{
+		return new ArrayList<ComponentMetrics>(m_metrics.values());
+	}
+	
+	/** @return the JMX name of the specific metrics. */
+	static public ObjectName getObjectName(String name) throws JMException
+	{
+		return new ObjectName(JMX_DOMAIN+":type=ComponentMetrics,name="+ObjectName.quote(name));
+	}
+	
+	private void registerMBean(ComponentMetrics metrics)
+	{
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		
+		try
+		{
+			ObjectName name = getObjectName(metrics.getName());
+			
+			if (server.isRegistered(name))
+				server.unregisterMBean(name);
+			
+			server.registerMBean(metrics, name);
+			l_names.add(name);
+		}
+		catch (JMException e) {LOG.warn("Failed to register "+metrics.getName()+": "+e.getMessage()+"\n");}
+	}
+	
+	/** Unregisters all metrics from the platform MBean server. */
+	synchronized public void close()
+	{
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		
+		for (ObjectName name : l_names)
+		{
+			try
+			{
+				if (server.isRegistered(name))
+					server.unregisterMBean(name);
+			}
+			catch (JMException e) {LOG.warn("Failed to unregister "+name+": "+e.getMessage()+"\n");}
+		}
+		
+		l_names.clear();
+	}
+}
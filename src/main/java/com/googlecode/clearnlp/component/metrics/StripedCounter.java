@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.component.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counter whose additions are spread over cells chosen by the calling thread,
+ * so threads decoding concurrently rarely contend for the same cache line.
+ * Reading the value sums all cells; it is exact once no thread is adding.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class StripedCounter
+{
+	/** The number of longs between two cells, which keeps each cell in its own cache line. */
+	static final int PADDING = 8;
+	
+	private AtomicLongArray a_cells;
+	private int             n_mask;
+	
+	/** Constructs a counter with twice as many cells as available processors. */
+	public StripedCounter()
+	{
+		this(Runtime.getRuntime().availableProcessors() * 2);
+	}
+	
+	/** @param stripes the number of cells, rounded up to a power of 2. */
+	public StripedCounter(int stripes)
+	{
+		int size = getPowerOf2(stripes);
+		
+		a_cells = new AtomicLongArray(size * PADDING);
+		n_mask  = size - 1;
+	}
+	
+	/** Adds {@code 1} to this counter. */
+	public void increment()
+	{
+		a_cells.incrementAndGet(getCell());
+	}
+	
+	/** Adds the specific value to this counter. */
+	public void add(long delta)
+	{
+		a_cells.addAndGet(getCell(), delta);
+	}
+	
+	/** @return the sum of all cells. */
+	public long sum()
+	{
+		int i, size = a_cells.length();
+		long sum = 0;
+		
+		for (i=0; i<size; i+=PADDING)
+			sum += a_cells.get(i);
+		
+		return sum;
+	}
+	
+	/** Resets all cells to {@code 0}; additions made concurrently may or may not be kept. */
+	public void reset()
+	{
+		int i, size = a_cells.length();
+		
+		for (i=0; i<size; i+=PADDING)
+			a_cells.set(i, 0);
+	}
+	
+	/** @return the index of the cell for the current thread. */
+	private int getCell()
+	{
+		return getStripe(n_mask) * PADDING;
+	}
+	
+	/** @return the index of the stripe for the current thread, where {@code mask} is the number of stripes minus {@code 1}. */
+	static int getStripe(int mask)
+	{
+		long id = Thread.currentThread().getId();
+		int  h  = (int)(id ^ (id >>> 32)) * 0x9E3779B9;
+		
+		return (h >>> 16) & mask;
+	}
+	
+	/** @return the smallest power of 2 greater than or equal to the specific number of stripes. */
+	static int getPowerOf2(int stripes)
+	{
+		return (stripes <= 1) ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return Long.toString(sum());
+	}
+}
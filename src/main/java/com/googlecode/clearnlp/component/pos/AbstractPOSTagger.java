@@ -58,6 +58,7 @@ import com.googlecode.clearnlp.classification.feature.JointFtrXml;
 import com.googlecode.clearnlp.classification.model.StringModel;
 import com.googlecode.clearnlp.classification.prediction.StringPrediction;
 import com.googlecode.clearnlp.classification.train.StringTrainSpace;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
 import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
 import com.googlecode.clearnlp.component.AbstractStatisticalComponent;
 import com.googlecode.clearnlp.dependency.DEPLib;
@@ -288,6 +289,14 @@ abstract public class AbstractPOSTagger extends AbstractStatisticalComponent
 		processAux();
 	}
 	
+	@Override
+	protected void clearStates()
+	{
+		super.clearStates();
+		g_tags  = null;
+		i_input = 0;
+	}
+	
 	/** Called by {@link AbstractPOSTagger#process(DEPTree)}. */
 	protected void init(DEPTree tree)
 	{
@@ -356,21 +365,23 @@ abstract public class AbstractPOSTagger extends AbstractStatisticalComponent
 	/** Called by {@link AbstractPOSTagger#tag()}. */
 	private String getLabel(List<Pair<String,StringFeatureVector>> insts)
 	{
-		StringFeatureVector vector = getFeatureVector(f_xmls[0]);
+		StringFeatureVector vector;
 		String label = null;
 		
 		if (i_flag == FLAG_TRAIN)
 		{
-			label = getGoldLabel();
+			vector = getFeatureVector(f_xmls[0]);
+			label  = getGoldLabel();
 			if (vector.size() > 0)	insts.add(new Pair<String,StringFeatureVector>(label, vector));
 		}
 		else if (i_flag == FLAG_DECODE || i_flag == FLAG_DEVELOP)
 		{
-			label = getAutoLabel(vector);
+			label = getAutoLabel(getSparseFeatureVector(f_xmls[0], s_models[0]));
 		}
 		else if (i_flag == FLAG_BOOTSTRAP)
 		{
-			label = getAutoLabel(vector);
+			vector = getFeatureVector(f_xmls[0]);
+			label  = getAutoLabel(s_models[0].toSparseFeatureVector(vector));
 			if (vector.size() > 0)	insts.add(new Pair<String,StringFeatureVector>(getGoldLabel(), vector));
 		}
 		
@@ -384,9 +395,9 @@ abstract public class AbstractPOSTagger extends AbstractStatisticalComponent
 	}
 	
 	/** Called by {@link AbstractPOSTagger#getLabel()}. */
-	private String getAutoLabel(StringFeatureVector vector)
+	private String getAutoLabel(SparseFeatureVector x)
 	{
-		Pair<StringPrediction,StringPrediction> ps = s_models[0].predictTwo(vector);
+		Pair<StringPrediction,StringPrediction> ps = s_models[0].predictTwo(x);
 		StringPrediction fst = ps.o1;
 		StringPrediction snd = ps.o2;
 		
@@ -49,17 +49,18 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
-import com.googlecode.clearnlp.classification.algorithm.AbstractAlgorithm;
 import com.googlecode.clearnlp.classification.feature.FtrToken;
 import com.googlecode.clearnlp.classification.feature.JointFtrXml;
 import com.googlecode.clearnlp.classification.model.StringModel;
 import com.googlecode.clearnlp.classification.prediction.StringPrediction;
 import com.googlecode.clearnlp.classification.train.StringTrainSpace;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
 import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
 import com.googlecode.clearnlp.component.AbstractStatisticalComponent;
 import com.googlecode.clearnlp.component.AbstractStatisticalComponentSB;
@@ -98,6 +99,8 @@ public class CPOSTaggerSB extends AbstractStatisticalComponentSB
 	protected Map<String,String>	m_ambi;
 	protected String[]          	g_tags;
 	protected int 					i_input;
+	private   double[]				d_scores;
+	private   int[]					i_labels;
 	
 //	protected Map<String,Pair<StringPrediction,StringPrediction>> m_labels;
 	
@@ -287,6 +290,16 @@ public class CPOSTaggerSB extends AbstractStatisticalComponentSB
 		processAux();
 	}
 	
+	@Override
+	protected void clearStates()
+	{
+		super.clearStates();
+		g_tags   = null;
+		d_scores = null;
+		i_labels = null;
+		i_input  = 0;
+	}
+	
 	/** Called by {@link CPOSTaggerSB#process(DEPTree)}. */
 	protected void init(DEPTree tree)
 	{
@@ -377,21 +390,23 @@ public class CPOSTaggerSB extends AbstractStatisticalComponentSB
 	/** Called by {@link CPOSTaggerSB#tag()}. */
 	private StringPrediction getLabel(List<Pair<String,StringFeatureVector>> insts, List<POSState> states)
 	{
-		StringFeatureVector vector = getFeatureVector(f_xmls[0]);
+		StringFeatureVector vector;
 		StringPrediction label = null;
 		
 		if (i_flag == FLAG_TRAIN)
 		{
-			label = getGoldLabel();
+			vector = getFeatureVector(f_xmls[0]);
+			label  = getGoldLabel();
 			if (vector.size() > 0)	insts.add(new Pair<String,StringFeatureVector>(label.label, vector));
 		}
 		else if (i_flag == FLAG_DECODE || i_flag == FLAG_DEVELOP)
 		{
-			label = getAutoLabel(vector, states);
+			label = getAutoLabel(getSparseFeatureVector(f_xmls[0], s_models[0]), states);
 		}
 		else if (i_flag == FLAG_BOOTSTRAP)
 		{
-			label = getAutoLabel(vector, states);
+			vector = getFeatureVector(f_xmls[0]);
+			label  = getAutoLabel(s_models[0].toSparseFeatureVector(vector), states);
 			if (vector.size() > 0)	insts.add(new Pair<String,StringFeatureVector>(getGoldLabel().label, vector));
 		}
 		
@@ -405,13 +420,24 @@ public class CPOSTaggerSB extends AbstractStatisticalComponentSB
 	}
 	
 	/** Called by {@link CPOSTaggerSB#getLabel()}. */
-	private StringPrediction getAutoLabel(StringFeatureVector vector, List<POSState> states)
+	private StringPrediction getAutoLabel(SparseFeatureVector x, List<POSState> states)
 	{
-		List<StringPrediction> ps = s_models[0].predictAll(vector);
-		AbstractAlgorithm.normalize(ps);
+		StringModel model = s_models[0];
+		if (i_labels == null)	i_labels = new int[2];
+		
+		d_scores = model.getScores(x, d_scores);
+		model.getTopLabels(d_scores, i_labels, 2);
 		
-		StringPrediction fst = ps.get(0);
-		StringPrediction snd = ps.get(1);
+		StringPrediction fst = model.getPrediction(d_scores, i_labels[0]);
+		StringPrediction snd = model.getPrediction(d_scores, i_labels[1]);
+		
+		// normalized scores are used only for branching
+		if (n_beams > 1)
+		{
+			double normalizer = model.getNormalizer(d_scores);
+			fst.score = Math.exp(fst.score) / normalizer;
+			snd.score = Math.exp(snd.score) / normalizer;
+		}
 		
 		if (b_first && n_beams > 1 && fst.score - snd.score < d_margin)
 			states.add(new POSState(i_input, d_score, snd));
@@ -526,7 +552,7 @@ public class CPOSTaggerSB extends AbstractStatisticalComponentSB
 		
 		list = new ArrayList<ObjectDoublePair<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>>>();
 		list.add(new ObjectDoublePair<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>>(t0, d_score));
-		branch(list, t0.o3);
+		branch(list, t0.o3, t0.o1);
 		
 		if (i_flag == FLAG_DECODE || i_flag == FLAG_DEVELOP)
 		{
@@ -546,30 +572,110 @@ public class CPOSTaggerSB extends AbstractStatisticalComponentSB
 		}
 	}
 	
-	private void branch(List<ObjectDoublePair<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>>> list, List<POSState> states)
+	/**
+	 * Explores the specific states, in parallel if {@link CPOSTaggerSB#isParallelBranches(int)}, where each branch starts from the specific tags of the first sequence.
+	 * Branches explored in parallel tag their own copies of the current tree; otherwise, they tag the current tree one after another.
+	 */
+	private void branch(List<ObjectDoublePair<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>>> list, List<POSState> states, String[] tags)
 	{
-		Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>> t1;
-		double s1;
+		List<Callable<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>>> tasks = new ArrayList<Callable<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>>>();
+		List<CPOSTaggerSB> taggers = new ArrayList<CPOSTaggerSB>();
+		int i, size = states.size();
+		boolean parallel = isParallelBranches(size);
+		CPOSTaggerSB tagger;
 		
 		for (POSState state : states)
 		{
-			resetState(state);
-			t1 = tagMain();
-			s1 = d_score;
-			list.add(new ObjectDoublePair<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>>(t1, s1));
+			tagger = getBranchTagger(parallel);
+			taggers.add(tagger);
+			tasks.add(new BranchTask(tagger, state, tags));
 		}
+		
+		List<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>> ts = runBranches(tasks);
+		if (!parallel)	d_tree.resetPOSTags(tags);
+		
+		for (i=0; i<size; i++)
+			list.add(new ObjectDoublePair<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>>(ts.get(i), taggers.get(i).d_score));
 	}
 	
-	private void resetState(POSState state)
+	/**
+	 * Returns a copy of this tagger for exploring a branch, which shares models and lexica with this tagger
+	 * but keeps its own tagging state.
+	 * @since 1.4.3
+	 * @param copyTree if {@code true}, the copy tags its own copy of the current tree; otherwise, it tags the current tree.
+	 */
+	protected CPOSTaggerSB getBranchTagger(boolean copyTree)
 	{
+		CPOSTaggerSB tagger;
+		
+		try
+		{
+			tagger = (CPOSTaggerSB)clone();
+		}
+		catch (CloneNotSupportedException e) {throw new AssertionError(e);}
+		
+		tagger.clearStates();
+		tagger.d_tree  = d_tree;
+		tagger.t_size  = t_size;
+		tagger.g_tags  = g_tags;
+		tagger.b_first = false;
+		
+		if (copyTree)
+		{
+			DEPNode oNode, nNode;
+			int i;
+			
+			tagger.d_tree = d_tree.clone();
+			
+			for (i=1; i<t_size; i++)
+			{
+				oNode = d_tree.get(i);
+				nNode = tagger.d_tree.get(i);
+				nNode.simplifiedForm      = oNode.simplifiedForm;
+				nNode.lowerSimplifiedForm = oNode.lowerSimplifiedForm;
+			}
+		}
+		
+		return tagger;
+	}
+	
+	/** Explores a branch from the specific state. */
+	private class BranchTask implements Callable<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>>
+	{
+		CPOSTaggerSB p_tagger;
+		POSState     p_state;
+		String[]     p_tags;
+		
+		public BranchTask(CPOSTaggerSB tagger, POSState state, String[] tags)
+		{
+			p_tagger = tagger;
+			p_state  = state;
+			p_tags   = tags;
+		}
+		
+		@Override
+		public Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>> call()
+		{
+			p_tagger.resetState(p_state, p_tags);
+			return p_tagger.tagMain();
+		}
+	}
+	
+	/** Resets the tagging state to the specific state, where the tags before the state are the specific tags of the first sequence. */
+	private void resetState(POSState state, String[] tags)
+	{
+		int i;
+		
+		for (i=1; i<state.input; i++)
+			d_tree.get(i).pos = tags[i];
+		
 		i_input = state.input;
 		d_score = state.score;
 		tagAux(state.label);
 		
-		int i; for (i=i_input+1; i<t_size; i++)
+		for (i=i_input; i<t_size; i++)
 			d_tree.get(i).pos = null;
 	}
-	
 	private ObjectDoublePair<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>> getMax(List<ObjectDoublePair<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>>> list)
 	{
 		ObjectDoublePair<Triple<String[],List<Pair<String,StringFeatureVector>>,List<POSState>>> max = list.get(0), t;
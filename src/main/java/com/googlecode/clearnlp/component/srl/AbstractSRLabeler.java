@@ -48,7 +48,6 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -64,6 +63,7 @@ import com.googlecode.clearnlp.classification.feature.JointFtrXml;
 import com.googlecode.clearnlp.classification.model.StringModel;
 import com.googlecode.clearnlp.classification.prediction.StringPrediction;
 import com.googlecode.clearnlp.classification.train.StringTrainSpace;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
 import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
 import com.googlecode.clearnlp.component.AbstractStatisticalComponent;
 import com.googlecode.clearnlp.constant.universal.STConstant;
@@ -118,6 +118,7 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent
 	protected StringIntPair[][]	g_heads;
 	protected int				i_pred, i_arg;
 	protected Map<String,ObjectDoublePair<DEPNode>> m_argns;
+	private   double[]			d_scores;
 	
 	protected Prob1DMap			m_down, m_up;	// only for collecting
 	protected Set<String>		s_down, s_up;
@@ -297,6 +298,20 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent
 	
 //	====================================== INITIALIZATION ======================================
 	
+	@Override
+	protected void clearStates()
+	{
+		super.clearStates();
+		d_lca     = null;
+		s_skip    = null;
+		l_argns   = null;
+		m_argns   = null;
+		g_heads   = null;
+		p_roleset = null;
+		d_scores  = null;
+		i_pred    = i_arg = 0;
+	}
+	
 	/** Called by {@link AbstractSRLabeler#process(DEPTree)}. */
 	protected void init(DEPTree tree)
 	{
@@ -496,21 +511,22 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent
 	
 	private StringPrediction getLabel(int idx)
 	{
-		StringFeatureVector vector = getFeatureVector(f_xmls[0]);
+		StringFeatureVector vector;
 		StringPrediction p = null;
 		
 		if (i_flag == FLAG_TRAIN)
 		{
 			p = new StringPrediction(getGoldLabel(), 1d);
-			s_spaces[idx].addInstance(p.label, vector);
+			s_spaces[idx].addInstance(p.label, getFeatureVector(f_xmls[0]));
 		}
 		else if (i_flag == FLAG_DECODE || i_flag == FLAG_DEVELOP)
 		{
-			p = getAutoLabel(idx, vector);
+			p = getAutoLabel(idx, getSparseFeatureVector(f_xmls[0], s_models[idx]));
 		}
 		else if (i_flag == FLAG_BOOTSTRAP)
 		{
-			p = getAutoLabel(idx, vector);
+			vector = getFeatureVector(f_xmls[0]);
+			p = getAutoLabel(idx, s_models[idx].toSparseFeatureVector(vector));
 			s_spaces[idx].addInstance(getGoldLabel(), vector);
 		}
 
@@ -530,9 +546,9 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent
 	}
 
 	/** Called by {@link AbstractSRLabeler#getLabel(byte)}. */
-	private StringPrediction getAutoLabel(int idx, StringFeatureVector vector)
+	private StringPrediction getAutoLabel(int idx, SparseFeatureVector x)
 	{
-		StringPrediction p = getBestPrediction(s_models[idx], vector);
+		StringPrediction p = getBestPrediction(s_models[idx], x);
 		
 		if (i_flag == FLAG_DECODE && !p.label.equals(LB_NO_ARG))
 		{
@@ -828,24 +844,51 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent
 
 //	================================ RERANK ================================
 	
-	private StringPrediction getBestPrediction(StringModel model, StringFeatureVector vector)
+	/**
+	 * Returns the same prediction as reranking and sorting all predictions (see {@link AbstractSRLabeler#rerankPredictions(List)})
+	 * by scanning the scores once; labels whose scores cannot reach the current best are not reranked.
+	 * Ties are broken by the original scores then label indices as the stable sort does.
+	 */
+	private StringPrediction getBestPrediction(StringModel model, SparseFeatureVector x)
 	{
-		List<StringPrediction> ps = model.predictAll(vector);
-		rerankPredictions(ps);
-		Collections.sort(ps);
-
-		return ps.get(0);
+		d_scores = model.getScores(x, d_scores);
+		
+		StringPrediction p = new StringPrediction(null, 0);
+		int i, best = -1, size = model.getLabelSize();
+		double score, bestScore = 0, bestOrig = 0;
+		
+		for (i=0; i<size; i++)
+		{
+			p.set(model.getLabel(i), d_scores[i]);
+			if (best >= 0 && Math.max(p.score, -1) < bestScore)	continue;
+			score = isInvalidPrediction(p) ? -1 : p.score;
+			
+			if (best < 0 || bestScore < score || (bestScore == score && bestOrig < p.score))
+			{
+				best      = i;
+				bestScore = score;
+				bestOrig  = p.score;
+			}
+		}
+		
+		return new StringPrediction(model.getLabel(best), bestScore);
 	}
 	
 	protected void rerankPredictions(List<StringPrediction> ps)
 	{
 		for (StringPrediction p : ps)
 		{
-			if (rerankFrameMismatch(p) || rerankRedundantNumberedArgument(p))
+			if (isInvalidPrediction(p))
 				p.score = -1;
 		}
 	}
 	
+	/** @return {@code true} if the specific prediction is reranked to the bottom by {@link AbstractSRLabeler#rerankPredictions(List)}. */
+	protected boolean isInvalidPrediction(StringPrediction p)
+	{
+		return rerankFrameMismatch(p) || rerankRedundantNumberedArgument(p);
+	}
+	
 	protected boolean rerankFrameMismatch(StringPrediction prediction)
 	{
 		if (p_roleset != null && !p_roleset.isValidArgument(prediction.label))
@@ -51,7 +51,7 @@ import com.googlecode.clearnlp.classification.model.AbstractModel;
 import com.googlecode.clearnlp.classification.model.StringModel;
 import com.googlecode.clearnlp.classification.prediction.StringPrediction;
 import com.googlecode.clearnlp.classification.train.StringTrainSpace;
-import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
 import com.googlecode.clearnlp.component.AbstractStatisticalComponent;
 import com.googlecode.clearnlp.dependency.DEPLib;
 import com.googlecode.clearnlp.dependency.DEPNode;
@@ -186,6 +186,14 @@ public class CPredIdentifier extends AbstractStatisticalComponent
 		identify();
 	}
 	
+	@Override
+	protected void clearStates()
+	{
+		super.clearStates();
+		g_preds = null;
+		i_pred  = 0;
+	}
+	
 	/** Called by {@link CPredIdentifier#process(DEPTree)}. */
 	protected void init(DEPTree tree)
 	{
@@ -228,17 +236,16 @@ public class CPredIdentifier extends AbstractStatisticalComponent
 	/** Called by {@link CPredIdentifier#identify()}. */
 	protected String getLabel()
  	 {
-		StringFeatureVector vector = getFeatureVector(f_xmls[0]);
 		String label = null;
 		
 		if (i_flag == FLAG_TRAIN)
 		{
 			label = getGoldLabel();
-			s_spaces[0].addInstance(label, vector);
+			s_spaces[0].addInstance(label, getFeatureVector(f_xmls[0]));
 		}
 		else if (i_flag == FLAG_DECODE || i_flag == FLAG_DEVELOP)
 		{
-			label = getAutoLabel(vector);
+			label = getAutoLabel(getSparseFeatureVector(f_xmls[0], s_models[0]));
 		}
 		
 		return label;
@@ -251,9 +258,9 @@ public class CPredIdentifier extends AbstractStatisticalComponent
 	}
 	
 	/** Called by {@link CPredIdentifier#getLabel()}. */
-	private String getAutoLabel(StringFeatureVector vector)
+	private String getAutoLabel(SparseFeatureVector x)
 	{
-		StringPrediction p = s_models[0].predictBest(vector);
+		StringPrediction p = s_models[0].predictBest(x);
 		return p.label;
 	}
 	
@@ -59,7 +59,6 @@ import com.googlecode.clearnlp.classification.feature.JointFtrXml;
 import com.googlecode.clearnlp.classification.model.StringModel;
 import com.googlecode.clearnlp.classification.prediction.StringPrediction;
 import com.googlecode.clearnlp.classification.train.StringTrainSpace;
-import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
 import com.googlecode.clearnlp.component.AbstractStatisticalComponent;
 import com.googlecode.clearnlp.dependency.DEPLib;
 import com.googlecode.clearnlp.dependency.DEPNode;
@@ -140,15 +139,15 @@ public class CRolesetClassifier extends AbstractStatisticalComponent
 				entry = zEntry.getName();
 				
 				if      (entry.equals(ENTRY_CONFIGURATION))
-					loadDefaultConfiguration(zin);
+					loadLazyConfiguration(zin);
 				else if (entry.startsWith(ENTRY_FEATURE))
 					loadFeatureTemplates(zin, Integer.parseInt(entry.substring(ENTRY_FEATURE.length())));
 				else if (entry.equals(ENTRY_LEXICA))
 					loadLexica(zin);
 				else if (entry.startsWith(ENTRY_MODEL))
-					loadStatisticalModels(zin, Integer.parseInt(entry.substring(ENTRY_MODEL.length())));
+					loadLazyStatisticalModels(zin, Integer.parseInt(entry.substring(ENTRY_MODEL.length())));
 				else if (entry.startsWith(ENTRY_WEIGHTS))
-					loadWeightVector(zin, Integer.parseInt(entry.substring(ENTRY_WEIGHTS.length())));
+					loadLazyWeightVector(zin, Integer.parseInt(entry.substring(ENTRY_WEIGHTS.length())));
 			}		
 		}
 		catch (Exception e) {e.printStackTrace();}
@@ -268,6 +267,14 @@ public class CRolesetClassifier extends AbstractStatisticalComponent
 		processAux();
 	}
 	
+	@Override
+	protected void clearStates()
+	{
+		super.clearStates();
+		g_rolesets = null;
+		i_pred     = 0;
+	}
+	
 	/** Called by {@link CRolesetClassifier#process(DEPTree)}. */
 	protected void init(DEPTree tree)
 	{
@@ -340,17 +347,16 @@ public class CRolesetClassifier extends AbstractStatisticalComponent
 	/** Called by {@link CRolesetClassifier#classify()}. */
 	protected String getLabel(int modelId)
  	 {
-		StringFeatureVector vector = getFeatureVector(f_xmls[0]);
 		String label = null;
 		
 		if (i_flag == FLAG_TRAIN)
 		{
 			label = getGoldLabel();
-			s_spaces[modelId].addInstance(label, vector);
+			s_spaces[modelId].addInstance(label, getFeatureVector(f_xmls[0]));
 		}
 		else if (i_flag == FLAG_DECODE || i_flag == FLAG_DEVELOP)
 		{
-			label = getAutoLabel(vector, modelId);
+			label = getAutoLabel(getModel(modelId));
 		}
 		
 		return label;
@@ -363,9 +369,9 @@ public class CRolesetClassifier extends AbstractStatisticalComponent
 	}
 	
 	/** Called by {@link CRolesetClassifier#getLabel()}. */
-	private String getAutoLabel(StringFeatureVector vector, int modelId)
+	private String getAutoLabel(StringModel model)
 	{
-		StringPrediction p = s_models[modelId].predictBest(vector);
+		StringPrediction p = model.predictBest(getSparseFeatureVector(f_xmls[0], model));
 		return p.label;
 	}
 
@@ -60,7 +60,6 @@ import com.googlecode.clearnlp.classification.feature.JointFtrXml;
 import com.googlecode.clearnlp.classification.model.StringModel;
 import com.googlecode.clearnlp.classification.prediction.StringPrediction;
 import com.googlecode.clearnlp.classification.train.StringTrainSpace;
-import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
 import com.googlecode.clearnlp.component.AbstractStatisticalComponent;
 import com.googlecode.clearnlp.dependency.DEPLib;
 import com.googlecode.clearnlp.dependency.DEPNode;
@@ -158,11 +157,11 @@ public class CSenseClassifier extends AbstractStatisticalComponent
 				entry = zEntry.getName();
 				
 				if      (entry.equals(ENTRY_CONFIGURATION))
-					loadDefaultConfiguration(zin);
+					loadLazyConfiguration(zin);
 				else if (entry.startsWith(ENTRY_FEATURE))
 					loadFeatureTemplates(zin, Integer.parseInt(entry.substring(fLen)));
 				else if (entry.startsWith(ENTRY_MODEL))
-					loadStatisticalModels(zin, Integer.parseInt(entry.substring(mLen)));
+					loadLazyStatisticalModels(zin, Integer.parseInt(entry.substring(mLen)));
 				else if (entry.equals(ENTRY_LEXICA))
 					loadLexica(zin);
 			}		
@@ -282,6 +281,14 @@ public class CSenseClassifier extends AbstractStatisticalComponent
 		processAux();
 	}
 	
+	@Override
+	protected void clearStates()
+	{
+		super.clearStates();
+		g_senses = null;
+		i_pred   = 0;
+	}
+	
 	/** Called by {@link CSenseClassifier#process(DEPTree)}. */
 	protected void init(DEPTree tree)
 	{
@@ -357,17 +364,16 @@ public class CSenseClassifier extends AbstractStatisticalComponent
 	/** Called by {@link CSenseClassifier#classify()}. */
 	protected String getLabel(int modelId)
  	 {
-		StringFeatureVector vector = getFeatureVector(f_xmls[0]);
 		String label = null;
 		
 		if (i_flag == FLAG_TRAIN)
 		{
 			label = getGoldLabel();
-			s_spaces[modelId].addInstance(label, vector);
+			s_spaces[modelId].addInstance(label, getFeatureVector(f_xmls[0]));
 		}
 		else if (i_flag == FLAG_DECODE || i_flag == FLAG_DEVELOP)
 		{
-			label = getAutoLabel(vector, modelId);
+			label = getAutoLabel(getModel(modelId));
 		}
 		
 		return label;
@@ -380,9 +386,9 @@ public class CSenseClassifier extends AbstractStatisticalComponent
 	}
 	
 	/** Called by {@link CSenseClassifier#getLabel()}. */
-	private String getAutoLabel(StringFeatureVector vector, int modelId)
+	private String getAutoLabel(StringModel model)
 	{
-		StringPrediction p = s_models[modelId].predictBest(vector);
+		StringPrediction p = model.predictBest(getSparseFeatureVector(f_xmls[0], model));
 		return p.label;
 	}
 
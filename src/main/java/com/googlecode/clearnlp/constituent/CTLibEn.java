@@ -301,12 +301,16 @@ public class CTLibEn extends CTLib
 	
 	/** POS tags of complemenizers. */
 	static final public Pattern RE_COMP_POS  = Pattern.compile("^(WDT|WP.*|WRB)$");
+	/** POS tags of complemenizers, precompiled into tag IDs. */
+	static final public CTTagMatcher MT_COMP_POS = CTTagMatcher.getPTagMatcher("WDT|WP.*|WRB");
 	/** Lower-cased word-forms of complementizers. */
 	static final public Pattern RE_COMP_FORM = Pattern.compile("^(how|however|that|what|whatever|whatsoever|when|whenever|where|whereby|wherein|whereupon|wherever|which|whichever|whither|who|whoever|whom|whose|why)$");
 	/** Passive empty categories ({@code *|*-\d}). */
 	static final public Pattern RE_NULL = Pattern.compile("^(\\*|\\*-.+)$");
 	/** WH phrases with antecedents. */
 	static final public Pattern RE_COMP_LINK = Pattern.compile("^(WHNP|WHPP|WHADVP)$");
+	/** WH phrases with antecedents, precompiled into tag IDs. */
+	static final public CTTagMatcher MT_COMP_LINK = CTTagMatcher.getPTagMatcher("WHNP|WHPP|WHADVP");
 	/** Complementizers with antecedents. */
 	static final public Pattern RE_COMP_LINK_FORM = Pattern.compile("^(0|that|when|where|whereby|wherein|whereupon|which|who|whom|whose)$");
 	/** A regular expression of identifying ICH|PPA|RNR empty categories. */
@@ -382,7 +386,7 @@ public class CTLibEn extends CTLib
 	static public boolean isComplementizer(CTNode node)
 	{
 		if (node.isPhrase())	return false;
-		return RE_COMP_POS.matcher(node.pTag).find() || (node.isPTag(POS_NONE) && node.isForm("0"));
+		return node.matchesPTag(MT_COMP_POS) || (node.isPTag(POS_NONE) && node.isForm("0"));
 	}
 	
 	/**
@@ -402,7 +406,7 @@ public class CTLibEn extends CTLib
 		
 		for (CTNode term : terminals)
 		{
-			if (RE_COMP_POS.matcher(term.pTag).find())
+			if (term.matchesPTag(MT_COMP_POS))
 				return term;
 		}
 		
@@ -484,7 +488,7 @@ public class CTLibEn extends CTLib
 	/** Called by {@link CTLibEn#linkComplementizers(CTTree)}. */
 	static private void linkComlementizersAux(CTTree tree, CTNode curr)
 	{
-		if (RE_COMP_LINK.matcher(curr.pTag).find())
+		if (curr.matchesPTag(MT_COMP_LINK))
 		{
 			CTNode comp = getComplementizer(curr);
 			CTNode sbar = curr.getHighestChainedAncestor(PTAG_SBAR);
@@ -94,6 +94,11 @@ public class CTNode implements Comparable<CTNode>
 	/** The list of PropBank predicate ID and label pairs. */
 	public List<StringIntPair> pbArgs = null;
 	
+	/** The phrase or pos tag whose ID is cached in {@link CTNode#i_pTagId}. */
+	private String s_pTagId = null;
+	/** The ID of {@link CTNode#pTag} in {@link CTTagSet#PTAGS}. */
+	private int    i_pTagId = -1;
+	
 	/**
      * Constructs a constituent node.
      * @param tags {@link CTNode#pTag}{@code (-}{@link CTNode#s_fTags}{@code )*(-}{@link CTNode#coIndex}{@code ){0,1}(=}{@link CTNode#gapIndex}{@code ){0,1}}.
@@ -526,14 +531,14 @@ public class CTNode implements Comparable<CTNode>
 		
 		if (tags.charAt(0) == '-')
 		{
-			pTag = tags;
+			pTag = CTTagSet.PTAGS.intern(tags);
 			return;
 		}
 		
 		StringTokenizer tok = new StringTokenizer(tags, "-=", true);
 		String delim, tag;
 		
-		pTag = tok.nextToken();
+		pTag = CTTagSet.PTAGS.intern(tok.nextToken());
 		
 		while (tok.hasMoreTokens())
 		{
@@ -659,9 +664,32 @@ public class CTNode implements Comparable<CTNode>
 		return false;
 	}
 	
+	/**
+	 * Returns the ID of the phrase or pos tag of this node in {@link CTTagSet#PTAGS}.
+	 * The ID is recomputed only when {@link CTNode#pTag} is reassigned.
+	 * @return the ID of the phrase or pos tag of this node.
+	 */
+	public int getPTagId()
+	{
+		String tag = pTag;
+		
+		if (tag != s_pTagId)
+		{
+			i_pTagId = CTTagSet.PTAGS.getId(tag);
+			s_pTagId = tag;
+		}
+		
+		return i_pTagId;
+	}
+	
 	public boolean matchesPTag(String regex)
 	{
-		return pTag.matches("^"+regex+"$");
+		return matchesPTag(CTTagMatcher.getPTagMatcher(regex));
+	}
+	
+	public boolean matchesPTag(CTTagMatcher matcher)
+	{
+		return matcher.matches(getPTagId());
 	}
 	
 	public boolean isFTag(String fTag)
@@ -40,29 +40,57 @@
  */
 package com.googlecode.clearnlp.constituent;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.LineNumberReader;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.StringTokenizer;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import com.google.common.io.ByteStreams;
 
 /**
  * Constituent tree reader.
+ * Trees are parsed character by character from a reusable buffer so that they can span any line layout;
+ * no string is created except for tags and word-forms.
  * @see CTTree 
  * @since 1.0.0
  * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
  */
 public class CTReader
 {
-	private LineNumberReader f_in;
-	private Deque<String>    d_tokens;
+	static private final int BUFFER_SIZE = 8192;
+	
+	static private final int TOKEN_EOF   = 0;
+	static private final int TOKEN_OPEN  = 1;
+	static private final int TOKEN_CLOSE = 2;
+	static private final int TOKEN_WORD  = 3;
+	
+	private Reader f_in;
+	private char[] c_buffer;
+	private int    i_buffer;
+	private int    n_buffer;
+	/** The buffer of the current word. */
+	private char[] c_word;
+	/** The current word (tag or word-form). */
+	private String s_word;
+	
+	/** The current line number (starting at 1). */
+	private int  n_line;
+	/** The current byte offset, assuming the input is encoded in UTF-8. */
+	private long l_offset;
+	private int  n_tokenLine;
+	private long l_tokenOffset;
+	/** The last error found by {@link CTReader#nextTree()}. */
+	private CTReaderError e_last;
 	
 	public CTReader() {}
 	
 	/**
 	 * Creates a constituent tree reader from the specific reader.
-	 * @param in an input reader, which gets internally wrapped with {@code new LineNumberReader(in)}.
+	 * @param in an input reader.
 	 */
 	public CTReader(BufferedReader in)
 	{
@@ -71,8 +99,39 @@ public class CTReader
 	
 	public void open(BufferedReader in)
 	{
-		f_in     = new LineNumberReader(in);
-		d_tokens = new ArrayDeque<String>();
+		open(in, 0);
+	}
+	
+	/**
+	 * Opens the byte range {@code [beginOffset, endOffset)} of the specific file encoded in UTF-8.
+	 * The range is expected to be aligned to tree boundaries (see {@link CTReader#getSplitOffsets(String, int)}).
+	 * Byte offsets in errors are relative to the beginning of the file; line numbers are relative to the beginning of the range.
+	 * @param filename the name of the file.
+	 * @param beginOffset the byte offset of the first tree (inclusive).
+	 * @param endOffset the byte offset where reading stops (exclusive).
+	 */
+	public void open(String filename, long beginOffset, long endOffset)
+	{
+		try
+		{
+			FileInputStream fin = new FileInputStream(filename);
+			fin.getChannel().position(beginOffset);
+			InputStream in = ByteStreams.limit(new BufferedInputStream(fin), endOffset - beginOffset);
+			open(new InputStreamReader(in, "UTF-8"), beginOffset);
+		}
+		catch (IOException e) {e.printStackTrace();}
+	}
+	
+	private void open(Reader in, long offset)
+	{
+		f_in     = in;
+		c_buffer = new char[BUFFER_SIZE];
+		c_word   = new char[64];
+		i_buffer = 0;
+		n_buffer = 0;
+		n_line   = 1;
+		l_offset = offset;
+		e_last   = null;
 	}
 	
 	/** Closes the current reader. */
@@ -90,49 +149,51 @@ public class CTReader
 	
 	/**
 	 * Returns the next tree, or {@code null} if there is no more tree.
-	 * Returns {@code null} if the next tree is incomplete or erroneous.
+	 * Returns {@code null} if the next tree is incomplete or erroneous; in this case, {@link CTReader#getLastError()} returns the error.
 	 * Automatically links antecedents of all co-indexed empty categories (see {@link CTNode#getAntecedent()}).
-	 * Calls the protected method {@link CTReader#processLanguageSpecifics(CTTree)}.
 	 * @return the next tree, or {@code null} if there is no more tree.
 	 */
 	public CTTree nextTree()
 	{
-		String token = nextToken(), tags;
+		e_last = null;
+		int token = nextToken();
 		
-		if (token == null)
+		if (token == TOKEN_EOF)
 			return null;
 		
-		if (!token.equals("("))
+		if (token != TOKEN_OPEN)
 		{
-			System.err.println("Error: \""+token+"\" found, \"(\" expected - line "+f_in.getLineNumber());
+			setError("\""+getTokenString(token)+"\" found, \"(\" expected");
 			return null;
 		}
 		
 		CTNode root   = new CTNode(CTLib.PTAG_TOP, null);
 		CTNode curr   = root, node;
-		int nBrackets = 1, startLine = f_in.getLineNumber();
+		int nBrackets = 1, startLine = n_tokenLine;
 		
-		while ((token = nextToken()) != null)
+		while ((token = nextToken()) != TOKEN_EOF)
 		{
-			if (nBrackets == 1 && token.equals(CTLib.PTAG_TOP))
-				continue;
-			
-			if (token.equals("("))
+			if (token == TOKEN_OPEN)
 			{
-				tags = nextToken();
-				node = new CTNode(tags);
+				if (nextToken() != TOKEN_WORD)
+				{
+					setError("tags expected after \"(\"");
+					return null;
+				}
+				
+				node = new CTNode(s_word);
 				curr.addChild(node);
 				curr = node;
 				nBrackets++;
 			}
-			else if (token.equals(")"))
+			else if (token == TOKEN_CLOSE)
 			{
 				curr = curr.parent;
 				nBrackets--;
 			}
-			else
+			else if (nBrackets != 1 || !s_word.equals(CTLib.PTAG_TOP))
 			{
-				curr.form = token;
+				curr.form = s_word;
 			}
 			
 			if (nBrackets == 0)
@@ -142,7 +203,7 @@ public class CTReader
 			}
 		}
 		
-		System.err.println("Error: brackets mismatch - starting line "+startLine);
+		setError("brackets mismatch - starting line "+startLine);
 		return null;
 	}
 	
@@ -155,37 +216,183 @@ public class CTReader
 		
 		return tree;
 	}
+	
+	/** @return the error found by the last call to {@link CTReader#nextTree()} if exists; otherwise, {@code null}. */
+	public CTReaderError getLastError()
+	{
+		return e_last;
+	}
+	
+	/** @return the current line number (starting at 1). */
+	public int getLineNumber()
+	{
+		return n_line;
+	}
+	
+	/** @return the current byte offset, assuming the input is encoded in UTF-8. */
+	public long getOffset()
+	{
+		return l_offset;
+	}
+	
+	private void setError(String message)
+	{
+		e_last = new CTReaderError(message, n_tokenLine, l_tokenOffset);
+		System.err.println(e_last.toString());
+	}
+	
+	private String getTokenString(int token)
+	{
+		switch (token)
+		{
+		case TOKEN_OPEN : return "(";
+		case TOKEN_CLOSE: return ")";
+		default         : return s_word;
+		}
+	}
+	
+//	======================== Tokenizer ========================
 
-	/** @return if exists ? next token : null. */
-	private String nextToken()
+	/**
+	 * Reads the next token; if the token is {@link CTReader#TOKEN_WORD}, {@link CTReader#s_word} is set.
+	 * @return the type of the next token.
+	 */
+	private int nextToken()
 	{
-		if (d_tokens.isEmpty())
+		int c;
+		
+		while ((c = peek()) >= 0 && c <= ' ')
+			skip((char)c);
+		
+		if (c < 0)	return TOKEN_EOF;
+		n_tokenLine   = n_line;
+		l_tokenOffset = l_offset;
+		
+		if (c == '(')
+		{
+			skip('(');
+			return TOKEN_OPEN;
+		}
+		
+		if (c == ')')
 		{
-			String line = null;
+			skip(')');
+			return TOKEN_CLOSE;
+		}
+		
+		int len = 0;
+		
+		while ((c = peek()) > ' ' && c != '(' && c != ')')
+		{
+			if (len == c_word.length)
+			{
+				char[] tmp = new char[len * 2];
+				System.arraycopy(c_word, 0, tmp, 0, len);
+				c_word = tmp;
+			}
 			
+			c_word[len++] = (char)c;
+			skip((char)c);
+		}
+		
+		s_word = new String(c_word, 0, len);
+		return TOKEN_WORD;
+	}
+	
+	/** @return the next character without consuming it if exists; otherwise, {@code -1}. */
+	private int peek()
+	{
+		if (i_buffer >= n_buffer)
+		{
 			try
 			{
-				line = f_in.readLine();
+				do
+				{
+					n_buffer = f_in.read(c_buffer, 0, c_buffer.length);
+				}
+				while (n_buffer == 0);
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+				n_buffer = -1;
 			}
-			catch (IOException e) {e.printStackTrace();}
-
-			if (line == null)
-				return null;
 			
-			line = line.trim();
-			if (line.isEmpty())
-				return nextToken();
+			i_buffer = 0;
+			if (n_buffer < 0)	return -1;
+		}
+		
+		return c_buffer[i_buffer];
+	}
+	
+	/** Consumes the specific character returned by {@link CTReader#peek()}. */
+	private void skip(char c)
+	{
+		i_buffer++;
+		
+		if      (c < 0x80)	l_offset++;
+		else if (c < 0x800 || Character.isHighSurrogate(c) || Character.isLowSurrogate(c))	l_offset += 2;
+		else	l_offset += 3;
+		
+		if (c == '\n')	n_line++;
+	}
+	
+//	======================== Splitting ========================
+
+	/**
+	 * Returns byte offsets splitting the specific file into about {@code n} ranges for parallel reading.
+	 * Range {@code i} is {@code [offsets[i], offsets[i+1])} and can be read by {@link CTReader#open(String, long, long)}.
+	 * Each range begins with a line starting with {@code "("}; thus, every line of a tree except for the first one must not start with {@code "("}, which holds for indented or one-tree-per-line treebanks.
+	 * @param filename the name of the file.
+	 * @param n the number of ranges.
+	 * @return byte offsets of size {@code n+1}, where the first is {@code 0} and the last is the file size.
+	 */
+	static public long[] getSplitOffsets(String filename, int n)
+	{
+		long   size    = new File(filename).length();
+		long[] offsets = new long[n+1];
+		long   offset;
+		int    i;
+		
+		offsets[n] = size;
+		
+		for (i=1; i<n; i++)
+		{
+			offset = Math.max(size * i / n, offsets[i-1]);
+			offsets[i] = (offset <= 0) ? 0 : getTreeOffset(filename, offset, size);
+		}
+		
+		return offsets;
+	}
+	
+	/** @return the offset of the first line at or after the specific offset that starts with {@code "("}; if not exists, the file size. */
+	static private long getTreeOffset(String filename, long offset, long size)
+	{
+		InputStream in = null;
+		
+		try
+		{
+			FileInputStream fin = new FileInputStream(filename);
+			fin.getChannel().position(offset - 1);
+			in = new BufferedInputStream(fin);
 			
-			StringTokenizer tok = new StringTokenizer(line, "() \t\n\r\f", true);
-			String str;
+			int prev = in.read(), curr;
 			
-			while (tok.hasMoreTokens())
+			while ((curr = in.read()) >= 0)
 			{
-				str = tok.nextToken().trim();
-				if (!str.isEmpty()) d_tokens.add(str);
+				if (prev == '\n' && curr == '(')
+					return offset;
+				
+				prev = curr;
+				offset++;
 			}
 		}
+		catch (IOException e) {e.printStackTrace();}
+		finally
+		{
+			if (in != null)	try {in.close();} catch (IOException e) {e.printStackTrace();}
+		}
 		
-		return d_tokens.pop();
+		return size;
 	}
 }
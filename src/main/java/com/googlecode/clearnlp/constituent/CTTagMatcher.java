@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.constituent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Regular expression over tags, precompiled into a set of tag IDs.
+ * The expression is evaluated at most once per tag in the backing {@link CTTagSet}; subsequent checks are bitset lookups.
+ * This class is thread-safe.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class CTTagMatcher
+{
+	/** The regular expression matching any tag. */
+	static final public String REGEX_ANY = ".*";
+	static private ConcurrentHashMap<String,CTTagMatcher> m_pTagMatchers = new ConcurrentHashMap<String,CTTagMatcher>();
+	
+	private CTTagSet s_tags;
+	private Pattern  p_regex;
+	/** The regular expression used to construct this matcher. */
+	private String   s_regex;
+	/** Bits {@code 2*id} and {@code 2*id+1} indicate whether the tag is evaluated and matched, respectively. */
+	private volatile long[] l_bits;
+	
+	/**
+	 * Constructs a matcher that fully matches the specific regular expression against tags in the specific dictionary.
+	 * @param tags the dictionary of tags.
+	 * @param regex the regular expression (e.g., {@code "NN.*|NP"}).
+	 */
+	public CTTagMatcher(CTTagSet tags, String regex)
+	{
+		s_tags  = tags;
+		s_regex = regex;
+		p_regex = Pattern.compile("^("+regex+")$");
+		l_bits  = new long[0];
+	}
+	
+	/**
+	 * Returns the shared matcher of the specific regular expression over phrase and pos tags.
+	 * @param regex the regular expression (e.g., {@code "NN.*|NP"}).
+	 * @return the shared matcher of the specific regular expression over phrase and pos tags.
+	 */
+	static public CTTagMatcher getPTagMatcher(String regex)
+	{
+		CTTagMatcher matcher = m_pTagMatchers.get(regex);
+		
+		if (matcher == null)
+		{
+			matcher = new CTTagMatcher(CTTagSet.PTAGS, regex);
+			CTTagMatcher prev = m_pTagMatchers.putIfAbsent(regex, matcher);
+			if (prev != null)	matcher = prev;
+		}
+		
+		return matcher;
+	}
+	
+	public String getRegex()
+	{
+		return s_regex;
+	}
+	
+	public boolean isAny()
+	{
+		return s_regex.equals(REGEX_ANY);
+	}
+	
+	/**
+	 * @param tag the tag to be compared.
+	 * @return {@code true} if the specific tag matches this matcher.
+	 */
+	public boolean matches(String tag)
+	{
+		return matches(s_tags.getId(tag));
+	}
+	
+	/**
+	 * @param id the ID of the tag to be compared.
+	 * @return {@code true} if the tag with the specific ID matches this matcher.
+	 */
+	public boolean matches(int id)
+	{
+		long[] bits = l_bits;
+		int  index = id >>> 5;
+		long shift = (id & 31) << 1;
+		
+		if (index < bits.length)
+		{
+			long b = bits[index] >>> shift;
+			if ((b & 1) != 0)	return (b & 2) != 0;
+		}
+		
+		return evaluate(id);
+	}
+	
+	private synchronized boolean evaluate(int id)
+	{
+		int  index = id >>> 5;
+		long shift = (id & 31) << 1;
+		long[] bits = l_bits;
+		
+		if (index >= bits.length)
+		{
+			long[] tmp = new long[index+1];
+			System.arraycopy(bits, 0, tmp, 0, bits.length);
+			bits = tmp;
+		}
+		else
+			bits = bits.clone();
+		
+		boolean b = p_regex.matcher(s_tags.getTag(id)).find();
+		bits[index] |= (b ? 3L : 1L) << shift;
+		l_bits = bits;
+		
+		return b;
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.constituent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary interning phrase, pos, and function tags to small integer IDs.
+ * IDs are assigned in the order tags are first seen and never change; interned tag strings are canonical so that they can be compared by reference.
+ * This class is thread-safe.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class CTTagSet
+{
+	/** The dictionary of phrase and pos tags. */
+	static final public CTTagSet PTAGS = new CTTagSet();
+	/** The dictionary of function tags. */
+	static final public CTTagSet FTAGS = new CTTagSet();
+	
+	private ConcurrentHashMap<String,Integer> m_ids;
+	private List<String> l_tags;
+	
+	public CTTagSet()
+	{
+		m_ids  = new ConcurrentHashMap<String,Integer>();
+		l_tags = new ArrayList<String>();
+	}
+	
+	/**
+	 * Returns the ID of the specific tag, assigning a new ID if the tag has not been seen.
+	 * @param tag the tag to be interned.
+	 * @return the ID of the specific tag.
+	 */
+	public int getId(String tag)
+	{
+		Integer id = m_ids.get(tag);
+		return (id != null) ? id : add(tag);
+	}
+	
+	/**
+	 * Returns the canonical instance of the specific tag.
+	 * @param tag the tag to be interned.
+	 * @return the canonical instance of the specific tag.
+	 */
+	public String intern(String tag)
+	{
+		return getTag(getId(tag));
+	}
+	
+	/**
+	 * Returns the tag with the specific ID.
+	 * @param id the ID of the tag.
+	 * @return the tag with the specific ID.
+	 */
+	public synchronized String getTag(int id)
+	{
+		return l_tags.get(id);
+	}
+	
+	/** @return the number of interned tags. */
+	public synchronized int size()
+	{
+		return l_tags.size();
+	}
+	
+	private synchronized int add(String tag)
+	{
+		Integer id = m_ids.get(tag);
+		if (id != null)	return id;
+		
+		id = l_tags.size();
+		l_tags.add(tag);
+		m_ids.put(tag, id);
+		
+		return id;
+	}
+}
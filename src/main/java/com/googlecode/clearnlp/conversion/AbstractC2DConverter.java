@@ -60,7 +60,7 @@ import com.googlecode.clearnlp.reader.AbstractColumnReader;
  * @since 1.0.0
  * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
  */
-abstract public class AbstractC2DConverter
+abstract public class AbstractC2DConverter implements Cloneable
 {
 	protected HeadRuleMap m_headrules;
 	
@@ -69,6 +69,29 @@ abstract public class AbstractC2DConverter
 		m_headrules = headrules;
 	}
 	
+	/**
+	 * Returns a shallow copy of this converter sharing its headrules and other read-only resources,
+	 * which can convert trees concurrently with this converter.
+	 * @since 1.4.3
+	 */
+	public AbstractC2DConverter getSharedConverter()
+	{
+		try
+		{
+			AbstractC2DConverter converter = (AbstractC2DConverter)clone();
+			converter.clearStates();
+			return converter;
+		}
+		catch (CloneNotSupportedException e) {throw new AssertionError(e);}
+	}
+	
+	/**
+	 * Reinitializes per-tree states copied by {@link AbstractC2DConverter#getSharedConverter()}.
+	 * Subclasses keeping per-tree states must override this method and call {@code super.clearStates()}.
+	 * @since 1.4.3
+	 */
+	protected void clearStates() {}
+	
 	/**
 	 * Sets the head of the specific node and all its sub-nodes.
 	 * Calls {@link AbstractC2DConverter#findHeads(CTNode)}.
@@ -49,12 +49,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import com.google.common.collect.Lists;
 import com.googlecode.clearnlp.constituent.CTLib;
 import com.googlecode.clearnlp.constituent.CTLibEn;
 import com.googlecode.clearnlp.constituent.CTNode;
+import com.googlecode.clearnlp.constituent.CTTagMatcher;
 import com.googlecode.clearnlp.constituent.CTTree;
 import com.googlecode.clearnlp.dependency.DEPArc;
 import com.googlecode.clearnlp.dependency.DEPFeat;
@@ -89,7 +89,7 @@ public class EnglishC2DConverter extends AbstractC2DConverter
 	
 	private Map<CTNode,Deque<CTNode>> m_rnr;
 	private Map<CTNode,Deque<CTNode>> m_xsbj;
-	private Map<String,Pattern>       m_coord;
+	private Map<String,CTTagMatcher>  m_coord;
 	
 	private List<Pair<String,Set<String>>> l_mergeLabels;
 	
@@ -113,26 +113,26 @@ public class EnglishC2DConverter extends AbstractC2DConverter
 	
 	private void initCoord()
 	{
-		m_coord = new HashMap<String,Pattern>();
-		
-		m_coord.put(CTLibEn.PTAG_ADJP	, Pattern.compile("^(ADJP|JJ.*|VBN|VBG)$"));
-		m_coord.put(CTLibEn.PTAG_ADVP	, Pattern.compile("^(ADVP|RB.*)$"));
-		m_coord.put(CTLibEn.PTAG_INTJ	, Pattern.compile("^(INTJ|UH)$"));
-		m_coord.put(CTLibEn.PTAG_PP  	, Pattern.compile("^(PP|IN|VBG)$"));
-		m_coord.put(CTLibEn.PTAG_PRT 	, Pattern.compile("^(PRT|RP)$"));
-		m_coord.put(CTLibEn.PTAG_NAC 	, Pattern.compile("^(NP)$"));
-		m_coord.put(CTLibEn.PTAG_NML 	, Pattern.compile("^(NP|NML|NN.*|PRP)$"));
-		m_coord.put(CTLibEn.PTAG_NP  	, Pattern.compile("^(NP|NML|NN.*|PRP)$"));
-		m_coord.put(CTLibEn.PTAG_NX  	, Pattern.compile("^(NX)$"));
-		m_coord.put(CTLibEn.PTAG_VP  	, Pattern.compile("^(VP|VB.*)$"));
-		m_coord.put(CTLibEn.PTAG_S   	, Pattern.compile("^(S|SINV|SQ|SBARQ)$"));
-		m_coord.put(CTLibEn.PTAG_SBAR	, Pattern.compile("^(SBAR.*)$"));
-		m_coord.put(CTLibEn.PTAG_SBARQ	, Pattern.compile("^(SBAR.*)$"));
-		m_coord.put(CTLibEn.PTAG_SINV	, Pattern.compile("^(S|SINV)$"));
-		m_coord.put(CTLibEn.PTAG_SQ		, Pattern.compile("^(S|SQ|SBARQ)$"));
-		m_coord.put(CTLibEn.PTAG_WHNP	, Pattern.compile("^(NN.*|WP)$"));
-		m_coord.put(CTLibEn.PTAG_WHADJP	, Pattern.compile("^(JJ.*|VBN|VBG)$"));
-		m_coord.put(CTLibEn.PTAG_WHADVP	, Pattern.compile("^(RB.*|WRB|IN)$"));
+		m_coord = new HashMap<String,CTTagMatcher>();
+		
+		m_coord.put(CTLibEn.PTAG_ADJP	, CTTagMatcher.getPTagMatcher("ADJP|JJ.*|VBN|VBG"));
+		m_coord.put(CTLibEn.PTAG_ADVP	, CTTagMatcher.getPTagMatcher("ADVP|RB.*"));
+		m_coord.put(CTLibEn.PTAG_INTJ	, CTTagMatcher.getPTagMatcher("INTJ|UH"));
+		m_coord.put(CTLibEn.PTAG_PP  	, CTTagMatcher.getPTagMatcher("PP|IN|VBG"));
+		m_coord.put(CTLibEn.PTAG_PRT 	, CTTagMatcher.getPTagMatcher("PRT|RP"));
+		m_coord.put(CTLibEn.PTAG_NAC 	, CTTagMatcher.getPTagMatcher("NP"));
+		m_coord.put(CTLibEn.PTAG_NML 	, CTTagMatcher.getPTagMatcher("NP|NML|NN.*|PRP"));
+		m_coord.put(CTLibEn.PTAG_NP  	, CTTagMatcher.getPTagMatcher("NP|NML|NN.*|PRP"));
+		m_coord.put(CTLibEn.PTAG_NX  	, CTTagMatcher.getPTagMatcher("NX"));
+		m_coord.put(CTLibEn.PTAG_VP  	, CTTagMatcher.getPTagMatcher("VP|VB.*"));
+		m_coord.put(CTLibEn.PTAG_S   	, CTTagMatcher.getPTagMatcher("S|SINV|SQ|SBARQ"));
+		m_coord.put(CTLibEn.PTAG_SBAR	, CTTagMatcher.getPTagMatcher("SBAR.*"));
+		m_coord.put(CTLibEn.PTAG_SBARQ	, CTTagMatcher.getPTagMatcher("SBAR.*"));
+		m_coord.put(CTLibEn.PTAG_SINV	, CTTagMatcher.getPTagMatcher("S|SINV"));
+		m_coord.put(CTLibEn.PTAG_SQ		, CTTagMatcher.getPTagMatcher("S|SQ|SBARQ"));
+		m_coord.put(CTLibEn.PTAG_WHNP	, CTTagMatcher.getPTagMatcher("NN.*|WP"));
+		m_coord.put(CTLibEn.PTAG_WHADJP	, CTTagMatcher.getPTagMatcher("JJ.*|VBN|VBG"));
+		m_coord.put(CTLibEn.PTAG_WHADVP	, CTTagMatcher.getPTagMatcher("RB.*|WRB|IN"));
 	}
 	
 	private void initMerge(String mergeLabels)
@@ -170,6 +170,14 @@ public class EnglishC2DConverter extends AbstractC2DConverter
 		return getDEPTree(cTree);
 	}
 	
+	@Override
+	protected void clearStates()
+	{
+		super.clearStates();
+		m_rnr  = new HashMap<CTNode,Deque<CTNode>>();
+		m_xsbj = new HashMap<CTNode,Deque<CTNode>>();
+	}
+	
 	private void clearMaps()
 	{
 		m_rnr.clear();
@@ -439,7 +447,7 @@ public class EnglishC2DConverter extends AbstractC2DConverter
 			return false;
 		
 		// find conjuncts
-		Pattern rTags = getConjunctPattern(curr, sId, size);
+		CTTagMatcher rTags = getConjunctPattern(curr, sId, size);
 		CTNode prevHead = null, mainHead = null;
 		boolean isFound = false;
 		int bId = 0, eId = sId;
@@ -484,9 +492,9 @@ public class EnglishC2DConverter extends AbstractC2DConverter
 	}
 	
 	/** Called by {@link EnglishC2DConverter#findHeadsCoordination(HeadRule, CTNode)}. */
-	private Pattern getConjunctPattern(CTNode curr, int sId, int size)
+	private CTTagMatcher getConjunctPattern(CTNode curr, int sId, int size)
 	{
-		Pattern rTags = m_coord.get(curr.pTag);
+		CTTagMatcher rTags = m_coord.get(curr.pTag);
 		
 		if (rTags != null)
 		{
@@ -495,29 +503,29 @@ public class EnglishC2DConverter extends AbstractC2DConverter
 			
 			for (i=sId; i<size; i++)
 			{
-				if (rTags.matcher(curr.getChild(i).pTag).find())
+				if (curr.getChild(i).matchesPTag(rTags))
 				{
 					b = true;
 					break;
 				}
 			}
 			
-			if (!b)	rTags = Pattern.compile(".*");
+			if (!b)	rTags = CTTagMatcher.getPTagMatcher(CTTagMatcher.REGEX_ANY);
 		}
 		else
-			rTags = Pattern.compile(".*");
+			rTags = CTTagMatcher.getPTagMatcher(CTTagMatcher.REGEX_ANY);
 		
 		return rTags;
 	}
 	
 	/** Called by {@link EnglishC2DConverter#findHeadsCoordination(HeadRule, CTNode)}. */
-	private boolean isConjunct(CTNode C, CTNode P, Pattern rTags)
+	private boolean isConjunct(CTNode C, CTNode P, CTTagMatcher rTags)
 	{
 		if (P.isPTag(CTLibEn.PTAG_SBAR) && C.isPTagAny(CTLibEn.POS_IN, CTLibEn.POS_DT))
 			return false;
-		else if (rTags.pattern().equals(".*"))
+		else if (rTags.isAny())
 			return getSpecialLabel(C) == null;
-		else if (rTags.matcher(C.pTag).find())
+		else if (C.matchesPTag(rTags))
 		{
 			if (P.isPTag(CTLibEn.PTAG_VP) && getAuxLabel(C) != null)
 				return false;
@@ -933,7 +941,7 @@ public class EnglishC2DConverter extends AbstractC2DConverter
 	
 	private String getPmodLabel(CTNode C, CTNode d)
 	{
-		if (C.isPTagAny(CTLibEn.PTAG_NP, CTLibEn.PTAG_NML) || CTLibEn.RE_COMP_POS.matcher(d.pTag).find())
+		if (C.isPTagAny(CTLibEn.PTAG_NP, CTLibEn.PTAG_NML) || d.matchesPTag(CTLibEn.MT_COMP_POS))
 			return DEPLibEn.DEP_POBJ;
 		else
 			return DEPLibEn.DEP_PCOMP;	
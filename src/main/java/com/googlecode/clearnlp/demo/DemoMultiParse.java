@@ -43,6 +43,7 @@ package com.googlecode.clearnlp.demo;
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.PrintStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.zip.ZipInputStream;
 
@@ -101,12 +102,13 @@ public class DemoMultiParse
 	public void process(AbstractTokenizer tokenizer, AbstractDEPParser parser, AbstractComponent[] preComponents, AbstractComponent[] postComponents, BufferedReader reader, PrintStream fout)
 	{
 		AbstractSegmenter segmenter = EngineGetter.getSegmenter(language, tokenizer);
+		Iterator<List<String>> it = segmenter.getSentenceIterator(reader);
 		List<ObjectDoublePair<DEPTree>> trees;
 		DEPTree tree;
 		
-		for (List<String> tokens : segmenter.getSentences(reader))
+		while (it.hasNext())
 		{
-			tree  = NLPDecode.toDEPTree(tokens);
+			tree  = NLPDecode.toDEPTree(it.next());
 			trees = getParses(parser, preComponents, postComponents, tree);
 			
 			for (ObjectDoublePair<DEPTree> p : trees)
@@ -43,6 +43,7 @@ package com.googlecode.clearnlp.demo;
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.PrintStream;
+import java.util.Iterator;
 import java.util.List;
 
 import com.googlecode.clearnlp.component.AbstractComponent;
@@ -94,11 +95,12 @@ public class DemoNLPDecoder
 	public void process(AbstractTokenizer tokenizer, AbstractComponent[] components, BufferedReader reader, PrintStream fout)
 	{
 		AbstractSegmenter segmenter = EngineGetter.getSegmenter(language, tokenizer);
+		Iterator<List<String>> it = segmenter.getSentenceIterator(reader);
 		DEPTree tree;
 		
-		for (List<String> tokens : segmenter.getSentences(reader))
+		while (it.hasNext())
 		{
-			tree = NLPDecode.toDEPTree(tokens);
+			tree = NLPDecode.toDEPTree(it.next());
 			
 			for (AbstractComponent component : components)
 				component.process(tree);
@@ -40,10 +40,14 @@
  */
 package com.googlecode.clearnlp.dependency;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import com.googlecode.clearnlp.reader.DEPReader;
@@ -51,11 +55,14 @@ import com.googlecode.clearnlp.reader.DEPReader;
 
 /**
  * Dependency feature map.
+ * Features are kept in small parallel arrays of keys and values sorted by keys, which are allocated on the first insertion.
+ * Keys defined in {@link DEPLib} (e.g., {@link DEPLib#FEAT_POS2}) are interned so that lookups usually succeed by reference comparison;
+ * other keys are kept as given. A {@code null} key is allowed and sorted before all other keys.
  * @since 1.0.0
  * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
  */
 @SuppressWarnings("serial")
-public class DEPFeat extends HashMap<String,String>
+public class DEPFeat extends AbstractMap<String,String> implements Cloneable, Serializable
 {
 	/** The delimiter between feature values ({@code ","}). */
 	static public final String DELIM_VALUES    = ",";
@@ -65,6 +72,23 @@ public class DEPFeat extends HashMap<String,String>
 	static public final String DELIM_KEY_VALUE = "=";
 	
 	static public final Pattern P_FEATS = Pattern.compile("\\"+DELIM_FEATS);
+	
+	static private final int INIT_CAPACITY = 4;
+	/** The canonical instances of the feature keys defined in {@link DEPLib}; read-only after initialization. */
+	static private final Map<String,String> m_keys = new HashMap<String,String>();
+	
+	static
+	{
+		for (String key : new String[]{DEPLib.FEAT_SEM, DEPLib.FEAT_SYN, DEPLib.FEAT_SNT, DEPLib.FEAT_PB, DEPLib.FEAT_VN, DEPLib.FEAT_WS, DEPLib.FEAT_POS2, DEPLib.FEAT_GPOS, DEPLib.FEAT_COREF, DEPLib.FEAT_VERB_TYPE, DEPLib.FEAT_OFFSETS})
+			m_keys.put(key, key);
+	}
+	
+	/** The feature keys in the lexicographical order (default: {@code null}). */
+	private String[] s_keys   = null;
+	/** The feature values; {@code s_values[i]} is the value of {@code s_keys[i]} (default: {@code null}). */
+	private String[] s_values = null;
+	/** The number of features. */
+	private int      n_size   = 0;
 
 	/** Constructs an empty feature map. */
 	public DEPFeat() {}
@@ -90,19 +114,277 @@ public class DEPFeat extends HashMap<String,String>
 		if (feats.equals(DEPReader.BLANK_COLUMN))
 			return;
 		
-		String key, value;
-		int    idx;
+		char delimFeats = DELIM_FEATS.charAt(0), delimKeyValue = DELIM_KEY_VALUE.charAt(0);
+		int bIdx = 0, eIdx, idx, len = feats.length();
 		
-		for (String feat : P_FEATS.split(feats))
+		for (; bIdx < len; bIdx = eIdx + 1)
 		{
-			idx = feat.indexOf(DELIM_KEY_VALUE);
+			if ((eIdx = feats.indexOf(delimFeats, bIdx)) < 0)
+				eIdx = len;
+			
+			idx = feats.indexOf(delimKeyValue, bIdx);
 			
-			if (idx > 0)
+			if (bIdx < idx && idx < eIdx)
+				put(feats.substring(bIdx, idx), feats.substring(idx+1, eIdx));
+		}
+	}
+	
+//	======================== Map ========================
+	
+	@Override
+	public int size()
+	{
+		return n_size;
+	}
+	
+	@Override
+	public boolean isEmpty()
+	{
+		return n_size == 0;
+	}
+	
+	@Override
+	public boolean containsKey(Object key)
+	{
+		return indexOf(key) >= 0;
+	}
+	
+	@Override
+	public String get(Object key)
+	{
+		int i = indexOf(key);
+		return (i >= 0) ? s_values[i] : null;
+	}
+	
+	@Override
+	public String put(String key, String value)
+	{
+		int i = indexOf(key);
+		
+		if (i >= 0)
+		{
+			String prev = s_values[i];
+			s_values[i] = value;
+			return prev;
+		}
+		
+		if (s_keys == null)
+		{
+			s_keys   = new String[INIT_CAPACITY];
+			s_values = new String[INIT_CAPACITY];
+		}
+		else if (n_size == s_keys.length)
+		{
+			String[] keys   = new String[n_size * 2];
+			String[] values = new String[n_size * 2];
+			System.arraycopy(s_keys  , 0, keys  , 0, n_size);
+			System.arraycopy(s_values, 0, values, 0, n_size);
+			s_keys   = keys;
+			s_values = values;
+		}
+		
+		key = intern(key);
+		
+		for (i=n_size; i>0 && compare(s_keys[i-1], key) > 0; i--)
+		{
+			s_keys  [i] = s_keys  [i-1];
+			s_values[i] = s_values[i-1];
+		}
+		
+		s_keys  [i] = key;
+		s_values[i] = value;
+		n_size++;
+		
+		return null;
+	}
+	
+	@Override
+	public String remove(Object key)
+	{
+		int i = indexOf(key);
+		return (i >= 0) ? removeAt(i) : null;
+	}
+	
+	@Override
+	public void clear()
+	{
+		for (int i=0; i<n_size; i++)
+		{
+			s_keys  [i] = null;
+			s_values[i] = null;
+		}
+		
+		n_size = 0;
+	}
+	
+	@Override
+	public Set<Map.Entry<String,String>> entrySet()
+	{
+		return new AbstractSet<Map.Entry<String,String>>()
+		{
+			@Override
+			public Iterator<Map.Entry<String,String>> iterator()
 			{
-				key   = feat.substring(0, idx);
-				value = feat.substring(idx+1);
-				put(key, value);				
+				return new EntryIterator();
 			}
+
+			@Override
+			public int size()
+			{
+				return n_size;
+			}
+		};
+	}
+	
+	@Override
+	public Object clone()
+	{
+		DEPFeat feat = new DEPFeat();
+		
+		if (s_keys != null)
+		{
+			feat.s_keys   = s_keys  .clone();
+			feat.s_values = s_values.clone();
+			feat.n_size   = n_size;
+		}
+		
+		return feat;
+	}
+	
+	/** @return the index of the specific key if exists; otherwise, {@code -1}. */
+	private int indexOf(Object key)
+	{
+		int i;
+		
+		for (i=0; i<n_size; i++)
+		{
+			if (s_keys[i] == key)
+				return i;
+		}
+		
+		if (key != null)
+		{
+			for (i=0; i<n_size; i++)
+			{
+				if (key.equals(s_keys[i]))
+					return i;
+			}
+		}
+		
+		return -1;
+	}
+	
+	private String removeAt(int index)
+	{
+		String prev = s_values[index];
+		
+		n_size--;
+		System.arraycopy(s_keys  , index+1, s_keys  , index, n_size-index);
+		System.arraycopy(s_values, index+1, s_values, index, n_size-index);
+		s_keys  [n_size] = null;
+		s_values[n_size] = null;
+		
+		return prev;
+	}
+	
+	/** @return the canonical instance of the specific key if it is defined in {@link DEPLib}; otherwise, the specific key. */
+	static private String intern(String key)
+	{
+		if (key == null)	return null;
+		String canonical = m_keys.get(key);
+		return (canonical != null) ? canonical : key;
+	}
+	
+	/** Compares the specific keys, where {@code null} precedes all other keys. */
+	static private int compare(String key1, String key2)
+	{
+		if (key1 == null)	return (key2 == null) ? 0 : -1;
+		if (key2 == null)	return 1;
+		return key1.compareTo(key2);
+	}
+	
+	private class EntryIterator implements Iterator<Map.Entry<String,String>>
+	{
+		private int i_next = 0;
+		private int i_last = -1;
+		
+		@Override
+		public boolean hasNext()
+		{
+			return i_next < n_size;
+		}
+
+		@Override
+		public Map.Entry<String,String> next()
+		{
+			if (i_next >= n_size)
+				throw new NoSuchElementException();
+			
+			i_last = i_next++;
+			return new Entry(i_last);
+		}
+
+		@Override
+		public void remove()
+		{
+			if (i_last < 0)
+				throw new IllegalStateException();
+			
+			removeAt(i_last);
+			i_next = i_last;
+			i_last = -1;
+		}
+	}
+	
+	private class Entry implements Map.Entry<String,String>
+	{
+		private int i_index;
+		
+		public Entry(int index)
+		{
+			i_index = index;
+		}
+		
+		@Override
+		public String getKey()
+		{
+			return s_keys[i_index];
+		}
+
+		@Override
+		public String getValue()
+		{
+			return s_values[i_index];
+		}
+
+		@Override
+		public String setValue(String value)
+		{
+			String prev = s_values[i_index];
+			s_values[i_index] = value;
+			return prev;
+		}
+		
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof Map.Entry))
+				return false;
+			
+			Map.Entry<?,?> e = (Map.Entry<?,?>)o;
+			return getKey().equals(e.getKey()) && (getValue() == null ? e.getValue() == null : getValue().equals(e.getValue()));
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return (getKey() == null ? 0 : getKey().hashCode()) ^ (getValue() == null ? 0 : getValue().hashCode());
+		}
+		
+		@Override
+		public String toString()
+		{
+			return getKey() + DELIM_KEY_VALUE + getValue();
 		}
 	}
 
@@ -114,17 +396,15 @@ public class DEPFeat extends HashMap<String,String>
 		if (isEmpty())	return DEPReader.BLANK_COLUMN;
 		
 		StringBuilder build = new StringBuilder();
-		List<String>  keys  = new ArrayList<String>(keySet());
 		
-		Collections.sort(keys);
-		for (String key : keys)
+		for (int i=0; i<n_size; i++)
 		{
 			build.append(DELIM_FEATS);
-			build.append(key);
+			build.append(s_keys[i]);
 			build.append(DELIM_KEY_VALUE);
-			build.append(get(key));
+			build.append(s_values[i]);
 		}
 		
-		return build.toString().substring(DELIM_FEATS.length());
+		return build.substring(DELIM_FEATS.length());
 	}
 }
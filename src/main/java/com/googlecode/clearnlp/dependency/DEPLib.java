@@ -82,6 +82,8 @@ public class DEPLib
 	static public final String FEAT_COREF = "coref";
 	/** The feat-key of verb type. */
 	static public final String FEAT_VERB_TYPE = "vtype";
+	/** The feat-key of character offsets. */
+	static public final String FEAT_OFFSETS = "offs";
 	
 	/** The delimiter between secondary/semantic heads. */
 	static public final String DELIM_HEADS     = ";";
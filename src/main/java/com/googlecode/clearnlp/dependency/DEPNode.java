@@ -60,6 +60,7 @@ import com.googlecode.clearnlp.ner.NERNode;
 import com.googlecode.clearnlp.pos.POSNode;
 import com.googlecode.clearnlp.reader.AbstractColumnReader;
 import com.googlecode.clearnlp.reader.DEPReader;
+import com.googlecode.clearnlp.tokenization.TokenSpan;
 
 
 /**
@@ -72,6 +73,8 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 	public   int           id;
 	/** The extra features of this node (default: empty). */
 	protected DEPFeat      d_feats;
+	/** The encoded extra features of this node, decoded into {@link DEPNode#d_feats} on first access (default: {@code null}). */
+	private   String       s_feats;
 	/** The dependency head of this node (default: empty). */
 	protected DEPArc       d_head;
 	/** The list of secondary heads of this node (default: empty). */
@@ -80,6 +83,10 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 	protected List<SRLArc> s_heads;
 	/** The sorted list of all dependents of this node (default: empty). */
 	protected List<DEPArc> l_dependents;
+	/** The character offset of this node in its source text (inclusive; default: {@code -1}). */
+	protected int          n_beginOffset = -1;
+	/** The character offset of this node in its source text (exclusive; default: {@code -1}). */
+	protected int          n_endOffset = -1;
 	
 	//	====================================== CONSTRUCTOR ======================================
 	
@@ -113,6 +120,13 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 		copy(node);
 	}
 	
+	/** @since 1.4.3 */
+	public DEPNode(int id, TokenSpan token)
+	{
+		init(id, token.getForm(), null, null, new DEPFeat());
+		setOffsets(token.getBeginOffset(), token.getEndOffset());
+	}
+	
 	//	====================================== INITIALIZATION ======================================
 	
 	/** Initializes this node as an artificial root node. */
@@ -137,7 +151,10 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 		this.pos     = pos;
 		this.nament  = AbstractColumnReader.BLANK_COLUMN;
 		this.d_feats = feats;
+		this.s_feats = null;
 		this.d_head  = new DEPArc();
+		this.n_beginOffset = -1;
+		this.n_endOffset   = -1;
 	}
 	
 	public void init(int id, String form, String lemma, String pos, String nament, DEPFeat feats)
@@ -148,7 +165,10 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 		this.pos     = pos;
 		this.nament  = nament;
 		this.d_feats = feats;
+		this.s_feats = null;
 		this.d_head  = new DEPArc();
+		this.n_beginOffset = -1;
+		this.n_endOffset   = -1;
 	}
 
 	/** Initializes semantic heads of this node. */
@@ -159,7 +179,39 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 	
 	public void copy(DEPNode node)
 	{
-		init(node.id, node.form, node.lemma, node.pos, node.nament, (DEPFeat)node.d_feats.clone());
+		init(node.id, node.form, node.lemma, node.pos, node.nament, (DEPFeat)node.getFeats().clone());
+		setOffsets(node.n_beginOffset, node.n_endOffset);
+	}
+	
+	//	====================================== OFFSETS ======================================
+	
+	/** @return the character offset of this node in its source text (inclusive) if exists; otherwise, {@code -1}. */
+	public int getBeginOffset()
+	{
+		return n_beginOffset;
+	}
+	
+	/** @return the character offset of this node in its source text (exclusive) if exists; otherwise, {@code -1}. */
+	public int getEndOffset()
+	{
+		return n_endOffset;
+	}
+	
+	/** @return {@code true} if this node carries its character offsets. */
+	public boolean hasOffsets()
+	{
+		return n_beginOffset >= 0;
+	}
+	
+	/**
+	 * Sets the character offsets of this node in its source text.
+	 * @param beginOffset the offset of the first character (inclusive).
+	 * @param endOffset the offset after the last character (exclusive).
+	 */
+	public void setOffsets(int beginOffset, int endOffset)
+	{
+		n_beginOffset = beginOffset;
+		n_endOffset   = endOffset;
 	}
 	
 	//	====================================== FEATS ======================================
@@ -167,11 +219,17 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 	/** @return the value of the specific feature if exists; otherwise, {@code null}. */
 	public String getFeat(String key)
 	{
-		return d_feats.get(key);
+		return getFeats().get(key);
 	}
 	
 	public DEPFeat getFeats()
 	{
+		if (s_feats != null)
+		{
+			d_feats = new DEPFeat(s_feats);
+			s_feats = null;
+		}
+		
 		return d_feats;
 	}
 	
@@ -181,18 +239,29 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 	 */
 	public void addFeat(String key, String value)
 	{
-		d_feats.put(key, value);
+		getFeats().put(key, value);
 	}
 	
 	public void setFeats(DEPFeat feats)
 	{
 		d_feats = feats;
+		s_feats = null;
+	}
+	
+	/**
+	 * Sets the extra features of this node, which are decoded on first access.
+	 * @param feats see the {@code feats} parameter in {@link DEPFeat#add(String)}.
+	 */
+	public void setFeats(String feats)
+	{
+		d_feats = null;
+		s_feats = feats;
 	}
 	
 	/** Removes the feature with the specific key. */
 	public String removeFeat(String key)
 	{
-		return d_feats.remove(key);
+		return getFeats().remove(key);
 	}
 	
 	//	====================================== DEPENDENCY LABEL ======================================
@@ -1027,7 +1096,7 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 		build.append(form);		build.append(DEPReader.DELIM_COLUMN);
 		build.append(pos);
 		
-		if (d_feats != null)
+		if (getFeats() != null)
 		{
 			build.append(DEPReader.DELIM_COLUMN);
 			build.append(d_feats);			
@@ -1044,7 +1113,7 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 		build.append(lemma);	build.append(DEPReader.DELIM_COLUMN);
 		build.append(pos);
 		
-		if (d_feats != null)
+		if (getFeats() != null)
 		{
 			build.append(DEPReader.DELIM_COLUMN);
 			build.append(d_feats);			
@@ -1061,7 +1130,7 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 		build.append(form);		build.append(DEPReader.DELIM_COLUMN);
 		build.append(lemma);	build.append(DEPReader.DELIM_COLUMN);
 		build.append(pos);		build.append(DEPReader.DELIM_COLUMN);
-		build.append(d_feats);	build.append(DEPReader.DELIM_COLUMN);
+		build.append(getFeats());	build.append(DEPReader.DELIM_COLUMN);
 		
 		if (hasHead())
 		{
@@ -1314,7 +1383,7 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 		datum.setLemma(lemma);
 		datum.setPOS(pos);
 		datum.setNamedEntity(nament);
-		datum.setFeats(d_feats.toString());
+		datum.setFeats(getFeats().toString());
 		datum.setSyntacticHead(d_head.toString());
 		datum.setSemanticHeads(DEPLib.toString(s_heads));
 		
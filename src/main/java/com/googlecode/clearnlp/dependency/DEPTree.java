@@ -1026,6 +1026,7 @@ public class DEPTree extends ArrayList<DEPNode>
 			oNode = get(i);
 			nNode = tree.get(i);
 			oHead = oNode.getHead();
+			if (oHead == null)	continue;
 			nHead = map.get(oHead.id);
 			
 			if (nHead == null)
@@ -45,6 +45,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.ZipInputStream;
 
+import com.googlecode.clearnlp.classification.model.ModelInputStream;
 import com.googlecode.clearnlp.component.AbstractComponent;
 import com.googlecode.clearnlp.component.dep.AbstractDEPParser;
 import com.googlecode.clearnlp.component.dep.DefaultDEPParser;
@@ -69,6 +70,7 @@ import com.googlecode.clearnlp.reader.AbstractReader;
 import com.googlecode.clearnlp.segmentation.AbstractSegmenter;
 import com.googlecode.clearnlp.segmentation.EnglishSegmenter;
 import com.googlecode.clearnlp.tokenization.AbstractTokenizer;
+import com.googlecode.clearnlp.tokenization.CompiledEnglishTokenizer;
 import com.googlecode.clearnlp.tokenization.EnglishTokenizer;
 import com.googlecode.clearnlp.util.UTInput;
 
@@ -106,9 +108,18 @@ public class EngineGetter implements EngineLib
 	}
 	
 	static public AbstractTokenizer getTokenizer(String language, InputStream stream)
+	{
+		return getTokenizer(language, stream, false);
+	}
+	
+	/**
+	 * @since 1.4.3
+	 * @param compiled if {@code true}, returns a tokenizer running regular expressions on fewer words (e.g., {@link CompiledEnglishTokenizer}).
+	 */
+	static public AbstractTokenizer getTokenizer(String language, InputStream stream, boolean compiled)
 	{
 		if (language.equals(AbstractReader.LANG_EN))
-			return new EnglishTokenizer(new ZipInputStream(stream));
+			return compiled ? new CompiledEnglishTokenizer(new ZipInputStream(stream)) : new EnglishTokenizer(new ZipInputStream(stream));
 		
 		throw new IllegalArgumentException("The requested language '"+language+"' is not currently supported.");
 	}
@@ -125,9 +136,10 @@ public class EngineGetter implements EngineLib
 	
 	// ============================= getter: component =============================
 	
+	/** @param stream the stream of a model archive; if it is a {@link ModelInputStream}, relative binary model paths are resolved against the directory of the archive. */
 	static public AbstractComponent getComponent(InputStream stream, String language, String mode) throws IOException
 	{
-		ZipInputStream zin = new ZipInputStream(stream);
+		ZipInputStream zin = (stream instanceof ZipInputStream) ? (ZipInputStream)stream : new ZipInputStream(stream);
 		
 		if      (mode.equals(NLPLib.MODE_POS))
 			return getPOSTagger(zin, language);
@@ -43,6 +43,7 @@ package com.googlecode.clearnlp.engine;
 import java.io.BufferedReader;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import com.googlecode.clearnlp.dependency.DEPArc;
@@ -72,6 +73,12 @@ public class EngineProcess
 		return segmenter.getSentences(fin);
 	}
 	
+	/** @since 1.4.3 */
+	static public Iterator<List<String>> getSentenceIterator(AbstractSegmenter segmenter, BufferedReader fin)
+	{
+		return segmenter.getSentenceIterator(fin);
+	}
+	
 	// ============================= input: sentence =============================
 	
 	static public List<String> getTokens(AbstractTokenizer tokenizer, String sentence)
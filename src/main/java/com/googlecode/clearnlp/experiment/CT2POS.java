@@ -130,6 +130,8 @@ public class CT2POS extends AbstractRun
 				fout.println();
 			}
 			
+			if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+			
 			reader.close();
 			fout.close();
 		}
@@ -79,6 +79,8 @@ public class CompareCTTrees
 				}
 			}
 			
+			if (reader1.getLastError() != null)	System.err.println(reader1.getLastError());
+			
 		//	System.out.println(n);
 		}
 	}
@@ -142,6 +142,8 @@ public class GenerateOntoNotesCoref
 		while ((tree = reader.nextTree()) != null)
 			trees.add(tree);
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		return trees;
 	}
 	
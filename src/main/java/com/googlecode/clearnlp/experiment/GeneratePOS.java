@@ -97,6 +97,8 @@ public class GeneratePOS
 			fout.println(build.toString());
 		}
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		reader.close();
 	}
 	
@@ -86,6 +86,8 @@ public class PrintTreeLine extends AbstractRun
 		while ((tree = reader.nextTree()) != null)
 			fout.println(tree.toStringLine());
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		fout.close();
 	}
 	
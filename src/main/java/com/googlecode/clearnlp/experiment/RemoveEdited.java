@@ -81,6 +81,8 @@ public class RemoveEdited
 				fout.println(tree.toString()+"\n");
 			}
 			
+			if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+			
 			fout.close();
 			reader.close();
 		} 
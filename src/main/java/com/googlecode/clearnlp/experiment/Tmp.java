@@ -464,6 +464,8 @@ public class Tmp
 		while ((tree = reader.nextTree()) != null)
 			checkConstituents(tree.getRoot(), phrases, tokens);
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		reader.close();
 		
 		for (String s : phrases)	System.out.println(s);
@@ -552,6 +554,8 @@ public class Tmp
 				if (tree.getTokens().size() != tokens.size())
 					System.out.println(UTArray.join(tokens, " "));
 			}
+			
+			if (pin.getLastError() != null)	System.err.println(pin.getLastError());
 		}
 	}
 	
@@ -564,6 +568,8 @@ public class Tmp
 		while ((tree = reader.nextTree()) != null)
 			fout.println(tree.toString()+"\n");
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		reader.close();
 		fout.close();
 	}
@@ -591,6 +597,8 @@ public class Tmp
 				fout.println(dTree.toStringDEP()+"\n");
 			}
 			
+			if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+			
 			reader.close();
 			fout.close();
 		}
@@ -607,6 +615,8 @@ public class Tmp
 		{
 			extractDEPAux(tree.getRoot(), set, delim);
 		}
+		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
 
 		List<String> list = new ArrayList<String>(set);
 		Collections.sort(list);
@@ -660,6 +670,8 @@ public class Tmp
 					set.add(pos);
 		}
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		List<String> l = new ArrayList<String>(set);
 		Collections.sort(l);
 		
@@ -809,6 +821,8 @@ public class Tmp
 		for (sc=0,wc=0; (tree = reader.nextTree()) != null; sc++)
 			wc += tree.getTokens().size();
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		System.out.println(sc+" "+wc);
 	}
 	
@@ -832,6 +846,8 @@ public class Tmp
 			}
 		}
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		fout.close();
 		System.out.println(i+" -> "+set.size());
 	}
@@ -856,6 +872,8 @@ public class Tmp
 			fout[j+1].println(tree.toForms());
 		}
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		for (PrintStream f : fout)	f.close();
 	}
 	
@@ -880,6 +898,8 @@ public class Tmp
 			}
 		}
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		reader.close();
 		fout.close();
 	}
@@ -943,6 +963,8 @@ public class Tmp
 		
 		while ((tree = reader.nextTree()) != null)
 			traverseAux(tree.getRoot());
+		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
 	}
 	
 	void traverseAux(CTNode node)
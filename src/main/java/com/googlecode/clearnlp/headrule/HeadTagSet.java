@@ -40,11 +40,13 @@
  */
 package com.googlecode.clearnlp.headrule;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 import com.googlecode.clearnlp.constituent.CTNode;
+import com.googlecode.clearnlp.constituent.CTTagMatcher;
+import com.googlecode.clearnlp.constituent.CTTagSet;
 
 
 /**
@@ -59,10 +61,12 @@ public class HeadTagSet
 	/** The prefix of function tags ({@code '-'}). */
 	static final public char   PREFIX_FTAG = '-';
 	
-	/** The regular expression of phrase/pos tags (e.g., {@code "^(NN.*|NP)$"}). */
-	private Pattern     p_tags;
-	/** The set of function tags. */
-	private Set<String> f_tags;
+	/** The regular expression of phrase/pos tags (e.g., {@code "NN.*|NP"}), precompiled into a set of tag IDs. */
+	private CTTagMatcher p_tags;
+	/** The list of function tags in the order of declaration. */
+	private List<String> f_tags;
+	/** The IDs of {@link HeadTagSet#f_tags} in {@link CTTagSet#FTAGS}. */
+	private BitSet       b_fTags;
 	
 	/**
 	 * Construct a new head tagset by decoding the specific tags.
@@ -73,12 +77,22 @@ public class HeadTagSet
 	public HeadTagSet(String[] tags)
 	{
 		StringBuilder pTags = new StringBuilder();
-		f_tags = new HashSet<String>();
+		f_tags  = new ArrayList<String>();
+		b_fTags = new BitSet();
+		String fTag;
 		
 		for (String tag : tags)
 		{
 			if (tag.charAt(0) == PREFIX_FTAG)
-				f_tags.add(tag.substring(1));
+			{
+				fTag = tag.substring(1);
+				
+				if (!f_tags.contains(fTag))
+				{
+					f_tags.add(fTag);
+					b_fTags.set(CTTagSet.FTAGS.getId(fTag));
+				}
+			}
 			else
 			{
 				pTags.append(DELIM_TAGS);
@@ -86,7 +100,7 @@ public class HeadTagSet
 			}
 		}
 		
-		p_tags = (pTags.length() != 0) ? Pattern.compile("^("+pTags.substring(1)+")$") : null;
+		p_tags = (pTags.length() != 0) ? CTTagMatcher.getPTagMatcher(pTags.substring(1)) : null;
 	}
 	
 	/**
@@ -96,11 +110,18 @@ public class HeadTagSet
 	 */
 	public boolean matches(CTNode node)
 	{
-		if (node != null && p_tags != null && p_tags.matcher(node.pTag).find())
-			return true;
-		else if (node.hasFTagAny(f_tags))
+		if (node != null && p_tags != null && node.matchesPTag(p_tags))
 			return true;
 		
+		if (!b_fTags.isEmpty())
+		{
+			for (String fTag : node.getFTags())
+			{
+				if (b_fTags.get(CTTagSet.FTAGS.getId(fTag)))
+					return true;
+			}
+		}
+		
 		return false;
 	}
 	
@@ -113,10 +134,8 @@ public class HeadTagSet
 		
 		if (p_tags != null)
 		{
-			String tags = p_tags.pattern().substring(2);
-			
 			build.append(DELIM_TAGS);
-			build.append(tags.substring(0, tags.length()-2));
+			build.append(p_tags.getRegex());
 		}
 		
 		for (String fTag : f_tags)
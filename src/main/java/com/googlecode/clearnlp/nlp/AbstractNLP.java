@@ -86,6 +86,7 @@ abstract public class AbstractNLP
 	final public String TAG_TRAIN					= "train";
 	final public String TAG_TRAIN_ALGORITHM			= "algorithm";
 	final public String TAG_TRAIN_ALGORITHM_NAME	= "name";
+	final public String TAG_TRAIN_ALGORITHM_HOGWILD	= "hogwild";
 	final public String TAG_TRAIN_THREADS			= "threads";
 	
 	final public String TAG_LANGUAGE				= "language";
@@ -259,7 +260,7 @@ abstract public class AbstractNLP
 			double alpha = Double .parseDouble(UTXml.getTrimmedAttribute(eAlgorithm, "alpha"));
 			double rho   = Double .parseDouble(UTXml.getTrimmedAttribute(eAlgorithm, "rho"));
 			
-			return getAdaGradModel(space, numThreads, iter, i_rand, alpha, rho);
+			return getAdaGradModel(space, numThreads, getNumOfHogwildThreads(eAlgorithm, numThreads), iter, i_rand, alpha, rho);
 		}
 		
 		else if (name.equals("adagrad-lr"))
@@ -270,7 +271,7 @@ abstract public class AbstractNLP
 			double alpha = Double .parseDouble(UTXml.getTrimmedAttribute(eAlgorithm, "alpha"));
 			double rho   = Double .parseDouble(UTXml.getTrimmedAttribute(eAlgorithm, "rho"));
 			
-			return getAdaGradLRModel(space, numThreads, iter, i_rand, alpha, rho);
+			return getAdaGradLRModel(space, numThreads, getNumOfHogwildThreads(eAlgorithm, numThreads), iter, i_rand, alpha, rho);
 		}
 		
 		return null;
@@ -279,40 +280,40 @@ abstract public class AbstractNLP
 	/** Called by {@link AbstractNLP#getModel(Element, AbstractTrainSpace, int, int)}. */
 	protected AbstractModel getLiblinearModel(AbstractTrainSpace space, int numThreads, byte solver, double cost, double eps, double bias)
 	{
-		space.build();
+		space.build(true, numThreads);
 		LOG.info("Liblinear:\n");
 		LOG.info(String.format("- solver=%d, cost=%f, eps=%f, bias=%f\n", solver, cost, eps, bias));
 		return LiblinearTrain.getModel(space, numThreads, solver, cost, eps, bias);
 	}
 	
 	/** Called by {@link AbstractNLP#getModel(Element, AbstractTrainSpace, int, int)}. */
-	protected AbstractModel getAdaGradModel(AbstractTrainSpace space, int numThreads, int iter, int rand, double alpha, double rho)
+	protected AbstractModel getAdaGradModel(AbstractTrainSpace space, int numThreads, int hogwildThreads, int iter, int rand, double alpha, double rho)
 	{
-		space.build();
+		space.build(true, numThreads);
 		LOG.info("AdaGrad:\n");
-		LOG.info(String.format("- iter=%d, rand=%d, alpha=%f, rho=%f\n", iter, rand, alpha, rho));
+		LOG.info(String.format("- iter=%d, rand=%d, alpha=%f, rho=%f, hogwild=%d\n", iter, rand, alpha, rho, hogwildThreads));
 
 		LOG.info("Training:\n");
 		AdaGradHinge ag = new AdaGradHinge(iter, alpha, rho, new Random(rand));
 		
 		AbstractModel model = space.getModel();
-		model.setWeights(ag.getWeight(space, numThreads));
+		model.setWeights(ag.getWeight(space, hogwildThreads));
 		
 		return model;
 	}
 	
 	/** Called by {@link AbstractNLP#getModel(Element, AbstractTrainSpace, int, int)}. */
-	protected AbstractModel getAdaGradLRModel(AbstractTrainSpace space, int numThreads, int iter, int rand, double alpha, double rho)
+	protected AbstractModel getAdaGradLRModel(AbstractTrainSpace space, int numThreads, int hogwildThreads, int iter, int rand, double alpha, double rho)
 	{
-		space.build();
+		space.build(true, numThreads);
 		LOG.info("AdaGrad-LR:\n");
-		LOG.info(String.format("- iter=%d, rand=%d, alpha=%f, rho=%f\n", iter, rand, alpha, rho));
+		LOG.info(String.format("- iter=%d, rand=%d, alpha=%f, rho=%f, hogwild=%d\n", iter, rand, alpha, rho, hogwildThreads));
 
 		LOG.info("Training:\n");
 		AdaGradLR ag = new AdaGradLR(iter, alpha, rho, new Random(rand));
 		
 		AbstractModel model = space.getModel();
-		model.setWeights(ag.getWeight(space, numThreads));
+		model.setWeights(ag.getWeight(space, hogwildThreads));
 		
 		return model;
 	}
@@ -335,7 +336,7 @@ abstract public class AbstractNLP
 			double alpha = Double .parseDouble(UTXml.getTrimmedAttribute(eAlgorithm, "alpha"));
 			double rho   = Double .parseDouble(UTXml.getTrimmedAttribute(eAlgorithm, "rho"));
 			
-			updateAdaGradModel(space, rand, numThreads, nUpdate, iter, alpha, rho);
+			updateAdaGradModel(space, rand, numThreads, getNumOfHogwildThreads(eAlgorithm, numThreads), nUpdate, iter, alpha, rho);
 		}
 		else if (name.equals("adagrad-lr"))
 		{
@@ -343,38 +344,38 @@ abstract public class AbstractNLP
 			double alpha = Double .parseDouble(UTXml.getTrimmedAttribute(eAlgorithm, "alpha"));
 			double rho   = Double .parseDouble(UTXml.getTrimmedAttribute(eAlgorithm, "rho"));
 			
-			updateAdaGradLRModel(space, rand, numThreads, nUpdate, iter, alpha, rho);
+			updateAdaGradLRModel(space, rand, numThreads, getNumOfHogwildThreads(eAlgorithm, numThreads), nUpdate, iter, alpha, rho);
 		}
 	}
 	
-	protected void updateAdaGradModel(AbstractTrainSpace space, Random rand, int numThreads, int nUpdate, int iter, double alpha, double rho)
+	protected void updateAdaGradModel(AbstractTrainSpace space, Random rand, int numThreads, int hogwildThreads, int nUpdate, int iter, double alpha, double rho)
 	{
 		AbstractModel model = space.getModel();
 		
 		if (model.getWeights() == null)
 		{
-			space.build();
+			space.build(true, numThreads);
 			model.initWeightVector();
 		}
 		
 		LOG.info(String.format("%3d: AdaGrad, iter=%d, alpha=%f, rho=%f\n", nUpdate, iter, alpha, rho));
 		AdaGradHinge ag = new AdaGradHinge(iter, alpha, rho, rand);
-		ag.updateWeight(space);
+		ag.updateWeight(space, hogwildThreads);
 	}
 	
-	protected void updateAdaGradLRModel(AbstractTrainSpace space, Random rand, int numThreads, int nUpdate, int iter, double alpha, double rho)
+	protected void updateAdaGradLRModel(AbstractTrainSpace space, Random rand, int numThreads, int hogwildThreads, int nUpdate, int iter, double alpha, double rho)
 	{
 		AbstractModel model = space.getModel();
 		
 		if (model.getWeights() == null)
 		{
-			space.build();
+			space.build(true, numThreads);
 			model.initWeightVector();
 		}
 		
 		LOG.info(String.format("%3d: AdaGrad-LR, iter=%d, alpha=%f, rho=%f\n", nUpdate, iter, alpha, rho));
 		AdaGradLR ag = new AdaGradLR(iter, alpha, rho, rand);
-		ag.updateWeight(space);
+		ag.updateWeight(space, hogwildThreads);
 	}
 	
 	protected int getNumOfThreads(Element eTrain)
@@ -383,6 +384,17 @@ abstract public class AbstractNLP
 		return Integer.parseInt(UTXml.getTrimmedTextContent(eThreads));
 	}
 	
+	/**
+	 * Returns the number of threads training AdaGrad over shared weights without locking (Hogwild).
+	 * Hogwild is enabled only if the algorithm element sets {@code hogwild="true"};
+	 * otherwise, AdaGrad is trained by a single thread so models are reproducible regardless of {@code <threads>}.
+	 * @param numThreads the number of threads specified by {@code <threads>}.
+	 */
+	protected int getNumOfHogwildThreads(Element eAlgorithm, int numThreads)
+	{
+		return Boolean.parseBoolean(UTXml.getTrimmedAttribute(eAlgorithm, TAG_TRAIN_ALGORITHM_HOGWILD)) ? numThreads : 1;
+	}
+	
 	protected void printTime(String message, long st, long et)
 	{
 		long millis = et - st;
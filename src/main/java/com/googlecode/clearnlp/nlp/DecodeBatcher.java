@@ -0,0 +1,433 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.nlp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.component.SharedComponent;
+import com.googlecode.clearnlp.dependency.DEPTree;
+
+/**
+ * Decodes trees submitted by concurrent callers in micro-batches on a pool of worker threads.
+ * Once a worker is free, a dispatcher thread takes the next tree and keeps collecting trees until
+ * the batch is full or the batching window has passed, so batches grow as the load grows.
+ * Each batch borrows components from the pools of {@link SharedComponent}s once, instead of once per tree.
+ * The number of trees waiting or being decoded is bounded; submissions beyond the bound are rejected immediately
+ * so callers can push back on their clients instead of queuing without limit.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class DecodeBatcher
+{
+	private final Logger LOG = LoggerFactory.getLogger(this.getClass());
+	
+	private SharedComponent[]        c_components;
+	private BlockingQueue<BatchItem> q_items;
+	/** Permits for trees waiting or being decoded. */
+	private Semaphore                s_capacity;
+	/** Permits for idle workers. */
+	private Semaphore                s_workers;
+	private ExecutorService          e_workers;
+	private Thread                   t_dispatcher;
+	private int                      n_batchSize;
+	private int                      n_capacity;
+	private long                     n_windowNanos;
+	private volatile boolean         b_closed;
+	
+	private AtomicLong n_batches  = new AtomicLong();
+	private AtomicLong n_trees    = new AtomicLong();
+	private AtomicLong n_rejected = new AtomicLong();
+	
+	/**
+	 * Constructs a batcher and starts its dispatcher thread.
+	 * @param components the components to process each tree in order.
+	 * @param numThreads the number of worker threads.
+	 * @param batchSize the maximum number of trees per batch.
+	 * @param windowMillis the maximum number of milliseconds to wait for more trees once a batch has started.
+	 * @param capacity the maximum number of trees waiting or being decoded.
+	 */
+	public DecodeBatcher(AbstractComponent[] components, int numThreads, int batchSize, long windowMillis, int capacity)
+	{
+		if (numThreads < 1 || batchSize < 1 || windowMillis < 0 || capacity < 1)
+			throw new IllegalArgumentException("Invalid batcher settings: threads="+numThreads+", batch="+batchSize+", window="+windowMillis+", capacity="+capacity);
+		
+		c_components  = toSharedComponents(components);
+		q_items       = new LinkedBlockingQueue<BatchItem>();
+		s_capacity    = new Semaphore(capacity);
+		s_workers     = new Semaphore(numThreads);
+		e_workers     = Executors.newFixedThreadPool(numThreads);
+		n_batchSize   = batchSize;
+		n_capacity    = capacity;
+		n_windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+		
+		t_dispatcher = new Thread(new Dispatcher(), "clearnlp-batcher");
+		t_dispatcher.setDaemon(true);
+		t_dispatcher.start();
+	}
+	
+	static private SharedComponent[] toSharedComponents(AbstractComponent[] components)
+	{
+		AbstractComponent[] shared = SharedComponent.toSharedComponents(components);
+		SharedComponent[] array = new SharedComponent[shared.length];
+		System.arraycopy(shared, 0, array, 0, shared.length);
+		return array;
+	}
+	
+//	====================================== SUBMIT ======================================
+	
+	/**
+	 * Submits the specific tree for decoding.
+	 * @return the future of the decoded tree, which is the same object as the specific tree.
+	 * @throws RejectedExecutionException if the batcher is full or closed.
+	 */
+	public Future<DEPTree> submit(DEPTree tree)
+	{
+		List<DEPTree> trees = new ArrayList<DEPTree>(1);
+		trees.add(tree);
+		
+		return submitAll(trees).get(0);
+	}
+	
+	/**
+	 * Submits the specific trees for decoding; either all of them or none of them are accepted.
+	 * Futures cancelled by callers free their room immediately, and their trees are skipped without being decoded.
+	 * @return the futures of the decoded trees in the order of the specific trees.
+	 * @throws IllegalArgumentException if there are more trees than the capacity of the batcher, so they can never be accepted.
+	 * @throws RejectedExecutionException if the batcher does not have room for all trees now or is closed.
+	 */
+	public List<Future<DEPTree>> submitAll(List<DEPTree> trees)
+	{
+		int size = trees.size();
+		
+		if (size > n_capacity)
+			throw new IllegalArgumentException("Too many trees: "+size+" requested, "+n_capacity+" at most.");
+		
+		if (b_closed)
+			throw new RejectedExecutionException("The batcher is closed.");
+		
+		if (!s_capacity.tryAcquire(size))
+		{
+			n_rejected.addAndGet(size);
+			throw new RejectedExecutionException("The batcher is full: "+size+" trees requested, "+s_capacity.availablePermits()+" available.");
+		}
+		
+		List<Future<DEPTree>> futures = new ArrayList<Future<DEPTree>>(size);
+		BatchItem item;
+		
+		for (DEPTree tree : trees)
+		{
+			item = new BatchItem(tree);
+			futures.add(item.f_tree);
+			q_items.add(item);
+		}
+		
+		if (b_closed)	cancelPending();
+		return futures;
+	}
+	
+//	====================================== DISPATCH ======================================
+	
+	/** Forms batches once a worker is free and hands them to the worker. */
+	private class Dispatcher implements Runnable
+	{
+		@Override
+		public void run()
+		{
+			List<BatchItem> batch;
+			
+			try
+			{
+				while (!b_closed)
+				{
+					s_workers.acquire();
+					batch = getBatch();
+					e_workers.execute(new BatchTask(batch));
+				}
+			}
+			catch (InterruptedException e) {}
+			
+			cancelPending();
+		}
+		
+		/**
+		 * Returns the next batch, waiting for its first tree as long as necessary.
+		 * If interrupted after the first tree, returns the trees collected so far with the interrupt status set.
+		 */
+		private List<BatchItem> getBatch() throws InterruptedException
+		{
+			List<BatchItem> batch = new ArrayList<BatchItem>(n_batchSize);
+			batch.add(q_items.take());
+			
+			long deadline = System.nanoTime() + n_windowNanos, remain;
+			BatchItem item;
+			
+			try
+			{
+				while (batch.size() < n_batchSize)
+				{
+					if ((item = q_items.poll()) == null)
+					{
+						if ((remain = deadline - System.nanoTime()) <= 0 || (item = q_items.poll(remain, TimeUnit.NANOSECONDS)) == null)
+							break;
+					}
+					
+					batch.add(item);
+				}
+			}
+			catch (InterruptedException e) {Thread.currentThread().interrupt();}
+			
+			return batch;
+		}
+	}
+	
+	/** Decodes a batch with components borrowed once for the whole batch. */
+	private class BatchTask implements Runnable
+	{
+		private List<BatchItem> l_batch;
+		
+		public BatchTask(List<BatchItem> batch)
+		{
+			l_batch = batch;
+		}
+		
+		@Override
+		public void run()
+		{
+			int i, size = c_components.length;
+			AbstractComponent[] borrowed = new AbstractComponent[size];
+			
+			n_batches.incrementAndGet();
+			n_trees.addAndGet(l_batch.size());
+			
+			Throwable cause = null;
+			
+			try
+			{
+				for (i=0; i<size; i++)
+					borrowed[i] = c_components[i].borrow();
+				
+				for (BatchItem item : l_batch)
+					process(item, borrowed);
+			}
+			catch (Throwable t)
+			{
+				LOG.warn("Failed to decode a batch: "+t+"\n");
+				cause = t;
+				if (t instanceof Error)	throw (Error)t;
+			}
+			finally
+			{
+				// fail incomplete trees so their permits are returned even when a component throws an error,
+				// which is wrapped because futures rethrow errors set to them
+				Throwable t = (cause instanceof Exception) ? cause : new IllegalStateException("The batch was aborted.", cause);
+				
+				for (BatchItem item : l_batch)
+					item.fail(t);
+				
+				for (i=0; i<size; i++)
+				{
+					if (borrowed[i] != null)
+						c_components[i].release(borrowed[i]);
+				}
+				
+				s_workers.release();
+			}
+		}
+		
+		/** Decodes the specific tree unless its caller has cancelled it, in which case its room has already been freed. */
+		private void process(BatchItem item, AbstractComponent[] components)
+		{
+			if (item.f_tree.isCancelled())
+				return;
+			
+			try
+			{
+				for (AbstractComponent component : components)
+					component.process(item.d_tree);
+			}
+			catch (RuntimeException e)
+			{
+				LOG.warn("Failed to decode a tree: "+e+"\n");
+				item.fail(e);
+				return;
+			}
+			
+			item.complete();
+		}
+	}
+	
+	/** Fails all trees that have not been dispatched. */
+	private void cancelPending()
+	{
+		List<BatchItem> items = new ArrayList<BatchItem>();
+		q_items.drainTo(items);
+		
+		for (BatchItem item : items)
+			item.fail(new CancellationException("The batcher is closed."));
+	}
+	
+	private class BatchItem
+	{
+		private DEPTree                 d_tree;
+		private SettableFuture<DEPTree> f_tree;
+		private AtomicBoolean           b_released;
+		
+		public BatchItem(DEPTree tree)
+		{
+			d_tree     = tree;
+			f_tree     = SettableFuture.create();
+			b_released = new AtomicBoolean();
+			
+			f_tree.addListener(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					if (f_tree.isCancelled())	release();
+				}
+			}, MoreExecutors.sameThreadExecutor());
+		}
+		
+		/** Frees the room of this tree before completing it, so its caller can submit again right away. */
+		public void complete()
+		{
+			if (release())	f_tree.set(d_tree);
+		}
+		
+		/** Fails this tree unless it has already been completed or failed. */
+		public void fail(Throwable t)
+		{
+			if (release())	f_tree.setException(t);
+		}
+		
+		/** @return {@code true} if the room of this tree is freed by this call; {@code false} if it has already been freed. */
+		public boolean release()
+		{
+			if (!b_released.compareAndSet(false, true))
+				return false;
+			
+			s_capacity.release();
+			return true;
+		}
+	}
+	
+//	====================================== CLOSE ======================================
+	
+	/** Stops accepting trees, fails trees not dispatched yet, and waits for batches being decoded to finish. */
+	public void close()
+	{
+		b_closed = true;
+		t_dispatcher.interrupt();
+		
+		try
+		{
+			t_dispatcher.join();
+			e_workers.shutdown();
+			e_workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException e) {Thread.currentThread().interrupt();}
+		
+		cancelPending();
+	}
+	
+//	====================================== STATISTICS ======================================
+	
+	/** @return the maximum number of trees waiting or being decoded. */
+	public int getCapacity()
+	{
+		return n_capacity;
+	}
+	
+	/** @return the number of trees waiting to be dispatched. */
+	public int getQueueSize()
+	{
+		return q_items.size();
+	}
+	
+	/** @return the number of decoded batches. */
+	public long getBatchCount()
+	{
+		return n_batches.get();
+	}
+	
+	/** @return the number of decoded trees. */
+	public long getTreeCount()
+	{
+		return n_trees.get();
+	}
+	
+	/** @return the number of rejected trees. */
+	public long getRejectedCount()
+	{
+		return n_rejected.get();
+	}
+	
+	/** @return the mean number of trees per batch ({@code 0} if no batch has been decoded). */
+	public double getMeanBatchSize()
+	{
+		long batches = getBatchCount();
+		return (batches == 0) ? 0 : (double)getTreeCount() / batches;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return String.format("batches: %d, trees: %d, mean batch size: %.2f, rejected: %d, queued: %d", getBatchCount(), getTreeCount(), getMeanBatchSize(), getRejectedCount(), getQueueSize());
+	}
+}
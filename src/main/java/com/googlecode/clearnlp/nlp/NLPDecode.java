@@ -41,12 +41,21 @@
 package com.googlecode.clearnlp.nlp;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipInputStream;
 
 import org.kohsuke.args4j.Option;
@@ -54,10 +63,20 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+import com.googlecode.clearnlp.classification.model.LazyStringModels;
+import com.googlecode.clearnlp.classification.model.ModelInputStream;
 import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.component.AbstractStatisticalComponent;
+import com.googlecode.clearnlp.component.AbstractStatisticalComponentSB;
+import com.googlecode.clearnlp.component.SharedComponent;
+import com.googlecode.clearnlp.component.metrics.InstrumentedComponent;
+import com.googlecode.clearnlp.component.metrics.MetricsRegistry;
+import com.googlecode.clearnlp.component.metrics.MetricsReporter;
 import com.googlecode.clearnlp.component.srl.CPredIdentifier;
 import com.googlecode.clearnlp.component.srl.CRolesetClassifier;
 import com.googlecode.clearnlp.component.srl.CSenseClassifier;
+import com.googlecode.clearnlp.dependency.DEPFeat;
+import com.googlecode.clearnlp.dependency.DEPLib;
 import com.googlecode.clearnlp.dependency.DEPNode;
 import com.googlecode.clearnlp.dependency.DEPTree;
 import com.googlecode.clearnlp.engine.EngineGetter;
@@ -66,6 +85,7 @@ import com.googlecode.clearnlp.reader.JointReader;
 import com.googlecode.clearnlp.reader.LineReader;
 import com.googlecode.clearnlp.segmentation.AbstractSegmenter;
 import com.googlecode.clearnlp.tokenization.AbstractTokenizer;
+import com.googlecode.clearnlp.tokenization.TokenSpan;
 import com.googlecode.clearnlp.util.UTInput;
 import com.googlecode.clearnlp.util.UTOutput;
 import com.googlecode.clearnlp.util.UTXml;
@@ -88,10 +108,37 @@ public class NLPDecode extends AbstractNLP
 	protected String s_mode;
 	@Option(name="-twit", usage="if set, set the tokenizer for twits", required=false, metaVar="<boolean>")
 	protected boolean b_twit;
+	@Option(name="-ctok", usage="if set, use the tokenizer looking up letter-only words in the dictionaries and caching tokens of other words", required=false, metaVar="<boolean>")
+	protected boolean b_compiledTokenizer;
 	@Option(name="-beams", usage="beam size (for selectional branching; default: 1)", required=false, metaVar="<integer>")
 	protected int n_beams = 1;
 	@Option(name="-posFile", usage="predefined part-of-speech tag list (default: null)", required=false, metaVar="<String>")
 	protected String s_posFile = null;
+	@Option(name="-threads", usage="number of threads for decoding (default: 1)", required=false, metaVar="<integer>")
+	protected int n_threads = 1;
+	@Option(name="-pfiles", usage="if set, decode input files in parallel instead of sentences in each file", required=false, metaVar="<boolean>")
+	protected boolean b_pfiles;
+	@Option(name="-bthreads", usage="number of threads for exploring branches of selectional branching (default: 1)", required=false, metaVar="<integer>")
+	protected int n_branchThreads = 1;
+	@Option(name="-lmodels", usage="maximum number of per-lemma models for roleset and sense classification kept in memory (default: 0, no limit)", required=false, metaVar="<integer>")
+	protected int n_lemmaModels = 0;
+	@Option(name="-metrics", usage="if positive, record per-component metrics and log them every this many seconds (default: 0)", required=false, metaVar="<integer>")
+	protected int n_metricsPeriod = 0;
+	@Option(name="-jmx", usage="if set, record per-component metrics and expose them as JMX MBeans", required=false)
+	protected boolean b_jmx;
+	@Option(name="-offsets", usage="if set, add the character offsets of tokens to their features (offsets are relative to each file for raw input and to each line for line input)", required=false)
+	protected boolean b_offsets;
+	
+	/** The maximum number of sentences per thread waiting to be printed. */
+	protected final int N_BUFFER_PER_THREAD = 64;
+	/** The thread pool for decoding sentences in parallel ({@code null} if decoding sequentially). */
+	protected ExecutorService e_pool = null;
+	/** The thread pool for exploring branches of selectional branching in parallel ({@code null} if exploring sequentially). */
+	protected ExecutorService e_branches = null;
+	/** The registry of per-component metrics ({@code null} if metrics are not recorded). */
+	protected MetricsRegistry r_metrics = null;
+	/** The reporter logging {@link NLPDecode#r_metrics} ({@code null} if metrics are not recorded). */
+	protected MetricsReporter r_reporter = null;
 	
 	public NLPDecode() {}
 	
@@ -118,9 +165,35 @@ public class NLPDecode extends AbstractNLP
 		
 		AbstractSegmenter   segmenter  = readerType.equals(AbstractReader.TYPE_RAW)  ? getSegmenter(eModels, b_twit) : null;
 		AbstractTokenizer   tokenizer  = readerType.equals(AbstractReader.TYPE_LINE) ? getTokenizer(eModels, b_twit) : null;
-		AbstractComponent[] components = getComponents(eModels, getModes(readerType, mode));
+		List<String>        modes      = getModes(readerType, mode);
+		AbstractComponent[] components = getComponents(eModels, modes);
 		
 		LOG.info("Decoding:\n");
+		setLazyModelCapacity(components, n_lemmaModels);
+		
+		if (n_branchThreads > 1)
+		{
+			e_branches = Executors.newFixedThreadPool(n_branchThreads);
+			setBranchExecutor(components, e_branches);
+		}
+		
+		if (n_metricsPeriod > 0 || b_jmx)
+			components = startMetrics(components, modes);
+		
+		if (n_threads > 1)
+		{
+			components = SharedComponent.toSharedComponents(components);
+			
+			if (b_pfiles)
+			{
+				decodeFiles(filenames, eReader, segmenter, tokenizer, components, mode);
+				shutdownBranchExecutor();
+				stopMetrics();
+				return;
+			}
+			
+			e_pool = Executors.newFixedThreadPool(n_threads);
+		}
 		
 		for (String[] filename : filenames)
 		{
@@ -128,9 +201,125 @@ public class NLPDecode extends AbstractNLP
 			fout = UTOutput.createPrintBufferedFileStream(filename[1]);
 			LOG.info(filename[0]+"\n");
 			
-			decode(reader, fout, segmenter, tokenizer, components, mode);
-			reader.close(); fout.close();
+			try
+			{
+				decode(reader, fout, segmenter, tokenizer, components, mode);
+			}
+			finally
+			{
+				reader.close(); fout.close();
+			}
+		}
+		
+		if (e_pool != null)
+		{
+			e_pool.shutdown();
+			e_pool = null;
+		}
+		
+		shutdownBranchExecutor();
+		stopMetrics();
+	}
+	
+	/** Sets the maximum number of resident models to all components loading models on their first use. */
+	protected void setLazyModelCapacity(AbstractComponent[] components, int capacity)
+	{
+		LazyStringModels models;
+		
+		for (AbstractComponent component : components)
+		{
+			if (component instanceof AbstractStatisticalComponent && (models = ((AbstractStatisticalComponent)component).getLazyModels()) != null)
+				models.setCapacity(capacity);
+		}
+	}
+	
+	/** Sets the specific executor to all components using selectional branching. */
+	protected void setBranchExecutor(AbstractComponent[] components, ExecutorService executor)
+	{
+		for (AbstractComponent component : components)
+		{
+			if (component instanceof AbstractStatisticalComponentSB)
+				((AbstractStatisticalComponentSB)component).setBranchExecutor(executor);
+		}
+	}
+	
+	private void shutdownBranchExecutor()
+	{
+		if (e_branches != null)
+		{
+			e_branches.shutdown();
+			e_branches = null;
+		}
+	}
+	
+	/**
+	 * Starts recording metrics of the specific components, which are logged periodically and/or exposed through JMX.
+	 * @param modes the modes of the components, which become the names of their metrics.
+	 * @return the components recording their metrics.
+	 */
+	protected AbstractComponent[] startMetrics(AbstractComponent[] components, List<String> modes)
+	{
+		r_metrics  = new MetricsRegistry(b_jmx);
+		r_reporter = new MetricsReporter(r_metrics);
+		components = InstrumentedComponent.toInstrumentedComponents(components, modes.toArray(new String[modes.size()]), r_metrics);
+		
+		if (n_metricsPeriod > 0)
+			r_reporter.start(n_metricsPeriod);
+		
+		return components;
+	}
+	
+	/** Logs the final metrics and unregisters them from JMX. */
+	protected void stopMetrics()
+	{
+		if (r_metrics != null)
+		{
+			r_reporter.stop();
+			r_metrics.close();
+			r_metrics  = null;
+			r_reporter = null;
+		}
+	}
+	
+	/**
+	 * Decodes the specific files in parallel, where sentences in each file are decoded sequentially.
+	 * @throws IllegalStateException if any file fails to be decoded, after all other files are decoded.
+	 */
+	protected void decodeFiles(List<String[]> filenames, Element eReader, AbstractSegmenter segmenter, AbstractTokenizer tokenizer, AbstractComponent[] components, String mode)
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(n_threads);
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		IllegalStateException failure = null;
+		int i, size = filenames.size();
+		
+		for (String[] filename : filenames)
+			futures.add(executor.submit(new DecodeFileTask(getReader(eReader), filename, segmenter, tokenizer, components, mode)));
+		
+		executor.shutdown();
+		
+		try
+		{
+			for (i=0; i<size; i++)
+			{
+				try
+				{
+					futures.get(i).get();
+				}
+				catch (ExecutionException e)
+				{
+					LOG.error("Failed to decode: "+filenames.get(i)[0]+"\n", e.getCause());
+					if (failure == null)	failure = new IllegalStateException("Failed to decode: "+filenames.get(i)[0], e.getCause());
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while decoding files.", e);
 		}
+		
+		if (failure != null)	throw failure;
 	}
 	
 	//	===================================== decode ===================================== 
@@ -147,46 +336,35 @@ public class NLPDecode extends AbstractNLP
 	
 	public void decode(BufferedReader reader, PrintStream fout, AbstractSegmenter segmenter, AbstractComponent[] components, String mode) throws IOException
 	{
-		DEPTree tree;
+		Iterator<List<TokenSpan>> it = segmenter.getSentenceSpanIterator(reader);
+		DecodeQueue queue = new DecodeQueue(fout);
 		
-		for (List<String> tokens : segmenter.getSentences(reader))
-		{
-			tree = toDEPTree(tokens);
-			
-			for (AbstractComponent component : components)
-				component.process(tree);
-			
-			fout.println(toString(tree, mode)+"\n");
-		}
+		while (it.hasNext())
+			queue.add(new DecodeTask(toDEPTreeFromSpans(it.next()), components, mode));
+		
+		queue.close();
 	}
 	
 	public void decode(LineReader reader, PrintStream fout, AbstractTokenizer tokenizer, AbstractComponent[] components, String mode)
 	{
+		DecodeQueue queue = new DecodeQueue(fout);
 		String sentence;
-		DEPTree tree;
 
 		while ((sentence = reader.next()) != null)
-		{
-			tree = toDEPTree(tokenizer.getTokens(sentence));
-			
-			for (AbstractComponent component : components)
-				component.process(tree);
-			
-			fout.println(toString(tree, mode)+"\n");
-		}
+			queue.add(new DecodeTask(sentence, tokenizer, components, mode));
+		
+		queue.close();
 	}
 	
 	public void decode(JointReader reader, PrintStream fout, AbstractComponent[] components, String mode)
 	{
+		DecodeQueue queue = new DecodeQueue(fout);
 		DEPTree tree;
 		
 		while ((tree = reader.next()) != null)
-		{
-			for (AbstractComponent component : components)
-				component.process(tree);
-			
-			fout.println(toString(tree, mode)+"\n");
-		}
+			queue.add(new DecodeTask(tree, components, mode));
+		
+		queue.close();
 	}
 	
 	static public DEPTree toDEPTree(List<String> tokens)
@@ -200,11 +378,45 @@ public class NLPDecode extends AbstractNLP
 		return tree;
 	}
 	
+	/**
+	 * Returns a dependency tree whose nodes carry the character offsets of the specific tokens.
+	 * @since 1.4.3
+	 */
+	static public DEPTree toDEPTreeFromSpans(List<TokenSpan> tokens)
+	{
+		DEPTree tree = new DEPTree();
+		int i, size = tokens.size();
+		
+		for (i=0; i<size; i++)
+			tree.add(new DEPNode(i+1, tokens.get(i)));
+		
+		return tree;
+	}
+	
+	/**
+	 * Adds the character offsets of all nodes in the specific tree to their features as {@code offs=begin,end}.
+	 * @since 1.4.3
+	 */
+	static public void addOffsetFeats(DEPTree tree)
+	{
+		int i, size = tree.size();
+		DEPNode node;
+		
+		for (i=1; i<size; i++)
+		{
+			node = tree.get(i);
+			
+			if (node.hasOffsets())
+				node.addFeat(DEPLib.FEAT_OFFSETS, node.getBeginOffset()+DEPFeat.DELIM_VALUES+node.getEndOffset());
+		}
+	}
+	
 	//	===================================== public methods =====================================
 	
+	/** @param stream the stream of a model archive; if it is a {@link ModelInputStream}, relative binary model paths are resolved against the directory of the archive. */
 	public AbstractComponent getComponent(InputStream stream, String language, String mode) throws IOException
 	{
-		ZipInputStream zin = new ZipInputStream(stream);
+		ZipInputStream zin = (stream instanceof ZipInputStream) ? (ZipInputStream)stream : new ZipInputStream(stream);
 		
 		if (mode.equals(NLPLib.MODE_POS))
 			return EngineGetter.getPOSTagger(zin, language);
@@ -302,7 +514,7 @@ public class NLPDecode extends AbstractNLP
 			mode   = UTXml.getTrimmedAttribute(eModel, TAG_MODE);
 			
 			if ((idx = map.get(mode) - 1) >= 0)
-				components[idx] = getComponent(new FileInputStream(UTXml.getTrimmedAttribute(eModel, TAG_PATH)), language, mode);
+				components[idx] = getComponent(new ModelInputStream(new File(UTXml.getTrimmedAttribute(eModel, TAG_PATH))), language, mode);
 		}
 		
 		return components;
@@ -321,7 +533,7 @@ public class NLPDecode extends AbstractNLP
 		String language   = getLanguage(eModels);
 		String dictionary = getDictionary(eModels);
 		
-		AbstractTokenizer tokenizer = EngineGetter.getTokenizer(language, new FileInputStream(dictionary));
+		AbstractTokenizer tokenizer = EngineGetter.getTokenizer(language, new FileInputStream(dictionary), b_compiledTokenizer);
 		tokenizer.setTwit(twit);
 		
 		return tokenizer;
@@ -339,6 +551,198 @@ public class NLPDecode extends AbstractNLP
 		return map;
 	}
 	
+	//	===================================== concurrent decoding =====================================
+	
+	/**
+	 * Prints decoded sentences in the input order.
+	 * If {@link NLPDecode#e_pool} is not {@code null}, sentences are decoded by the pool and
+	 * at most {@link NLPDecode#N_BUFFER_PER_THREAD} sentences per thread wait to be printed.
+	 * If a sentence fails, the sentences waiting to be printed are cancelled and the failure is thrown
+	 * so the output never misses a sentence silently.
+	 */
+	private class DecodeQueue
+	{
+		private Deque<Callable<String>> q_outputs;
+		private PrintStream f_out;
+		private int n_capacity;
+		private int n_sentences;
+		
+		public DecodeQueue(PrintStream fout)
+		{
+			q_outputs  = new ArrayDeque<Callable<String>>();
+			f_out      = fout;
+			n_capacity = n_threads * N_BUFFER_PER_THREAD;
+		}
+		
+		public void add(DecodeTask task)
+		{
+			if (e_pool == null)
+			{
+				print(task);
+				return;
+			}
+			
+			if (q_outputs.size() >= n_capacity)
+				print(q_outputs.poll());
+			
+			q_outputs.add(new FutureOutput(e_pool.submit(task)));
+		}
+		
+		/** Prints all remaining sentences. */
+		public void close()
+		{
+			while (!q_outputs.isEmpty())
+				print(q_outputs.poll());
+		}
+		
+		/** @throws IllegalStateException if the specific sentence fails to be decoded. */
+		private void print(Callable<String> output)
+		{
+			String s;
+			n_sentences++;
+			
+			try
+			{
+				s = output.call();
+			}
+			catch (ExecutionException e)
+			{
+				cancel();
+				throw new IllegalStateException("Failed to decode sentence "+n_sentences+".", e.getCause());
+			}
+			catch (InterruptedException e)
+			{
+				cancel();
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while decoding sentence "+n_sentences+".", e);
+			}
+			catch (Exception e)
+			{
+				cancel();
+				throw new IllegalStateException("Failed to decode sentence "+n_sentences+".", e);
+			}
+			
+			f_out.println(s+"\n");
+		}
+		
+		/** Cancels all sentences waiting to be printed. */
+		private void cancel()
+		{
+			for (Callable<String> output : q_outputs)
+				((FutureOutput)output).cancel();
+			
+			q_outputs.clear();
+		}
+	}
+	
+	/** Decodes a sentence and returns its string representation. */
+	private class DecodeTask implements Callable<String>
+	{
+		private AbstractComponent[] a_components;
+		private AbstractTokenizer   t_tokenizer;
+		private String              s_sentence;
+		private String              s_mode;
+		private DEPTree             d_tree;
+		
+		public DecodeTask(DEPTree tree, AbstractComponent[] components, String mode)
+		{
+			d_tree       = tree;
+			a_components = components;
+			s_mode       = mode;
+		}
+		
+		/** The sentence gets tokenized by the thread decoding it. */
+		public DecodeTask(String sentence, AbstractTokenizer tokenizer, AbstractComponent[] components, String mode)
+		{
+			s_sentence   = sentence;
+			t_tokenizer  = tokenizer;
+			a_components = components;
+			s_mode       = mode;
+		}
+		
+		@Override
+		public String call()
+		{
+			DEPTree tree = (d_tree != null) ? d_tree : toDEPTreeFromSpans(t_tokenizer.getTokenSpans(s_sentence));
+			
+			for (AbstractComponent component : a_components)
+				component.process(tree);
+			
+			if (b_offsets)
+				addOffsetFeats(tree);
+			
+			return NLPDecode.this.toString(tree, s_mode);
+		}
+	}
+	
+	/** Wraps the output of a sentence decoded by {@link NLPDecode#e_pool}. */
+	private class FutureOutput implements Callable<String>
+	{
+		private Future<String> f_output;
+		
+		public FutureOutput(Future<String> output)
+		{
+			f_output = output;
+		}
+		
+		@Override
+		public String call() throws Exception
+		{
+			return f_output.get();
+		}
+		
+		public void cancel()
+		{
+			f_output.cancel(true);
+		}
+	}
+	
+	/** Decodes all sentences in a file. */
+	private class DecodeFileTask implements Callable<Void>
+	{
+		private AbstractReader<?>   a_reader;
+		private AbstractSegmenter   g_segmenter;
+		private AbstractTokenizer   t_tokenizer;
+		private AbstractComponent[] a_components;
+		private String[]            s_filename;
+		private String              s_mode;
+		
+		public DecodeFileTask(AbstractReader<?> reader, String[] filename, AbstractSegmenter segmenter, AbstractTokenizer tokenizer, AbstractComponent[] components, String mode)
+		{
+			a_reader     = reader;
+			s_filename   = filename;
+			g_segmenter  = segmenter;
+			t_tokenizer  = tokenizer;
+			a_components = components;
+			s_mode       = mode;
+		}
+		
+		/** The reader and the output stream are closed even if decoding fails. */
+		@Override
+		public Void call() throws IOException
+		{
+			BufferedReader fin = UTInput.createBufferedFileReader(s_filename[0]);
+			PrintStream fout = null;
+			if (fin == null)	return null;
+			
+			a_reader.open(fin);
+			
+			try
+			{
+				fout = UTOutput.createPrintBufferedFileStream(s_filename[1]);
+				decode(a_reader, fout, g_segmenter, t_tokenizer, a_components, s_mode);
+				LOG.info(s_filename[0]+"\n");
+			}
+			finally
+			{
+				a_reader.close();
+				if (fout != null)	fout.close();
+			}
+			
+			return null;
+		}
+	}
+	
 	static public void main(String[] args)
 	{
 		new NLPDecode(args);
@@ -0,0 +1,442 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.nlp;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.kohsuke.args4j.Option;
+import org.w3c.dom.Element;
+
+import com.google.common.base.Charsets;
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.dependency.DEPTree;
+import com.googlecode.clearnlp.reader.AbstractReader;
+import com.googlecode.clearnlp.segmentation.AbstractSegmenter;
+import com.googlecode.clearnlp.util.UTXml;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Long-running decoder that loads models once and serves requests over HTTP.
+ * {@code POST /decode?format=raw} decodes raw text segmented into sentences, and
+ * {@code POST /decode?format=tok} decodes pre-tokenized sentences, one per line with tokens separated by white spaces.
+ * Decoded trees are returned in the output format of the mode, separated by blank lines as in {@link NLPDecode}.
+ * Sentences from concurrent requests are decoded in micro-batches (see {@link DecodeBatcher});
+ * requests are answered with {@code 503} if too many sentences are pending, {@code 413} if they are too large to be accepted at all,
+ * and {@code 504} if they time out, in which case their remaining sentences are cancelled.
+ * {@code GET /health} returns the batcher statistics.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class NLPServer extends AbstractNLP
+{
+	static public final String CONTEXT_DECODE = "/decode";
+	static public final String CONTEXT_HEALTH = "/health";
+	static public final String PARAM_FORMAT   = "format";
+	static public final String FORMAT_RAW     = "raw";
+	static public final String FORMAT_TOK     = "tok";
+	
+	@Option(name="-c", usage="configuration file (required)", required=true, metaVar="<filename>")
+	private String s_configXml;
+	@Option(name="-z", usage="mode (pos|morph|dep|srl)", required=true, metaVar="<string>")
+	protected String s_mode;
+	@Option(name="-host", usage="host name or address to bind (default: localhost)", required=false, metaVar="<string>")
+	protected String s_host = "localhost";
+	@Option(name="-port", usage="port to listen (default: 8080)", required=false, metaVar="<integer>")
+	protected int n_port = 8080;
+	@Option(name="-twit", usage="if set, set the tokenizer for twits", required=false, metaVar="<boolean>")
+	protected boolean b_twit;
+	@Option(name="-ctok", usage="if set, use the tokenizer looking up letter-only words in the dictionaries and caching tokens of other words", required=false, metaVar="<boolean>")
+	protected boolean b_compiledTokenizer;
+	@Option(name="-threads", usage="number of threads for decoding (default: 1)", required=false, metaVar="<integer>")
+	protected int n_threads = 1;
+	@Option(name="-handlers", usage="number of threads for handling requests (default: 8)", required=false, metaVar="<integer>")
+	protected int n_handlers = 8;
+	@Option(name="-batch", usage="maximum number of sentences per batch (default: 32)", required=false, metaVar="<integer>")
+	protected int n_batchSize = 32;
+	@Option(name="-window", usage="maximum milliseconds to wait for more sentences once a batch has started (default: 5)", required=false, metaVar="<integer>")
+	protected long n_windowMillis = 5;
+	@Option(name="-queue", usage="maximum number of sentences waiting or being decoded (default: 1024)", required=false, metaVar="<integer>")
+	protected int n_capacity = 1024;
+	@Option(name="-timeout", usage="maximum milliseconds to decode a request (default: 60000)", required=false, metaVar="<integer>")
+	protected long n_timeoutMillis = 60000;
+	@Option(name="-maxbytes", usage="maximum number of bytes in a request body (default: 1048576)", required=false, metaVar="<integer>")
+	protected int n_maxBytes = 1 << 20;
+	@Option(name="-metrics", usage="if positive, record per-component metrics and log them every this many seconds (default: 0)", required=false, metaVar="<integer>")
+	protected int n_metricsPeriod = 0;
+	@Option(name="-jmx", usage="if set, record per-component metrics and expose them as JMX MBeans", required=false)
+	protected boolean b_jmx;
+	
+	private NLPDecode         n_decoder;
+	private AbstractSegmenter g_segmenter;
+	private DecodeBatcher     d_batcher;
+	private HttpServer        h_server;
+	private ExecutorService   e_handlers;
+	
+	public NLPServer() {}
+	
+	public NLPServer(String[] args)
+	{
+		initArgs(args);
+		
+		try
+		{
+			load(s_configXml, s_mode);
+			start(new InetSocketAddress(s_host, n_port));
+			
+			Runtime.getRuntime().addShutdownHook(new Thread()
+			{
+				@Override
+				public void run()
+				{
+					NLPServer.this.stop();
+				}
+			});
+		}
+		catch (Exception e) {e.printStackTrace();}
+	}
+	
+	/** Loads the segmenter and all components required to decode raw text for the specific mode. */
+	public void load(String configXml, String mode) throws Exception
+	{
+		Element eConfig = UTXml.getDocumentElement(new FileInputStream(configXml));
+		Element eModels = UTXml.getFirstElementByTagName(eConfig, TAG_MODELS);
+		
+		n_decoder = new NLPDecode();
+		n_decoder.b_compiledTokenizer = b_compiledTokenizer;
+		n_decoder.n_metricsPeriod     = n_metricsPeriod;
+		n_decoder.b_jmx               = b_jmx;
+		
+		List<String>        modes      = n_decoder.getModes(AbstractReader.TYPE_RAW, mode);
+		AbstractComponent[] components = n_decoder.getComponents(eModels, modes);
+		
+		if (n_metricsPeriod > 0 || b_jmx)
+			components = n_decoder.startMetrics(components, modes);
+		
+		init(n_decoder.getSegmenter(eModels, b_twit), components, mode);
+	}
+	
+	/**
+	 * Initializes this server with the specific segmenter and components.
+	 * @param segmenter the segmenter for raw text ({@code null} if only pre-tokenized sentences are accepted).
+	 * @param components the components to process each sentence in order.
+	 * @param mode the mode determining the output format (e.g., {@code dep}).
+	 */
+	public void init(AbstractSegmenter segmenter, AbstractComponent[] components, String mode)
+	{
+		g_segmenter = segmenter;
+		d_batcher   = new DecodeBatcher(components, n_threads, n_batchSize, n_windowMillis, n_capacity);
+		s_mode      = mode;
+	}
+	
+	/** Starts listening to the specific address (port {@code 0} picks a free port; see {@link NLPServer#getPort()}). */
+	public void start(InetSocketAddress address) throws IOException
+	{
+		e_handlers = Executors.newFixedThreadPool(n_handlers);
+		h_server   = HttpServer.create(address, 0);
+		
+		h_server.createContext(CONTEXT_DECODE, new DecodeHandler());
+		h_server.createContext(CONTEXT_HEALTH, new HealthHandler());
+		h_server.setExecutor(e_handlers);
+		h_server.start();
+		
+		LOG.info("Listening to "+h_server.getAddress()+"\n");
+	}
+	
+	/** Stops accepting requests, finishes sentences being decoded, and releases all resources. */
+	synchronized public void stop()
+	{
+		if (h_server != null)
+		{
+			h_server.stop(0);
+			e_handlers.shutdown();
+			h_server = null;
+		}
+		
+		if (d_batcher != null)
+		{
+			d_batcher.close();
+			LOG.info(d_batcher+"\n");
+			d_batcher = null;
+		}
+		
+		if (n_decoder != null)
+			n_decoder.stopMetrics();
+	}
+	
+	/** @return the port this server listens to. */
+	public int getPort()
+	{
+		return h_server.getAddress().getPort();
+	}
+	
+	/** @return the batcher decoding sentences for this server. */
+	public DecodeBatcher getBatcher()
+	{
+		return d_batcher;
+	}
+	
+//	====================================== HANDLERS ======================================
+	
+	private class DecodeHandler implements HttpHandler
+	{
+		@Override
+		public void handle(HttpExchange exchange) throws IOException
+		{
+			try
+			{
+				if (!exchange.getRequestMethod().equals("POST"))
+				{
+					send(exchange, 405, "Only POST is supported.");
+					return;
+				}
+				
+				String format = getParameter(exchange.getRequestURI().getRawQuery(), PARAM_FORMAT, FORMAT_RAW);
+				String text   = read(exchange, n_maxBytes);
+				List<DEPTree> trees;
+				
+				if (text == null)
+				{
+					send(exchange, 413, "The request body exceeds "+n_maxBytes+" bytes.");
+					return;
+				}
+				
+				if (format.equals(FORMAT_TOK))
+					trees = getTokenizedTrees(text);
+				else if (format.equals(FORMAT_RAW) && g_segmenter != null)
+					trees = getRawTrees(text);
+				else
+				{
+					send(exchange, 400, "Unsupported format: "+format);
+					return;
+				}
+				
+				decode(exchange, trees);
+			}
+			finally
+			{
+				exchange.close();
+			}
+		}
+		
+		private void decode(HttpExchange exchange, List<DEPTree> trees) throws IOException
+		{
+			List<Future<DEPTree>> futures;
+			
+			if (trees.size() > d_batcher.getCapacity())
+			{
+				send(exchange, 413, "The request has "+trees.size()+" sentences but at most "+d_batcher.getCapacity()+" sentences can be decoded at once.");
+				return;
+			}
+			
+			try
+			{
+				futures = d_batcher.submitAll(trees);
+			}
+			catch (RejectedExecutionException e)
+			{
+				exchange.getResponseHeaders().set("Retry-After", "1");
+				send(exchange, 503, e.getMessage());
+				return;
+			}
+			
+			StringBuilder build = new StringBuilder();
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(n_timeoutMillis);
+			
+			try
+			{
+				for (Future<DEPTree> future : futures)
+				{
+					build.append(NLPServer.this.toString(future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS), s_mode));
+					build.append("\n\n");
+				}
+			}
+			catch (TimeoutException e)
+			{
+				cancel(futures);
+				send(exchange, 504, "Decoding timed out after "+n_timeoutMillis+" milliseconds.");
+				return;
+			}
+			catch (ExecutionException e)
+			{
+				cancel(futures);
+				send(exchange, 500, "Decoding failed: "+e.getCause());
+				return;
+			}
+			catch (InterruptedException e)
+			{
+				cancel(futures);
+				send(exchange, 503, "The server is shutting down.");
+				return;
+			}
+			
+			send(exchange, 200, build.toString());
+		}
+	}
+	
+	/** Cancels sentences no longer awaited so that they are skipped instead of being decoded. */
+	private void cancel(List<Future<DEPTree>> futures)
+	{
+		for (Future<DEPTree> future : futures)
+			future.cancel(false);
+	}
+	
+	private class HealthHandler implements HttpHandler
+	{
+		@Override
+		public void handle(HttpExchange exchange) throws IOException
+		{
+			try
+			{
+				DecodeBatcher batcher = d_batcher;
+				
+				if (batcher != null)	send(exchange, 200, batcher.toString());
+				else					send(exchange, 503, "The server is not ready.");
+			}
+			finally
+			{
+				exchange.close();
+			}
+		}
+	}
+	
+	/** @return trees of sentences segmented from the specific raw text. */
+	private List<DEPTree> getRawTrees(String text)
+	{
+		List<DEPTree> trees = new ArrayList<DEPTree>();
+		
+		for (List<String> tokens : g_segmenter.getSentences(new BufferedReader(new StringReader(text))))
+			trees.add(NLPDecode.toDEPTree(tokens));
+		
+		return trees;
+	}
+	
+	/** @return trees of sentences in the specific lines, where tokens are separated by white spaces. */
+	private List<DEPTree> getTokenizedTrees(String text)
+	{
+		List<DEPTree> trees = new ArrayList<DEPTree>();
+		
+		for (String line : text.split("\n"))
+		{
+			line = line.trim();
+			
+			if (!line.isEmpty())
+				trees.add(NLPDecode.toDEPTree(Arrays.asList(line.split("\\s+"))));
+		}
+		
+		return trees;
+	}
+	
+	/** @return the value of the specific parameter in the specific query, or the default value if it does not exist. */
+	static String getParameter(String query, String name, String defaultValue) throws IOException
+	{
+		if (query == null)	return defaultValue;
+		int idx;
+		
+		for (String param : query.split("&"))
+		{
+			if ((idx = param.indexOf('=')) > 0 && URLDecoder.decode(param.substring(0, idx), "UTF-8").equals(name))
+				return URLDecoder.decode(param.substring(idx+1), "UTF-8");
+		}
+		
+		return defaultValue;
+	}
+	
+	/** @return the request body, or {@code null} if it exceeds the specific number of bytes. */
+	static private String read(HttpExchange exchange, int maxBytes) throws IOException
+	{
+		String length = exchange.getRequestHeaders().getFirst("Content-Length");
+		
+		if (length != null && Long.parseLong(length.trim()) > maxBytes)
+			return null;
+		
+		InputStream in = exchange.getRequestBody();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int len;
+		
+		while ((len = in.read(buffer)) >= 0)
+		{
+			if (out.size() + len > maxBytes)
+				return null;
+			
+			out.write(buffer, 0, len);
+		}
+		
+		return new String(out.toByteArray(), Charsets.UTF_8);
+	}
+	
+	static private void send(HttpExchange exchange, int code, String body) throws IOException
+	{
+		byte[] bytes = body.getBytes(Charsets.UTF_8);
+		
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+		exchange.sendResponseHeaders(code, (bytes.length == 0) ? -1 : bytes.length);
+		
+		OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+		out.close();
+	}
+	
+	static public void main(String[] args)
+	{
+		new NLPServer(args);
+	}
+}
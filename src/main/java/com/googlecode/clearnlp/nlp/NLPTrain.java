@@ -41,6 +41,7 @@
 package com.googlecode.clearnlp.nlp;
 
 import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.util.ArrayList;
@@ -57,7 +58,9 @@ import org.w3c.dom.Element;
 
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 import com.googlecode.clearnlp.classification.feature.JointFtrXml;
+import com.googlecode.clearnlp.classification.model.AbstractModel;
 import com.googlecode.clearnlp.classification.model.StringModel;
+import com.googlecode.clearnlp.classification.train.DiskTrainSpace;
 import com.googlecode.clearnlp.classification.train.StringTrainSpace;
 import com.googlecode.clearnlp.component.AbstractStatisticalComponent;
 import com.googlecode.clearnlp.component.dep.AbstractDEPParser;
@@ -109,6 +112,16 @@ public class NLPTrain extends AbstractNLP
 	protected int n_beams = 1;
 	@Option(name="-frames", usage="directory containing frameset files", required=false, metaVar="<directory>")
 	protected String s_framesDir;
+	@Option(name="-w", usage="type of weights saved in the model file (double|float|int16|int8|sparse; default: double)", required=false, metaVar="<string>")
+	protected String s_weightType = "double";
+	@Option(name="-prune", usage="if set, remove features whose absolute weights are all within this threshold (e.g., 0)", required=false, metaVar="<double>")
+	protected double d_prune = -1;
+	@Option(name="-spill", usage="if set, keep training instances in this directory instead of memory", required=false, metaVar="<directory>")
+	protected String s_spillDir;
+	@Option(name="-hash", usage="if set, index features by hashing them into 2^bits indices instead of keeping feature strings (e.g., 22)", required=false, metaVar="<integer>")
+	protected int n_hashBits = 0;
+	@Option(name="-hash-sign", usage="if set, weight hashed features by +1 or -1 depending on their hashes", required=false)
+	protected boolean b_hashSign = false;
 	
 	public NLPTrain() {}
 	
@@ -131,6 +144,16 @@ public class NLPTrain extends AbstractNLP
 		JointReader  reader = getJointReader(UTXml.getFirstElementByTagName(eConfig, TAG_READER));
 
 		AbstractStatisticalComponent component = getComponent(eConfig, reader, xmls, trainFiles, -1, mode);
+		byte weightType = AbstractModel.getWeightType(s_weightType);
+		
+		for (StringModel model : component.getModels())
+		{
+			if (d_prune >= 0 && !model.isFeatureHashing())
+				LOG.info(String.format("Pruning: %d features\n", model.pruneFeatures(d_prune)));
+			
+			model.setWeightType(weightType);
+		}
+		
 		component.saveModels(new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(modelFile))));
 	}
 	
@@ -368,7 +391,7 @@ public class NLPTrain extends AbstractNLP
 		
 		mSize = lSpaces.get(0).length;
 		spaces = new StringTrainSpace[mSize];
-		StringTrainSpace sp;
+		List<StringTrainSpace> sps;
 
 		for (i=0; i<mSize; i++)
 		{
@@ -377,13 +400,15 @@ public class NLPTrain extends AbstractNLP
 			if ((size = lSpaces.size()) > 1)
 			{
 				LOG.info("Merging training instances:\n");
+				sps = new ArrayList<StringTrainSpace>(size-1);
 				
 				for (j=1; j<size; j++)
-				{
-					spaces[i].appendSpace(sp = lSpaces.get(j)[i]);
+					sps.add(lSpaces.get(j)[i]);
+				
+				spaces[i].appendSpaces(sps, numThreads);
+				
+				for (StringTrainSpace sp : sps)
 					sp.clear();
-					LOG.debug(".");
-				}	LOG.debug("\n");
 			}
 		}
 		
@@ -460,7 +485,7 @@ public class NLPTrain extends AbstractNLP
 		StringTrainSpace[] spaces = new StringTrainSpace[size];
 		
 		for (i=0; i<size; i++)
-			spaces[i] = new StringTrainSpace(false, xmls[i].getLabelCutoff(cIndex), xmls[i].getFeatureCutoff(cIndex));
+			spaces[i] = getStringTrainSpace(xmls[i].getLabelCutoff(cIndex), xmls[i].getFeatureCutoff(cIndex));
 		
 		return spaces;
 	}
@@ -472,11 +497,30 @@ public class NLPTrain extends AbstractNLP
 		int i;
 		
 		for (i=0; i<size; i++)
-			spaces[i] = new StringTrainSpace(false, xml.getLabelCutoff(0), xml.getFeatureCutoff(0));
+			spaces[i] = getStringTrainSpace(xml.getLabelCutoff(0), xml.getFeatureCutoff(0));
 		
 		return spaces;
 	}
 	
+	/**
+	 * @return a disk-backed train space if {@link NLPTrain#s_spillDir} is set; otherwise, an in-memory train space.
+	 * Features are hashed if {@link NLPTrain#n_hashBits} is set.
+	 */
+	protected StringTrainSpace getStringTrainSpace(int labelCutoff, int featureCutoff)
+	{
+		StringTrainSpace space;
+		
+		if (s_spillDir != null)
+			space = new DiskTrainSpace(false, labelCutoff, featureCutoff, new File(s_spillDir));
+		else
+			space = new StringTrainSpace(false, labelCutoff, featureCutoff);
+		
+		if (n_hashBits > 0)
+			space.setFeatureHashing(n_hashBits, b_hashSign);
+		
+		return space;
+	}
+	
 	/** Called by {@link NLPTrain#getStringTrainSpaces(Element, JointFtrXml[], String[], StringModel[], Object[], String, int)}. */
 	private class TrainTask implements Runnable
 	{
@@ -142,6 +142,9 @@ public class PBLib
 			for (; treeId < instance.treeId; treeId++)
 				tree = reader.nextTree();
 			
+			if (tree == null)
+				throw new IllegalStateException(treeFile+": tree "+instance.treeId+" cannot be read"+((reader.getLastError() != null) ? " - "+reader.getLastError() : "."));
+			
 			if (norm)	CTLib.normalizeIndices(tree);
 			tree.setPBLocs();
 			instance.setTree(tree);
@@ -40,12 +40,15 @@
  */
 package com.googlecode.clearnlp.reader;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Abstract column reader.
+ * Lines are scanned character by character from {@link AbstractReader#f_in} into a reusable {@link ColumnBuffer};
+ * thus, {@link AbstractReader#f_in} should not be read directly once reading starts.
  * @since 1.0.0
  * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
  */
@@ -71,39 +74,120 @@ abstract public class AbstractColumnReader<T> extends AbstractReader<T>
 	static public final String FIELD_COREF	= "coref";
 	static public final String FIELD_GPOS	= "gpos";
 	
-	private final Pattern P_COLUMN = Pattern.compile(DELIM_COLUMN);
+	static private final int BUFFER_SIZE = 8192;
 	
-	/** Returns the next batch of lines. */
+	private ColumnBuffer b_columns = new ColumnBuffer();
+	private char[]       c_buffer  = new char[BUFFER_SIZE];
+	private int          i_buffer  = 0;
+	private int          n_buffer  = 0;
+	/** {@code true} if the last line ended with {@code '\r'}, in which case the following {@code '\n'} is skipped. */
+	private boolean      b_skipLF  = false;
+	
+	@Override
+	public void open(BufferedReader reader)
+	{
+		super.open(reader);
+		i_buffer = 0;
+		n_buffer = 0;
+		b_skipLF = false;
+	}
+	
+	/**
+	 * Returns the next batch of lines.
+	 * @see AbstractColumnReader#readColumns()
+	 */
 	protected List<String[]> readLines() throws Exception
 	{
-		// skip empty lines
-		String line;
+		ColumnBuffer columns = readColumns();
+		if (columns == null)	return null;
 		
-		while ((line = f_in.readLine()) != null)
-			if (!isSkip(line))	break;
+		int i, size = columns.size();
+		List<String[]> list = new ArrayList<String[]>(size);
+		
+		for (i=0; i<size; i++)
+			list.add(columns.toArray(i));
 
-		// the end of the line
-		if (line == null)
-		{	close();	return null;	}
+		return list;
+	}
+	
+	/**
+	 * Returns the next batch of lines without splitting them into strings.
+	 * Blank lines are skipped before the batch, which ends with a blank line or the end of the input.
+	 * The returned buffer is reused by the next call.
+	 * @return the next batch of lines if exists; otherwise, {@code null}.
+	 */
+	protected ColumnBuffer readColumns() throws IOException
+	{
+		ColumnBuffer columns = b_columns;
+		columns.clear();
 		
-		// add lines
-		List<String[]> list = new ArrayList<String[]>();
-		list.add(P_COLUMN.split(line));
+		int c, lineBegin, columnBegin;
+		boolean blank;
 		
-		while ((line = f_in.readLine()) != null)
+		while (true)
 		{
-			if (isSkip(line))
-				return list;
+			lineBegin = columnBegin = columns.getCharSize();
+			blank = true;
+			
+			while ((c = read()) >= 0 && c != '\n' && c != '\r')
+			{
+				if (c == '\t')
+				{
+					columns.addColumn(columnBegin);
+					columnBegin = columns.getCharSize();
+				}
+				else
+				{
+					if (c > ' ')	blank = false;
+					columns.addChar((char)c);
+				}
+			}
+			
+			if (c == '\r')	b_skipLF = true;
+			
+			if (blank)
+			{
+				columns.removeLine(lineBegin);
+				
+				if (c < 0)
+				{
+					if (columns.size() > 0)	return columns;
+					close();	return null;
+				}
+				
+				if (columns.size() > 0)
+					return columns;
+			}
 			else
-				list.add(line.split(DELIM_COLUMN));
+			{
+				columns.addColumn(columnBegin);
+				columns.addLine();
+				if (c < 0)	return columns;
+			}
 		}
-
-		return list;
 	}
 	
-	/** Called by {@link AbstractColumnReader#readLines()}. */
-	protected boolean isSkip(String line)
+	/** @return the next character if exists; otherwise, {@code -1}. */
+	private int read() throws IOException
 	{
-		return line.trim().isEmpty();
+		while (true)
+		{
+			if (i_buffer >= n_buffer)
+			{
+				n_buffer = f_in.read(c_buffer, 0, c_buffer.length);
+				i_buffer = 0;
+				if (n_buffer < 0)	{n_buffer = 0;	return -1;}
+			}
+			
+			char c = c_buffer[i_buffer++];
+			
+			if (b_skipLF)
+			{
+				b_skipLF = false;
+				if (c == '\n')	continue;
+			}
+			
+			return c;
+		}
 	}
 }
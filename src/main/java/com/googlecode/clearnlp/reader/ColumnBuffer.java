@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.reader;
+
+/**
+ * Lines of one sentence in the column format, stored as offsets into a reusable character buffer.
+ * Fields are converted to strings or integers only when requested.
+ * @see AbstractColumnReader#readColumns()
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class ColumnBuffer
+{
+	/** The characters of all lines. */
+	private char[] c_chars;
+	private int    n_chars;
+	/** The begin (even index) and end (odd index) offsets of all columns. */
+	private int[]  i_columns;
+	private int    n_columns;
+	/** The index of the first column of each line in {@link ColumnBuffer#i_columns}, divided by 2. */
+	private int[]  i_lines;
+	private int    n_lines;
+	
+	public ColumnBuffer()
+	{
+		c_chars   = new char[4096];
+		i_columns = new int[512];
+		i_lines   = new int[65];
+		clear();
+	}
+	
+	/** Removes all lines. */
+	public void clear()
+	{
+		n_chars    = 0;
+		n_columns  = 0;
+		n_lines    = 0;
+		i_lines[0] = 0;
+	}
+	
+	/** @return the number of lines. */
+	public int size()
+	{
+		return n_lines;
+	}
+	
+	/** @return the number of columns in the specific line. */
+	public int getColumnSize(int line)
+	{
+		return i_lines[line+1] - i_lines[line];
+	}
+	
+	/** @return the specific field as a string. */
+	public String get(int line, int column)
+	{
+		int i = getIndex(line, column);
+		return new String(c_chars, i_columns[i], i_columns[i+1] - i_columns[i]);
+	}
+	
+	/** @return the specific field as an integer, parsed in place. */
+	public int getInt(int line, int column)
+	{
+		int i = getIndex(line, column);
+		return parseInt(i_columns[i], i_columns[i+1]);
+	}
+	
+	/** @return {@code true} if the specific field equals to the specific string. */
+	public boolean equals(int line, int column, String str)
+	{
+		int i = getIndex(line, column), begin = i_columns[i], len = i_columns[i+1] - begin;
+		if (len != str.length())	return false;
+		
+		for (i=0; i<len; i++)
+		{
+			if (c_chars[begin+i] != str.charAt(i))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/** @return {@code true} if the specific field is {@link AbstractColumnReader#BLANK_COLUMN}. */
+	public boolean isBlank(int line, int column)
+	{
+		return equals(line, column, AbstractColumnReader.BLANK_COLUMN);
+	}
+	
+	/** @return all fields of the specific line. */
+	public String[] toArray(int line)
+	{
+		int i, size = getColumnSize(line);
+		String[] fields = new String[size];
+		
+		for (i=0; i<size; i++)
+			fields[i] = get(line, i);
+		
+		return fields;
+	}
+	
+	/** @return the offset of the first character of the specific field in {@link ColumnBuffer#getChars()}. */
+	public int getBeginIndex(int line, int column)
+	{
+		return i_columns[getIndex(line, column)];
+	}
+	
+	/** @return the offset after the last character of the specific field in {@link ColumnBuffer#getChars()}. */
+	public int getEndIndex(int line, int column)
+	{
+		return i_columns[getIndex(line, column)+1];
+	}
+	
+	/** @return the characters of all lines, which are overwritten by the next read. */
+	public char[] getChars()
+	{
+		return c_chars;
+	}
+	
+	/** @return the string of the specific range in {@link ColumnBuffer#getChars()}. */
+	public String getString(int beginIndex, int endIndex)
+	{
+		return new String(c_chars, beginIndex, endIndex - beginIndex);
+	}
+	
+	/**
+	 * @return the integer of the specific range in {@link ColumnBuffer#getChars()}.
+	 * @throws NumberFormatException if the range is not an integer or is out of the range of {@code int}, as {@link Integer#parseInt(String)}.
+	 */
+	public int parseInt(int beginIndex, int endIndex)
+	{
+		int i = beginIndex, n = 0, limit = -Integer.MAX_VALUE, digit;
+		boolean negative = false;
+		
+		if (i < endIndex && (c_chars[i] == '-' || c_chars[i] == '+'))
+		{
+			negative = c_chars[i++] == '-';
+			if (negative)	limit = Integer.MIN_VALUE;
+		}
+		
+		if (i == endIndex)
+			throw new NumberFormatException("For input string: \""+getString(beginIndex, endIndex)+"\"");
+		
+		// accumulates negatively as Integer.parseInt so that Integer.MIN_VALUE can be parsed
+		for (; i<endIndex; i++)
+		{
+			digit = c_chars[i] - '0';
+			
+			if (digit < 0 || digit > 9 || n < limit / 10 || (n *= 10) < limit + digit)
+				throw new NumberFormatException("For input string: \""+getString(beginIndex, endIndex)+"\"");
+			
+			n -= digit;
+		}
+		
+		return negative ? n : -n;
+	}
+	
+	/** @return the offset of the specific character in {@code [beginIndex, endIndex)} of {@link ColumnBuffer#getChars()} if exists; otherwise, {@code -1}. */
+	public int indexOf(char c, int beginIndex, int endIndex)
+	{
+		for (int i=beginIndex; i<endIndex; i++)
+		{
+			if (c_chars[i] == c)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	private int getIndex(int line, int column)
+	{
+		if (column >= getColumnSize(line))
+			throw new ArrayIndexOutOfBoundsException(column);
+		
+		return (i_lines[line] + column) * 2;
+	}
+	
+//	======================== Building ========================
+	
+	/** @return the number of characters, which is the offset of the next character to be added. */
+	int getCharSize()
+	{
+		return n_chars;
+	}
+	
+	void addChar(char c)
+	{
+		if (n_chars == c_chars.length)
+		{
+			char[] tmp = new char[n_chars * 2];
+			System.arraycopy(c_chars, 0, tmp, 0, n_chars);
+			c_chars = tmp;
+		}
+		
+		c_chars[n_chars++] = c;
+	}
+	
+	/** Adds a column of the current line spanning {@code [beginIndex, n_chars)}. */
+	void addColumn(int beginIndex)
+	{
+		if (n_columns * 2 == i_columns.length)
+		{
+			int[] tmp = new int[i_columns.length * 2];
+			System.arraycopy(i_columns, 0, tmp, 0, i_columns.length);
+			i_columns = tmp;
+		}
+		
+		i_columns[n_columns*2]   = beginIndex;
+		i_columns[n_columns*2+1] = n_chars;
+		n_columns++;
+	}
+	
+	/** Ends the current line; trailing empty columns are removed as {@link String#split(String)} does. */
+	void addLine()
+	{
+		int begin = i_lines[n_lines];
+		
+		while (n_columns - begin > 1 && i_columns[n_columns*2-1] == i_columns[n_columns*2-2])
+			n_columns--;
+		
+		if (n_lines + 2 == i_lines.length)
+		{
+			int[] tmp = new int[i_lines.length * 2];
+			System.arraycopy(i_lines, 0, tmp, 0, i_lines.length);
+			i_lines = tmp;
+		}
+		
+		i_lines[++n_lines] = n_columns;
+	}
+	
+	/**
+	 * Discards the current line.
+	 * @param charIndex the offset of the first character of the current line.
+	 */
+	void removeLine(int charIndex)
+	{
+		n_chars   = charIndex;
+		n_columns = i_lines[n_lines];
+	}
+}
@@ -40,8 +40,6 @@
  */
 package com.googlecode.clearnlp.reader;
 
-import java.util.List;
-
 import com.googlecode.clearnlp.dependency.DEPFeat;
 import com.googlecode.clearnlp.dependency.DEPNode;
 import com.googlecode.clearnlp.dependency.DEPTree;
@@ -104,7 +102,7 @@ public class DEPReader extends AbstractColumnReader<DEPTree>
 		
 		try
 		{
-			List<String[]> lines = readLines();
+			ColumnBuffer lines = readColumns();
 			if (lines == null)	return null;
 			
 			tree = getDEPTree(lines);
@@ -119,12 +117,10 @@ public class DEPReader extends AbstractColumnReader<DEPTree>
 	 * @param lines the input lines.
 	 * @return a dependency tree from the input lines.
 	 */
-	protected DEPTree getDEPTree(List<String[]> lines)
+	protected DEPTree getDEPTree(ColumnBuffer lines)
 	{
 		int id, headId, i, size = lines.size();
 		String form, lemma, pos, deprel;
-		DEPFeat feats;
-		String[] tmp;
 		DEPNode node;
 		
 		DEPTree tree = new DEPTree();
@@ -135,20 +131,23 @@ public class DEPReader extends AbstractColumnReader<DEPTree>
 		
 		for (i=0; i<size; i++)
 		{
-			tmp   = lines.get(i);
-			id    = Integer.parseInt(tmp[i_id]);
-			form  = tmp[i_form];
-			lemma = tmp[i_lemma];
-			pos   = tmp[i_pos];
-			feats = new DEPFeat(tmp[i_feats]);
+			id    = lines.getInt(i, i_id);
+			form  = lines.get(i, i_form);
+			lemma = lines.get(i, i_lemma);
+			pos   = lines.get(i, i_pos);
 			
 			node = tree.get(id);
-			node.init(id, form, lemma, pos, feats);
+			node.init(id, form, lemma, pos, null);
+			
+			if (lines.isBlank(i, i_feats))
+				node.setFeats(new DEPFeat());
+			else
+				node.setFeats(lines.get(i, i_feats));
 					
-			if (i_headId >= 0 && !tmp[i_headId].equals(AbstractColumnReader.BLANK_COLUMN))
+			if (i_headId >= 0 && !lines.isBlank(i, i_headId))
 			{
-				headId = Integer.parseInt(tmp[i_headId]);
-				deprel = tmp[i_deprel];
+				headId = lines.getInt(i, i_headId);
+				deprel = lines.get(i, i_deprel);
 				
 				node.setHead(tree.get(headId), deprel);
 			}
@@ -62,6 +62,9 @@ import com.googlecode.clearnlp.dependency.srl.SRLArc;
  */
 public class JointReader extends AbstractColumnReader<DEPTree>
 {
+	static private final char C_DELIM_HEADS     = DEPLib.DELIM_HEADS.charAt(0);
+	static private final char C_DELIM_HEADS_KEY = DEPLib.DELIM_HEADS_KEY.charAt(0);
+	
 	protected int i_id;
 	protected int i_form;
 	protected int i_lemma;
@@ -134,7 +137,7 @@ public class JointReader extends AbstractColumnReader<DEPTree>
 		
 		try
 		{
-			List<String[]> lines = readLines();
+			ColumnBuffer lines = readColumns();
 			if (lines == null)	return null;
 			
 			tree = getDEPTree(lines);
@@ -144,13 +147,12 @@ public class JointReader extends AbstractColumnReader<DEPTree>
 		return tree;
 	}
 
-	protected DEPTree getDEPTree(List<String[]> lines)
+	protected DEPTree getDEPTree(ColumnBuffer lines)
 	{
-		String form, lemma, pos, feats, nament;
+		String form, lemma, pos, nament;
 		int id, i, size = lines.size();
 		DEPTree tree = new DEPTree();
 		DEPNode node;
-		String[] tmp;
 		
 		// initialize place holders
 		for (i=0; i<size; i++)
@@ -164,80 +166,81 @@ public class JointReader extends AbstractColumnReader<DEPTree>
 		
 		for (i=0; i<size; i++)
 		{
-			tmp    = lines.get(i);
-			form   = tmp[i_form];
-			id     = (i_id     < 0) ? i+1  : Integer.parseInt(tmp[i_id]);
-			lemma  = (i_lemma  < 0) ? null : tmp[i_lemma];
-			pos    = (i_pos    < 0) ? null : tmp[i_pos];
-			feats  = (i_feats  < 0) ? AbstractColumnReader.BLANK_COLUMN : tmp[i_feats];
-			nament = (i_nament < 0) ? null : tmp[i_nament]; 
+			form   = lines.get(i, i_form);
+			id     = (i_id     < 0) ? i+1  : lines.getInt(i, i_id);
+			lemma  = (i_lemma  < 0) ? null : lines.get(i, i_lemma);
+			pos    = (i_pos    < 0) ? null : lines.get(i, i_pos);
+			nament = (i_nament < 0) ? null : lines.get(i, i_nament); 
 
 			node = tree.get(id);
-			node.init(id, form, lemma, pos, new DEPFeat(feats));
+			node.init(id, form, lemma, pos, null);
 			node.nament = nament;
 			
-			if (i_headId >= 0 && !tmp[i_headId].equals(AbstractColumnReader.BLANK_COLUMN))
-				node.setHead(tree.get(Integer.parseInt(tmp[i_headId])), tmp[i_deprel]);
+			if (i_feats < 0 || lines.isBlank(i, i_feats))
+				node.setFeats(new DEPFeat());
+			else
+				node.setFeats(lines.get(i, i_feats));
+			
+			if (i_headId >= 0 && !lines.isBlank(i, i_headId))
+				node.setHead(tree.get(lines.getInt(i, i_headId)), lines.get(i, i_deprel));
 			
 			if (i_xheads >= 0)
-				node.setXHeads(getXHeads(tree, tmp[i_xheads]));
+				node.setXHeads(getXHeads(tree, lines, i, i_xheads));
 			
 			if (i_sheads >= 0)
-				node.setSHeads(getSHeads(tree, tmp[i_sheads]));
+				node.setSHeads(getSHeads(tree, lines, i, i_sheads));
 			
 			if (i_gpos >= 0)
-				node.addFeat(DEPLib.FEAT_GPOS, tmp[i_gpos]);
+				node.addFeat(DEPLib.FEAT_GPOS, lines.get(i, i_gpos));
 		}
 		
 		if (i_coref >= 0) tree.setMentions(getMentions(lines));
 		return tree;
 	}
 	
-	private List<DEPArc> getXHeads(DEPTree tree, String heads)
+	private List<DEPArc> getXHeads(DEPTree tree, ColumnBuffer lines, int line, int column)
 	{
-		List<DEPArc> sHeads = Lists.newArrayList();
+		List<DEPArc> xHeads = Lists.newArrayList();
 		
-		if (heads.equals(AbstractColumnReader.BLANK_COLUMN))
-			return sHeads;
+		if (lines.isBlank(line, column))
+			return xHeads;
 		
-		int headId, idx;
-		String label;
+		int bIdx = lines.getBeginIndex(line, column), eIdx = lines.getEndIndex(line, column), idx, end;
 		
-		for (String head : heads.split(DEPLib.DELIM_HEADS))
+		for (; bIdx < eIdx; bIdx = end + 1)
 		{
-			idx    = head.indexOf(DEPLib.DELIM_HEADS_KEY);
-			headId = Integer.parseInt(head.substring(0, idx));
-			label  = head.substring(idx+1);
+			end = lines.indexOf(C_DELIM_HEADS, bIdx, eIdx);
+			if (end < 0)	end = eIdx;
+			idx = lines.indexOf(C_DELIM_HEADS_KEY, bIdx, end);
 			
-			sHeads.add(new DEPArc(tree.get(headId), label));
+			xHeads.add(new DEPArc(tree.get(lines.parseInt(bIdx, idx)), lines.getString(idx+1, end)));
 		}
 		
-		return sHeads;
+		return xHeads;
 	}
 	
-	private List<SRLArc> getSHeads(DEPTree tree, String heads)
+	private List<SRLArc> getSHeads(DEPTree tree, ColumnBuffer lines, int line, int column)
 	{
 		List<SRLArc> sHeads = Lists.newArrayList();
 		
-		if (heads.equals(AbstractColumnReader.BLANK_COLUMN))
+		if (lines.isBlank(line, column))
 			return sHeads;
 		
-		int headId, idx;
-		String label;
+		int bIdx = lines.getBeginIndex(line, column), eIdx = lines.getEndIndex(line, column), idx, end;
 		
-		for (String head : heads.split(DEPLib.DELIM_HEADS))
+		for (; bIdx < eIdx; bIdx = end + 1)
 		{
-			idx    = head.indexOf(DEPLib.DELIM_HEADS_KEY);
-			headId = Integer.parseInt(head.substring(0, idx));
-			label  = head.substring(idx+1);
+			end = lines.indexOf(C_DELIM_HEADS, bIdx, eIdx);
+			if (end < 0)	end = eIdx;
+			idx = lines.indexOf(C_DELIM_HEADS_KEY, bIdx, end);
 			
-			sHeads.add(new SRLArc(tree.get(headId), label));
+			sHeads.add(new SRLArc(tree.get(lines.parseInt(bIdx, idx)), lines.getString(idx+1, end)));
 		}
 		
 		return sHeads;
 	}
 	
-	private List<Mention> getMentions(List<String[]> lines)
+	private List<Mention> getMentions(ColumnBuffer lines)
 	{
 		Map<String,IntStack> map = new HashMap<String,IntStack>();
 		List<Mention> mentions = new ArrayList<Mention>();
@@ -247,7 +250,7 @@ public class JointReader extends AbstractColumnReader<DEPTree>
 		
 		for (i=0; i<size; i++)
 		{
-			corefs = lines.get(i)[i_coref];
+			corefs = lines.get(i, i_coref);
 			
 			if (corefs.equals("-"))
 				continue;
@@ -40,8 +40,6 @@
  */
 package com.googlecode.clearnlp.reader;
 
-import java.util.List;
-
 import com.googlecode.clearnlp.dependency.DEPLib;
 import com.googlecode.clearnlp.dependency.DEPNode;
 import com.googlecode.clearnlp.dependency.DEPTree;
@@ -96,7 +94,7 @@ public class SRLReader extends DEPReader
 		
 		try
 		{
-			List<String[]> lines = readLines();
+			ColumnBuffer lines = readColumns();
 			if (lines == null)	return null;
 			
 			tree = getDEPTree(lines);
@@ -109,7 +107,7 @@ public class SRLReader extends DEPReader
 	}
 	
 	/** Sets semantic heads of the specific dependency tree given the input lines. */
-	private void setSHeads(List<String[]> lines, DEPTree tree)
+	private void setSHeads(ColumnBuffer lines, DEPTree tree)
 	{
 		int i, headId, size = tree.size();
 		String heads, label;
@@ -121,8 +119,8 @@ public class SRLReader extends DEPReader
 		for (i=1; i<size; i++)
 		{
 			node  = tree.get(i);
-			heads = lines.get(i-1)[i_sheads];
-			if (heads.equals(AbstractColumnReader.BLANK_COLUMN))	continue;
+			if (lines.isBlank(i-1, i_sheads))	continue;
+			heads = lines.get(i-1, i_sheads);
 
 			for (String head : heads.split(DEPLib.DELIM_HEADS))
 			{
@@ -413,7 +413,7 @@ abstract public class AbstractRun
 	/** Called by {@link AbstractRun#getModel(Element, AbstractTrainSpace, int)}. */
 	protected AbstractModel getLiblinearModel(AbstractTrainSpace space, int numThreads, byte solver, double cost, double eps, double bias)
 	{
-		space.build();
+		space.build(true, numThreads);
 		System.out.println("Liblinear:");
 		System.out.printf("- solver=%d, cost=%f, eps=%f, bias=%f\n", solver, cost, eps, bias);
 		return LiblinearTrain.getModel(space, numThreads, solver, cost, eps, bias);
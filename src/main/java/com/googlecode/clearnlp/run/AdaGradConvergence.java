@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.run;
+
+import java.util.Random;
+
+import org.kohsuke.args4j.Option;
+
+import com.googlecode.clearnlp.classification.algorithm.AbstractAdaGrad;
+import com.googlecode.clearnlp.classification.algorithm.AbstractAlgorithm;
+import com.googlecode.clearnlp.classification.algorithm.AdaGradHinge;
+import com.googlecode.clearnlp.classification.algorithm.AdaGradLR;
+import com.googlecode.clearnlp.classification.train.AbstractTrainSpace;
+import com.googlecode.clearnlp.classification.train.SparseTrainSpace;
+import com.googlecode.clearnlp.classification.train.StringTrainSpace;
+import com.googlecode.clearnlp.util.UTInput;
+
+/**
+ * Trains AdaGrad with {@code 1..n} threads on the same training file and prints the average training loss of each iteration,
+ * so that convergence of parallel training can be compared against single-threaded training.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class AdaGradConvergence extends AbstractRun
+{
+	@Option(name="-i", usage="the training file (input; required)", required=true, metaVar="<filename>")
+	private String s_trainFile;
+	
+	@Option(name="-nt", usage="the maximum number of threads (default: 4)", required=false, metaVar="<integer>")
+	private int i_maxThreads = 4;
+	
+	@Option(name="-v", usage="the type of vector space (default: "+AbstractTrainSpace.VECTOR_STRING+")\n"+
+							AbstractTrainSpace.VECTOR_SPARSE+": sparse vector space\n"+
+            				AbstractTrainSpace.VECTOR_STRING+": string vector space\n",
+            required=false, metaVar="<byte>")
+	private byte i_vectorType = AbstractTrainSpace.VECTOR_STRING;
+	
+	@Option(name="-s", usage="the type of solver (default: "+AbstractAlgorithm.SOLVER_ADAGRAD_HINGE+")\n"+
+							AbstractAlgorithm.SOLVER_ADAGRAD_HINGE+": adaptive gradient method using hinge loss\n"+
+							AbstractAlgorithm.SOLVER_ADAGRAD_LR   +": adaptive gradient method using logistic regression",
+			required=false, metaVar="<byte>")
+	private byte i_solver = AbstractAlgorithm.SOLVER_ADAGRAD_HINGE;
+	
+	@Option(name="-iter", usage="the number of iterations (default: 10)", required=false, metaVar="<integer>")
+	private int i_iter = 10;
+	
+	@Option(name="-a", usage="the learning rate (default: 0.01)", required=false, metaVar="<double>")
+	private double d_alpha = 0.01;
+	
+	@Option(name="-r", usage="the smoothing denominator (default: 0.1)", required=false, metaVar="<double>")
+	private double d_rho = 0.1;
+	
+	@Option(name="-seed", usage="the random seed (default: 5)", required=false, metaVar="<integer>")
+	private int i_seed = 5;
+	
+	public AdaGradConvergence() {}
+	
+	public AdaGradConvergence(String[] args) throws Exception
+	{
+		initArgs(args);
+		
+		AbstractTrainSpace space = getTrainSpace(s_trainFile, i_vectorType);
+		double[][] losses = new double[i_maxThreads][];
+		long[]     times  = new long[i_maxThreads];
+		AbstractAdaGrad algorithm;
+		int i, n;
+		long st;
+		
+		for (n=1; n<=i_maxThreads; n++)
+		{
+			algorithm = (i_solver == AbstractAlgorithm.SOLVER_ADAGRAD_LR) ? new AdaGradLR(i_iter, d_alpha, d_rho, new Random(i_seed)) : new AdaGradHinge(i_iter, d_alpha, d_rho, new Random(i_seed));
+			st = System.currentTimeMillis();
+			algorithm.getWeight(space, n);
+			times [n-1] = System.currentTimeMillis() - st;
+			losses[n-1] = algorithm.getLosses();
+		}
+		
+		System.out.print("iter");
+		for (n=1; n<=i_maxThreads; n++)	System.out.printf("\t%d-thread", n);
+		System.out.println();
+		
+		for (i=0; i<i_iter; i++)
+		{
+			System.out.print(i);
+			for (n=0; n<i_maxThreads; n++)	System.out.printf("\t%10.8f", losses[n][i]);
+			System.out.println();
+		}
+		
+		System.out.print("ms");
+		for (n=0; n<i_maxThreads; n++)	System.out.printf("\t%d", times[n]);
+		System.out.println();
+	}
+	
+	private AbstractTrainSpace getTrainSpace(String trainFile, byte vectorType) throws Exception
+	{
+		boolean hasWeight = AbstractTrainSpace.hasWeight(vectorType, trainFile);
+		AbstractTrainSpace space = (vectorType == AbstractTrainSpace.VECTOR_SPARSE) ? new SparseTrainSpace(hasWeight) : new StringTrainSpace(hasWeight, 0, 0);
+		
+		space.readInstances(UTInput.createBufferedFileReader(trainFile));
+		space.build();
+		
+		return space;
+	}
+	
+	static public void main(String[] args)
+	{
+		try
+		{
+			new AdaGradConvergence(args);
+		}
+		catch (Exception e) {e.printStackTrace();}
+	}
+}
@@ -80,6 +80,8 @@ public class C2DConvert extends AbstractRun
 	private String s_mergeLabels = null;
 	@Option(name="-n", usage="if set, normalize empty category indices", required=false, metaVar="<boolean>")
 	private boolean b_normalize = false;
+	@Option(name="-threads", usage="number of threads for converting files and trees (default: 1)", required=false, metaVar="<integer>")
+	private int n_threads = 1;
 
 	public C2DConvert() {}
 	
@@ -90,42 +92,48 @@ public class C2DConvert extends AbstractRun
 		AbstractC2DConverter c2d = EngineGetter.getC2DConverter(s_language, s_headruleFile, s_mergeLabels);
 		AbstractComponent morph = EngineGetter.getComponent(new FileInputStream(s_dictFile), s_language, NLPLib.MODE_MORPH);
 		List<String[]> filenames = getFilenames(s_inputPath, s_inputExt, s_outputExt);
-		int n;
 		
-		for (String[] io : filenames)
+		for (C2DFileReport report : convert(c2d, morph, s_language, filenames, b_normalize, n_threads))
+			System.out.println(report);
+	}
+	
+	/**
+	 * Converts the specific files using the specific number of threads.
+	 * @since 1.4.3
+	 * @return the reports of the specific files in the order of the files.
+	 */
+	public List<C2DFileReport> convert(AbstractC2DConverter c2d, AbstractComponent morph, final String language, List<String[]> filenames, final boolean normalize, int threads)
+	{
+		final C2DTreeConverter converter = new C2DTreeConverter()
 		{
-			n = convert(c2d, morph, s_language, io[0], io[1], b_normalize);
-			System.out.printf("%s: %d trees\n", io[0], n);
-		}
+			@Override
+			public String convert(AbstractC2DConverter c2d, AbstractComponent morph, CTTree cTree, int treeId)
+			{
+				return C2DConvert.this.convert(c2d, morph, language, cTree, normalize);
+			}
+		};
+		
+		return new C2DConvertPool(c2d, morph, threads).convert(filenames, new C2DFileConverter()
+		{
+			@Override
+			public C2DTreeConverter getTreeConverter(String inputFile)
+			{
+				return converter;
+			}
+		});
 	}
 	
 	protected int convert(AbstractC2DConverter c2d, AbstractComponent morph, String language, String inputFile, String outputFile, boolean normalize)
 	{
 		CTReader  reader = new CTReader(UTInput.createBufferedFileReader(inputFile));
 		PrintStream fout = UTOutput.createPrintBufferedFileStream(outputFile);
-		CTTree  cTree;
-		DEPTree dTree;
+		CTTree cTree;
 		int n;
 		
 		for (n=0; (cTree = reader.nextTree()) != null; n++)
-		{
-			if (normalize)	CTLib.normalizeIndices(cTree);
-			
-			if (language.equals(AbstractReader.LANG_EN))
-				CTLibEn.preprocessTree(cTree);
-			
-			dTree = c2d.toDEPTree(cTree);
-			
-			if (dTree == null)
-			{
-				fout.println(getNullTree()+"\n");
-			}
-			else
-			{
-				morph.process(dTree);
-				fout.println(dTree.toStringDAG()+"\n");
-			}
-		}
+			fout.println(convert(c2d, morph, language, cTree, normalize)+"\n");
+		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
 		
 		reader.close();
 		fout.close();
@@ -133,6 +141,23 @@ public class C2DConvert extends AbstractRun
 		return n;
 	}
 	
+	/** @return the string representation of the dependency tree converted from the specific constituent tree. */
+	protected String convert(AbstractC2DConverter c2d, AbstractComponent morph, String language, CTTree cTree, boolean normalize)
+	{
+		if (normalize)	CTLib.normalizeIndices(cTree);
+		
+		if (language.equals(AbstractReader.LANG_EN))
+			CTLibEn.preprocessTree(cTree);
+		
+		DEPTree dTree = c2d.toDEPTree(cTree);
+		
+		if (dTree == null)
+			return getNullTree().toString();
+		
+		if (morph != null)	morph.process(dTree);
+		return dTree.toStringDAG();
+	}
+	
 	private DEPTree getNullTree()
 	{
 		DEPTree tree = new DEPTree();
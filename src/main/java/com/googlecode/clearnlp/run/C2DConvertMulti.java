@@ -43,7 +43,6 @@ package com.googlecode.clearnlp.run;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -58,7 +57,6 @@ import com.google.common.collect.Lists;
 import com.googlecode.clearnlp.component.AbstractComponent;
 import com.googlecode.clearnlp.constituent.CTLibEn;
 import com.googlecode.clearnlp.constituent.CTNode;
-import com.googlecode.clearnlp.constituent.CTReader;
 import com.googlecode.clearnlp.constituent.CTTree;
 import com.googlecode.clearnlp.conversion.AbstractC2DConverter;
 import com.googlecode.clearnlp.dependency.DEPArc;
@@ -79,7 +77,6 @@ import com.googlecode.clearnlp.propbank.PBLoc;
 import com.googlecode.clearnlp.reader.AbstractReader;
 import com.googlecode.clearnlp.util.UTFile;
 import com.googlecode.clearnlp.util.UTInput;
-import com.googlecode.clearnlp.util.UTOutput;
 import com.googlecode.clearnlp.util.pair.StringIntPair;
 
 
@@ -109,6 +106,8 @@ public class C2DConvertMulti extends AbstractRun
 	private String s_mergeLabels = null;
 	@Option(name="-v", usage="if set, add only verb predicates in PropBank", required=false, metaVar="<boolean>")
 	private boolean b_verbs_only = false;
+	@Option(name="-threads", usage="number of threads for converting files and trees (default: 1)", required=false, metaVar="<integer>")
+	private int n_threads = 1;
 	
 	final Pattern P_SPACE  = Pattern.compile(" ");
 	final Pattern P_HYPHEN = Pattern.compile("-");
@@ -124,79 +123,111 @@ public class C2DConvertMulti extends AbstractRun
 	{
 		AbstractComponent morph = EngineGetter.getComponent(new FileInputStream(s_dictFile), s_language, NLPLib.MODE_MORPH);
 		AbstractC2DConverter c2d = EngineGetter.getC2DConverter(s_language, s_headruleFile, s_mergeLabels);
+		List<String[]> filenames = new ArrayList<String[]>();
 		
-		convertRec(c2d, morph, language, inputPath, parseExt, propExt, senseExt, vclassExt, nameExt, outputExt);
+		getFilenamesRec(filenames, inputPath, parseExt, outputExt);
+		C2DFileConverter converter = getFileConverter(language, propExt, senseExt, vclassExt, nameExt);
+		
+		for (C2DFileReport report : new C2DConvertPool(c2d, morph, n_threads).convert(filenames, converter))
+			System.out.println(report);
 	}
 	
-	private void convertRec(AbstractC2DConverter c2d, AbstractComponent morph, String language, String inputPath, String parseExt, String propExt, String senseExt, String vclassExt, String nameExt, String outputExt)
+	/** Collects parse files under the specific path recursively. */
+	private void getFilenamesRec(List<String[]> filenames, String inputPath, String parseExt, String outputExt)
 	{
 		File file = new File(inputPath);
 		
 		if (file.isDirectory())
 		{
 			for (String filePath : file.list())
-				convertRec(c2d, morph, language, inputPath+File.separator+filePath, parseExt, propExt, senseExt, vclassExt, nameExt, outputExt);
+				getFilenamesRec(filenames, inputPath+File.separator+filePath, parseExt, outputExt);
 		}
 		else if (inputPath.endsWith(parseExt))
+			filenames.add(new String[]{inputPath, UTFile.replaceExtension(inputPath, outputExt)});
+	}
+	
+	/** @return the converter loading PropBank instances, word senses, verb classes, and names of each parse file. */
+	private C2DFileConverter getFileConverter(final String language, final String propExt, final String senseExt, final String vclassExt, final String nameExt)
+	{
+		return new C2DFileConverter()
+		{
+			@Override
+			public C2DTreeConverter getTreeConverter(String inputFile)
+			{
+				IntObjectOpenHashMap<List<PBInstance>>    mProp   = null;
+				IntObjectOpenHashMap<List<StringIntPair>> mSense  = null;
+				IntObjectOpenHashMap<List<StringIntPair>> mVclass = null;
+				IntObjectOpenHashMap<List<String>>        mName   = null;
+				
+				try
+				{
+					mProp   = getPBInstances(UTFile.replaceExtension(inputFile, propExt));
+					mSense  = getWordSenses (UTFile.replaceExtension(inputFile, senseExt));
+					mVclass = getVerbClasses(UTFile.replaceExtension(inputFile, vclassExt));
+					mName   = getNames      (UTFile.replaceExtension(inputFile, nameExt));
+				}
+				catch (Exception e) {e.printStackTrace();}
+				
+				return new TreeConverter(language, mProp, mSense, mVclass, mName);
+			}
+		};
+	}
+	
+	/** Converts trees in a parse file with its PropBank instances, word senses, verb classes, and names. */
+	private class TreeConverter implements C2DTreeConverter
+	{
+		private String s_language;
+		private IntObjectOpenHashMap<List<PBInstance>>    m_prop;
+		private IntObjectOpenHashMap<List<StringIntPair>> m_sense;
+		private IntObjectOpenHashMap<List<StringIntPair>> m_vclass;
+		private IntObjectOpenHashMap<List<String>>        m_name;
+		
+		public TreeConverter(String language, IntObjectOpenHashMap<List<PBInstance>> mProp, IntObjectOpenHashMap<List<StringIntPair>> mSense, IntObjectOpenHashMap<List<StringIntPair>> mVclass, IntObjectOpenHashMap<List<String>> mName)
 		{
-			System.out.println(inputPath);
-			IntObjectOpenHashMap<List<PBInstance>>    mProp   = null;
-			IntObjectOpenHashMap<List<StringIntPair>> mSense  = null;
-			IntObjectOpenHashMap<List<StringIntPair>> mVclass = null;
-			IntObjectOpenHashMap<List<String>>        mName   = null;
+			s_language = language;
+			m_prop     = mProp;
+			m_sense    = mSense;
+			m_vclass   = mVclass;
+			m_name     = mName;
+		}
+		
+		@Override
+		public String convert(AbstractC2DConverter c2d, AbstractComponent morph, CTTree cTree, int n)
+		{
+			List<PBInstance> instances = null;
+			DEPTree dTree;
 			
-			try
+			if (s_language.equals(AbstractReader.LANG_EN))
+				CTLibEn.preprocessTree(cTree);
+			
+			if (m_prop != null)
 			{
-				mProp   = getPBInstances(UTFile.replaceExtension(inputPath, propExt));
-				mSense  = getWordSenses (UTFile.replaceExtension(inputPath, senseExt));
-				mVclass = getVerbClasses(UTFile.replaceExtension(inputPath, vclassExt));
-				mName   = getNames      (UTFile.replaceExtension(inputPath, nameExt));
+				instances = m_prop.get(n);
+				addPBInstances(cTree, instances);
 			}
-			catch (Exception e) {e.printStackTrace();}
 			
-			PrintStream fout = UTOutput.createPrintBufferedFileStream(UTFile.replaceExtension(inputPath, outputExt));
-			CTReader reader = new CTReader(UTInput.createBufferedFileReader(inputPath));
-			CTTree cTree; DEPTree dTree; int n;
-			List<PBInstance> instances = null;
+			dTree = c2d.toDEPTree(cTree);
 			
-			for (n=0; (cTree = reader.nextTree()) != null; n++)
+			if (dTree == null)
 			{
-				if (language.equals(AbstractReader.LANG_EN))
-					CTLibEn.preprocessTree(cTree);
-				
-				if (mProp != null)
-				{
-					instances = mProp.get(n);
-					addPBInstances(cTree, instances);
-				}
-				
-				dTree = c2d.toDEPTree(cTree);
-				
-				if (dTree == null)
-				{
-				//	fout.println(getNullTree()+"\n");
-				}
-				else
-				{
-					if (morph   != null)	morph.process(dTree);
-					if (mSense  != null)	addWordSenses(cTree, dTree, mSense.get(n), DEPLibEn.FEAT_WS);
-					if (mVclass != null)	addWordSenses(cTree, dTree, mVclass.get(n), DEPLibEn.FEAT_VN);
-					if (mName   != null)	addNames(cTree, dTree, mName.get(n));
-					
-					if (mProp != null)
-					{
-						addRolesets(cTree, dTree, instances);
-						if (b_verbs_only) relabelLightVerb(dTree);
-						DEPLibEn.postLabel(dTree);
-					}
-				
-					dTree = getDEPTreeWithoutEdited(cTree, dTree);
-					fout.println(dTree+"\n");					
-				}
+			//	return getNullTree().toString();
+				return null;
+			}
+			
+			if (morph    != null)	morph.process(dTree);
+			if (m_sense  != null)	addWordSenses(cTree, dTree, m_sense.get(n), DEPLibEn.FEAT_WS);
+			if (m_vclass != null)	addWordSenses(cTree, dTree, m_vclass.get(n), DEPLibEn.FEAT_VN);
+			if (m_name   != null)	addNames(cTree, dTree, m_name.get(n));
+			
+			if (m_prop != null)
+			{
+				addRolesets(cTree, dTree, instances);
+				if (b_verbs_only) relabelLightVerb(dTree);
+				DEPLibEn.postLabel(dTree);
 			}
 			
-			fout.close();
-			reader.close();
+			dTree = getDEPTreeWithoutEdited(cTree, dTree);
+			return String.valueOf(dTree);
 		}
 	}
 	
@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.run;
+
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.constituent.CTReader;
+import com.googlecode.clearnlp.constituent.CTTree;
+import com.googlecode.clearnlp.conversion.AbstractC2DConverter;
+import com.googlecode.clearnlp.util.UTInput;
+import com.googlecode.clearnlp.util.UTOutput;
+
+/**
+ * Converts constituent trees in multiple files to dependency trees using multiple threads.
+ * Files are converted concurrently, and trees in each file are converted concurrently
+ * while the output of each file is printed in the order of its trees.
+ * Each thread converts trees with its own copy of the converter (see {@link AbstractC2DConverter#getSharedConverter()}).
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class C2DConvertPool
+{
+	/** The maximum number of trees per thread waiting to be printed. */
+	protected final int N_BUFFER_PER_THREAD = 64;
+	
+	private AbstractC2DConverter  c_converter;
+	private AbstractComponent     c_morph;
+	private Queue<AbstractC2DConverter> q_converters;
+	private ExecutorService       e_trees;
+	private int                   n_threads;
+	
+	/**
+	 * @param c2d the converter to be copied for each thread.
+	 * @param morph the morphological analyzer shared by all threads ({@code null} if not used).
+	 * @param threads the number of threads ({@code 1} to convert sequentially).
+	 */
+	public C2DConvertPool(AbstractC2DConverter c2d, AbstractComponent morph, int threads)
+	{
+		c_converter  = c2d;
+		c_morph      = morph;
+		n_threads    = Math.max(threads, 1);
+		q_converters = new ConcurrentLinkedQueue<AbstractC2DConverter>();
+		q_converters.add(c2d);
+	}
+	
+	/**
+	 * Converts the specific files.
+	 * @param filenames each element contains the input and output file paths.
+	 * @param converter the converter of trees in each file.
+	 * @return the reports of the specific files in the order of the files.
+	 */
+	public List<C2DFileReport> convert(List<String[]> filenames, C2DFileConverter converter)
+	{
+		List<C2DFileReport> reports = new ArrayList<C2DFileReport>(filenames.size());
+		
+		if (n_threads == 1)
+		{
+			for (String[] io : filenames)
+				reports.add(new FileTask(io[0], io[1], converter).call());
+			
+			return reports;
+		}
+		
+		ExecutorService eFiles = Executors.newFixedThreadPool(n_threads);
+		List<Future<C2DFileReport>> futures = new ArrayList<Future<C2DFileReport>>(filenames.size());
+		e_trees = Executors.newFixedThreadPool(n_threads);
+		
+		try
+		{
+			for (String[] io : filenames)
+				futures.add(eFiles.submit(new FileTask(io[0], io[1], converter)));
+			
+			for (Future<C2DFileReport> future : futures)
+				reports.add(future.get());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while converting files.", e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException("Failed to convert files.", e.getCause());
+		}
+		finally
+		{
+			eFiles.shutdownNow();
+			e_trees.shutdownNow();
+			e_trees = null;
+		}
+		
+		return reports;
+	}
+	
+	/** @return a converter that is not used by any other thread. */
+	private AbstractC2DConverter borrow()
+	{
+		AbstractC2DConverter c2d = q_converters.poll();
+		return (c2d != null) ? c2d : c_converter.getSharedConverter();
+	}
+	
+	private void release(AbstractC2DConverter c2d)
+	{
+		q_converters.offer(c2d);
+	}
+	
+	/** Converts a file and prints its trees in order. */
+	private class FileTask implements Callable<C2DFileReport>
+	{
+		private String s_inputFile, s_outputFile;
+		private C2DFileConverter c_converter;
+		
+		public FileTask(String inputFile, String outputFile, C2DFileConverter converter)
+		{
+			s_inputFile  = inputFile;
+			s_outputFile = outputFile;
+			c_converter  = converter;
+		}
+		
+		@Override
+		public C2DFileReport call()
+		{
+			C2DFileReport report = new C2DFileReport(s_inputFile, s_outputFile);
+			long st = System.currentTimeMillis();
+			CTReader reader = null;
+			PrintStream fout = null;
+			
+			try
+			{
+				C2DTreeConverter converter = c_converter.getTreeConverter(s_inputFile);
+				Deque<Callable<String>> queue = new ArrayDeque<Callable<String>>();
+				int n, capacity = n_threads * N_BUFFER_PER_THREAD;
+				CTTree cTree;
+				
+				reader = new CTReader(UTInput.createBufferedFileReader(s_inputFile));
+				fout   = UTOutput.createPrintBufferedFileStream(s_outputFile);
+				
+				for (n=0; (cTree = reader.nextTree()) != null; n++)
+				{
+					TreeTask task = new TreeTask(converter, cTree, n);
+					
+					if (e_trees == null)
+						print(fout, task, report, n);
+					else
+					{
+						if (queue.size() >= capacity)
+							print(fout, queue.poll(), report, n-capacity);
+						
+						queue.add(new FutureOutput(e_trees.submit(task)));
+					}
+				}
+				
+				for (n-=queue.size(); !queue.isEmpty(); n++)
+					print(fout, queue.poll(), report, n);
+				
+				// a malformed tree stops reading as well as the end of the file
+				report.setReaderError(reader.getLastError());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				report.setError(e);
+			}
+			catch (Exception e)
+			{
+				report.setError(e);
+			}
+			finally
+			{
+				if (reader != null)	reader.close();
+				if (fout   != null)	fout.close();
+			}
+			
+			report.setTime(System.currentTimeMillis() - st);
+			return report;
+		}
+		
+		/** Prints the output of the specific tree; a failed tree is reported and skipped. */
+		private void print(PrintStream fout, Callable<String> output, C2DFileReport report, int treeId) throws InterruptedException
+		{
+			String s;
+			
+			try
+			{
+				s = output.call();
+			}
+			catch (InterruptedException e)
+			{
+				throw e;
+			}
+			catch (Exception e)
+			{
+				report.addFailure(treeId, (e instanceof ExecutionException) ? e.getCause() : e);
+				return;
+			}
+			
+			if (s == null)
+				report.addSkip();
+			else
+			{
+				fout.println(s+"\n");
+				report.addTree();
+			}
+		}
+	}
+	
+	/** Converts a tree using a converter borrowed by the current thread. */
+	private class TreeTask implements Callable<String>
+	{
+		private C2DTreeConverter c_converter;
+		private CTTree c_tree;
+		private int    i_tree;
+		
+		public TreeTask(C2DTreeConverter converter, CTTree cTree, int treeId)
+		{
+			c_converter = converter;
+			c_tree      = cTree;
+			i_tree      = treeId;
+		}
+		
+		@Override
+		public String call() throws Exception
+		{
+			AbstractC2DConverter c2d = borrow();
+			
+			try
+			{
+				return c_converter.convert(c2d, c_morph, c_tree, i_tree);
+			}
+			finally
+			{
+				release(c2d);
+			}
+		}
+	}
+	
+	/** Waits for the output of a tree converted by another thread. */
+	private class FutureOutput implements Callable<String>
+	{
+		private Future<String> f_output;
+		
+		public FutureOutput(Future<String> output)
+		{
+			f_output = output;
+		}
+		
+		@Override
+		public String call() throws Exception
+		{
+			return f_output.get();
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.run;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.googlecode.clearnlp.constituent.CTReaderError;
+import com.googlecode.clearnlp.util.pair.Pair;
+
+/**
+ * Report of converting a file by {@link C2DConvertPool}.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class C2DFileReport
+{
+	private String s_inputFile;
+	private String s_outputFile;
+	private int    n_trees;
+	private int    n_skips;
+	private long   n_time;
+	private List<Pair<Integer,Throwable>> l_failures;
+	private Exception e_error;
+	private CTReaderError e_reader;
+	
+	public C2DFileReport(String inputFile, String outputFile)
+	{
+		s_inputFile  = inputFile;
+		s_outputFile = outputFile;
+		l_failures   = new ArrayList<Pair<Integer,Throwable>>();
+	}
+	
+	public void addTree()
+	{
+		n_trees++;
+	}
+	
+	public void addSkip()
+	{
+		n_skips++;
+	}
+	
+	/** Adds a tree that failed to be converted, which is not printed. */
+	public void addFailure(int treeId, Throwable cause)
+	{
+		l_failures.add(new Pair<Integer,Throwable>(treeId, cause));
+	}
+	
+	/** Sets the error that stopped converting the file. */
+	public void setError(Exception e)
+	{
+		e_error = e;
+	}
+	
+	/** Sets the error that stopped reading trees from the file; the trees after the error are not converted. */
+	public void setReaderError(CTReaderError error)
+	{
+		e_reader = error;
+	}
+	
+	public void setTime(long millis)
+	{
+		n_time = millis;
+	}
+	
+	public String getInputFile()
+	{
+		return s_inputFile;
+	}
+	
+	public String getOutputFile()
+	{
+		return s_outputFile;
+	}
+	
+	/** @return the number of trees printed. */
+	public int getTreeCount()
+	{
+		return n_trees;
+	}
+	
+	/** @return the number of trees skipped by the tree converter (e.g., trees containing only empty categories). */
+	public int getSkipCount()
+	{
+		return n_skips;
+	}
+	
+	/** @return the indices of the trees that failed to be converted and their causes. */
+	public List<Pair<Integer,Throwable>> getFailures()
+	{
+		return l_failures;
+	}
+	
+	/** @return the error that stopped converting the file ({@code null} if the whole file was read). */
+	public Exception getError()
+	{
+		return e_error;
+	}
+	
+	/** @return the error that stopped reading trees from the file ({@code null} if all trees were read). */
+	public CTReaderError getReaderError()
+	{
+		return e_reader;
+	}
+	
+	/** @return the time taken to convert the file in milliseconds. */
+	public long getTime()
+	{
+		return n_time;
+	}
+	
+	/** @return {@code true} if all trees in the file were converted without errors. */
+	public boolean isSuccessful()
+	{
+		return e_error == null && e_reader == null && l_failures.isEmpty();
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder build = new StringBuilder();
+		
+		build.append(String.format("%s: %d trees, %d skipped, %d failed, %d ms", s_inputFile, n_trees, n_skips, l_failures.size(), n_time));
+		
+		for (Pair<Integer,Throwable> p : l_failures)
+			build.append(String.format("\n  tree %d: %s", p.o1, p.o2));
+		
+		if (e_reader != null)
+			build.append("\n  "+e_reader);
+		
+		if (e_error != null)
+			build.append("\n  error: "+e_error);
+		
+		return build.toString();
+	}
+}
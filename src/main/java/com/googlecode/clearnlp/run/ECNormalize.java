@@ -118,6 +118,8 @@ public class ECNormalize extends AbstractRun
 			fout.println(tree.toString()+"\n");
 		}
 		
+		if (reader.getLastError() != null)	System.err.println(reader.getLastError());
+		
 		reader.close();
 		fout.close();
 	}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.run;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.compress.utils.IOUtils;
+import org.kohsuke.args4j.Option;
+
+import com.googlecode.clearnlp.classification.model.MappedStringModel;
+import com.googlecode.clearnlp.classification.model.StringModel;
+import com.googlecode.clearnlp.nlp.NLPLib;
+import com.googlecode.clearnlp.util.UTInput;
+import com.googlecode.clearnlp.util.UTOutput;
+
+/**
+ * Converts statistical models in a model file to the binary format read by {@link MappedStringModel}.
+ * Each pair of model and weight entries is saved to a binary file and replaced by a model entry pointing to the file
+ * by its path relative to the output model file;
+ * all other entries are copied as they are.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class ModelConvert extends AbstractRun
+{
+	@Option(name="-i", usage="input model file (required)", required=true, metaVar="<filename>")
+	private String s_inputFile;
+	@Option(name="-o", usage="output model file (required)", required=true, metaVar="<filename>")
+	private String s_outputFile;
+	@Option(name="-d", usage="directory to save binary models (default: directory of the output model file)", required=false, metaVar="<dirpath>")
+	private String s_binaryDir = null;
+	
+	private final Pattern P_MODEL   = Pattern.compile("^(.*)"+NLPLib.ENTRY_MODEL+"(\\d+)$");
+	private final Pattern P_WEIGHTS = Pattern.compile("^(.*)"+NLPLib.ENTRY_WEIGHTS+"(\\d+)$");
+	
+	public ModelConvert() {}
+	
+	public ModelConvert(String[] args) throws Exception
+	{
+		initArgs(args);
+		
+		File outputFile = new File(s_outputFile).getAbsoluteFile();
+		File binaryDir  = (s_binaryDir != null) ? new File(s_binaryDir) : outputFile.getParentFile();
+		
+		int n = convert(s_inputFile, outputFile.getPath(), binaryDir);
+		System.out.printf("%s: %d binary models\n", s_outputFile, n);
+	}
+	
+	/**
+	 * Converts statistical models in the input model file.
+	 * @param binaryDir the directory to save binary models to.
+	 * @return the number of converted models.
+	 */
+	public int convert(String inputFile, String outputFile, File binaryDir) throws Exception
+	{
+		ZipInputStream  zin  = new ZipInputStream (new FileInputStream (inputFile));
+		ZipOutputStream zout = new ZipOutputStream(new FileOutputStream(outputFile));
+		Map<String,StringModel> models = new LinkedHashMap<String,StringModel>();
+		File   archiveDir = new File(outputFile).getAbsoluteFile().getParentFile();
+		String prefix = new File(outputFile).getName(), name, key;
+		ZipEntry zEntry;
+		StringModel model;
+		Matcher m;
+		int n = 0;
+		
+		while ((zEntry = zin.getNextEntry()) != null)
+		{
+			name = zEntry.getName();
+			
+			if (P_MODEL.matcher(name).find())
+			{
+				model = new StringModel();
+				model.load(UTInput.createBufferedReader(zin));
+				models.put(name, model);
+			}
+			else if ((m = P_WEIGHTS.matcher(name)).find() && (model = models.remove(key = m.group(1)+NLPLib.ENTRY_MODEL+m.group(2))) != null)
+			{
+				model.loadWeightVector(new ObjectInputStream(new BufferedInputStream(zin)));
+				File binaryFile = new File(binaryDir, prefix+"."+key+".bin").getCanonicalFile();
+				MappedStringModel.save(model, binaryFile);
+				
+				zout.putNextEntry(new ZipEntry(key));
+				PrintStream fout = UTOutput.createPrintBufferedStream(zout);
+				fout.println(MappedStringModel.HEADER_MAPPED+getRelativePath(archiveDir, binaryFile));
+				fout.flush();
+				zout.closeEntry();
+				n++;
+			}
+			else
+			{
+				zout.putNextEntry(new ZipEntry(name));
+				IOUtils.copy(zin, zout);
+				zout.closeEntry();
+			}
+		}
+		
+		// models without weight entries are kept in the text format
+		for (Map.Entry<String,StringModel> entry : models.entrySet())
+		{
+			zout.putNextEntry(new ZipEntry(entry.getKey()));
+			PrintStream fout = UTOutput.createPrintBufferedStream(zout);
+			entry.getValue().save(fout);
+			fout.flush();
+			zout.closeEntry();
+		}
+		
+		zin.close();
+		zout.close();
+		
+		return n;
+	}
+	
+	/**
+	 * Returns the path of the specific file relative to the specific directory, separated by {@code '/'},
+	 * so the binary model is found as long as it is moved together with the model archive.
+	 * Returns the canonical path of the file if they do not share a root.
+	 */
+	static public String getRelativePath(File dir, File file) throws IOException
+	{
+		String   separator = Pattern.quote(File.separator);
+		String[] dirs  = dir .getCanonicalPath().split(separator);
+		String[] files = file.getCanonicalPath().split(separator);
+		StringBuilder build = new StringBuilder();
+		int i, common = 0;
+		
+		while (common < dirs.length && common < files.length-1 && dirs[common].equals(files[common]))
+			common++;
+		
+		if (common == 0)	return file.getCanonicalPath();
+		
+		for (i=common; i<dirs.length; i++)
+			build.append("../");
+		
+		for (i=common; i<files.length; i++)
+		{
+			if (i > common)	build.append("/");
+			build.append(files[i]);
+		}
+		
+		return build.toString();
+	}
+	
+	public static void main(String[] args)
+	{
+		try
+		{
+			new ModelConvert(args);
+		}
+		catch (Exception e) {e.printStackTrace();}
+	}
+}
@@ -62,6 +62,9 @@ public class PrintTree
 		for (i=0; i<=treeId; i++)
 			tree = reader.nextTree();
 		
-		System.out.println(tree.toString(true,true));
+		if (tree != null)
+			System.out.println(tree.toString(true,true));
+		else if (reader.getLastError() != null)
+			System.err.println(reader.getLastError());
 	}
 }
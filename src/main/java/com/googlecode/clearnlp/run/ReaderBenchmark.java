@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.run;
+
+import java.io.BufferedReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.kohsuke.args4j.Option;
+
+import com.googlecode.clearnlp.dependency.DEPFeat;
+import com.googlecode.clearnlp.dependency.DEPNode;
+import com.googlecode.clearnlp.dependency.DEPTree;
+import com.googlecode.clearnlp.reader.AbstractColumnReader;
+import com.googlecode.clearnlp.reader.JointReader;
+import com.googlecode.clearnlp.util.UTInput;
+
+/**
+ * Measures sentences per second of {@link JointReader} against reading lines with {@link String#split(String)},
+ * which is how column readers used to read, on a dependency file in the CoNLL format
+ * ({@code id form lemma pos feats headId deprel}).
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class ReaderBenchmark extends AbstractRun
+{
+	@Option(name="-i", usage="input file in the dependency format (required)", required=true, metaVar="<filename>")
+	private String s_inputFile;
+	@Option(name="-r", usage="number of repetitions (default: 5)", required=false, metaVar="<integer>")
+	private int n_repeats = 5;
+	@Option(name="-f", usage="if set, accesses features of every node", required=false)
+	private boolean b_feats = false;
+	/** The number of features accessed by the last call to {@link ReaderBenchmark#getSentencesPerSecond(boolean)}. */
+	private long n_feats;
+	
+	public ReaderBenchmark() {}
+	
+	public ReaderBenchmark(String[] args) throws Exception
+	{
+		initArgs(args);
+		
+		for (int i=0; i<n_repeats; i++)
+		{
+			System.out.printf("%d: split %8.1f sentences/sec, %d features\n", i, getSentencesPerSecond(true), n_feats);
+			System.out.printf("%d: joint %8.1f sentences/sec, %d features\n", i, getSentencesPerSecond(false), n_feats);
+		}
+	}
+	
+	/**
+	 * The number of features accessed is kept in {@link ReaderBenchmark#getFeatureCount()} so that the access is not optimized away.
+	 * @param split if {@code true}, reads lines with {@link String#split(String)}; otherwise, with {@link JointReader}.
+	 */
+	public double getSentencesPerSecond(boolean split) throws Exception
+	{
+		BufferedReader fin = UTInput.createBufferedFileReader(s_inputFile);
+		long st = System.nanoTime(), n = 0, f = 0;
+		DEPTree tree;
+		
+		if (split)
+		{
+			while ((tree = readSplit(fin)) != null)
+			{
+				f += getFeatureCount(tree);
+				n++;
+			}
+			
+			fin.close();
+		}
+		else
+		{
+			JointReader reader = new JointReader(0, 1, 2, 3, 4, 5, 6);
+			reader.open(fin);
+			
+			while ((tree = reader.next()) != null)
+			{
+				f += getFeatureCount(tree);
+				n++;
+			}
+		}
+		
+		double sps = 1e9 * n / (System.nanoTime() - st);
+		n_feats = f;
+		
+		return sps;
+	}
+	
+	/** @return the number of features accessed by the last call to {@link ReaderBenchmark#getSentencesPerSecond(boolean)}; {@code 0} unless {@code -f} is set. */
+	public long getFeatureCount()
+	{
+		return n_feats;
+	}
+	
+	private int getFeatureCount(DEPTree tree)
+	{
+		if (!b_feats)	return 0;
+		int i, size = tree.size(), count = 0;
+		
+		for (i=1; i<size; i++)
+			count += tree.get(i).getFeats().size();
+		
+		return count;
+	}
+	
+	/** Reads the next tree as {@link JointReader} did before reading columns in place. */
+	private DEPTree readSplit(BufferedReader fin) throws Exception
+	{
+		List<String[]> lines = new ArrayList<String[]>();
+		String line;
+		
+		while ((line = fin.readLine()) != null)
+		{
+			if (line.trim().isEmpty())
+			{
+				if (lines.isEmpty())	continue;
+				break;
+			}
+			
+			lines.add(line.split(AbstractColumnReader.DELIM_COLUMN));
+		}
+		
+		if (lines.isEmpty())	return null;
+		
+		int i, size = lines.size();
+		DEPTree tree = new DEPTree();
+		String[] tmp;
+		DEPNode node;
+		
+		for (i=0; i<size; i++)
+			tree.add(new DEPNode());
+		
+		for (i=0; i<size; i++)
+		{
+			tmp  = lines.get(i);
+			node = tree.get(Integer.parseInt(tmp[0]));
+			node.init(Integer.parseInt(tmp[0]), tmp[1], tmp[2], tmp[3], new DEPFeat(tmp[4]));
+			
+			if (!tmp[5].equals(AbstractColumnReader.BLANK_COLUMN))
+				node.setHead(tree.get(Integer.parseInt(tmp[5])), tmp[6]);
+		}
+		
+		return tree;
+	}
+	
+	public static void main(String[] args)
+	{
+		try
+		{
+			new ReaderBenchmark(args);
+		}
+		catch (Exception e) {e.printStackTrace();}
+	}
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.run;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.compress.utils.IOUtils;
+import org.kohsuke.args4j.Option;
+
+import com.googlecode.clearnlp.classification.model.AbstractModel;
+import com.googlecode.clearnlp.classification.model.StringModel;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
+import com.googlecode.clearnlp.nlp.NLPLib;
+import com.googlecode.clearnlp.util.UTInput;
+import com.googlecode.clearnlp.util.UTOutput;
+
+/**
+ * Compresses weight vectors in a model file to single precision, quantized integers, or sparse rows,
+ * and reports the accuracy regression of each compressed model against its double-precision model.
+ * Features can be pruned before compression.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class WeightCompress extends AbstractRun
+{
+	@Option(name="-i", usage="input model file (required)", required=true, metaVar="<filename>")
+	private String s_inputFile;
+	@Option(name="-o", usage="output model file (required)", required=true, metaVar="<filename>")
+	private String s_outputFile;
+	@Option(name="-w", usage="type of weights (double|float|int16|int8|sparse; default: int8)", required=false, metaVar="<string>")
+	private String s_weightType = "int8";
+	@Option(name="-prune", usage="if set, remove features whose absolute weights are all within this threshold (e.g., 0)", required=false, metaVar="<double>")
+	private double d_prune = -1;
+	@Option(name="-s", usage="number of sampled feature vectors for the report (default: 10000)", required=false, metaVar="<integer>")
+	private int n_samples = 10000;
+	@Option(name="-k", usage="number of features per sampled vector (default: 50)", required=false, metaVar="<integer>")
+	private int n_active = 50;
+	
+	private final Pattern P_MODEL   = Pattern.compile("^(.*)"+NLPLib.ENTRY_MODEL+"(\\d+)$");
+	private final Pattern P_WEIGHTS = Pattern.compile("^(.*)"+NLPLib.ENTRY_WEIGHTS+"(\\d+)$");
+	
+	public WeightCompress() {}
+	
+	public WeightCompress(String[] args) throws Exception
+	{
+		initArgs(args);
+		compress(s_inputFile, s_outputFile, AbstractModel.getWeightType(s_weightType), d_prune, new Random(0), System.out);
+	}
+	
+	/**
+	 * Compresses weight vectors in the input model file and prints a report per model.
+	 * Model entries are written right before their weight entries; models without weight entries are copied at the end.
+	 * @param prune if non-negative, features whose absolute weights are all within this threshold are removed before compression.
+	 * @return the number of compressed models.
+	 */
+	public int compress(String inputFile, String outputFile, byte type, double prune, Random rand, PrintStream fout) throws Exception
+	{
+		ZipInputStream  zin  = new ZipInputStream (new FileInputStream (inputFile));
+		ZipOutputStream zout = new ZipOutputStream(new FileOutputStream(outputFile));
+		Map<String,StringModel> models = new LinkedHashMap<String,StringModel>();
+		ObjectOutputStream oout;
+		ZipEntry zEntry;
+		StringModel model;
+		String name, key;
+		Matcher m;
+		int n = 0, pruned;
+		
+		fout.println("model\tpruned\tlabels\tfeatures\tbytes\tratio\tmax-err\tmean-err\tagreement\tscore-err");
+		
+		while ((zEntry = zin.getNextEntry()) != null)
+		{
+			name = zEntry.getName();
+			
+			if (P_MODEL.matcher(name).find())
+			{
+				model = new StringModel();
+				model.load(UTInput.createBufferedReader(zin));
+				models.put(name, model);
+			}
+			else if ((m = P_WEIGHTS.matcher(name)).find() && (model = models.remove(key = m.group(1)+NLPLib.ENTRY_MODEL+m.group(2))) != null)
+			{
+				model.loadWeightVector(new ObjectInputStream(new BufferedInputStream(zin)));
+				pruned = (prune >= 0 && model.getWeights() != null && !model.isFeatureHashing()) ? model.pruneFeatures(prune) : 0;
+				fout.println(key+"\t"+pruned+"\t"+report(model, type, rand, n_samples, n_active));
+				
+				saveModel(zout, key, model);
+				zout.putNextEntry(new ZipEntry(name));
+				oout = new ObjectOutputStream(new BufferedOutputStream(zout));
+				model.saveWeightVector(oout);
+				oout.flush();
+				zout.closeEntry();
+				n++;
+			}
+			else
+			{
+				zout.putNextEntry(new ZipEntry(name));
+				IOUtils.copy(zin, zout);
+				zout.closeEntry();
+			}
+		}
+		
+		for (Map.Entry<String,StringModel> entry : models.entrySet())
+			saveModel(zout, entry.getKey(), entry.getValue());
+		
+		zin.close();
+		zout.close();
+		
+		return n;
+	}
+	
+	private void saveModel(ZipOutputStream zout, String name, StringModel model) throws Exception
+	{
+		zout.putNextEntry(new ZipEntry(name));
+		PrintStream fout = UTOutput.createPrintBufferedStream(zout);
+		model.save(fout);
+		fout.flush();
+		zout.closeEntry();
+	}
+	
+	/**
+	 * Compresses the weight vector of the specific model and compares its predictions against the double-precision weights
+	 * on feature vectors sampled from the model's feature space.
+	 * @param samples the number of sampled feature vectors.
+	 * @param active the number of features per sampled vector.
+	 * @return a tab-delimited report: labels, features, compressed bytes, compression ratio, max/mean absolute weight errors, argmax agreement, and mean absolute score error.
+	 */
+	public String report(AbstractModel model, byte type, Random rand, int samples, int active)
+	{
+		double[] weights = model.getDoubleWeights();
+		int i, j, labels = model.getLabelSize(), features = model.getFeatureSize();
+		SparseFeatureVector[] xs = new SparseFeatureVector[samples];
+		int[] argmax = new int[samples];
+		double[][] scores = new double[samples][];
+		
+		for (i=0; i<samples; i++)
+		{
+			xs[i] = new SparseFeatureVector();
+			
+			for (j=0; j<active && features > 1; j++)
+				xs[i].addFeature(1 + rand.nextInt(features-1));
+			
+			scores[i] = model.getScores(xs[i]);
+			argmax[i] = argmax(scores[i]);
+		}
+		
+		model.compressWeights(type);
+		
+		double maxErr = 0, sumErr = 0, scoreErr = 0, d;
+		int agree = 0;
+		
+		for (i=0; i<weights.length; i++)
+		{
+			d = Math.abs(weights[i] - model.getWeight(i));
+			maxErr  = Math.max(maxErr, d);
+			sumErr += d;
+		}
+		
+		for (i=0; i<samples; i++)
+		{
+			double[] cs = model.getScores(xs[i]);
+			if (argmax(cs) == argmax[i]) agree++;
+			
+			for (j=0; j<cs.length; j++)
+				scoreErr += Math.abs(cs[j] - scores[i][j]);
+		}
+		
+		long bytes = model.getWeightBytes();
+		
+		return String.format("%d\t%d\t%d\t%.1fx\t%.6f\t%.6f\t%.4f\t%.6f", labels, features, bytes, 8d * weights.length / Math.max(1, bytes), maxErr, sumErr / Math.max(1, weights.length), (double)agree / Math.max(1, samples), scoreErr / Math.max(1, samples * labels));
+	}
+	
+	private int argmax(double[] scores)
+	{
+		int i, max = 0;
+		
+		for (i=1; i<scores.length; i++)
+			if (scores[max] < scores[i]) max = i;
+		
+		return max;
+	}
+	
+	public static void main(String[] args)
+	{
+		try
+		{
+			new WeightCompress(args);
+		}
+		catch (Exception e) {e.printStackTrace();}
+	}
+}
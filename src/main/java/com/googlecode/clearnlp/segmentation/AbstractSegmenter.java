@@ -41,9 +41,14 @@
 package com.googlecode.clearnlp.segmentation;
 
 import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import com.googlecode.clearnlp.tokenization.AbstractTokenizer;
+import com.googlecode.clearnlp.tokenization.TokenSpan;
 
 /**
  * @since 1.1.0
@@ -64,4 +69,91 @@ abstract public class AbstractSegmenter
 	 * @return a list of sentences, which are arrays of string tokens, from the specific reader.
 	 */
 	abstract public List<List<String>> getSentences(BufferedReader fin);
+	
+	/**
+	 * Returns an iterator of sentences, which are lists of string tokens, from the specific reader.
+	 * Unlike {@link AbstractSegmenter#getSentences(BufferedReader)}, the reader is consumed only as far as the next sentence requires.
+	 * By default, this method segments the whole reader before returning the iterator.
+	 * @since 1.4.3
+	 * @param fin the reader to retrieve sentences from.
+	 * @return an iterator of sentences, which are lists of string tokens, from the specific reader.
+	 */
+	public Iterator<List<String>> getSentenceIterator(BufferedReader fin)
+	{
+		return getSentences(fin).iterator();
+	}
+	
+	/**
+	 * Returns an iterator of sentences, which are lists of tokens with their character offsets, from the specific text.
+	 * Lines are separated by {@code \n}, {@code \r}, or {@code \r\n} as in {@link BufferedReader#readLine()}.
+	 * By default, this method segments the whole text and aligns its sentences with tokens retrieved line by line.
+	 * @since 1.4.3
+	 * @param text the text to retrieve sentences from.
+	 * @return an iterator of sentences, which are lists of tokens with their character offsets, from the specific text.
+	 */
+	public Iterator<List<TokenSpan>> getSentenceSpanIterator(CharSequence text)
+	{
+		List<List<String>> sentences = getSentences(new BufferedReader(new StringReader(text.toString())));
+		List<List<TokenSpan>> spans = new ArrayList<List<TokenSpan>>(sentences.size());
+		Iterator<TokenSpan> it = getTokenSpans(text).iterator();
+		List<TokenSpan> sentence;
+		int i, size;
+		
+		for (List<String> tokens : sentences)
+		{
+			size = tokens.size();
+			sentence = new ArrayList<TokenSpan>(size);
+			
+			for (i=0; i<size && it.hasNext(); i++)
+				sentence.add(it.next());
+			
+			spans.add(sentence);
+		}
+		
+		return spans.iterator();
+	}
+	
+	/**
+	 * Returns an iterator of sentences, which are lists of tokens with their character offsets, from the specific reader.
+	 * Offsets are relative to the first character read from the reader.
+	 * By default, this method reads the whole reader and calls {@link AbstractSegmenter#getSentenceSpanIterator(CharSequence)}.
+	 * @since 1.4.3
+	 * @param fin the reader to retrieve sentences from.
+	 * @return an iterator of sentences, which are lists of tokens with their character offsets, from the specific reader.
+	 */
+	public Iterator<List<TokenSpan>> getSentenceSpanIterator(BufferedReader fin)
+	{
+		StringBuilder build = new StringBuilder();
+		char[] buffer = new char[8192];
+		int len;
+		
+		try
+		{
+			while ((len = fin.read(buffer)) >= 0)
+				build.append(buffer, 0, len);
+		}
+		catch (IOException e) {e.printStackTrace();}
+		
+		return getSentenceSpanIterator(build);
+	}
+	
+	/** Called by {@link AbstractSegmenter#getSentenceSpanIterator(CharSequence)}. */
+	private List<TokenSpan> getTokenSpans(CharSequence text)
+	{
+		List<TokenSpan> spans = new ArrayList<TokenSpan>();
+		int i, begin = 0, size = text.length();
+		char c;
+		
+		for (i=0; i<=size; i++)
+		{
+			c = (i < size) ? text.charAt(i) : '\n';
+			if (c != '\n' && c != '\r') continue;
+			
+			spans.addAll(g_tokenizer.getTokenSpans(text, begin, i));
+			if (c == '\r' && i+1 < size && text.charAt(i+1) == '\n') i++;
+			begin = i + 1;
+		}
+		
+		return spans;
+	}
 }
@@ -41,11 +41,16 @@
 package com.googlecode.clearnlp.segmentation;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.regex.Pattern;
 
 import com.googlecode.clearnlp.tokenization.AbstractTokenizer;
+import com.googlecode.clearnlp.tokenization.TokenSpan;
 
 /**
  * @since 1.1.0
@@ -67,37 +72,285 @@ public class EnglishSegmenter extends AbstractSegmenter
 	public List<List<String>> getSentences(BufferedReader fin)
 	{
 		List<List<String>> sentences = new ArrayList<List<String>>();
-		List<String> tokens = g_tokenizer.getTokens(fin);
-		int[] brackets = new int[R_BRACKETS.length];
-		int bIdx, i, size = tokens.size();
-		boolean isTerminal = false;
-		String curr;
+		Iterator<List<String>> it = getSentenceIterator(fin);
 		
-		for (i=0, bIdx=0; i<size; i++)
+		while (it.hasNext())
+			sentences.add(it.next());
+		
+		return sentences;
+	}
+	
+	@Override
+	public Iterator<List<String>> getSentenceIterator(BufferedReader fin)
+	{
+		return new SentenceIterator(fin);
+	}
+	
+	@Override
+	public Iterator<List<TokenSpan>> getSentenceSpanIterator(CharSequence text)
+	{
+		return new SentenceSpanIterator(text);
+	}
+	
+	@Override
+	public Iterator<List<TokenSpan>> getSentenceSpanIterator(BufferedReader fin)
+	{
+		return new SentenceSpanReaderIterator(fin);
+	}
+	
+	/** Tokenizes one line at a time and returns sentences as soon as their boundaries are found. */
+	abstract private class AbstractSentenceIterator<T> implements Iterator<List<T>>
+	{
+		protected LinkedList<T> l_tokens;	// tokens read but not yet added to any sentence
+		protected List<T>       l_next;		// the next sentence to return
+		private   int[]         n_brackets;
+		
+		public AbstractSentenceIterator()
+		{
+			l_tokens   = new LinkedList<T>();
+			n_brackets = new int[R_BRACKETS.length];
+		}
+		
+		/** Adds tokens from the next line to {@link AbstractSentenceIterator#l_tokens}; returns {@code false} if there is no more line. */
+		abstract protected boolean readLine();
+		
+		/** @return the word-form of the specific token. */
+		abstract protected String getForm(T token);
+		
+		@Override
+		public boolean hasNext()
+		{
+			return l_next != null;
+		}
+		
+		@Override
+		public List<T> next()
 		{
-			curr = tokens.get(i);
-			countBrackets(curr, brackets);
+			if (l_next == null)
+				throw new NoSuchElementException();
 			
-			if (isTerminal || P_TERMINAL_PUNCTUATION.matcher(curr).find())
+			List<T> sentence = l_next;
+			l_next = nextSentence();
+			
+			return sentence;
+		}
+		
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+		
+		/** @return the next sentence if exists; otherwise, {@code null}. */
+		protected List<T> nextSentence()
+		{
+			List<T> sentence = new ArrayList<T>();
+			boolean isTerminal = false;
+			T curr, next;
+			String form;
+			
+			while ((curr = pollToken()) != null)
 			{
-				if (i+1 < size && isFollowedByBracket(tokens.get(i+1), brackets))
+				sentence.add(curr);
+				form = getForm(curr);
+				countBrackets(form, n_brackets);
+				
+				if (isTerminal || P_TERMINAL_PUNCTUATION.matcher(form).find())
 				{
-					isTerminal = true;
-					continue;
+					if ((next = peekToken()) != null && isFollowedByBracket(getForm(next), n_brackets))
+					{
+						isTerminal = true;
+						continue;
+					}
+					
+					return sentence;
 				}
-				
-				sentences.add(tokens.subList(bIdx, bIdx = i+1));
-				isTerminal = false;
 			}
+			
+			return sentence.isEmpty() ? null : sentence;
 		}
 		
-		if (bIdx < size)
-			sentences.add(tokens.subList(bIdx, size));
+		private T pollToken()
+		{
+			return fillTokens() ? l_tokens.poll() : null;
+		}
 		
-		return sentences;
+		private T peekToken()
+		{
+			return fillTokens() ? l_tokens.peek() : null;
+		}
+		
+		/** Reads lines until at least one token is available; returns {@code false} if there is no more token. */
+		private boolean fillTokens()
+		{
+			while (l_tokens.isEmpty() && readLine());
+			return !l_tokens.isEmpty();
+		}
+	}
+	
+	private class SentenceIterator extends AbstractSentenceIterator<String>
+	{
+		private BufferedReader f_in;
+		
+		public SentenceIterator(BufferedReader fin)
+		{
+			f_in   = fin;
+			l_next = nextSentence();
+		}
+		
+		@Override
+		protected boolean readLine()
+		{
+			String line = null;
+			
+			try
+			{
+				if ((line = f_in.readLine()) != null)
+					l_tokens.addAll(g_tokenizer.getTokens(line.trim()));
+			}
+			catch (IOException e) {e.printStackTrace();}
+			
+			return line != null;
+		}
+		
+		@Override
+		protected String getForm(String token)
+		{
+			return token;
+		}
 	}
+	
+	/** Splits lines the same way as {@link BufferedReader#readLine()} so that sentences are identical to {@link SentenceIterator}. */
+	private class SentenceSpanIterator extends AbstractSentenceIterator<TokenSpan>
+	{
+		private CharSequence c_text;
+		private int          n_index;
 		
-	/** Called by {@link EnglishSegmenter#getSentencesRaw(BufferedReader)}. */
+		public SentenceSpanIterator(CharSequence text)
+		{
+			c_text  = text;
+			n_index = 0;
+			l_next  = nextSentence();
+		}
+		
+		@Override
+		protected boolean readLine()
+		{
+			int i, size = c_text.length();
+			if (n_index >= size) return false;
+			char c;
+			
+			for (i=n_index; i<size; i++)
+			{
+				c = c_text.charAt(i);
+				if (c == '\n' || c == '\r') break;
+			}
+			
+			l_tokens.addAll(g_tokenizer.getTokenSpans(c_text, n_index, i));
+			
+			if (i+1 < size && c_text.charAt(i) == '\r' && c_text.charAt(i+1) == '\n')
+				i++;
+			
+			n_index = i + 1;
+			return true;
+		}
+		
+		@Override
+		protected String getForm(TokenSpan token)
+		{
+			return token.getForm();
+		}
+	}
+	
+	/** Reads one line at a time like {@link SentenceIterator} while keeping track of the offset of each line in the reader. */
+	private class SentenceSpanReaderIterator extends AbstractSentenceIterator<TokenSpan>
+	{
+		private BufferedReader f_in;
+		private StringBuilder  s_line;
+		private char[]         c_buffer;
+		private int            n_length;	// the number of characters in the buffer
+		private int            n_index;		// the index of the next character in the buffer
+		private int            n_offset;	// the offset of the next character in the reader
+		private boolean        b_skipLF;	// true if the previous line ended with '\r'
+		
+		public SentenceSpanReaderIterator(BufferedReader fin)
+		{
+			f_in     = fin;
+			s_line   = new StringBuilder();
+			c_buffer = new char[8192];
+			l_next   = nextSentence();
+		}
+		
+		@Override
+		protected boolean readLine()
+		{
+			int begin = n_offset;
+			boolean read = false;
+			char c;
+			
+			s_line.setLength(0);
+			
+			while (fillBuffer())
+			{
+				c = c_buffer[n_index++];
+				n_offset++;
+				
+				if (b_skipLF)
+				{
+					b_skipLF = false;
+					
+					if (c == '\n')
+					{
+						begin++;
+						continue;
+					}
+				}
+				
+				read = true;
+				if (c == '\n') break;
+				
+				if (c == '\r')
+				{
+					b_skipLF = true;
+					break;
+				}
+				
+				s_line.append(c);
+			}
+			
+			if (read)
+				l_tokens.addAll(g_tokenizer.getTokenSpans(s_line.toString(), 0, s_line.length(), begin));
+			
+			return read;
+		}
+		
+		/** @return {@code true} if the buffer has a character to read. */
+		private boolean fillBuffer()
+		{
+			if (n_index < n_length) return true;
+			
+			try
+			{
+				n_length = f_in.read(c_buffer);
+				n_index  = 0;
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+				n_length = -1;
+			}
+			
+			return n_length > 0;
+		}
+		
+		@Override
+		protected String getForm(TokenSpan token)
+		{
+			return token.getForm();
+		}
+	}
+	
+	/** Called by {@link AbstractSentenceIterator#nextSentence()}. */
 	private void countBrackets(String str, int[] brackets)
 	{
 		if (str.equals("\""))
@@ -116,7 +369,7 @@ public class EnglishSegmenter extends AbstractSegmenter
 		}
 	}
 	
-	/** Called by {@link EnglishSegmenter#getSentencesRaw(BufferedReader)}. */
+	/** Called by {@link AbstractSentenceIterator#nextSentence()}. */
 	private boolean isFollowedByBracket(String str, int[] brackets)
 	{
 		int i, size = R_BRACKETS.length;
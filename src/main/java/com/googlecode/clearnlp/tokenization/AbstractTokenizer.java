@@ -92,6 +92,140 @@ abstract public class AbstractTokenizer
 		return tokens;
 	}
 	
+	/**
+	 * Returns a list of tokens from the specific text, which are views over the text with their character offsets.
+	 * @since 1.4.3
+	 * @param source the text to retrieve tokens from.
+	 * @return a list of tokens from the specific text.
+	 */
+	public List<TokenSpan> getTokenSpans(CharSequence source)
+	{
+		return getTokenSpans(source, 0, source.length());
+	}
+	
+	/**
+	 * Returns a list of tokens from the specific range of the text, which are views over the text with their character offsets.
+	 * Offsets are relative to the beginning of the text, not the range.
+	 * Tokens whose word-forms differ from their source characters (e.g., normalized characters) are aligned to the next token.
+	 * @since 1.4.3
+	 * @param source the text to retrieve tokens from.
+	 * @param beginIndex the beginning index of the range (inclusive).
+	 * @param endIndex the ending index of the range (exclusive).
+	 * @return a list of tokens from the specific range of the text.
+	 */
+	public List<TokenSpan> getTokenSpans(CharSequence source, int beginIndex, int endIndex)
+	{
+		return getTokenSpans(source, beginIndex, endIndex, 0);
+	}
+	
+	/**
+	 * Returns a list of tokens from the specific range of the text, which are views over the text with their character offsets.
+	 * Offsets are relative to the beginning of the document containing the text (e.g., a file containing the text as a line).
+	 * @since 1.4.3
+	 * @param source the text to retrieve tokens from.
+	 * @param beginIndex the beginning index of the range (inclusive).
+	 * @param endIndex the ending index of the range (exclusive).
+	 * @param sourceOffset the offset of the text in its document.
+	 * @return a list of tokens from the specific range of the text.
+	 */
+	public List<TokenSpan> getTokenSpans(CharSequence source, int beginIndex, int endIndex, int sourceOffset)
+	{
+		while (beginIndex < endIndex && source.charAt(beginIndex)   <= ' ') beginIndex++;
+		while (beginIndex < endIndex && source.charAt(endIndex - 1) <= ' ') endIndex--;
+		
+		List<String> forms = getTokens(source.subSequence(beginIndex, endIndex).toString());
+		List<TokenSpan> spans = new ArrayList<TokenSpan>(forms.size());
+		int i, end, begin = beginIndex, size = forms.size();
+		String form;
+		
+		for (i=0; i<size; i++)
+		{
+			form  = forms.get(i);
+			begin = skipWhiteSpaces(source, begin, endIndex);
+			
+			if (regionMatches(source, begin, endIndex, form))
+				end = begin + form.length();
+			else
+				end = getMisalignedEnd(source, begin, endIndex, (i+1 < size) ? forms.get(i+1) : null);
+			
+			spans.add(new TokenSpan(source, sourceOffset, form, begin, end));
+			begin = end;
+		}
+		
+		return spans;
+	}
+	
+	/** Called by {@link AbstractTokenizer#getTokenSpans(CharSequence, int, int, int)}. */
+	private int skipWhiteSpaces(CharSequence source, int beginIndex, int endIndex)
+	{
+		while (beginIndex < endIndex && Character.isWhitespace(source.charAt(beginIndex)))
+			beginIndex++;
+		
+		return beginIndex;
+	}
+	
+	/** Called by {@link AbstractTokenizer#getTokenSpans(CharSequence, int, int, int)}. */
+	private boolean regionMatches(CharSequence source, int beginIndex, int endIndex, String form)
+	{
+		int i, len = form.length();
+		if (beginIndex + len > endIndex) return false;
+		
+		for (i=0; i<len; i++)
+		{
+			if (source.charAt(beginIndex+i) != form.charAt(i))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Called by {@link AbstractTokenizer#getTokenSpans(CharSequence, int, int, int)}.
+	 * Tokens never contain white spaces, so the token ends either where the next token begins before the next white space or at the next white space.
+	 * The next token is searched by Knuth-Morris-Pratt within this range only, so the cost is linear in the length of the token.
+	 * @return the ending index of a token whose word-form does not match its source characters.
+	 */
+	private int getMisalignedEnd(CharSequence source, int beginIndex, int endIndex, String nextForm)
+	{
+		int i, end = beginIndex + 1;
+		
+		while (end < endIndex && !Character.isWhitespace(source.charAt(end)))
+			end++;
+		
+		if (nextForm == null || nextForm.isEmpty())
+			return end;
+		
+		int[] table = getFailureTable(nextForm);
+		int k = 0, len = nextForm.length();
+		char c;
+		
+		for (i=beginIndex+1; i<end; i++)
+		{
+			c = source.charAt(i);
+			while (k > 0 && c != nextForm.charAt(k)) k = table[k-1];
+			if (c == nextForm.charAt(k)) k++;
+			if (k == len) return i - len + 1;
+		}
+		
+		return end;
+	}
+	
+	/** Called by {@link AbstractTokenizer#getMisalignedEnd(CharSequence, int, int, String)}. */
+	private int[] getFailureTable(String form)
+	{
+		int i, k = 0, len = form.length();
+		int[] table = new int[len];
+		
+		for (i=1; i<len; i++)
+		{
+			while (k > 0 && form.charAt(i) != form.charAt(k)) k = table[k-1];
+			if (form.charAt(i) == form.charAt(k)) k++;
+			table[i] = k;
+		}
+		
+		return table;
+	}
+	
 	public void setTwit(boolean isTwit)
 	{
 		b_twit = isTwit;
@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.tokenization;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipInputStream;
+
+import com.googlecode.clearnlp.morphology.MPLib;
+import com.googlecode.clearnlp.util.pair.IntIntPair;
+import com.googlecode.clearnlp.util.pair.StringBooleanPair;
+
+/**
+ * English tokenizer producing the same tokens as {@link EnglishTokenizer} while running its regular expressions on fewer words.
+ * Each string is split on white spaces in one scan.
+ * Words consisting of only ASCII letters, the common case, are tokenized by looking up the compiled dictionaries
+ * (emoticons, abbreviations, compounds) without any regular expression or placeholder substitution.
+ * Other words go through the passes of {@link EnglishTokenizer} and their tokens are kept in a bounded LRU cache;
+ * this is valid because every pass of {@link EnglishTokenizer} tokenizes each word independently.
+ * This is not a single-pass scanner over all patterns: a word missing from the cache costs as much as it does in {@link EnglishTokenizer}.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class CompiledEnglishTokenizer extends EnglishTokenizer
+{
+	/** The default maximum number of words whose tokens are cached. */
+	static public final int DEFAULT_CACHE_SIZE = 100000;
+	/** The number of stripes of the cache, each locked separately (a power of 2). */
+	static private final int N_STRIPES = 16;
+	
+	/** Tokens of words not consisting of only letters, striped by the hash codes of the words. */
+	protected WordCache[] w_caches;
+	
+	/** Constructs a tokenizer caching tokens of at most {@link CompiledEnglishTokenizer#DEFAULT_CACHE_SIZE} words. */
+	public CompiledEnglishTokenizer(ZipInputStream zin)
+	{
+		this(zin, DEFAULT_CACHE_SIZE);
+	}
+	
+	/** @param cacheSize the maximum number of words whose tokens are cached, where the least recently used words are evicted first. */
+	public CompiledEnglishTokenizer(ZipInputStream zin, int cacheSize)
+	{
+		super(zin);
+		int i, capacity = Math.max(1, (cacheSize + N_STRIPES - 1) / N_STRIPES);
+		
+		w_caches = new WordCache[N_STRIPES];
+		
+		for (i=0; i<N_STRIPES; i++)
+			w_caches[i] = new WordCache(capacity);
+	}
+	
+	@Override
+	public List<StringBooleanPair> getTokenList(String str)
+	{
+		str = normalizeNonUTF8(str);
+		
+		if (str.isEmpty() || isWhiteSpace(str.charAt(0)))
+			return getTokenList(tokenizeWhiteSpaces(str));
+		
+		List<StringBooleanPair> tokens = new ArrayList<StringBooleanPair>();
+		int i, bIdx = -1, len = str.length();
+		boolean letters = true;
+		char c;
+		
+		for (i=0; i<len; i++)
+		{
+			c = str.charAt(i);
+			
+			if (isWhiteSpace(c))
+			{
+				if (bIdx >= 0)
+				{
+					addTokens(tokens, str.substring(bIdx, i), letters);
+					bIdx = -1;
+				}
+			}
+			else
+			{
+				if (bIdx < 0)
+				{
+					bIdx = i;
+					letters = true;
+				}
+				
+				if (letters && !isLetter(c))
+					letters = false;
+			}
+		}
+		
+		if (bIdx >= 0)
+			addTokens(tokens, str.substring(bIdx), letters);
+		
+		return tokens;
+	}
+	
+	@Override
+	public void setTwit(boolean isTwit)
+	{
+		super.setTwit(isTwit);
+		clearCache();
+	}
+	
+	@Override
+	public void setUserID(boolean isUserID)
+	{
+		super.setUserID(isUserID);
+		clearCache();
+	}
+	
+	/** Called by {@link CompiledEnglishTokenizer#getTokenList(String)}. */
+	private void addTokens(List<StringBooleanPair> tokens, String word, boolean letters)
+	{
+		if (letters && !word.toLowerCase().contains("www"))
+			addLetterTokens(tokens, word);
+		else
+			addCachedTokens(tokens, word);
+	}
+	
+	/** Only emoticons, abbreviations, and compounds can affect words consisting of only letters. */
+	private void addLetterTokens(List<StringBooleanPair> tokens, String word)
+	{
+		String lower = word.toLowerCase();
+		int idx;
+		
+		if (T_EMOTICONS.contains(word) || T_ABBREVIATIONS.contains(lower))
+			tokens.add(new StringBooleanPair(word, true));
+		else if ((idx = M_COMPOUNDS.get(lower) - 1) >= 0)
+		{
+			for (IntIntPair p : L_COMPOUNDS.get(idx))
+				tokens.add(new StringBooleanPair(word.substring(p.i1, p.i2), true));
+		}
+		else
+			tokens.add(new StringBooleanPair(word, false));
+	}
+	
+	private void addCachedTokens(List<StringBooleanPair> tokens, String word)
+	{
+		WordCache cache = getCache(word);
+		StringBooleanPair[] cached;
+		
+		synchronized (cache)
+		{
+			cached = cache.get(word);
+		}
+		
+		if (cached == null)
+		{
+			List<StringBooleanPair> list = new ArrayList<StringBooleanPair>(1);
+			list.add(new StringBooleanPair(word, false));
+			
+			list   = getTokenList(list);
+			cached = list.toArray(new StringBooleanPair[list.size()]);
+			
+			synchronized (cache)
+			{
+				cache.put(word, cached);
+			}
+		}
+		
+		for (StringBooleanPair p : cached)
+			tokens.add(new StringBooleanPair(p.s, p.b));
+	}
+	
+	private WordCache getCache(String word)
+	{
+		int h = word.hashCode();
+		return w_caches[(h ^ (h >>> 16)) & (N_STRIPES - 1)];
+	}
+	
+	/** @return the number of words whose tokens are cached. */
+	public int getCacheSize()
+	{
+		int size = 0;
+		
+		for (WordCache cache : w_caches)
+		{
+			synchronized (cache)
+			{
+				size += cache.size();
+			}
+		}
+		
+		return size;
+	}
+	
+	private void clearCache()
+	{
+		for (WordCache cache : w_caches)
+		{
+			synchronized (cache)
+			{
+				cache.clear();
+			}
+		}
+	}
+	
+	/** Same as {@code \s} used by {@link MPLib#splitWhiteSpaces(String)}. */
+	private boolean isWhiteSpace(char c)
+	{
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+	
+	private boolean isLetter(char c)
+	{
+		return ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z');
+	}
+	
+	/** LRU map from words to their tokens, which must be locked by the caller. */
+	static protected class WordCache extends LinkedHashMap<String,StringBooleanPair[]>
+	{
+		private static final long serialVersionUID = 6143857192083421337L;
+		private int n_capacity;
+		
+		public WordCache(int capacity)
+		{
+			super(16, 0.75f, true);
+			n_capacity = capacity;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String,StringBooleanPair[]> eldest)
+		{
+			return size() > n_capacity;
+		}
+	}
+}
@@ -134,8 +134,16 @@ public class EnglishTokenizer extends AbstractTokenizer
 	public List<StringBooleanPair> getTokenList(String str)
 	{
 		str = normalizeNonUTF8(str);
-		List<StringBooleanPair> lTokens = tokenizeWhiteSpaces(str);
-
+		return getTokenList(tokenizeWhiteSpaces(str));
+	}
+	
+	/**
+	 * Returns the list of tokens split from the specific tokens separated by white spaces.
+	 * Each token is tokenized independently from the others.
+	 * @since 1.4.3
+	 */
+	protected List<StringBooleanPair> getTokenList(List<StringBooleanPair> lTokens)
+	{
 		protectEmoticons(lTokens);
 		lTokens = tokenizePatterns(lTokens, R_URL);
 		lTokens = tokenizePatterns(lTokens, R_ABBREVIATION);
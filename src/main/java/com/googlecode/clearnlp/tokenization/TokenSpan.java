@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.tokenization;
+
+/**
+ * A token viewed over its source text without copying characters.
+ * The word-form is what the tokenizer produced; it may differ from the source characters when the tokenizer normalizes them (e.g., non-UTF8 characters).
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class TokenSpan implements CharSequence
+{
+	private CharSequence c_source;
+	private String       s_form;
+	private int          n_begin;
+	private int          n_end;
+	private int          n_offset;
+	
+	/**
+	 * @param source the text containing this token.
+	 * @param form the word-form of this token.
+	 * @param beginIndex the index of the first character of this token in the source (inclusive).
+	 * @param endIndex the index after the last character of this token in the source (exclusive).
+	 */
+	public TokenSpan(CharSequence source, String form, int beginIndex, int endIndex)
+	{
+		this(source, 0, form, beginIndex, endIndex);
+	}
+	
+	/**
+	 * @param source the text containing this token.
+	 * @param sourceOffset the offset of the source in its document (e.g., the offset of a line read from a file).
+	 * @param form the word-form of this token.
+	 * @param beginIndex the index of the first character of this token in the source (inclusive).
+	 * @param endIndex the index after the last character of this token in the source (exclusive).
+	 */
+	public TokenSpan(CharSequence source, int sourceOffset, String form, int beginIndex, int endIndex)
+	{
+		c_source = source;
+		n_offset = sourceOffset;
+		s_form   = form;
+		n_begin  = beginIndex;
+		n_end    = endIndex;
+	}
+	
+	/** @return the text containing this token. */
+	public CharSequence getSource()
+	{
+		return c_source;
+	}
+	
+	/** @return the word-form of this token. */
+	public String getForm()
+	{
+		return s_form;
+	}
+	
+	/** @return the offset of the first character of this token in the document of its source (inclusive). */
+	public int getBeginOffset()
+	{
+		return n_offset + n_begin;
+	}
+	
+	/** @return the offset after the last character of this token in the document of its source (exclusive). */
+	public int getEndOffset()
+	{
+		return n_offset + n_end;
+	}
+	
+	@Override
+	public int length()
+	{
+		return n_end - n_begin;
+	}
+	
+	@Override
+	public char charAt(int index)
+	{
+		if (index < 0 || index >= length())
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		
+		return c_source.charAt(n_begin + index);
+	}
+	
+	@Override
+	public CharSequence subSequence(int beginIndex, int endIndex)
+	{
+		if (beginIndex < 0 || endIndex > length() || beginIndex > endIndex)
+			throw new IndexOutOfBoundsException(beginIndex+":"+endIndex);
+		
+		return c_source.subSequence(n_begin + beginIndex, n_begin + endIndex);
+	}
+	
+	/** @return the source characters of this token. */
+	@Override
+	public String toString()
+	{
+		return c_source.subSequence(n_begin, n_end).toString();
+	}
+}
@@ -45,6 +45,10 @@ import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -160,4 +164,34 @@ public class UTInput
 	{
 		return new ByteArrayInputStream(s.getBytes());
 	}
+	
+	/**
+	 * Releases the memory mapping of the specific buffer without waiting for garbage collection.
+	 * The buffer must not be accessed afterwards; if the mapping cannot be released on this JVM, it is left to garbage collection.
+	 * @since 1.4.3
+	 */
+	static public void unmap(MappedByteBuffer buffer)
+	{
+		try
+		{
+			// Java 9+
+			Class<?> cls = Class.forName("sun.misc.Unsafe");
+			Field field = cls.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			cls.getMethod("invokeCleaner", ByteBuffer.class).invoke(field.get(null), buffer);
+		}
+		catch (NoSuchMethodException e)
+		{
+			// Java 6-8
+			try
+			{
+				Method method = buffer.getClass().getMethod("cleaner");
+				method.setAccessible(true);
+				Object cleaner = method.invoke(buffer);
+				if (cleaner != null)	cleaner.getClass().getMethod("clean").invoke(cleaner);
+			}
+			catch (Exception f) {}
+		}
+		catch (Exception e) {}
+	}
 }
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.algorithm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.classification.train.StringTrainSpace;
+import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class AbstractAdaGradTest
+{
+	@Test
+	public void testSingleThread()
+	{
+		StringTrainSpace space = getTrainSpace(2000);
+		AdaGradHinge ag1 = new AdaGradHinge(5, 0.1, 0.1, new Random(1));
+		AdaGradHinge ag2 = new AdaGradHinge(5, 0.1, 0.1, new Random(1));
+		
+		assertArrayEquals(ag1.getWeight(space, 1), ag2.getWeight(space, 1), 0);
+		assertArrayEquals(ag1.getLosses(), ag2.getLosses(), 0);
+		assertEquals(5, ag1.getLosses().length);
+	}
+	
+	@Test
+	public void testMultiThreads()
+	{
+		StringTrainSpace space = getTrainSpace(4000);
+		AbstractAdaGrad[] algorithms = {new AdaGradHinge(5, 0.1, 0.1, new Random(1)), new AdaGradLR(5, 0.1, 0.1, new Random(1))};
+		double[] losses;
+		
+		for (AbstractAdaGrad ag : algorithms)
+		{
+			for (int numThreads=1; numThreads<=4; numThreads*=2)
+			{
+				ag.getWeight(space, numThreads);
+				losses = ag.getLosses();
+				assertTrue(losses[losses.length-1] < losses[0]);
+			}
+		}
+		
+		assertTrue(algorithms[0].getLosses()[4] < 0.05);
+	}
+	
+	/** Each instance has one feature indicating its label and two noisy features. */
+	private StringTrainSpace getTrainSpace(int size)
+	{
+		StringTrainSpace space = new StringTrainSpace(false, 0, 0);
+		Random rand = new Random(0);
+		StringFeatureVector x;
+		int i, y;
+		
+		for (i=0; i<size; i++)
+		{
+			y = rand.nextInt(4);
+			x = new StringFeatureVector();
+			x.addFeature("a", Integer.toString(y * 10 + rand.nextInt(5)));
+			x.addFeature("b", Integer.toString(rand.nextInt(50)));
+			x.addFeature("c", Integer.toString((y + rand.nextInt(2)) % 4));
+			space.addInstance("L"+y, x);
+		}
+		
+		space.build();
+		return space;
+	}
+}
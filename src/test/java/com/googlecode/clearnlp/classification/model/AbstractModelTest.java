@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.classification.algorithm.AbstractAlgorithm;
+import com.googlecode.clearnlp.classification.prediction.StringPrediction;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
+import com.googlecode.clearnlp.run.WeightCompress;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class AbstractModelTest
+{
+	final int N_FEATURES = 500;
+	
+	@Test
+	public void testCompressWeights() throws Exception
+	{
+		Random rand = new Random(1);
+		byte[] types = {AbstractModel.WEIGHT_FLOAT, AbstractModel.WEIGHT_INT16, AbstractModel.WEIGHT_INT8};
+		double[] deltas = {1e-5, 1e-2, 1};
+		int i;
+		
+		for (int nLabels : new int[]{2, 9})
+		{
+			for (i=0; i<types.length; i++)
+			{
+				StringModel org = StringModelFixtures.getSparseStringModel(rand, nLabels, N_FEATURES);
+				StringModel cmp = StringModelFixtures.getSparseStringModel(new Random(rand.nextLong()), nLabels, N_FEATURES);
+				cmp.setWeights(org.getWeights().clone());
+				cmp.setWeightType(types[i]);
+				
+				// compressed at save time; the weights in memory are kept
+				StringModel load = StringModelFixtures.getSparseStringModel(rand, nLabels, N_FEATURES);
+				load.loadWeightVector(toObjectInputStream(cmp));
+				assertNotNull(cmp.getWeights());
+				assertEquals(types[i], load.getWeightType());
+				assertEquals(org.getWeights().length, load.getWeightSize());
+				
+				// compressed models are saved and loaded as they are
+				StringModel copy = StringModelFixtures.getSparseStringModel(rand, nLabels, N_FEATURES);
+				copy.loadWeightVector(toObjectInputStream(load));
+				assertArrayEquals(load.getDoubleWeights(), copy.getDoubleWeights(), 0);
+				
+				// reused score buffers must not keep scores of previous vectors
+				double[] buffer = new double[nLabels+1];
+				
+				for (int j=0; j<100; j++)
+				{
+					SparseFeatureVector x = getVector(rand, j % 2 == 0);
+					assertArrayEquals(org.getScores(x), load.getScores(x), deltas[i]);
+					assertArrayEquals(load.getScores(x), Arrays.copyOf(load.getScores(x, buffer), nLabels), 0);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testSparseWeights() throws Exception
+	{
+		Random rand = new Random(3);
+		
+		for (int nLabels : new int[]{2, 9})
+		{
+			StringModel org = StringModelFixtures.getSparseStringModel(rand, nLabels, N_FEATURES);
+			StringModel cmp = StringModelFixtures.getSparseStringModel(rand, nLabels, N_FEATURES);
+			cmp.setWeights(org.getWeights().clone());
+			cmp.setWeightType(AbstractModel.WEIGHT_SPARSE);
+			
+			StringModel load = StringModelFixtures.getSparseStringModel(rand, nLabels, N_FEATURES);
+			load.loadWeightVector(toObjectInputStream(cmp));
+			assertEquals(AbstractModel.WEIGHT_SPARSE, load.getWeightType());
+			assertArrayEquals(org.getWeights(), load.getDoubleWeights(), 0);
+			if (nLabels > 2) assertTrue(load.getWeightBytes() < 8L * org.getWeights().length);
+			
+			for (int j=0; j<100; j++)
+			{
+				SparseFeatureVector x = getVector(rand, j % 2 == 0);
+				assertArrayEquals(org.getScores(x), load.getScores(x), 1e-9);
+			}
+		}
+	}
+	
+	@Test
+	public void testReport()
+	{
+		Random rand = new Random(2);
+		String[] report = new WeightCompress().report(StringModelFixtures.getSparseStringModel(rand, 20, N_FEATURES), AbstractModel.WEIGHT_INT8, rand, 1000, 30).split("\t");
+		
+		assertEquals("20", report[0]);
+		assertEquals(Integer.toString(N_FEATURES*20 + 8*20), report[2]);	// weights + scales
+		assertEquals("7.9x", report[3]);
+		assertTrue(Double.parseDouble(report[6]) > 0.9);
+	}
+	
+	@Test
+	public void testTopLabels()
+	{
+		Random rand = new Random(4);
+		int i, j, k, size;
+		
+		for (int nLabels : new int[]{2, 9})
+		{
+			StringModel model = StringModelFixtures.getSparseStringModel(rand, nLabels, N_FEATURES);
+			int[] indices = new int[nLabels];
+			
+			for (j=0; j<100; j++)
+			{
+				double[] scores = new double[nLabels];
+				List<StringPrediction> ps = new ArrayList<StringPrediction>();
+				
+				// ties must be ordered by label indices as the stable sort
+				for (i=0; i<nLabels; i++)
+				{
+					scores[i] = rand.nextInt(4);
+					ps.add(model.getPrediction(scores, i));
+				}
+				
+				Collections.sort(ps);
+				
+				for (k=1; k<=nLabels+1; k++)
+				{
+					size = model.getTopLabels(scores, indices, k);
+					assertEquals(Math.min(k, nLabels), size);
+					
+					for (i=0; i<size; i++)
+						assertEquals(ps.get(i).label, model.getLabel(indices[i]));
+				}
+			}
+			
+			for (j=0; j<100; j++)
+			{
+				SparseFeatureVector x = getVector(rand, j % 2 == 0);
+				List<StringPrediction> ps = model.predictAll(x);
+				double[] scores = model.getScores(x, new double[nLabels+1]);
+				
+				assertArrayEquals(model.getScores(x), Arrays.copyOf(scores, nLabels), 0);
+				assertEquals(ps.get(0).label, model.predictBest(x).label);
+				assertEquals(ps.get(1).label, model.predictTwo(x).o2.label);
+				
+				AbstractAlgorithm.normalize(ps);
+				assertEquals(ps.get(0).score, Math.exp(model.predictBest(x).score) / model.getNormalizer(scores), 1e-9);
+			}
+		}
+	}
+	
+	private SparseFeatureVector getVector(Random rand, boolean hasWeight)
+	{
+		SparseFeatureVector x = new SparseFeatureVector(hasWeight);
+		int i;
+		
+		for (i=0; i<30; i++)
+		{
+			if (hasWeight)	x.addFeature(rand.nextInt(N_FEATURES+10), rand.nextDouble());
+			else			x.addFeature(rand.nextInt(N_FEATURES+10));
+		}
+		
+		return x;
+	}
+	
+	private ObjectInputStream toObjectInputStream(AbstractModel model) throws Exception
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ObjectOutputStream oout = new ObjectOutputStream(bout);
+		model.saveWeightVector(oout);
+		oout.close();
+		
+		return new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()));
+	}
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class LazyStringModelsTest
+{
+	final int N_MODELS = 5, N_VALUES = 50;
+	
+	@Test
+	public void testLazyStringModels() throws Exception
+	{
+		Random rand = new Random(7);
+		StringModel[] models = new StringModel[N_MODELS];
+		LazyStringModels lazy = new LazyStringModels(N_MODELS, 2);
+		int i, j;
+		
+		for (i=0; i<N_MODELS; i++)
+		{
+			models[i] = StringModelFixtures.getStringModel(rand, 2 + i, 1, N_VALUES);
+			lazy.putModelEntry (i, toModelEntry(models[i]));
+			lazy.putWeightEntry(i, toWeightEntry(models[i]));
+		}
+		
+		// nothing is loaded until requested
+		assertEquals(0, lazy.getResidentSize());
+		assertEquals(0, lazy.getLoadCount());
+		
+		for (i=0; i<N_MODELS; i++)
+		{
+			StringModel model = lazy.get(i);
+			assertArrayEquals(models[i].getLabels(), model.getLabels());
+			
+			for (j=0; j<20; j++)
+			{
+				StringFeatureVector x = getVector(rand);
+				assertArrayEquals(models[i].getScores(models[i].toSparseFeatureVector(x)), model.getScores(model.toSparseFeatureVector(x)), 0);
+			}
+			
+			assertSame(model, lazy.get(i));
+		}
+		
+		// only the two most recently used models are resident
+		assertEquals(N_MODELS, lazy.getLoadCount());
+		assertEquals(N_MODELS-2, lazy.getEvictCount());
+		assertEquals(2, lazy.getResidentSize());
+		assertTrue (lazy.isResident(N_MODELS-1));
+		assertFalse(lazy.isResident(0));
+		
+		lazy.get(N_MODELS-2);
+		lazy.get(0);
+		assertFalse(lazy.isResident(N_MODELS-1));
+		assertEquals(N_MODELS+1, lazy.getLoadCount());
+		
+		lazy.setCapacity(1);
+		assertEquals(1, lazy.getResidentSize());
+		assertTrue(lazy.isResident(0));
+		
+		lazy.setCapacity(0);
+		for (i=0; i<N_MODELS; i++) lazy.get(i);
+		assertEquals(N_MODELS, lazy.getResidentSize());
+	}
+	
+	@Test
+	public void testConcurrentLoads() throws Exception
+	{
+		Random rand = new Random(9);
+		final LazyStringModels lazy = new LazyStringModels(N_MODELS, 0);
+		final StringModel[][] models = new StringModel[8][N_MODELS];
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		int i, j;
+		
+		for (i=0; i<N_MODELS; i++)
+		{
+			StringModel model = StringModelFixtures.getStringModel(rand, 2 + i, 1, N_VALUES);
+			lazy.putModelEntry (i, toModelEntry(model));
+			lazy.putWeightEntry(i, toWeightEntry(model));
+		}
+		
+		for (i=0; i<models.length; i++)
+		{
+			final int thread = i;
+			
+			tasks.add(new Callable<Void>()
+			{
+				@Override
+				public Void call()
+				{
+					int k; for (k=0; k<N_MODELS; k++)
+						models[thread][k] = lazy.get((k + thread) % N_MODELS);
+					
+					return null;
+				}
+			});
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(models.length);
+		
+		for (Future<Void> future : executor.invokeAll(tasks))
+			future.get();
+		
+		executor.shutdown();
+		
+		// each model is loaded once and shared by all threads
+		assertEquals(N_MODELS, lazy.getLoadCount());
+		
+		for (i=0; i<models.length; i++)
+			for (j=0; j<N_MODELS; j++)
+				assertSame(lazy.get((j + i) % N_MODELS), models[i][j]);
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testMissingEntry()
+	{
+		new LazyStringModels(1, 0).get(0);
+	}
+	
+	private StringFeatureVector getVector(Random rand)
+	{
+		StringFeatureVector x = new StringFeatureVector();
+		int i;
+		
+		for (i=0; i<10; i++)
+			x.addFeature(StringModelFixtures.getType(0), StringModelFixtures.getValue(rand.nextInt(N_VALUES)));
+		
+		return x;
+	}
+	
+	private ByteArrayInputStream toModelEntry(StringModel model) throws Exception
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		PrintStream fout = new PrintStream(bout, true, "UTF-8");
+		model.save(fout);
+		fout.close();
+		
+		return new ByteArrayInputStream(bout.toByteArray());
+	}
+	
+	private ByteArrayInputStream toWeightEntry(StringModel model) throws Exception
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ObjectOutputStream oout = new ObjectOutputStream(bout);
+		model.saveWeightVector(oout);
+		oout.close();
+		
+		return new ByteArrayInputStream(bout.toByteArray());
+	}
+}
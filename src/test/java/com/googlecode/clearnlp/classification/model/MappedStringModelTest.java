@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.classification.vector.HashedFeatureVector;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
+import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+import com.googlecode.clearnlp.run.ModelConvert;
+import com.googlecode.clearnlp.util.UTInput;
+import com.googlecode.clearnlp.util.UTOutput;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class MappedStringModelTest
+{
+	final int N_TYPES = 5, N_VALUES = 300;
+	
+	@Test
+	public void testMappedStringModel() throws Exception
+	{
+		Random rand = new Random(3);
+		
+		for (int nLabels : new int[]{2, 7})
+		{
+			StringModel org = StringModelFixtures.getStringModel(rand, nLabels, N_TYPES, N_VALUES);
+			File file = File.createTempFile("mapped", ".bin");
+			file.deleteOnExit();
+			
+			MappedStringModel.save(org, file);
+			assertParity(rand, org, MappedStringModel.map(file));
+			
+			// segments of 16 weights, where rows of 7 labels span two segments
+			MappedStringModel map = MappedStringModel.map(file, 4);
+			assertEquals(org.getWeightSize(), map.getWeightSize());
+			assertParity(rand, org, map);
+			map.unmap();
+			map.unmap();
+		}
+	}
+	
+	@Test
+	public void testSaveAndRead() throws Exception
+	{
+		Random rand = new Random(11);
+		StringModel org = StringModelFixtures.getStringModel(rand, 7, N_TYPES, N_VALUES);
+		File file = File.createTempFile("mapped", ".bin");
+		file.deleteOnExit();
+		
+		MappedStringModel.save(org, file);
+		MappedStringModel map = MappedStringModel.map(file, 4);
+		int i, j;
+		
+		// the text features and the weight vector saved from the mapped model
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		PrintStream fout = new PrintStream(bout, true, "UTF-8");
+		map.save(fout);
+		fout.close();
+		StringModel load = new StringModel(UTInput.createBufferedReader(new ByteArrayInputStream(bout.toByteArray())));
+		
+		bout = new ByteArrayOutputStream();
+		ObjectOutputStream oout = new ObjectOutputStream(bout);
+		map.saveWeightVector(oout);
+		oout.close();
+		load.loadWeightVector(new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray())));
+		
+		for (i=0; i<=N_TYPES; i++)
+			for (j=0; j<N_VALUES; j++)
+				assertEquals(org.getFeatureIndex(StringModelFixtures.getType(i), StringModelFixtures.getValue(j)), load.getFeatureIndex(StringModelFixtures.getType(i), StringModelFixtures.getValue(j)));
+		
+		assertArrayEquals(org.getLabels(), load.getLabels());
+		assertArrayEquals(org.getWeights(), load.getWeights(), 0);
+		
+		for (i=0; i<org.getLabelSize(); i++)
+			assertArrayEquals(org.getWeightVector(i), map.getWeightVector(i), 0);
+		
+		for (i=0; i<100; i++)
+		{
+			StringFeatureVector vector = new StringFeatureVector(i % 2 == 0);
+			
+			for (j=0; j<20; j++)
+			{
+				if (vector.hasWeight())
+					vector.addFeature(StringModelFixtures.getType(rand.nextInt(N_TYPES+1)), StringModelFixtures.getValue(rand.nextInt(N_VALUES)), rand.nextDouble());
+				else
+					vector.addFeature(StringModelFixtures.getType(rand.nextInt(N_TYPES+1)), StringModelFixtures.getValue(rand.nextInt(N_VALUES)));
+			}
+			
+			String label = org.getLabel(rand.nextInt(org.getLabelSize()));
+			int index = org.getFeatureIndex(vector.getType(0), vector.getValue(0));
+			double threshold = (index > 0) ? org.getWeight(org.getWeightIndex(org.getLabelIndex(label), index)) : 0;
+			assertEquals(toString(org.trimFeatures(vector, label, threshold)), toString(map.trimFeatures(vector, label, threshold)));
+		}
+		
+		map.unmap();
+	}
+	
+	@Test
+	public void testModelConvert() throws Exception
+	{
+		Random rand = new Random(5);
+		StringModel org = StringModelFixtures.getStringModel(rand, 4, N_TYPES, N_VALUES);
+		File inputFile  = File.createTempFile("model", ".jar");
+		File dir        = File.createTempFile("model", "");
+		inputFile.deleteOnExit();
+		dir.delete();
+		dir.mkdir();
+		
+		File outputFile = new File(dir, "model.bin.jar");
+		File binaryDir  = new File(dir, "bin");
+		binaryDir.mkdir();
+		
+		ZipOutputStream zout = new ZipOutputStream(new FileOutputStream(inputFile));
+		zout.putNextEntry(new ZipEntry("pos_CONFIGURATION"));
+		PrintStream fout = UTOutput.createPrintBufferedStream(zout);
+		fout.println(1);
+		fout.flush();
+		zout.closeEntry();
+		
+		zout.putNextEntry(new ZipEntry("pos_MODEL0"));
+		fout = UTOutput.createPrintBufferedStream(zout);
+		org.save(fout);
+		fout.flush();
+		zout.closeEntry();
+		
+		zout.putNextEntry(new ZipEntry("pos_WEIGHTS0"));
+		ObjectOutputStream oout = new ObjectOutputStream(new BufferedOutputStream(zout));
+		org.saveWeightVector(oout);
+		oout.flush();
+		zout.closeEntry();
+		zout.close();
+		
+		assertEquals(1, new ModelConvert().convert(inputFile.getPath(), outputFile.getPath(), binaryDir));
+		
+		ZipInputStream zin = new ZipInputStream(new FileInputStream(outputFile));
+		assertEquals("pos_CONFIGURATION", zin.getNextEntry().getName());
+		assertEquals("1", UTInput.createBufferedReader(zin).readLine());
+		assertEquals("pos_MODEL0", zin.getNextEntry().getName());
+		
+		// the binary model is pointed to relative to the model archive
+		BufferedReader fin = UTInput.createBufferedReader(zin);
+		assertEquals(MappedStringModel.HEADER_MAPPED+"bin/model.bin.jar.pos_MODEL0.bin", fin.readLine());
+		zin.close();
+		
+		assertEquals("../bin/model.bin.jar.pos_MODEL0.bin", ModelConvert.getRelativePath(new File(dir, "sub"), new File(binaryDir, "model.bin.jar.pos_MODEL0.bin")));
+		
+		// so the model is still read after moving the archive together with the binary model
+		File moved = new File(dir.getPath()+".moved");
+		assertTrue(dir.renameTo(moved));
+		moved.deleteOnExit();
+		new File(moved, "bin").deleteOnExit();
+		new File(moved, "bin/model.bin.jar.pos_MODEL0.bin").deleteOnExit();
+		new File(moved, "model.bin.jar").deleteOnExit();
+		
+		zin = new ModelInputStream(new File(moved, "model.bin.jar"));
+		zin.getNextEntry();
+		zin.getNextEntry();
+		StringModel map = MappedStringModel.read(UTInput.createBufferedReader(zin), new StringModel(), 8192, ModelInputStream.getDirectory(zin));
+		zin.close();
+		
+		assertTrue(map instanceof MappedStringModel);
+		assertParity(rand, org, (MappedStringModel)map);
+		((MappedStringModel)map).unmap();
+	}
+	
+	
+	private String toString(StringFeatureVector vector)
+	{
+		StringBuilder build = new StringBuilder();
+		int i;
+		
+		for (i=0; i<vector.size(); i++)
+		{
+			build.append(vector.getType(i)+":"+vector.getValue(i));
+			if (vector.hasWeight())	build.append(":"+vector.getWeight(i));
+			build.append(" ");
+		}
+		
+		return build.toString();
+	}
+	
+	private void assertParity(Random rand, StringModel org, MappedStringModel map)
+	{
+		HashedFeatureVector hashed;
+		StringFeatureVector vector;
+		SparseFeatureVector x, y;
+		int i, j;
+		
+		assertEquals(org.getLabelSize(), map.getLabelSize());
+		assertEquals(org.getFeatureSize(), map.getFeatureSize());
+		assertArrayEquals(org.getLabels(), map.getLabels());
+		
+		for (i=0; i<100; i++)
+		{
+			vector = new StringFeatureVector(i % 2 == 0);
+			
+			for (j=0; j<20; j++)
+			{
+				if (vector.hasWeight())
+					vector.addFeature(StringModelFixtures.getType(rand.nextInt(N_TYPES+1)), StringModelFixtures.getValue(rand.nextInt(N_VALUES)), rand.nextDouble());
+				else
+					vector.addFeature(StringModelFixtures.getType(rand.nextInt(N_TYPES+1)), StringModelFixtures.getValue(rand.nextInt(N_VALUES)));
+			}
+			
+			x = org.toSparseFeatureVector(vector);
+			y = map.toSparseFeatureVector(vector);
+			
+			assertEquals(x.toString(), y.toString());
+			assertArrayEquals(org.getScores(x), map.getScores(y), 0);
+			assertEquals(org.predictBest(vector).label, map.predictBest(vector).label);
+			
+			hashed = new HashedFeatureVector(vector.hasWeight());
+			
+			for (j=0; j<vector.size(); j++)
+			{
+				if (vector.hasWeight())
+					hashed.addFeature(vector.getType(j), vector.getValue(j), vector.getWeight(j));
+				else
+					hashed.addFeature(vector.getType(j), vector.getValue(j));
+			}
+			
+			assertEquals(x.toString(), org.toSparseFeatureVector(hashed).toString());
+			assertEquals(x.toString(), map.toSparseFeatureVector(hashed).toString());
+		}
+	}
+}
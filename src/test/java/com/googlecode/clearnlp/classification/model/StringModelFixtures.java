@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.model;
+
+import java.util.Random;
+
+/**
+ * Random string models shared by the model tests.
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+class StringModelFixtures
+{
+	/** @return the {@code i}'th feature type used by {@link StringModelFixtures#getStringModel(Random, int, int, int)}. */
+	static String getType(int i)
+	{
+		return "t"+i;
+	}
+	
+	/** @return the {@code j}'th feature value used by {@link StringModelFixtures#getStringModel(Random, int, int, int)}. */
+	static String getValue(int j)
+	{
+		return "v"+j+"é";
+	}
+	
+	/**
+	 * Returns a model whose features {@code (getType(i), getValue(j))} for all {@code i < nTypes} and {@code j < nValues} are added with the probability of 0.5.
+	 * All weights are drawn from the standard normal distribution.
+	 */
+	static StringModel getStringModel(Random rand, int nLabels, int nTypes, int nValues)
+	{
+		StringModel model = getLabeledModel(nLabels);
+		int i, j;
+		
+		for (i=0; i<nTypes; i++)
+			for (j=0; j<nValues; j++)
+				if (rand.nextBoolean()) model.addFeature(getType(i), getValue(j));
+		
+		model.initWeightVector();
+		double[] weights = model.getWeights();
+		
+		for (i=0; i<weights.length; i++)
+			weights[i] = rand.nextGaussian();
+		
+		return model;
+	}
+	
+	/**
+	 * Returns a model without feature maps whose weights cover {@code nFeatures} feature indices.
+	 * About two thirds of the weights are {@code 0}; the others are drawn from the standard normal distribution.
+	 */
+	static StringModel getSparseStringModel(Random rand, int nLabels, int nFeatures)
+	{
+		StringModel model = getLabeledModel(nLabels);
+		int i;
+		
+		model.n_features = nFeatures;
+		model.initWeightVector();
+		double[] weights = model.getWeights();
+		
+		for (i=0; i<weights.length; i++)
+			weights[i] = (rand.nextInt(3) > 0) ? 0 : rand.nextGaussian();
+		
+		return model;
+	}
+	
+	static private StringModel getLabeledModel(int nLabels)
+	{
+		StringModel model = new StringModel();
+		int i;
+		
+		for (i=0; i<nLabels; i++)
+			model.addLabel("L"+i);
+		
+		model.initLabelArray();
+		return model;
+	}
+}
@@ -40,16 +40,24 @@
  */
 package com.googlecode.clearnlp.classification.model;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.Test;
+
 import com.googlecode.clearnlp.classification.algorithm.AbstractAlgorithm;
 import com.googlecode.clearnlp.classification.prediction.StringPrediction;
+import com.googlecode.clearnlp.classification.vector.HashedFeatureVector;
 import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
 import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
 
@@ -99,6 +107,158 @@ public class StringModelTest
 		testStringModelMultiClassificationAux(model);
 	}
 	
+	@Test
+	public void testPruneFeatures()
+	{
+		StringModel model = new StringModel();
+		String[] labels = {"A", "B", "C"};
+		int i, j;
+		
+		for (String label : labels)
+			model.addLabel(label);
+		
+		model.initLabelArray();
+		
+		for (i=0; i<3; i++)
+			for (j=0; j<4; j++)
+				model.addFeature("t"+i, "v"+j);
+		
+		// features 2, 5, 6, 9 have all-zero weights; feature 3 has only small weights
+		double[][] weights = {{1,0.5,0,0.01,2,0,0,3,1,0,4,5,6},{1,0,0,-0.02,1,0,0,0,2,0,1,2,3},{0,0,0,0,-1,0,0,1,0,0,1,0,-6}};
+		model.initWeightVector();
+		
+		for (i=0; i<labels.length; i++)
+			model.copyWeightVector(i, weights[i]);
+		
+		List<StringFeatureVector> vectors = new ArrayList<StringFeatureVector>();
+		List<String> expected = new ArrayList<String>();
+		StringFeatureVector vector;
+		
+		for (i=0; i<3; i++)
+		{
+			vector = new StringFeatureVector();
+			
+			for (j=0; j<4; j++)
+				if ((i+j) % 2 == 0 || j == 1) vector.addFeature("t"+i, "v"+j);
+			
+			vectors.add(vector);
+			expected.add(toString(model.predictAll(vector)));
+		}
+		
+		assertEquals(4, model.pruneFeatures(0));
+		assertEquals(9, model.getFeatureSize());
+		
+		for (i=0; i<vectors.size(); i++)
+			assertEquals(expected.get(i), toString(model.predictAll(vectors.get(i))));
+		
+		assertEquals(1, model.pruneFeatures(0.1));
+		assertEquals(8, model.getFeatureSize());
+		assertEquals(1, model.toSparseFeatureVector(vectors.get(0)).size());	// t0:v1 and t0:v2 are pruned
+	}
+	
+	@Test
+	public void testFeatureHashing()
+	{
+		StringModel model = new StringModel();
+		model.addLabel("A");
+		model.addLabel("B");
+		model.initLabelArray();
+		model.setFeatureHashing(10, true);
+		
+		assertEquals(1025, model.getFeatureSize());
+		assertTrue(model.isFeatureHashing());
+		
+		StringFeatureVector vector = new StringFeatureVector();
+		HashedFeatureVector hashed = new HashedFeatureVector();
+		int i;
+		
+		for (i=0; i<20; i++)
+		{
+			vector.addFeature("t"+(i%3), "v"+i);
+			hashed.addFeature("t"+(i%3), "v"+i);
+		}
+		
+		SparseFeatureVector x = model.toSparseFeatureVector(vector);
+		SparseFeatureVector h = model.toSparseFeatureVector(hashed);
+		
+		assertEquals(20, x.size());
+		assertArrayEquals(x.getIndices(), h.getIndices());
+		assertArrayEquals(x.getWeights(), h.getWeights(), 0);
+		
+		// weighted features
+		StringFeatureVector wVector = new StringFeatureVector(true);
+		HashedFeatureVector wHashed = new HashedFeatureVector(true);
+		
+		for (i=0; i<20; i++)
+		{
+			wVector.addFeature("t"+(i%3), "v"+i, 0.5);
+			wHashed.addFeature("t"+(i%3), "v"+i, 0.5);
+		}
+		
+		assertArrayEquals(model.toSparseFeatureVector(wVector).getWeights(), model.toSparseFeatureVector(wHashed).getWeights(), 0);
+		assertEquals(0.5, Math.abs(model.toSparseFeatureVector(wHashed).getWeight(0)), 0);
+		
+		for (i=0; i<x.size(); i++)
+		{
+			assertTrue(1 <= x.getIndex(i) && x.getIndex(i) <= 1024);
+			assertEquals(1, Math.abs(x.getWeight(i)), 0);
+		}
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		model.save(new PrintStream(out));
+		assertFalse(out.toString().contains("v1"));
+		
+		model = new StringModel(new BufferedReader(new StringReader(out.toString())));
+		assertTrue(model.isFeatureHashing());
+		assertTrue(model.isSignedHashing());
+		assertEquals(1025, model.getFeatureSize());
+		assertArrayEquals(x.getIndices(), model.toSparseFeatureVector(vector).getIndices());
+	}
+	
+	@Test
+	public void testFeatureHashingSize()
+	{
+		StringModel model = new StringModel();
+		int i;
+		
+		for (i=0; i<3; i++)
+			model.addLabel("L"+i);
+		
+		// (2^30 + 1) * 3 overflows int
+		try
+		{
+			model.setFeatureHashing(30, false);
+			fail();
+		}
+		catch (IllegalArgumentException e) {}
+		
+		assertFalse(model.isFeatureHashing());
+		
+		// (2^29 + 1) * 3 does not, but a fourth label would
+		model.setFeatureHashing(29, false);
+		assertEquals((1 << 29) + 1, model.getFeatureSize());
+		model.addLabel("L0");
+		
+		try
+		{
+			model.addLabel("L3");
+			fail();
+		}
+		catch (IllegalArgumentException e) {}
+		
+		assertEquals(3, model.getLabelSize());
+	}
+	
+	private String toString(List<StringPrediction> ps)
+	{
+		StringBuilder build = new StringBuilder();
+		
+		for (StringPrediction p : ps)
+			build.append(p.label+":"+p.score+" ");
+		
+		return build.toString();
+	}
+	
 	private void testStringModelMultiClassificationAux(StringModel model)
 	{
 		StringFeatureVector vector = new StringFeatureVector();
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.prediction;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class PredictionCacheTest
+{
+	@Test
+	public void testGetPut()
+	{
+		PredictionCache cache = new PredictionCache(16, 2);
+		int[]    labels = new int[2];
+		double[] scores = new double[2];
+		
+		assertEquals(-1, cache.get(0, labels, scores));
+		cache.put(0, new int[]{3, 1, 2}, new double[]{0.5, 0.3, 0.2}, 3);
+		
+		assertEquals(2, cache.get(0, labels, scores));
+		assertArrayEquals(new int[]{3, 1}, labels);
+		assertArrayEquals(new double[]{0.5, 0.3}, scores, 0);
+		
+		cache.put(0, new int[]{4, 0}, new double[]{0.9, 0.1}, 2);
+		assertEquals(2, cache.get(0, labels, scores));
+		assertArrayEquals(new int[]{4, 0}, labels);
+		
+		assertEquals(1, cache.size());
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(2d/3, cache.getHitRate(), 1e-9);
+	}
+	
+	@Test
+	public void testEviction()
+	{
+		PredictionCache cache = new PredictionCache(64, 1);
+		Random rand = new Random(1);
+		int[]    labels = new int[1];
+		double[] scores = new double[1];
+		long key;
+		int i;
+		
+		for (i=0; i<1000; i++)
+		{
+			key = rand.nextLong();
+			cache.put(key, new int[]{i}, new double[]{i}, 1);
+			assertEquals(1, cache.get(key, labels, scores));
+			assertEquals(i, labels[0]);
+		}
+		
+		assertEquals(64, cache.getCapacity());
+		assertTrue(cache.size() <= 64);
+		assertTrue(cache.getEvictions() >= 1000 - 64);
+		
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+	}
+	
+	@Test
+	public void testStripes() throws InterruptedException
+	{
+		assertEquals(2, new PredictionCache(16, 2).getStripeSize());
+		assertEquals(1, new PredictionCache(16, 2, 1).getStripeSize());
+		
+		final PredictionCache cache = new PredictionCache(1 << 10, 1, 4);
+		final AtomicBoolean failed = new AtomicBoolean();
+		Thread[] threads = new Thread[4];
+		int i;
+		
+		assertEquals(4, cache.getStripeSize());
+		assertEquals(1 << 10, cache.getCapacity());
+		
+		for (i=0; i<threads.length; i++)
+		{
+			final Random rand = new Random(i);
+			
+			threads[i] = new Thread()
+			{
+				public void run()
+				{
+					int[]    labels = new int[1];
+					double[] scores = new double[1];
+					long key;
+					int j;
+					
+					for (j=0; j<10000; j++)
+					{
+						key = rand.nextInt(1 << 12) * 0x9E3779B97F4A7C15L;
+						
+						if (cache.get(key, labels, scores) >= 0 && labels[0] != (int)(key >>> 7))
+							failed.set(true);
+						else
+							cache.put(key, new int[]{(int)(key >>> 7)}, new double[]{0}, 1);
+					}
+				}
+			};
+		}
+		
+		for (Thread thread : threads)	thread.start();
+		for (Thread thread : threads)	thread.join();
+		
+		assertFalse(failed.get());
+		assertEquals(40000, cache.getHits() + cache.getMisses());
+		assertTrue(cache.getContentions() >= 0);
+		assertTrue(cache.toString().contains("contentions"));
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.train;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class DiskTrainSpaceTest
+{
+	@Test
+	public void testBuild()
+	{
+		for (boolean hasWeight : new boolean[]{false, true})
+		{
+			StringTrainSpace memory = new StringTrainSpace(hasWeight, 0, 1);
+			DiskTrainSpace   disk   = new DiskTrainSpace  (hasWeight, 0, 1, null);
+			
+			addInstances(memory, hasWeight, new Random(1), 300);
+			addInstances(disk  , hasWeight, new Random(1), 300);
+			assertEquals(toString(memory), toString(disk));
+			
+			memory.build();
+			disk.build();
+			assertSpaceEquals(memory, disk);
+			
+			disk.clear();
+			assertEquals(0, disk.getYs().size());
+			assertEquals(0, disk.getXs().size());
+		}
+	}
+	
+	@Test
+	public void testAppendSpaces()
+	{
+		StringTrainSpace memory = new StringTrainSpace(false, 0, 1);
+		DiskTrainSpace   disk   = new DiskTrainSpace  (false, 0, 1, null);
+		List<StringTrainSpace> spaces = new ArrayList<StringTrainSpace>();
+		StringTrainSpace space;
+		Random rand = new Random(2);
+		int i;
+		
+		for (i=0; i<3; i++)
+		{
+			space = (i%2 == 0) ? new DiskTrainSpace(false, 0, 1, null) : new StringTrainSpace(false, 0, 1);
+			addInstances(space , false, rand, 100);
+			spaces.add(space);
+		}
+		
+		memory.appendSpaces(spaces, 1);
+		disk  .appendSpaces(spaces, 1);
+		assertEquals(toString(memory), toString(disk));
+		
+		memory.build();
+		disk.build();
+		assertSpaceEquals(memory, disk);
+	}
+	
+	private void addInstances(StringTrainSpace space, boolean hasWeight, Random rand, int size)
+	{
+		StringBuilder build;
+		int i, j;
+		
+		for (i=0; i<size; i++)
+		{
+			build = new StringBuilder();
+			build.append("L");
+			build.append(rand.nextInt(4));
+			
+			for (j=rand.nextInt(6); j>=0; j--)
+			{
+				build.append(" t");
+				build.append(j);
+				build.append(":v");
+				build.append(rand.nextInt(20));
+				
+				if (hasWeight)
+				{
+					build.append(":");
+					build.append(rand.nextInt(10) / 10d);
+				}
+			}
+			
+			space.addInstance(build.toString());
+		}
+	}
+	
+	private void assertSpaceEquals(StringTrainSpace memory, StringTrainSpace disk)
+	{
+		int i, size = memory.getInstanceSize();
+		
+		assertEquals(memory.getLabelSize()  , disk.getLabelSize());
+		assertEquals(memory.getFeatureSize(), disk.getFeatureSize());
+		assertEquals(size, disk.getInstanceSize());
+		assertEquals(size, disk.getXs().size());
+		
+		for (i=0; i<size; i++)
+		{
+			assertEquals(memory.getYs().get(i), disk.getYs().get(i));
+			assertArrayEquals(memory.getXs().get(i), disk.getXs().get(i));
+			if (memory.hasWeight())	assertArrayEquals(memory.getVs().get(i), disk.getVs().get(i), 0);
+		}
+		
+		// arrays of the same length are reused
+		int[] x = disk.getXs().get(0);
+		
+		for (i=1; i<size; i++)
+		{
+			if (disk.getXs().get(i).length == x.length)
+				assertSame(x, disk.getXs().get(i));
+		}
+	}
+	
+	private String toString(StringTrainSpace space)
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PrintStream fout = new PrintStream(out);
+		
+		space.printInstances(fout);
+		fout.close();
+		
+		return out.toString();
+	}
+}
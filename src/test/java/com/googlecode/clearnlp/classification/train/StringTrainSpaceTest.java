@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.train;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.classification.algorithm.AdaGradHinge;
+import com.googlecode.clearnlp.classification.model.StringModel;
+import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+import com.googlecode.clearnlp.util.pair.Pair;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class StringTrainSpaceTest
+{
+	@Test
+	public void testParallelBuild()
+	{
+		String serial   = build(1);
+		String parallel = build(3);
+		
+		assertEquals(serial, parallel);
+	}
+	
+	@Test
+	public void testFeatureHashing()
+	{
+		StringTrainSpace space  = new StringTrainSpace(false, 0, 0);
+		StringTrainSpace hashed = new StringTrainSpace(false, 0, 0);
+		hashed.setFeatureHashing(16, true);
+		
+		addInstances(space , 400, new Random(0));
+		addInstances(hashed, 400, new Random(0));
+		space .build();
+		hashed.build();
+		
+		FeatureHashReport report = hashed.getFeatureHashReport();
+		
+		assertNull(space.getFeatureHashReport());
+		assertEquals(space.getFeatureSize()-1, report.getFeatureSize());
+		assertTrue(report.getCollisionRate() < 0.05);
+		assertEquals(65537, hashed.getFeatureSize());
+		assertEquals(space.getInstanceSize(), hashed.getInstanceSize());
+		assertTrue(hashed.hasWeight());
+		
+		// the label is determined by the value of the first feature type
+		List<StringFeatureVector> vectors = new ArrayList<StringFeatureVector>();
+		List<String> labels = new ArrayList<String>();
+		Random rand = new Random(1);
+		
+		for (int i=0; i<200; i++)
+		{
+			Pair<String,StringFeatureVector> instance = StringTrainSpace.toInstance(getInstance(rand), false);
+			labels.add(instance.o1);
+			vectors.add(instance.o2);
+		}
+		
+		double acc = getAccuracy(space, vectors, labels), hAcc = getAccuracy(hashed, vectors, labels);
+		assertTrue(acc > 0.8);
+		assertTrue(hAcc > acc - 0.05);
+	}
+	
+	private double getAccuracy(StringTrainSpace space, List<StringFeatureVector> vectors, List<String> labels)
+	{
+		StringModel model = (StringModel)space.getModel();
+		model.setWeights(new AdaGradHinge(5, 0.1, 0.1, new Random(0)).getWeight(space, 1));
+		int i, correct = 0, size = vectors.size();
+		
+		for (i=0; i<size; i++)
+		{
+			if (model.predictBest(vectors.get(i)).label.equals(labels.get(i)))
+				correct++;
+		}
+		
+		return (double)correct / size;
+	}
+	
+	private String build(int numThreads)
+	{
+		List<StringTrainSpace> spaces = getSpaces(4, 200, new Random(0));
+		StringTrainSpace space = spaces.remove(0);
+		
+		if (numThreads <= 1)
+		{
+			for (StringTrainSpace sp : spaces)
+				space.appendSpace(sp);
+		}
+		else
+			space.appendSpaces(spaces, numThreads);
+		
+		space.build(true, numThreads);
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PrintStream fout = new PrintStream(out);
+		
+		space.printInstances(fout);
+		fout.close();
+		
+		return space.getLabelSize()+" "+space.getFeatureSize()+"\n"+out.toString();
+	}
+	
+	private List<StringTrainSpace> getSpaces(int nSpaces, int nInstances, Random rand)
+	{
+		List<StringTrainSpace> spaces = new ArrayList<StringTrainSpace>();
+		StringTrainSpace space;
+		int i;
+		
+		for (i=0; i<nSpaces; i++)
+		{
+			spaces.add(space = new StringTrainSpace(false, 1, 2));
+			addInstances(space, nInstances, rand);
+		}
+		
+		return spaces;
+	}
+	
+	private void addInstances(StringTrainSpace space, int nInstances, Random rand)
+	{
+		for (int i=0; i<nInstances; i++)
+			space.addInstance(getInstance(rand));
+	}
+	
+	private String getInstance(Random rand)
+	{
+		StringBuilder build = new StringBuilder();
+		int k, v = rand.nextInt(50);
+		
+		build.append("L");
+		build.append(v % 6);
+		
+		for (k=0; k<8; k++)
+		{
+			build.append(" t");
+			build.append(k);
+			build.append(":v");
+			build.append(k == 0 ? v : rand.nextInt(50));
+		}
+		
+		return build.toString();
+	}
+}
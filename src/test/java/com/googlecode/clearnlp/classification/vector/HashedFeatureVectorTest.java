@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.classification.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class HashedFeatureVectorTest
+{
+	@Test
+	public void testHashedFeatureVector()
+	{
+		HashedFeatureVector vector = new HashedFeatureVector();
+		long hash = HashedFeatureVector.getTypeHash("0");
+		
+		hash = HashedFeatureVector.getHash(hash, "A");
+		hash = HashedFeatureVector.getHash(hash, '_');
+		hash = HashedFeatureVector.getHash(hash, "B");
+		
+		assertEquals(HashedFeatureVector.getHash("0", "A_B"), hash);
+		assertTrue(HashedFeatureVector.getHash("0", "AB") != HashedFeatureVector.getHash("0A", "B"));
+		
+		vector.addFeature(hash);
+		vector.addFeature("1:B");
+		
+		assertEquals(hash, vector.getHash(0));
+		assertEquals(HashedFeatureVector.getHash("1", "B"), vector.getHash(1));
+		assertEquals(2, vector.size());
+		assertEquals(vector.toString(), vector.clone().toString());
+		
+		for (int i=0; i<100; i++)
+			vector.addFeature(i);
+		
+		assertEquals(102, vector.size());
+		vector.clear();
+		assertEquals(0, vector.size());
+		
+		vector = new HashedFeatureVector(true);
+		vector.addFeature("1:B:0.5");
+		vector.addFeature(hash, 2);
+		
+		assertEquals(HashedFeatureVector.getHash("1", "B"), vector.getHash(0));
+		assertEquals(0.5, vector.getWeight(0), 0);
+		assertEquals(2, vector.getWeight(1), 0);
+		assertEquals(vector.toString(), vector.clone().toString());
+		vector.clear();
+		assertEquals(0, vector.size());
+		assertEquals(0, vector.getWeights().length);
+	}
+}
@@ -41,6 +41,7 @@
 package com.googlecode.clearnlp.classification.vector;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import org.junit.Test;
 
 import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
@@ -72,4 +73,25 @@ public class SparseFeatureVectorTest
 		assertEquals(2, vector.size());
 		assertEquals("0:0.1 1:0.2", vector.toString());
 	}
+	
+	@Test
+	public void testGetFingerprint()
+	{
+		SparseFeatureVector v1 = new SparseFeatureVector();
+		SparseFeatureVector v2 = new SparseFeatureVector();
+		
+		v1.addFeatures(new int[]{3, 1, 4});
+		v2.addFeatures(new int[]{3, 1, 4});
+		assertEquals(v1.getFingerprint(), v2.getFingerprint());
+		
+		v2.clear();
+		v2.addFeatures(new int[]{3, 4, 1});
+		assertFalse(v1.getFingerprint() == v2.getFingerprint());
+		
+		v1 = new SparseFeatureVector(true);
+		v2 = new SparseFeatureVector(true);
+		v1.addFeature(1, 0.5);
+		v2.addFeature(1, 0.25);
+		assertFalse(v1.getFingerprint() == v2.getFingerprint());
+	}
 }
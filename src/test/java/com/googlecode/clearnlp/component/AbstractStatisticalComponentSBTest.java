@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.classification.feature.JointFtrXml;
+import com.googlecode.clearnlp.classification.model.StringModel;
+import com.googlecode.clearnlp.classification.vector.SparseFeatureVector;
+import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+import com.googlecode.clearnlp.component.dep.EnglishDEPParser;
+import com.googlecode.clearnlp.component.pos.CPOSTaggerSB;
+import com.googlecode.clearnlp.dependency.DEPFeat;
+import com.googlecode.clearnlp.dependency.DEPNode;
+import com.googlecode.clearnlp.dependency.DEPTree;
+import com.googlecode.clearnlp.util.pair.ObjectDoublePair;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class AbstractStatisticalComponentSBTest
+{
+	final String[] FORMS = {"The", "man", "was", "seen", "in", "Boston", "by", "her", "and", "3-4", "U.S.", "runs"};
+	final String[] TAGS  = {"DT", "NN", "VBD", "VBN", "IN", "NNP", "IN", "PRP", "CC", "CD", "NNP", "VBZ"};
+	
+	@Test
+	public void testParallelBranches() throws Exception
+	{
+		JointFtrXml[] posXmls = {new JointFtrXml(new FileInputStream("src/main/resources/feature/feature_en_pos.xml"))};
+		JointFtrXml[] depXmls = {new JointFtrXml(new FileInputStream("src/main/resources/feature/feature_en_dep.xml"))};
+		
+		List<String> labels = new ArrayList<String>();
+		for (String arc : new String[]{"L", "R", "N"})
+			for (String list : new String[]{"S", "R", "P"})
+				for (String deprel : new String[]{"nsubj", "dobj", "aux", "prep"})
+					labels.add(arc+"_"+list+"_"+deprel);
+		
+		StringModel[] posModels = {new HashModel(new ArrayList<String>(new HashSet<String>(Arrays.asList(TAGS))))};
+		StringModel[] depModels = {new HashModel(labels)};
+		
+		Set<String> lsfs = new HashSet<String>();
+		Map<String,String> ambi = new HashMap<String,String>();
+		for (String form : FORMS) lsfs.add(form.toLowerCase());
+		ambi.put("man", "NN_VB");
+		
+		CPOSTaggerSB     tagger = new CPOSTaggerSB(posXmls, posModels, new Object[]{lsfs, ambi}, 1, 4);
+		EnglishDEPParser parser = new EnglishDEPParser(depXmls, depModels, null, 1, 4);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		Random rand = new Random(7);
+		DEPTree tree, copy;
+		String[] seq, par;
+		int i, branched = 0;
+		
+		for (i=0; i<30; i++)
+		{
+			tree = getTree(rand);
+			copy = tree.clone();
+			
+			tagger.setBranchExecutor(null);		tagger.process(tree);
+			tagger.setBranchExecutor(executor);	tagger.process(copy);
+			assertEquals(tree.toStringPOS(), copy.toStringPOS());
+			
+			tree = getTree(rand);
+			copy = tree.clone();
+			
+			parser.setBranchExecutor(null);
+			parser.process(tree);
+			seq = toStrings(parser);
+			
+			parser.setBranchExecutor(executor);
+			parser.process(copy);
+			par = toStrings(parser);
+			
+			assertEquals(tree.toStringDEP(), copy.toStringDEP());
+			assertEquals(join(seq), join(par));
+			if (seq.length > 1) branched++;
+		}
+		
+		executor.shutdown();
+		assertTrue(branched > 0);
+	}
+	
+	private DEPTree getTree(Random rand)
+	{
+		DEPTree tree = new DEPTree();
+		int i, j, size = 3 + rand.nextInt(10);
+		DEPNode node;
+		
+		for (i=1; i<=size; i++)
+		{
+			j = rand.nextInt(FORMS.length);
+			node = new DEPNode(i, FORMS[j], FORMS[j].toLowerCase(), TAGS[j], new DEPFeat());
+			tree.add(node);
+		}
+		
+		for (i=1; i<=size; i++)
+			tree.get(i).setHead(tree.get(rand.nextInt(i)), "dep");
+		
+		return tree;
+	}
+	
+	private String[] toStrings(EnglishDEPParser parser)
+	{
+		List<String> list = new ArrayList<String>();
+		
+		for (ObjectDoublePair<DEPTree> p : parser.getParsedTrees(false))
+			list.add(((DEPTree)p.o).toStringDEP()+" "+p.d);
+		
+		return list.toArray(new String[list.size()]);
+	}
+	
+	private String join(String[] array)
+	{
+		StringBuilder build = new StringBuilder();
+		for (String s : array) build.append(s).append("\n");
+		return build.toString();
+	}
+	
+	/** Scores labels by hashing features so that no training is needed. */
+	class HashModel extends StringModel
+	{
+		public HashModel(List<String> labels)
+		{
+			for (String label : labels)
+				addLabel(label);
+			
+			initLabelArray();
+		}
+		
+		@Override
+		public SparseFeatureVector toSparseFeatureVector(StringFeatureVector x)
+		{
+			SparseFeatureVector sx = new SparseFeatureVector();
+			int i, size = x.size();
+			
+			for (i=0; i<size; i++)
+				sx.addFeature((x.getType(i)+x.getValue(i)).hashCode());
+			
+			return sx;
+		}
+		
+		@Override
+		public double[] getScores(SparseFeatureVector x, double[] scores)
+		{
+			String[] labels = getLabels();
+			int i, j, size = x.size();
+			
+			if (scores == null || scores.length < labels.length)
+				scores = new double[labels.length];
+			
+			for (j=0; j<labels.length; j++)
+			{
+				scores[j] = 0;
+				
+				for (i=0; i<size; i++)
+					scores[j] += (((x.getIndex(i)+labels[j]).hashCode() & 0xff) - 128) / 256d;
+			}
+			
+			return scores;
+		}
+	}
+}
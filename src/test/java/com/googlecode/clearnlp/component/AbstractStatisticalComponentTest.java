@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.component;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.classification.feature.FtrToken;
+import com.googlecode.clearnlp.classification.feature.JointFtrXml;
+import com.googlecode.clearnlp.classification.model.StringModel;
+import com.googlecode.clearnlp.classification.vector.HashedFeatureVector;
+import com.googlecode.clearnlp.classification.vector.StringFeatureVector;
+import com.googlecode.clearnlp.dependency.DEPTree;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class AbstractStatisticalComponentTest
+{
+	static private final String XML =
+		"<feature_template>\n" +
+		"	<cutoff label=\"0\" feature=\"0\"/>\n" +
+		"	<feature n=\"1\" f0=\"i:f\"/>\n" +
+		"	<feature n=\"2\" f0=\"i-1:p\" f1=\"i:f\"/>\n" +
+		"	<feature n=\"3\" f0=\"i-1:p\" f1=\"i:f\" f2=\"i+1:p\"/>\n" +
+		"	<feature n=\"2\" f0=\"i:f\" f1=\"i+9:p\"/>\n" +
+		"	<feature t=\"s\" n=\"1\" f0=\"i:ds\"/>\n" +
+		"	<feature t=\"s\" n=\"2\" f0=\"i:ds\" f1=\"i+1:ds\"/>\n" +
+		"	<feature t=\"s\" n=\"2\" f0=\"i:ds\" f1=\"i+9:ds\"/>\n" +
+		"</feature_template>";
+	
+	@Test
+	public void testHashedFeatureVector()
+	{
+		JointFtrXml xml = new JointFtrXml(new ByteArrayInputStream(XML.getBytes()));
+		StubComponent component = new StubComponent(xml);
+		StringModel model = new StringModel();
+		int i, size;
+		
+		component.setFlag(component.FLAG_DEVELOP);
+		StringFeatureVector vector = component.getFeatureVector(xml);
+		assertTrue(vector.size() > 0);
+		
+		for (i=0,size=vector.size(); i<size; i++)
+		{
+			// skip one feature to check unknown features are discarded
+			if (i != 2) model.addFeature(vector.getType(i), vector.getValue(i));
+		}
+		
+		component.setFlag(component.FLAG_DECODE);
+		HashedFeatureVector hashed = component.getHashedFeatureVector(xml);
+		assertEquals(vector.size(), hashed.size());
+		
+		for (i=0; i<size; i++)
+			assertEquals(HashedFeatureVector.getHash(vector.getType(i), vector.getValue(i)), hashed.getHash(i));
+		
+		assertArrayEquals(model.toSparseFeatureVector(vector).getIndices(), model.toSparseFeatureVector(hashed).getIndices());
+		assertArrayEquals(model.toSparseFeatureVector(vector).getIndices(), component.getSparseFeatureVector(xml, model).getIndices());
+		assertSame(hashed, component.getHashedFeatureVector(xml));
+		assertEquals(size, hashed.size());
+		
+		AbstractStatisticalComponent shared = component.getSharedComponent();
+		assertNotSame(hashed, shared.getHashedFeatureVector(xml));
+	}
+	
+	class StubComponent extends AbstractStatisticalComponent
+	{
+		public StubComponent(JointFtrXml xml)
+		{
+			f_xmls = new JointFtrXml[]{xml};
+		}
+		
+		public void setFlag(byte flag)
+		{
+			i_flag = flag;
+		}
+		
+		@Override
+		protected String getField(FtrToken token)
+		{
+			return (token.offset > 1) ? null : token.field + token.offset;
+		}
+		
+		@Override
+		protected String[] getFields(FtrToken token)
+		{
+			if (token.offset > 1)	return null;
+			return (token.offset == 0) ? new String[]{"", "a"} : new String[]{"b", "", "c"};
+		}
+		
+		@Override
+		public void process(DEPTree tree) {}
+		
+		@Override
+		protected void initLexia(Object[] lexica) {}
+		
+		@Override
+		public void loadModels(ZipInputStream zin) {}
+		
+		@Override
+		public void saveModels(ZipOutputStream zout) {}
+		
+		@Override
+		public Object[] getLexica()
+		{
+			return null;
+		}
+		
+		@Override
+		public void countAccuracy(int[] counts) {}
+	}
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.component.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.component.SharedComponent;
+import com.googlecode.clearnlp.dependency.DEPNode;
+import com.googlecode.clearnlp.dependency.DEPTree;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class ComponentMetricsTest
+{
+	@Test
+	public void testStripedCounter() throws Exception
+	{
+		final StripedCounter counter = new StripedCounter(4);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		int i;
+		
+		for (i=0; i<4; i++)
+		{
+			futures.add(executor.submit(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					int j; for (j=0; j<10000; j++)
+						counter.increment();
+					
+					counter.add(5);
+				}
+			}));
+		}
+		
+		for (Future<?> future : futures)
+			future.get();
+		
+		executor.shutdown();
+		assertEquals(40020, counter.sum());
+		
+		counter.reset();
+		assertEquals(0, counter.sum());
+	}
+	
+	@Test
+	public void testInstrumentedComponent() throws Exception
+	{
+		MetricsRegistry     registry   = new MetricsRegistry(false);
+		AbstractComponent[] components = {new TransitionComponent()};
+		
+		components = InstrumentedComponent.toInstrumentedComponents(components, new String[]{"dep"}, registry);
+		components = SharedComponent.toSharedComponents(components);
+		
+		final AbstractComponent component = components[0];
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		int i;
+		
+		for (i=0; i<30; i++)
+		{
+			futures.add(executor.submit(new Callable<Integer>()
+			{
+				@Override
+				public Integer call()
+				{
+					DEPTree tree = getTree(4);
+					component.process(tree);
+					return tree.size();
+				}
+			}));
+		}
+		
+		for (Future<Integer> future : futures)
+			future.get();
+		
+		executor.shutdown();
+		ComponentMetrics metrics = registry.get("dep");
+		
+		assertEquals(30 , metrics.getSentenceCount());
+		assertEquals(120, metrics.getTokenCount());
+		assertEquals(120, metrics.getTransitionCounts().get("shift").longValue());
+		assertEquals(2  , metrics.getMeanFeatureVectorSize(), 1e-6);
+		assertEquals(0.5, metrics.getCacheHitRate(), 1e-6);
+		assertTrue(metrics.getLatencyMillis99() >= metrics.getLatencyMillis50());
+		assertTrue(metrics.toString().startsWith("dep: sentences: 30"));
+		
+		metrics.reset();
+		assertEquals(0, metrics.getSentenceCount());
+		assertEquals(0, metrics.getTransitionCounts().get("shift").longValue());
+	}
+	
+	@Test
+	public void testJMX() throws Exception
+	{
+		MBeanServer     server   = ManagementFactory.getPlatformMBeanServer();
+		MetricsRegistry registry = new MetricsRegistry(true);
+		ObjectName      name     = MetricsRegistry.getObjectName("pos");
+		
+		ComponentMetrics metrics = registry.register("pos");
+		assertSame(metrics, registry.register("pos"));
+		assertTrue(server.isRegistered(name));
+		
+		metrics.addSentence(1000000, 5);
+		assertEquals(1L, server.getAttribute(name, "SentenceCount"));
+		assertEquals(5L, server.getAttribute(name, "TokenCount"));
+		assertEquals("pos", server.getAttribute(name, "Name"));
+		
+		registry.close();
+		assertFalse(server.isRegistered(name));
+	}
+	
+	private DEPTree getTree(int size)
+	{
+		DEPTree tree = new DEPTree();
+		
+		int i; for (i=1; i<=size; i++)
+			tree.add(new DEPNode(i, "w"+i));
+		
+		return tree;
+	}
+	
+	/** Records a shift per token, a feature vector of size 2 per token, and alternating cache hits. */
+	class TransitionComponent extends AbstractComponent
+	{
+		private StripedCounter c_shift;
+		
+		@Override
+		public void setMetrics(ComponentMetrics metrics)
+		{
+			super.setMetrics(metrics);
+			c_shift = metrics.getTransitionCounter("shift");
+		}
+		
+		@Override
+		public void process(DEPTree tree)
+		{
+			int i, size = tree.size();
+			
+			for (i=1; i<size; i++)
+			{
+				c_shift.increment();
+				m_metrics.addFeatureVector(2);
+				m_metrics.addCacheLookup(i % 2 == 0);
+			}
+		}
+		
+		@Override
+		public AbstractComponent getSharedComponent()
+		{
+			TransitionComponent component = new TransitionComponent();
+			component.setMetrics(m_metrics);
+			return component;
+		}
+	}
+}
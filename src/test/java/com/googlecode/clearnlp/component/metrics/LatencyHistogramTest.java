@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.component.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class LatencyHistogramTest
+{
+	@Test
+	public void testBuckets()
+	{
+		long[] values = {0, 1, 7, 8, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE};
+		int bucket, prev = -1;
+		
+		for (long value : values)
+		{
+			bucket = LatencyHistogram.getBucket(value);
+			assertTrue(bucket >= prev);
+			assertTrue(LatencyHistogram.getLowerBound(bucket) <= value);
+			assertTrue(LatencyHistogram.getUpperBound(bucket) >= value);
+			assertTrue(LatencyHistogram.getUpperBound(bucket) - LatencyHistogram.getLowerBound(bucket) <= value / 8);
+			prev = bucket;
+		}
+		
+		assertEquals(LatencyHistogram.getUpperBound(7) + 1, LatencyHistogram.getLowerBound(8));
+		assertEquals(LatencyHistogram.getUpperBound(15) + 1, LatencyHistogram.getLowerBound(16));
+	}
+	
+	@Test
+	public void testPercentile()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getPercentile(0.5));
+		
+		int i; for (i=1; i<=1000; i++)
+			histogram.record(i * 1000);
+		
+		assertEquals(1000, histogram.getCount());
+		assertEquals(500500000, histogram.getSum());
+		assertEquals(500500, histogram.getMean(), 1e-6);
+		
+		assertWithin(500000, histogram.getPercentile(0.50));
+		assertWithin(990000, histogram.getPercentile(0.99));
+		assertWithin(1000000, histogram.getPercentile(1.00));
+		
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentile(0.99));
+	}
+	
+	@Test
+	public void testStripes() throws Exception
+	{
+		final LatencyHistogram histogram = new LatencyHistogram(4);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		int i;
+		
+		for (i=0; i<4; i++)
+		{
+			futures.add(executor.submit(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					int j; for (j=1; j<=1000; j++)
+						histogram.record(j * 1000);
+				}
+			}));
+		}
+		
+		for (Future<?> future : futures)
+			future.get();
+		
+		executor.shutdown();
+		assertEquals(4000, histogram.getCount());
+		assertWithin(500000, histogram.getPercentile(0.50));
+		assertWithin(1000000, histogram.getPercentile(1.00));
+		
+		histogram.reset();
+		assertEquals(0, histogram.getPercentile(0.50));
+	}
+	
+	private void assertWithin(long expected, long actual)
+	{
+		assertTrue(actual+" < "+expected, actual >= expected);
+		assertTrue(actual+" > "+expected, actual <= expected + expected / 8);
+	}
+}
@@ -41,8 +41,10 @@
 package com.googlecode.clearnlp.constituent;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
@@ -88,4 +90,72 @@ public class CTReaderTest
 		
 		reader.close();
 	}
+	
+	@Test
+	public void testLayoutAndErrors()
+	{
+		String str = "((S(NP\n(NN \u00e9t\u00e9)) (VP (VB go)\n)))\n(TOP (NP (NN a)))(TOP (NP (NN b))))\n( (NP (NN c)";
+		CTReader reader = new CTReader(new BufferedReader(new StringReader(str)));
+		CTTree   tree;
+		
+		tree = reader.nextTree();
+		assertEquals("(TOP (S (NP (NN \u00e9t\u00e9)) (VP (VB go))))", tree.toString().replaceAll("\\s+", " "));
+		assertNull(reader.getLastError());
+		
+		tree = reader.nextTree();
+		assertEquals("(TOP (NP (NN a)))", tree.toString().replaceAll("\\s+", " "));
+		
+		tree = reader.nextTree();
+		assertEquals("(TOP (NP (NN b)))", tree.toString().replaceAll("\\s+", " "));
+		
+		assertNull(reader.nextTree());
+		assertEquals("\")\" found, \"(\" expected", reader.getLastError().getMessage());
+		assertEquals(4, reader.getLastError().getLineNumber());
+		assertEquals(69, reader.getLastError().getOffset());
+		
+		assertNull(reader.nextTree());
+		assertEquals("brackets mismatch - starting line 5", reader.getLastError().getMessage());
+		assertEquals(5, reader.getLastError().getLineNumber());
+		
+		assertNull(reader.nextTree());
+		assertNull(reader.getLastError());
+		reader.close();
+	}
+	
+	@Test
+	public void testSplitOffsets()
+	{
+		String filename = "src/test/resources/constituent/CTReaderTest.parse"; 
+		CTReader reader = new CTReader(UTInput.createBufferedFileReader(filename));
+		List<String> trees = new ArrayList<String>();
+		CTTree tree;
+		
+		while ((tree = reader.nextTree()) != null)
+			trees.add(tree.toString());
+		
+		reader.close();
+		
+		for (int n=1; n<=8; n++)
+		{
+			long[] offsets = CTReader.getSplitOffsets(filename, n);
+			List<String> split = new ArrayList<String>();
+			
+			assertEquals(0, offsets[0]);
+			assertEquals(new File(filename).length(), offsets[n]);
+			
+			for (int i=0; i<n; i++)
+			{
+				reader = new CTReader();
+				reader.open(filename, offsets[i], offsets[i+1]);
+				
+				while ((tree = reader.nextTree()) != null)
+					split.add(tree.toString());
+				
+				assertNull(reader.getLastError());
+				reader.close();
+			}
+			
+			assertEquals(trees, split);
+		}
+	}
 }
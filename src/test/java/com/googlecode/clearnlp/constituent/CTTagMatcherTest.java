@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.constituent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class CTTagMatcherTest
+{
+	@Test
+	public void testCTTagSet()
+	{
+		CTTagSet tags = new CTTagSet();
+		
+		assertEquals(0, tags.getId("NP"));
+		assertEquals(1, tags.getId("VP"));
+		assertEquals(0, tags.getId(new String("NP")));
+		assertSame(tags.getTag(0), tags.intern(new String("NP")));
+		assertEquals(2, tags.size());
+	}
+	
+	@Test
+	public void testCTTagMatcher()
+	{
+		CTTagMatcher matcher = new CTTagMatcher(new CTTagSet(), "NN.*|NP");
+		int i;
+		
+		for (i=0; i<2; i++)
+		{
+			assertEquals(true , matcher.matches("NN"));
+			assertEquals(true , matcher.matches("NNS"));
+			assertEquals(true , matcher.matches("NP"));
+			assertEquals(false, matcher.matches("NPS"));
+			assertEquals(false, matcher.matches("S"));
+		}
+		
+		for (i=0; i<100; i++)
+			assertEquals(i % 2 == 0, matcher.matches((i % 2 == 0 ? "NN" : "VB")+i));
+		
+		assertSame(CTTagMatcher.getPTagMatcher("S.*"), CTTagMatcher.getPTagMatcher("S.*"));
+		assertEquals(true, CTTagMatcher.getPTagMatcher(CTTagMatcher.REGEX_ANY).isAny());
+	}
+	
+	@Test
+	public void testMatchesPTag()
+	{
+		CTNode node = new CTNode("SBAR-TMP");
+		
+		assertEquals(true , node.matchesPTag("S.*"));
+		assertEquals(false, node.matchesPTag("S|SQ|SINV"));
+		assertEquals(CTTagSet.PTAGS.getId("SBAR"), node.getPTagId());
+		
+		node.pTag = "SQ";
+		assertEquals(true, node.matchesPTag("S|SQ|SINV"));
+		assertEquals(CTTagSet.PTAGS.getId("SQ"), node.getPTagId());
+	}
+}
@@ -41,6 +41,11 @@
 package com.googlecode.clearnlp.dependency;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 
 import org.junit.Test;
 
@@ -70,4 +75,65 @@ public class DEPFeatTest
 		feat.add(DEPReader.BLANK_COLUMN);
 		assertEquals("fst=jinho|lst=choi", feat.toString());
 	}
+	
+	@Test
+	public void testMap()
+	{
+		DEPFeat feat = new DEPFeat("c=3|a=1|e=5|b=2|d=4|a=0");
+		assertEquals("a=0|b=2|c=3|d=4|e=5", feat.toString());
+		assertEquals(5, feat.size());
+		
+		assertEquals("3" , feat.remove("c"));
+		assertEquals(null, feat.remove("c"));
+		assertEquals("0" , feat.put(new String("a"), "1"));
+		assertEquals("a=1|b=2|d=4|e=5", feat.toString());
+		
+		DEPFeat clone = (DEPFeat)feat.clone();
+		Map<String,String> map = new HashMap<String,String>(feat);
+		
+		assertEquals(map, feat);
+		assertEquals(feat, map);
+		assertEquals(map.hashCode(), feat.hashCode());
+		
+		Iterator<Map.Entry<String,String>> it = feat.entrySet().iterator();
+		
+		while (it.hasNext())
+		{
+			if (it.next().getKey().compareTo("c") < 0)
+				it.remove();
+		}
+		
+		assertEquals("d=4|e=5", feat.toString());
+		assertEquals("a=1|b=2|d=4|e=5", clone.toString());
+		assertEquals(true, clone.containsKey("b"));
+		
+		feat.clear();
+		assertEquals(DEPReader.BLANK_COLUMN, feat.toString());
+		assertEquals(null, feat.get("d"));
+	}
+	
+	@Test
+	public void testKeys()
+	{
+		DEPFeat feat = new DEPFeat();
+		String key = new String("xyz");
+		
+		// only keys defined in DEPLib are replaced by their canonical instances
+		feat.put(new String(DEPLib.FEAT_POS2), "VB");
+		feat.put(key, "1");
+		
+		for (String k : feat.keySet())
+		{
+			if (k.equals(DEPLib.FEAT_POS2))	assertSame(DEPLib.FEAT_POS2, k);
+			else							assertSame(key, k);
+		}
+		
+		// null keys are accepted as by java.util.HashMap
+		assertEquals(null, feat.put(null, "0"));
+		assertEquals("0" , feat.get(null));
+		assertEquals("null=0|p2=VB|xyz=1", feat.toString());
+		assertEquals(new HashMap<String,String>(feat).hashCode(), feat.hashCode());
+		assertEquals("0" , feat.remove(null));
+		assertEquals("p2=VB|xyz=1", feat.toString());
+	}
 }
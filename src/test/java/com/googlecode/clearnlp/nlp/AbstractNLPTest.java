@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.nlp;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.googlecode.clearnlp.util.UTXml;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class AbstractNLPTest
+{
+	@Test
+	public void testHogwildThreads() throws Exception
+	{
+		String xml = "<train><threads>4</threads>"
+		           + "<algorithm name=\"adagrad\" iter=\"5\" alpha=\"0.01\" rho=\"0.1\"/>"
+		           + "<algorithm name=\"adagrad\" iter=\"5\" alpha=\"0.01\" rho=\"0.1\" hogwild=\"true\"/>"
+		           + "<algorithm name=\"adagrad-lr\" iter=\"5\" alpha=\"0.01\" rho=\"0.1\" hogwild=\"false\"/></train>";
+		
+		NLPDecode nlp    = new NLPDecode();
+		Element   eTrain = UTXml.getDocumentElement(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+		NodeList  list   = eTrain.getElementsByTagName(nlp.TAG_TRAIN_ALGORITHM);
+		int numThreads   = nlp.getNumOfThreads(eTrain);
+		
+		assertEquals(4, numThreads);
+		assertEquals(1, nlp.getNumOfHogwildThreads((Element)list.item(0), numThreads));
+		assertEquals(4, nlp.getNumOfHogwildThreads((Element)list.item(1), numThreads));
+		assertEquals(1, nlp.getNumOfHogwildThreads((Element)list.item(2), numThreads));
+	}
+}
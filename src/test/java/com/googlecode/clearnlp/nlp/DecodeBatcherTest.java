@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.nlp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.dependency.DEPNode;
+import com.googlecode.clearnlp.dependency.DEPTree;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class DecodeBatcherTest
+{
+	@Test
+	public void testBatch() throws Exception
+	{
+		DecodeBatcher batcher = new DecodeBatcher(new AbstractComponent[]{new TagComponent()}, 1, 8, 500, 16);
+		List<DEPTree> trees = new ArrayList<DEPTree>();
+		int i;
+		
+		for (i=0; i<5; i++)
+			trees.add(getTree("a", "b"));
+		
+		List<Future<DEPTree>> futures = batcher.submitAll(trees);
+		
+		for (i=0; i<5; i++)
+		{
+			assertSame(trees.get(i), futures.get(i).get(5, TimeUnit.SECONDS));
+			assertEquals("A", trees.get(i).get(1).pos);
+		}
+		
+		assertEquals(1, batcher.getBatchCount());
+		assertEquals(5, batcher.getMeanBatchSize(), 0);
+		
+		assertEquals("B", batcher.submit(getTree("b")).get(5, TimeUnit.SECONDS).get(1).pos);
+		assertEquals(2, batcher.getBatchCount());
+		batcher.close();
+	}
+	
+	@Test
+	public void testBackpressure() throws Exception
+	{
+		BlockComponent component = new BlockComponent();
+		DecodeBatcher  batcher   = new DecodeBatcher(new AbstractComponent[]{component}, 1, 1, 0, 2);
+		
+		Future<DEPTree> f1 = batcher.submit(getTree("a"));
+		Future<DEPTree> f2 = batcher.submit(getTree("b"));
+		
+		try
+		{
+			batcher.submit(getTree("c"));
+			fail();
+		}
+		catch (RejectedExecutionException e) {}
+		
+		assertEquals(1, batcher.getRejectedCount());
+		component.l_release.countDown();
+		f1.get(5, TimeUnit.SECONDS);
+		f2.get(5, TimeUnit.SECONDS);
+		
+		batcher.submit(getTree("c")).get(5, TimeUnit.SECONDS);
+		batcher.close();
+		
+		try
+		{
+			batcher.submit(getTree("d"));
+			fail();
+		}
+		catch (RejectedExecutionException e) {}
+	}
+	
+	@Test
+	public void testFailure() throws Exception
+	{
+		DecodeBatcher batcher = new DecodeBatcher(new AbstractComponent[]{new TagComponent()}, 2, 4, 0, 4);
+		
+		try
+		{
+			batcher.submit(new DEPTree()).get(5, TimeUnit.SECONDS);
+			fail();
+		}
+		catch (ExecutionException e)
+		{
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+		
+		assertEquals("A", batcher.submit(getTree("a")).get(5, TimeUnit.SECONDS).get(1).pos);
+		batcher.close();
+	}
+	
+	@Test
+	public void testError() throws Exception
+	{
+		DecodeBatcher batcher = new DecodeBatcher(new AbstractComponent[]{new ErrorComponent()}, 1, 2, 0, 2);
+		int i;
+		
+		for (i=0; i<3; i++)
+		{
+			try
+			{
+				batcher.submitAll(Arrays.asList(getTree("a"), getTree("b"))).get(1).get(5, TimeUnit.SECONDS);
+				fail();
+			}
+			catch (ExecutionException e)
+			{
+				assertTrue(e.getCause().getCause() instanceof AssertionError);
+			}
+		}
+		
+		try
+		{
+			batcher.submitAll(Arrays.asList(getTree("a"), getTree("b"), getTree("c")));
+			fail();
+		}
+		catch (IllegalArgumentException e) {}
+		
+		batcher.close();
+	}
+	
+	@Test
+	public void testCancel() throws Exception
+	{
+		BlockComponent component = new BlockComponent();
+		DecodeBatcher  batcher   = new DecodeBatcher(new AbstractComponent[]{component}, 1, 1, 0, 2);
+		
+		Future<DEPTree> f1 = batcher.submit(getTree("a"));
+		Future<DEPTree> f2 = batcher.submit(getTree("b"));
+		
+		assertTrue(f2.cancel(false));
+		component.l_release.countDown();
+		f1.get(5, TimeUnit.SECONDS);
+		
+		batcher.submitAll(Arrays.asList(getTree("c"), getTree("d"))).get(1).get(5, TimeUnit.SECONDS);
+		assertEquals(3, component.n_count.get());
+		batcher.close();
+	}
+	
+	static DEPTree getTree(String... forms)
+	{
+		DEPTree tree = new DEPTree();
+		int i;
+		
+		for (i=0; i<forms.length; i++)
+			tree.add(new DEPNode(i+1, forms[i]));
+		
+		return tree;
+	}
+	
+	/** Tags each token with its upper-cased form; fails on empty trees. */
+	static class TagComponent extends AbstractComponent
+	{
+		@Override
+		public void process(DEPTree tree)
+		{
+			int i, size = tree.size();
+			if (size <= 1)	throw new IllegalArgumentException("Empty tree.");
+			
+			for (i=1; i<size; i++)
+				tree.get(i).pos = tree.get(i).form.toUpperCase();
+		}
+	}
+	
+	/** Blocks until released. */
+	static class BlockComponent extends AbstractComponent
+	{
+		CountDownLatch l_release = new CountDownLatch(1);
+		AtomicInteger  n_count   = new AtomicInteger();
+		
+		@Override
+		public void process(DEPTree tree)
+		{
+			n_count.incrementAndGet();
+			
+			try
+			{
+				l_release.await();
+			}
+			catch (InterruptedException e) {throw new IllegalStateException(e);}
+		}
+	}
+	
+	/** Throws an error on every tree. */
+	static class ErrorComponent extends AbstractComponent
+	{
+		@Override
+		public void process(DEPTree tree)
+		{
+			throw new AssertionError("Broken component.");
+		}
+	}
+}
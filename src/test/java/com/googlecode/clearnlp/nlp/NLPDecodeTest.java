@@ -0,0 +1,308 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.nlp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.component.SharedComponent;
+import com.googlecode.clearnlp.dependency.DEPTree;
+import com.googlecode.clearnlp.nlp.DecodeBatcherTest.BlockComponent;
+import com.googlecode.clearnlp.nlp.DecodeBatcherTest.TagComponent;
+import com.googlecode.clearnlp.reader.JointReader;
+import com.googlecode.clearnlp.util.UTInput;
+import com.googlecode.clearnlp.util.UTOutput;
+import com.googlecode.clearnlp.util.UTXml;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class NLPDecodeTest
+{
+	@Test
+	public void testOrderedOutput() throws Exception
+	{
+		NLPDecode decoder = getDecoder(4);
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		AbstractComponent[] components = SharedComponent.toSharedComponents(new AbstractComponent[]{new SleepComponent(), new TagComponent()});
+		
+		decoder.decode(getReader(getInput(200, "s")), new PrintStream(bout), components, NLPLib.MODE_POS);
+		decoder.e_pool.shutdown();
+		
+		assertOutput(200, "s", bout.toString());
+	}
+	
+	@Test
+	public void testBoundedBuffer() throws Exception
+	{
+		final NLPDecode      decoder   = getDecoder(2);
+		final CountReader    reader    = new CountReader(getInput(500, "s"));
+		final BlockComponent component = new BlockComponent();
+		final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		int capacity = decoder.n_threads * decoder.N_BUFFER_PER_THREAD;
+		
+		Thread thread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				decoder.decode(reader, new PrintStream(bout), new AbstractComponent[]{component, new TagComponent()}, NLPLib.MODE_POS);
+			}
+		});
+		
+		thread.start();
+		
+		while (reader.n_count.get() <= capacity)
+			Thread.sleep(10);
+		
+		// the reader waits for the first sentence once the buffer is full
+		Thread.sleep(200);
+		assertEquals(capacity+1, reader.n_count.get());
+		assertTrue(component.n_count.get() <= decoder.n_threads);
+		
+		component.l_release.countDown();
+		thread.join(10000);
+		decoder.e_pool.shutdown();
+		
+		assertOutput(500, "s", bout.toString());
+	}
+	
+	@Test
+	public void testFailedSentence() throws Exception
+	{
+		for (NLPDecode decoder : new NLPDecode[]{new NLPDecode(), getDecoder(4)})
+		{
+			ByteArrayOutputStream bout = new ByteArrayOutputStream();
+			AbstractComponent[] components = SharedComponent.toSharedComponents(new AbstractComponent[]{new FailComponent("s7"), new TagComponent()});
+			
+			try
+			{
+				decoder.decode(getReader(getInput(200, "s")), new PrintStream(bout), components, NLPLib.MODE_POS);
+				fail();
+			}
+			catch (IllegalStateException e)
+			{
+				assertEquals("Failed to decode sentence 8.", e.getMessage());
+				assertTrue(e.getCause() instanceof IllegalArgumentException);
+			}
+			
+			// the sentences before the failed one are printed in order
+			assertOutput(7, "s", bout.toString());
+			if (decoder.e_pool != null)	decoder.e_pool.shutdown();
+		}
+	}
+	
+	@Test
+	public void testParallelFiles() throws Exception
+	{
+		NLPDecode decoder = new NLPDecode();
+		List<String[]> filenames = new ArrayList<String[]>();
+		Element eReader = UTXml.getDocumentElement(new ByteArrayInputStream("<reader type=\"tok\"><column index=\"1\" field=\"form\"/></reader>".getBytes("UTF-8")));
+		AbstractComponent[] components = SharedComponent.toSharedComponents(new AbstractComponent[]{new SleepComponent(), new TagComponent()});
+		File input;
+		PrintStream fout;
+		int i;
+		
+		decoder.n_threads = 3;
+		
+		for (i=0; i<5; i++)
+		{
+			input = File.createTempFile("nlpdecode", ".txt");
+			input.deleteOnExit();
+			
+			fout = UTOutput.createPrintBufferedFileStream(input.getPath());
+			fout.print(getInput(20, "f"+i+"s"));
+			fout.close();
+			
+			filenames.add(new String[]{input.getPath(), input.getPath()+".cnlp"});
+			new File(input.getPath()+".cnlp").deleteOnExit();
+		}
+		
+		// a missing file must not keep the other files from being decoded
+		input = new File(System.getProperty("java.io.tmpdir"), "nlpdecode-missing.txt");
+		filenames.add(new String[]{input.getPath(), input.getPath()+".cnlp"});
+		decoder.decodeFiles(filenames, eReader, null, null, components, NLPLib.MODE_POS);
+		
+		for (i=0; i<5; i++)
+			assertOutput(20, "f"+i+"s", read(filenames.get(i)[1]));
+		
+		assertFalse(new File(input.getPath()+".cnlp").exists());
+	}
+	
+	private NLPDecode getDecoder(int threads)
+	{
+		NLPDecode decoder = new NLPDecode();
+		
+		decoder.n_threads = threads;
+		decoder.e_pool    = Executors.newFixedThreadPool(threads);
+		
+		return decoder;
+	}
+	
+	private JointReader getReader(String input)
+	{
+		JointReader reader = new JointReader(0, -1);
+		reader.open(new BufferedReader(new StringReader(input)));
+		return reader;
+	}
+	
+	/** @return sentences of two tokens, {@code <prefix><i>} and {@code <prefix><i>b}, in the column format. */
+	private String getInput(int size, String prefix)
+	{
+		StringBuilder build = new StringBuilder();
+		int i;
+		
+		for (i=0; i<size; i++)
+		{
+			build.append(prefix+i+"\n");
+			build.append(prefix+i+"b\n\n");
+		}
+		
+		return build.toString();
+	}
+	
+	private String read(String filename) throws Exception
+	{
+		BufferedReader fin = UTInput.createBufferedFileReader(filename);
+		StringBuilder build = new StringBuilder();
+		String line;
+		
+		while ((line = fin.readLine()) != null)
+			build.append(line+"\n");
+		
+		fin.close();
+		return build.toString();
+	}
+	
+	private void assertOutput(int size, String prefix, String output)
+	{
+		String[] sentences = output.trim().split("\n\n+");
+		String[] lines;
+		int i;
+		
+		assertEquals(size, sentences.length);
+		
+		for (i=0; i<size; i++)
+		{
+			lines = sentences[i].split("\n");
+			assertEquals(2, lines.length);
+			assertTrue(lines[0], lines[0].startsWith(prefix+i+"\t"+(prefix+i).toUpperCase()));
+			assertTrue(lines[1], lines[1].startsWith(prefix+i+"b\t"));
+		}
+	}
+	
+	/** Counts the sentences read. */
+	class CountReader extends JointReader
+	{
+		AtomicInteger n_count = new AtomicInteger();
+		
+		public CountReader(String input)
+		{
+			super(0, -1);
+			open(new BufferedReader(new StringReader(input)));
+		}
+		
+		@Override
+		public DEPTree next()
+		{
+			DEPTree tree = super.next();
+			if (tree != null)	n_count.incrementAndGet();
+			return tree;
+		}
+	}
+	
+	/** Sleeps for a random time so sentences finish out of order. */
+	static class SleepComponent extends AbstractComponent
+	{
+		Random r_rand = new Random(7);
+		
+		@Override
+		public void process(DEPTree tree)
+		{
+			int millis;
+			
+			synchronized (r_rand)
+			{
+				millis = r_rand.nextInt(3);
+			}
+			
+			try
+			{
+				Thread.sleep(millis);
+			}
+			catch (InterruptedException e) {throw new IllegalStateException(e);}
+		}
+	}
+	
+	/** Fails on the sentence whose first word-form is the specific form. */
+	static class FailComponent extends AbstractComponent
+	{
+		String s_form;
+		
+		public FailComponent(String form)
+		{
+			s_form = form;
+		}
+		
+		@Override
+		public void process(DEPTree tree)
+		{
+			if (tree.get(1).form.equals(s_form))
+				throw new IllegalArgumentException(s_form);
+		}
+	}
+}
@@ -0,0 +1,325 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.nlp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.dependency.DEPTree;
+import com.googlecode.clearnlp.segmentation.AbstractSegmenter;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class NLPServerTest
+{
+	@Test
+	public void testDecode() throws Exception
+	{
+		NLPServer server = getServer(16);
+		
+		try
+		{
+			String[] out = post(server, "tok", "I   like it\n\nYou do\n", 200).split("\n\n");
+			assertEquals(2, out.length);
+			assertEquals("I\tI\t_\nlike\tLIKE\t_\nit\tIT\t_", out[0]);
+			assertEquals("You\tYOU\t_\ndo\tDO\t_", out[1]);
+			
+			out = post(server, "raw", "a b. c", 200).split("\n\n");
+			assertEquals(2, out.length);
+			assertEquals("a\tA\t_\nb\tB\t_", out[0]);
+			
+			assertEquals("", post(server, "tok", "", 200));
+			post(server, "xml", "a", 400);
+			
+			HttpURLConnection conn = (HttpURLConnection)new URL("http://localhost:"+server.getPort()+NLPServer.CONTEXT_HEALTH).openConnection();
+			assertEquals(200, conn.getResponseCode());
+			assertTrue(read(conn.getInputStream()).startsWith("batches: "));
+		}
+		finally
+		{
+			server.stop();
+		}
+	}
+	
+	@Test
+	public void testBackpressure() throws Exception
+	{
+		DecodeBatcherTest.BlockComponent component = new DecodeBatcherTest.BlockComponent();
+		NLPServer server = getServer(2, component);
+		
+		try
+		{
+			post(server, "tok", "a\nb\nc\n", 413);
+			
+			Future<DEPTree> f1 = server.getBatcher().submit(DecodeBatcherTest.getTree("a"));
+			Future<DEPTree> f2 = server.getBatcher().submit(DecodeBatcherTest.getTree("b"));
+			
+			HttpURLConnection conn = open(server, "tok", "a\n");
+			assertEquals(503, conn.getResponseCode());
+			assertEquals("1", conn.getHeaderField("Retry-After"));
+			assertEquals(1, server.getBatcher().getRejectedCount());
+			
+			component.l_release.countDown();
+			f1.get(5, TimeUnit.SECONDS);
+			f2.get(5, TimeUnit.SECONDS);
+			post(server, "tok", "a\nb\n", 200);
+		}
+		finally
+		{
+			server.stop();
+		}
+	}
+	
+	@Test
+	public void testLimits() throws Exception
+	{
+		DecodeBatcherTest.BlockComponent component = new DecodeBatcherTest.BlockComponent();
+		NLPServer server = getServer(4, component);
+		server.n_maxBytes      = 16;
+		server.n_timeoutMillis = 100;
+		
+		try
+		{
+			post(server, "tok", "a b c d e f g h i j\n", 413);
+			post(server, "tok", "a\nb\n", 504);
+			
+			component.l_release.countDown();
+			post(server, "tok", "c\n", 200);
+			
+			// the sentence being decoded at the timeout is finished; the one still waiting is skipped
+			assertEquals(2, component.n_count.get());
+		}
+		finally
+		{
+			server.stop();
+		}
+	}
+	
+	@Test
+	public void testFailure() throws Exception
+	{
+		final List<String> forms = Collections.synchronizedList(new ArrayList<String>());
+		DecodeBatcherTest.BlockComponent component = new DecodeBatcherTest.BlockComponent()
+		{
+			@Override
+			public void process(DEPTree tree)
+			{
+				String form = tree.get(1).form;
+				forms.add(form);
+				
+				if (form.equals("f"))
+					throw new IllegalArgumentException(form);
+				
+				super.process(tree);
+			}
+		};
+		
+		NLPServer server = getServer(4, component);
+		
+		try
+		{
+			post(server, "tok", "f\nb\nc\n", 500);
+			
+			component.l_release.countDown();
+			post(server, "tok", "d\n", 200);
+			
+			// sentences of the failed request still waiting are skipped
+			assertFalse(forms.contains("c"));
+			assertEquals("d", forms.get(forms.size()-1));
+		}
+		finally
+		{
+			server.stop();
+		}
+	}
+	
+	@Test
+	public void testConcurrentRequests() throws Exception
+	{
+		final NLPServer server = getServer(64);
+		List<Thread> threads = new ArrayList<Thread>();
+		final List<String> outputs = new ArrayList<String>();
+		int i;
+		
+		try
+		{
+			for (i=0; i<8; i++)
+			{
+				final String form = "w"+i;
+				
+				threads.add(new Thread()
+				{
+					@Override
+					public void run()
+					{
+						try
+						{
+							String out = post(server, "tok", form+" x\n"+form+"\n", 200);
+							synchronized (outputs) {outputs.add(out);}
+						}
+						catch (IOException e) {throw new IllegalStateException(e);}
+					}
+				});
+			}
+			
+			for (Thread thread : threads)	thread.start();
+			for (Thread thread : threads)	thread.join();
+			
+			assertEquals(8, outputs.size());
+			
+			for (String out : outputs)
+			{
+				String form = out.substring(0, out.indexOf('\t'));
+				assertEquals(form+"\t"+form.toUpperCase()+"\t_\nx\tX\t_\n\n"+form+"\t"+form.toUpperCase()+"\t_\n\n", out);
+			}
+			
+			assertEquals(16, server.getBatcher().getTreeCount());
+		}
+		finally
+		{
+			server.stop();
+		}
+	}
+	
+	private NLPServer getServer(int capacity) throws IOException
+	{
+		return getServer(capacity, new DecodeBatcherTest.TagComponent(), 2, 4);
+	}
+	
+	/** The blocking component decodes one sentence at a time. */
+	private NLPServer getServer(int capacity, DecodeBatcherTest.BlockComponent component) throws IOException
+	{
+		return getServer(capacity, component, 1, 1);
+	}
+	
+	private NLPServer getServer(int capacity, AbstractComponent component, int numThreads, int batchSize) throws IOException
+	{
+		NLPServer server = new NLPServer();
+		server.n_threads      = numThreads;
+		server.n_batchSize    = batchSize;
+		server.n_windowMillis = 10;
+		server.n_capacity     = capacity;
+		
+		server.init(new PeriodSegmenter(), new AbstractComponent[]{component}, NLPLib.MODE_POS);
+		server.start(new InetSocketAddress("localhost", 0));
+		return server;
+	}
+	
+	private HttpURLConnection open(NLPServer server, String format, String text) throws IOException
+	{
+		HttpURLConnection conn = (HttpURLConnection)new URL("http://localhost:"+server.getPort()+NLPServer.CONTEXT_DECODE+"?"+NLPServer.PARAM_FORMAT+"="+format).openConnection();
+		conn.setRequestMethod("POST");
+		conn.setDoOutput(true);
+		
+		OutputStream out = conn.getOutputStream();
+		out.write(text.getBytes(Charsets.UTF_8));
+		out.close();
+		
+		return conn;
+	}
+	
+	private String post(NLPServer server, String format, String text, int code) throws IOException
+	{
+		HttpURLConnection conn = open(server, format, text);
+		assertEquals(code, conn.getResponseCode());
+		
+		return (code == 200) ? read(conn.getInputStream()) : read(conn.getErrorStream());
+	}
+	
+	private String read(InputStream in) throws IOException
+	{
+		if (in == null)	return "";
+		String s = new String(ByteStreams.toByteArray(in), Charsets.UTF_8);
+		in.close();
+		return s;
+	}
+	
+	/** Splits text into sentences at periods and tokens at white spaces. */
+	class PeriodSegmenter extends AbstractSegmenter
+	{
+		public PeriodSegmenter()
+		{
+			super(null);
+		}
+		
+		@Override
+		public List<List<String>> getSentences(BufferedReader fin)
+		{
+			List<List<String>> sentences = new ArrayList<List<String>>();
+			StringBuilder build = new StringBuilder();
+			String line;
+			
+			try
+			{
+				while ((line = fin.readLine()) != null)
+					build.append(line).append(" ");
+			}
+			catch (IOException e) {throw new IllegalStateException(e);}
+			
+			for (String sentence : build.toString().split("\\."))
+			{
+				if (!(sentence = sentence.trim()).isEmpty())
+					sentences.add(new ArrayList<String>(Arrays.asList(sentence.split("\\s+"))));
+			}
+			
+			return sentences;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.dependency.DEPNode;
+import com.googlecode.clearnlp.dependency.DEPTree;
+import com.googlecode.clearnlp.dependency.srl.SRLArc;
+import com.googlecode.clearnlp.util.UTInput;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class JointReaderTest
+{
+	@Test
+	public void testJointReader() throws Exception
+	{
+		String filename = "src/main/resources/sample/iphone5.txt.cnlp";
+		JointReader reader = new JointReader(0, 1, 2, 3, 4, 5, 6, -1, 7, -1, -1);
+		reader.open(UTInput.createBufferedFileReader(filename));
+		BufferedReader fin = UTInput.createBufferedFileReader(filename);
+		List<String> heads = new ArrayList<String>();
+		String[] tmp;
+		DEPTree tree;
+		DEPNode node;
+		String line;
+		int i;
+		
+		while ((tree = reader.next()) != null)
+		{
+			for (i=1; i<tree.size(); i++)
+			{
+				tmp  = fin.readLine().split("\t");
+				node = tree.get(i);
+				
+				assertEquals(Integer.parseInt(tmp[0]), node.id);
+				assertEquals(tmp[1], node.form);
+				assertEquals(tmp[2], node.lemma);
+				assertEquals(tmp[3], node.pos);
+				assertEquals(tmp[4], node.getFeats().toString());
+				assertEquals(Integer.parseInt(tmp[5]), node.getHead().id);
+				assertEquals(tmp[6], node.getLabel());
+				
+				heads.clear();
+				if (!tmp[7].equals(AbstractColumnReader.BLANK_COLUMN))
+					heads.addAll(Arrays.asList(tmp[7].split(";")));
+				
+				for (SRLArc arc : node.getSHeads())
+					assertEquals(true, heads.remove(arc.getNode().id+":"+arc.getLabel()));
+				
+				assertEquals(true, heads.isEmpty());
+			}
+			
+			while ((line = fin.readLine()) != null && !line.isEmpty());
+		}
+		
+		assertNull(fin.readLine());
+	}
+	
+	@Test
+	public void testColumnBuffer() throws Exception
+	{
+		String str = " \n\t\n1\ta\t_\t_\t\t\r\n2\tb\tpos=NN|lem=b\t0\n\n\n1\tc\t_\t_\r\r1\td\t_\t0";
+		DEPReader reader = new DEPReader(0, 1, 1, 1, 2, 3, 1);
+		reader.open(new BufferedReader(new StringReader(str)));
+		DEPTree tree;
+		DEPNode node;
+		
+		tree = reader.next();
+		assertEquals(3, tree.size());
+		node = tree.get(1);
+		assertEquals("a", node.form);
+		assertEquals("_", node.getFeats().toString());
+		assertEquals(false, node.hasHead());
+		node = tree.get(2);
+		assertEquals("lem=b|pos=NN", node.getFeats().toString());
+		assertEquals("NN", node.getFeat("pos"));
+		assertEquals(tree.get(0), node.getHead());
+		assertEquals("b", node.getLabel());
+		
+		tree = reader.next();
+		assertEquals(2, tree.size());
+		assertEquals("c", tree.get(1).form);
+		
+		tree = reader.next();
+		assertEquals(2, tree.size());
+		assertEquals("d", tree.get(1).form);
+		assertEquals(tree.get(0), tree.get(1).getHead());
+		
+		assertNull(reader.next());
+	}
+	
+	@Test
+	public void testParseInt()
+	{
+		String[] valid   = {"0", "-0", "+7", "2147483647", "-2147483648", "0002147483647"};
+		String[] invalid = {"", "-", "1a", "2147483648", "-2147483649", "99999999999"};
+		
+		for (String str : valid)
+			assertEquals(Integer.parseInt(str), parseInt(str));
+		
+		for (String str : invalid)
+		{
+			try
+			{
+				parseInt(str);
+				fail(str);
+			}
+			catch (NumberFormatException e) {}
+		}
+	}
+	
+	private int parseInt(String str)
+	{
+		ColumnBuffer buffer = new ColumnBuffer();
+		
+		for (char c : str.toCharArray())
+			buffer.addChar(c);
+		
+		return buffer.parseInt(0, buffer.getCharSize());
+	}
+	
+	@Test
+	public void testReadLines() throws Exception
+	{
+		String str = "a\tb\t\t\nc\t\td\n\n  \ne";
+		POSReader reader = new POSReader(0, 1);
+		reader.open(new BufferedReader(new StringReader(str)));
+		
+		List<String[]> lines = reader.readLines();
+		
+		assertEquals(2, lines.size());
+		assertEquals("[a, b]"  , Arrays.toString(lines.get(0)));
+		assertEquals("[c, , d]", Arrays.toString(lines.get(1)));
+		assertEquals("[e]"     , Arrays.toString(reader.readLines().get(0)));
+		assertNull(reader.readLines());
+	}
+}
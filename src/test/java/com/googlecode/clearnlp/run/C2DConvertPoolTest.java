@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.run;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.constituent.CTTree;
+import com.googlecode.clearnlp.conversion.AbstractC2DConverter;
+import com.googlecode.clearnlp.engine.EngineGetter;
+import com.googlecode.clearnlp.reader.AbstractReader;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class C2DConvertPoolTest
+{
+	final String HEADRULE_FILE = "src/main/resources/headrule/headrule_en_stanford.txt";
+	final String SAMPLE_FILE   = "src/main/resources/sample/ec-normalize-sample.txt";
+	final int    N_FILES       = 4;
+	
+	@Test
+	public void testParallelConversion() throws Exception
+	{
+		List<String[]> filenames = getFilenames();
+		AbstractC2DConverter c2d = EngineGetter.getC2DConverter(AbstractReader.LANG_EN, HEADRULE_FILE, null);
+		List<String> outputs = new ArrayList<String>();
+		int i;
+		
+		for (C2DFileReport report : new C2DConvert().convert(c2d, null, AbstractReader.LANG_EN, filenames, false, 1))
+		{
+			assertTrue(report.isSuccessful());
+			assertTrue(report.getTreeCount() > 1);
+			outputs.add(read(report.getOutputFile()));
+		}
+		
+		// the output of each file must be the same as converting sequentially
+		List<C2DFileReport> reports = new C2DConvert().convert(c2d, null, AbstractReader.LANG_EN, filenames, false, 4);
+		assertEquals(N_FILES, reports.size());
+		
+		for (i=0; i<N_FILES; i++)
+		{
+			assertEquals(filenames.get(i)[0], reports.get(i).getInputFile());
+			assertEquals(outputs.get(i), read(reports.get(i).getOutputFile()));
+		}
+	}
+	
+	@Test
+	public void testFailures() throws Exception
+	{
+		List<String[]> filenames = getFilenames();
+		filenames.add(new String[]{filenames.get(0)[0]+".missing", filenames.get(0)[1]+".missing"});
+		AbstractC2DConverter c2d = EngineGetter.getC2DConverter(AbstractReader.LANG_EN, HEADRULE_FILE, null);
+		
+		C2DFileConverter converter = new C2DFileConverter()
+		{
+			@Override
+			public C2DTreeConverter getTreeConverter(String inputFile)
+			{
+				return new C2DTreeConverter()
+				{
+					@Override
+					public String convert(AbstractC2DConverter c2d, AbstractComponent morph, CTTree cTree, int treeId)
+					{
+						if (treeId == 1)	throw new IllegalArgumentException("tree "+treeId);
+						if (treeId == 2)	return null;
+						return Integer.toString(treeId);
+					}
+				};
+			}
+		};
+		
+		for (int threads : new int[]{1, 3})
+		{
+			List<C2DFileReport> reports = new C2DConvertPool(c2d, null, threads).convert(filenames, converter);
+			C2DFileReport report;
+			int i;
+			
+			for (i=0; i<N_FILES; i++)
+			{
+				report = reports.get(i);
+				assertNull(report.getError());
+				assertEquals(1, report.getFailures().size());
+				assertEquals(1, report.getFailures().get(0).o1.intValue());
+				assertEquals(1, report.getSkipCount());
+				assertTrue(read(report.getOutputFile()).startsWith("0\n\n3\n\n"));
+			}
+			
+			assertTrue(reports.get(N_FILES).getError() != null);
+		}
+	}
+	
+	@Test
+	public void testReaderError() throws Exception
+	{
+		File input = File.createTempFile("c2d", ".parse");
+		input.deleteOnExit();
+		new File(input.getPath()+".dep").deleteOnExit();
+		Files.write("(TOP (S (NN a)))\n)(TOP (S (NN b)))\n", input, Charsets.UTF_8);
+		
+		List<String[]> filenames = new ArrayList<String[]>();
+		filenames.add(new String[]{input.getPath(), input.getPath()+".dep"});
+		AbstractC2DConverter c2d = EngineGetter.getC2DConverter(AbstractReader.LANG_EN, HEADRULE_FILE, null);
+		
+		C2DFileConverter converter = new C2DFileConverter()
+		{
+			@Override
+			public C2DTreeConverter getTreeConverter(String inputFile)
+			{
+				return new C2DTreeConverter()
+				{
+					@Override
+					public String convert(AbstractC2DConverter c2d, AbstractComponent morph, CTTree cTree, int treeId)
+					{
+						return Integer.toString(treeId);
+					}
+				};
+			}
+		};
+		
+		for (int threads : new int[]{1, 3})
+		{
+			C2DFileReport report = new C2DConvertPool(c2d, null, threads).convert(filenames, converter).get(0);
+			
+			// the malformed tree stops reading, which must not be reported as the end of the file
+			assertEquals(1, report.getTreeCount());
+			assertFalse(report.isSuccessful());
+			assertEquals(2 , report.getReaderError().getLineNumber());
+			assertEquals(17, report.getReaderError().getOffset());
+			assertTrue(report.toString().contains(report.getReaderError().toString()));
+		}
+	}
+	
+	private String read(String filename) throws Exception
+	{
+		return Files.toString(new File(filename), Charsets.UTF_8);
+	}
+	
+	private List<String[]> getFilenames() throws Exception
+	{
+		List<String[]> filenames = new ArrayList<String[]>();
+		File dir = new File(System.getProperty("java.io.tmpdir"), "c2d-"+System.nanoTime());
+		File input;
+		int i;
+		
+		dir.mkdirs();
+		dir.deleteOnExit();
+		
+		for (i=0; i<N_FILES; i++)
+		{
+			input = new File(dir, i+".parse");
+			Files.copy(new File(SAMPLE_FILE), input);
+			input.deleteOnExit();
+			new File(input.getPath()+".dep").deleteOnExit();
+			filenames.add(new String[]{input.getPath(), input.getPath()+".dep"});
+		}
+		
+		return filenames;
+	}
+}
@@ -40,13 +40,24 @@
  */
 package com.googlecode.clearnlp.segmentation;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+import org.junit.Test;
+
+import com.googlecode.clearnlp.tokenization.AbstractTokenizer;
 import com.googlecode.clearnlp.tokenization.EnglishTokenizer;
+import com.googlecode.clearnlp.tokenization.TokenSpan;
 import com.googlecode.clearnlp.util.UTArray;
 import com.googlecode.clearnlp.util.UTInput;
+import com.googlecode.clearnlp.util.pair.StringBooleanPair;
 
 /**
  * @since 1.1.0
@@ -63,4 +74,94 @@ public class EnglishSegmenterTest
 		for (List<String> sentence : tok.getSentences(fin))
 			System.out.println(UTArray.join(sentence, " "));
 	}
+	
+	@Test
+	public void testSentenceIterator()
+	{
+		EnglishSegmenter seg = new EnglishSegmenter(new SpaceTokenizer());
+		String text = "A b .\nC \" d ! \"\n\n( e ? ) f\ng\n";
+		Iterator<List<String>> it = seg.getSentenceIterator(new BufferedReader(new StringReader(text)));
+		
+		assertEquals("[A, b, .]", it.next().toString());
+		assertEquals("[C, \", d, !, \"]", it.next().toString());
+		assertEquals("[(, e, ?, )]", it.next().toString());
+		assertEquals("[f, g]", it.next().toString());
+		assertFalse(it.hasNext());
+		
+		assertEquals(4, seg.getSentences(new BufferedReader(new StringReader(text))).size());
+	}
+	
+	@Test
+	public void testSentenceSpanIterator()
+	{
+		EnglishSegmenter seg = new EnglishSegmenter(new SpaceTokenizer());
+		String text = "A b .\r\nC \" d ! \"\n\r( e ? ) f\rg\n";
+		Iterator<List<TokenSpan>> it = seg.getSentenceSpanIterator(text);
+		List<String> expected = new ArrayList<String>();
+		
+		expected.add("A:0-1 b:2-3 .:4-5 ");
+		expected.add("C:7-8 \":9-10 d:11-12 !:13-14 \":15-16 ");
+		expected.add("(:18-19 e:20-21 ?:22-23 ):24-25 ");
+		expected.add("f:26-27 g:28-29 ");
+		
+		for (String sentence : expected)
+			assertEquals(sentence, toString(it.next()));
+		
+		assertFalse(it.hasNext());
+		
+		// offsets relative to the reader
+		it = seg.getSentenceSpanIterator(new BufferedReader(new StringReader(text)));
+		
+		for (String sentence : expected)
+			assertEquals(sentence, toString(it.next()));
+		
+		assertFalse(it.hasNext());
+		
+		// the default implementation of AbstractSegmenter
+		AbstractSegmenter dft = new AbstractSegmenter(new SpaceTokenizer())
+		{
+			@Override
+			public List<List<String>> getSentences(BufferedReader fin)
+			{
+				return new EnglishSegmenter(g_tokenizer).getSentences(fin);
+			}
+		};
+		
+		it = dft.getSentenceSpanIterator(text);
+		
+		for (String sentence : expected)
+			assertEquals(sentence, toString(it.next()));
+		
+		assertFalse(it.hasNext());
+		it = dft.getSentenceSpanIterator(new BufferedReader(new StringReader(text)));
+		
+		for (String sentence : expected)
+			assertEquals(sentence, toString(it.next()));
+		
+		assertFalse(it.hasNext());
+	}
+	
+	private String toString(List<TokenSpan> sentence)
+	{
+		StringBuilder build = new StringBuilder();
+		
+		for (TokenSpan span : sentence)
+			build.append(span.getForm()+":"+span.getBeginOffset()+"-"+span.getEndOffset()+" ");
+		
+		return build.toString();
+	}
+	
+	class SpaceTokenizer extends AbstractTokenizer
+	{
+		@Override
+		public List<StringBooleanPair> getTokenList(String str)
+		{
+			List<StringBooleanPair> tokens = new ArrayList<StringBooleanPair>();
+			
+			for (String token : str.split(" "))
+				if (!token.isEmpty())	tokens.add(new StringBooleanPair(token, false));
+			
+			return tokens;
+		}
+	}
 }
@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, University of Massachusetts Amherst
+ * Copyright 2013/05-Present, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.googlecode.clearnlp.tokenization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import com.googlecode.clearnlp.util.pair.StringBooleanPair;
+
+/**
+ * Checks that {@link CompiledEnglishTokenizer} produces the same tokens as {@link EnglishTokenizer}.
+ * @since 1.4.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class CompiledEnglishTokenizerTest
+{
+	final String[] WORDS = {"can", "not", "cannot", "Cannot", "gonna", "wanna", "Prof.", "prof", "dr.", "Dr", "vs", "XD", ":-)", ":(", ":-))))))",
+							"wwwabc", "awwwxyz", "www.google.com", "google.com", "http://a.b/c?d=e", "mailto:a@b.com", "a@b.org", "index.html",
+							"he's", "didn't", "I'm", "they're", "3's", "'90", "1,000", "2.5", ".5", "6:7", "8-9", "0/1", "2.5km", "$3", "#1", "US$5",
+							"10usd", "dis-able", "re-do", "art-work", "-o-", "A&B", "a&b", "U.S.", "a.b.c.", "ab.cd.", "e.g.", "file.txt", "@user", "#tag",
+							"...", "?!", "--", "**", "==", "~~", ",,", "``", "''", "(", ")", "[", "]", "{", "}", "<", ">", ",", ":", ";", "\"",
+							"’s", "it’s", "“hi”", "_DPPD_0_", "_HYYN_", "PR0T_x", "a_b", "été", "Mr.Smith", "5'b", "a'6"};
+	
+	final String CHARS = "abcwWXDsnt019.,:;-/'\"()$#@&!?_%|`~*=’ ";
+	
+	@Test
+	public void testParity() throws IOException
+	{
+		Random rand = new Random(7);
+		int i;
+		
+		for (i=0; i<4; i++)
+		{
+			EnglishTokenizer         org = new EnglishTokenizer(getDictionary());
+			CompiledEnglishTokenizer cmp = new CompiledEnglishTokenizer(getDictionary());
+			
+			org.setTwit  (i % 2 == 1);	cmp.setTwit  (i % 2 == 1);
+			org.setUserID(i < 2);		cmp.setUserID(i < 2);
+			
+			for (String word : WORDS)
+				assertParity(org, cmp, word);
+			
+			assertParity(org, cmp, "");
+			assertParity(org, cmp, "  leading and trailing spaces \t");
+			
+			int j; for (j=0; j<500; j++)
+			{
+				assertParity(org, cmp, getRandomWords(rand));
+				assertParity(org, cmp, getRandomChars(rand));
+			}
+		}
+	}
+	
+	@Test
+	public void testCacheSize() throws IOException
+	{
+		EnglishTokenizer         org = new EnglishTokenizer(getDictionary());
+		CompiledEnglishTokenizer cmp = new CompiledEnglishTokenizer(getDictionary(), 32);
+		int i;
+		
+		for (i=0; i<1000; i++)
+		{
+			assertParity(org, cmp, "$"+i+" "+i+".5km");
+			assertTrue(cmp.getCacheSize() <= 32);
+		}
+		
+		// evicted words are tokenized again
+		for (i=0; i<1000; i++)
+			assertParity(org, cmp, "$"+i+" "+i+".5km");
+		
+		cmp.setTwit(true);
+		assertEquals(0, cmp.getCacheSize());
+	}
+	
+	@Test
+	public void testTokenSpans() throws IOException
+	{
+		String text = "  He said, \"I can't.\"\tDr. Smith's (U.S.) ";
+		
+		for (EnglishTokenizer tokenizer : new EnglishTokenizer[]{new EnglishTokenizer(getDictionary()), new CompiledEnglishTokenizer(getDictionary())})
+		{
+			assertEquals("He:2-4 said:5-9 ,:9-10 \":11-12 I:12-13 can't:14-19 .:19-20 \":20-21 Dr.:22-25 Smith:26-31 's:31-33 (:34-35 U.S.:35-39 ):39-40 ", toString(text, tokenizer.getTokenSpans(text)));
+			assertEquals("\":11-12 I:12-13 can't:14-19 .:19-20 \":20-21 ", toString(text, tokenizer.getTokenSpans(text, 11, 21)));
+		}
+		
+		// word-forms different from their source characters
+		AbstractTokenizer tokenizer = new AbstractTokenizer()
+		{
+			@Override
+			public List<StringBooleanPair> getTokenList(String str)
+			{
+				List<StringBooleanPair> tokens = new ArrayList<StringBooleanPair>();
+				
+				for (String token : str.replace("\u201C", "\"").replace("\u2026", "...").split(" |(?<=\")|(?=\\.\\.\\.)"))
+					if (!token.isEmpty()) tokens.add(new StringBooleanPair(token, false));
+				
+				return tokens;
+			}
+		};
+		
+		text = "\u201CHi there\u2026 \u2026 \u201C";
+		assertEquals("\":0-1 Hi:1-3 there:4-9 ...:9-10 ...:11-12 \":13-14 ", toString(text, tokenizer.getTokenSpans(text)));
+		
+		// offsets relative to the document containing the text
+		List<TokenSpan> spans = tokenizer.getTokenSpans(text, 0, text.length(), 10);
+		assertEquals(10, spans.get(0).getBeginOffset());
+		assertEquals(24, spans.get(5).getEndOffset());
+		assertEquals("\u201C", spans.get(5).toString());
+	}
+	
+	private String toString(String text, List<TokenSpan> spans)
+	{
+		StringBuilder build = new StringBuilder();
+		
+		for (TokenSpan span : spans)
+		{
+			assertEquals(text.substring(span.getBeginOffset(), span.getEndOffset()), span.toString());
+			build.append(span.getForm()+":"+span.getBeginOffset()+"-"+span.getEndOffset()+" ");
+		}
+		
+		return build.toString();
+	}
+	
+	private void assertParity(EnglishTokenizer org, CompiledEnglishTokenizer cmp, String str)
+	{
+		String expected = getTokens(org, str);
+		
+		assertEquals(str, expected, getTokens(cmp, str));
+		assertEquals(str, expected, getTokens(cmp, str));	// cached
+	}
+	
+	/** Exceptions thrown by the original tokenizer (e.g., empty tokens in twits) must be thrown by the compiled one as well. */
+	private String getTokens(EnglishTokenizer tokenizer, String str)
+	{
+		try
+		{
+			return toString(tokenizer.getTokenList(str));
+		}
+		catch (RuntimeException e)
+		{
+			return e.getClass().getName();
+		}
+	}
+	
+	private String toString(List<StringBooleanPair> tokens)
+	{
+		StringBuilder build = new StringBuilder();
+		
+		for (StringBooleanPair token : tokens)
+		{
+			build.append(token.s);
+			build.append(token.b ? "/T " : "/F ");
+		}
+		
+		return build.toString();
+	}
+	
+	private String getRandomWords(Random rand)
+	{
+		StringBuilder build = new StringBuilder();
+		int i, size = rand.nextInt(12);
+		
+		for (i=0; i<size; i++)
+		{
+			build.append(WORDS[rand.nextInt(WORDS.length)]);
+			if (rand.nextInt(4) == 0)	build.append(WORDS[rand.nextInt(WORDS.length)]);
+			build.append(rand.nextInt(8) == 0 ? "\t " : " ");
+		}
+		
+		return build.toString();
+	}
+	
+	private String getRandomChars(Random rand)
+	{
+		StringBuilder build = new StringBuilder();
+		int i, size = rand.nextInt(30);
+		
+		for (i=0; i<size; i++)
+			build.append(CHARS.charAt(rand.nextInt(CHARS.length())));
+		
+		return build.toString();
+	}
+	
+	/** @return a small dictionary in the format of the ClearNLP dictionary. */
+	private ZipInputStream getDictionary() throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ZipOutputStream zout = new ZipOutputStream(bout);
+		
+		putEntry(zout, "tokenize/emoticons.txt"    , ":-)\n:(\nXD\n:-))))))\n");
+		putEntry(zout, "tokenize/abbreviations.txt", "prof.\ndr.\ndr\nmr.\ne.g.\nvs\n");
+		putEntry(zout, "tokenize/hyphens.txt"      , "^(dis|cross|re)-\n-(o|e)-\n");
+		putEntry(zout, "tokenize/compounds.txt"    , "can not\ngon na\nwan na\nd' ye\n");
+		putEntry(zout, "tokenize/units.txt"        , "(#|\\$)\n(usd|us\\$|c\\$|\\$)\n(km|kg|mph|cm|m)\n");
+		putEntry(zout, "tokenize/non-utf8.txt"     , "’\t'\n“\t\"\n”\t\"\n");
+		zout.close();
+		
+		return new ZipInputStream(new ByteArrayInputStream(bout.toByteArray()));
+	}
+	
+	private void putEntry(ZipOutputStream zout, String name, String content) throws IOException
+	{
+		zout.putNextEntry(new ZipEntry(name));
+		zout.write(content.getBytes("UTF-8"));
+		zout.closeEntry();
+	}
+}